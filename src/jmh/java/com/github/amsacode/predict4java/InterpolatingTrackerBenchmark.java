@@ -0,0 +1,64 @@
+package com.github.amsacode.predict4java;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of one 50Hz tracking sample (azimuth, elevation, range and
+ * range rate) calculated by direct propagation against the cost when
+ * interpolated by an {@link InterpolatingTracker} with a 10 second step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpolatingTrackerBenchmark {
+
+	private static final long START = 1261785600000L;
+	private static final long SAMPLE_MILLIS = 20;
+
+	private final double[] state = new double[6];
+	private final double[] obs = new double[4];
+	private Satellite satellite;
+	private InterpolatingTracker tracker;
+	private long time;
+
+	@Setup
+	public void setup() {
+		satellite = SatelliteFactory.createSatellite(new TLE(
+				AbstractSatelliteTestBase.LEO_TLE));
+		tracker = new InterpolatingTracker(satellite,
+				AbstractSatelliteTestBase.GROUND_STATION, 10000);
+		time = START;
+	}
+
+	@Benchmark
+	public double[] direct() {
+		time += SAMPLE_MILLIS;
+		AbstractSatellite.stateVectors(satellite)
+				.calculateSatelliteVectors(time, state);
+		AbstractSatellite.calculateObs(AbstractSatellite.julianDateUTC(time),
+				state, AbstractSatelliteTestBase.GROUND_STATION, obs);
+		return obs;
+	}
+
+	@Benchmark
+	public double[] interpolated() {
+		time += SAMPLE_MILLIS;
+		tracker.calculateObs(time, obs);
+		return obs;
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.github.amsacode.predict4java;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of propagating a catalog of satellites, either all
+ * near earth (SGP4 only) or one in four deep space (SGP4 and SDP4 through the
+ * same call sites), through {@link Satellite} and through the
+ * {@link Propagator} kernels directly, in full and secular only.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropagationBenchmark {
+
+	private static final long START = 1261785600000L;
+	private static final int SATELLITES = 100;
+
+	@Param({ "false", "true" })
+	public boolean mixed;
+
+	private final double[] state = new double[Propagator.OUT_LENGTH];
+	private final Satellite[] satellites = new Satellite[SATELLITES];
+	private final Propagator[] propagators = new Propagator[SATELLITES];
+	private final Propagator[] secular = new Propagator[SATELLITES];
+	private long time;
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < SATELLITES; i++) {
+			final String[] lines;
+			if (mixed && i % 4 == 0) {
+				lines = AbstractSatelliteTestBase.DEEP_SPACE_TLE;
+			} else if (i % 2 == 0) {
+				lines = AbstractSatelliteTestBase.LEO_TLE;
+			} else {
+				lines = AbstractSatelliteTestBase.WEATHER_TLE;
+			}
+			final TLE tle = new TLE(lines);
+			satellites[i] = SatelliteFactory.createSatellite(tle);
+			propagators[i] = tle.isDeepspace() ? new SDP4(tle) : new SGP4(tle);
+			secular[i] = tle.isDeepspace() ? new SDP4(tle, true,
+					Precision.EXACT) : new SGP4(tle, true, Precision.EXACT);
+		}
+		time = START;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SATELLITES)
+	public double satellites() {
+		time += 1000;
+		double sum = 0;
+		for (final Satellite satellite : satellites) {
+			AbstractSatellite.stateVectors(satellite)
+					.calculateSatelliteVectors(time, state);
+			sum += state[0];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SATELLITES)
+	public double kernels() {
+		time += 1000;
+		final double tsince = (time - START) / 60000.0;
+		double sum = 0;
+		for (final Propagator propagator : propagators) {
+			propagator.propagate(tsince, state);
+			sum += state[0];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SATELLITES)
+	public double secularKernels() {
+		time += 1000;
+		final double tsince = (time - START) / 60000.0;
+		double sum = 0;
+		for (final Propagator propagator : secular) {
+			propagator.propagate(tsince, state);
+			sum += state[0];
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of a snapshot of a catalog of near earth satellites
+ * propagated one {@link Satellite} at a time and by {@link SGP4Batch}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SGP4BatchBenchmark {
+
+	private static final long START = 1261785600000L;
+	private static final int SATELLITES = 10000;
+
+	private final Satellite[] satellites = new Satellite[SATELLITES];
+	private final double[] state = new double[6];
+	private final double[] states = new double[6 * SATELLITES];
+	private SGP4Batch batch;
+	private long time;
+
+	@Setup
+	public void setup() {
+		final List<TLE> tles = new ArrayList<TLE>();
+		for (int i = 0; i < SATELLITES; i++) {
+			final TLE tle = new TLE(i % 2 == 0 ? AbstractSatelliteTestBase.LEO_TLE
+					: AbstractSatelliteTestBase.WEATHER_TLE);
+			tles.add(tle);
+			satellites[i] = SatelliteFactory.createSatellite(tle);
+		}
+		batch = new SGP4Batch(tles);
+		time = START;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SATELLITES)
+	public double satellites() {
+		time += 1000;
+		double sum = 0;
+		for (final Satellite satellite : satellites) {
+			AbstractSatellite.stateVectors(satellite)
+					.calculateSatelliteVectors(time, state);
+			sum += state[0];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SATELLITES)
+	public double batch() {
+		time += 1000;
+		batch.propagate(time, states);
+		return states[0];
+	}
+
+}
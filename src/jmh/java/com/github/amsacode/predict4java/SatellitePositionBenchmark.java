@@ -0,0 +1,72 @@
+package com.github.amsacode.predict4java;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Satellite#getPosition(GroundStationPosition, Date)} and
+ * {@link AbstractSatellite#calculateSatelliteVectors(long, double[])}. Run with
+ * <code>-Djmh.args="SatellitePosition -prof gc"</code> to see the allocation
+ * per call, which for getPosition is the returned {@link SatPos} alone and
+ * for calculateSatelliteVectors is nothing. Escape analysis is disabled in
+ * the fork so that the allocation is not hidden by the JIT. Each is measured
+ * with both {@link Precision}s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:-DoEscapeAnalysis")
+public class SatellitePositionBenchmark {
+
+	private static final long START = 1261785600000L;
+
+	@Param({ "LEO", "DEEP_SPACE" })
+	public String orbit;
+
+	@Param({ "EXACT", "FAST" })
+	public Precision precision;
+
+	private final double[] state = new double[6];
+	private final Date date = new Date(START);
+	private Satellite satellite;
+	private long time;
+
+	@Setup
+	public void setup() {
+		satellite = SatelliteFactory.createSatellite(new TLE(
+				"LEO".equals(orbit) ? AbstractSatelliteTestBase.LEO_TLE
+						: AbstractSatelliteTestBase.DEEP_SPACE_TLE), precision);
+		time = START;
+	}
+
+	@Benchmark
+	public SatPos getPosition() {
+		time += 1000;
+		date.setTime(time);
+		return satellite.getPosition(AbstractSatelliteTestBase.GROUND_STATION,
+				date);
+	}
+
+	@Benchmark
+	public double[] calculateSatelliteVectors() {
+		time += 1000;
+		AbstractSatellite.stateVectors(satellite)
+				.calculateSatelliteVectors(time, state);
+		return state;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what is overhead of a station for a catalog of 30000 near earth
+ * satellites, by {@link SkyQuery} (an update and a query, a query alone) and
+ * by {@link Satellite#getPosition(GroundStationPosition, Date)} of every
+ * satellite.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkyQueryBenchmark {
+
+	private static final long START = 1261785600000L;
+	private static final int SATELLITES = 30000;
+
+	private final List<Satellite> satellites = new ArrayList<Satellite>();
+	private SkyQuery query;
+	private long time;
+
+	@Setup
+	public void setup() {
+		final String[] leo = AbstractSatelliteTestBase.LEO_TLE;
+		for (int i = 0; i < SATELLITES; i++) {
+			final String line2 = leo[2].substring(0, 17)
+					+ String.format(Locale.ENGLISH, "%08.4f",
+							(i * 7.3) % 360)
+					+ leo[2].substring(25, 43)
+					+ String.format(Locale.ENGLISH, "%08.4f",
+							(i * 13.7) % 360) + leo[2].substring(51);
+			satellites.add(SatelliteFactory.createSatellite(new TLE(
+					new String[] { leo[0], leo[1], line2 })));
+		}
+		query = new SkyQuery(satellites, 0);
+		time = START;
+		query.update(time);
+	}
+
+	@Benchmark
+	public int updateAndQuery() {
+		time += 1000;
+		query.update(time);
+		return query.query(AbstractSatelliteTestBase.GROUND_STATION).size();
+	}
+
+	@Benchmark
+	public int query() {
+		return query.query(AbstractSatelliteTestBase.GROUND_STATION).size();
+	}
+
+	@Benchmark
+	public int getPositionOfEverySatellite() {
+		time += 1000;
+		final Date date = new Date(time);
+		int count = 0;
+		for (final Satellite satellite : satellites) {
+			if (satellite.getPosition(AbstractSatelliteTestBase.GROUND_STATION,
+					date).getElevation() >= 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
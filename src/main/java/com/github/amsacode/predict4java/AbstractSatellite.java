@@ -39,13 +39,16 @@ package com.github.amsacode.predict4java;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
-import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.davidmoten.guavamini.Preconditions;
 
 /**
  * Not thread safe!
  */
-public abstract class AbstractSatellite implements Satellite {
+public abstract class AbstractSatellite implements Satellite,
+		StateVectorSource {
 
 	private static final double MINS_PER_DAY = 1.44E3;
 	private static final double PI_OVER_TWO = Math.PI / 2.0;
@@ -74,36 +77,49 @@ public abstract class AbstractSatellite implements Satellite {
 	/* Solar radius - km (IAU 76) */
 	protected static final double SOLAR_RADIUS = 6.96000E5;
 
-	private double s4;
-	private double qoms24;
-	private double perigee;
-
 	private final TLE tle;
 
 	private double eclipseDepth;
 
-	/**
-	 * Position vector of the satellite. Used to store the position for later
-	 * calculations.
-	 */
-	private final Vector4 position = new Vector4();
-	/**
-	 * Velocity vector of the satellite. Used to store the velocity for later
-	 * calculations.
-	 */
-	private final Vector4 velocity = new Vector4();
 	/** Date/time at which the position and velocity were calculated */
 	private double julUTC;
 	/** Satellite position. Used to store the SatPos for later calculations. */
 	private SatPos satPos;
+	/**
+	 * ECI position and velocity {x, y, z, vx, vy, vz} and phase of the
+	 * satellite calculated by the last propagation, in km and km/s once
+	 * converted by {@link #convertSatState(double[])}. Magnitudes are
+	 * calculated only where they are needed.
+	 */
+	private final double[] state = new double[Propagator.OUT_LENGTH];
+	/** Scratch azimuth, elevation, range and range rate. */
+	private final double[] obs = new double[4];
+	/** Scratch latitude, longitude and altitude. */
+	private final double[] geodetic = new double[3];
+	/** Scratch ECI position of the sun. */
+	private final double[] sun = new double[3];
 
 	/** The time at which we do all the calculations. */
 	static final TimeZone TZ = TimeZone.getTimeZone("UTC:UTC");
 
+	/** Number of station terms written by stationTerms. */
+	static final int STATION_TERMS = 5;
+
+	/** 31Dec79 00:00:00 UTC (daynum 0) in milliseconds since 1970. */
+	private static final long SGP4_EPOCH_MILLIS;
+	static {
+		final Calendar sgp4Epoch = Calendar.getInstance(TZ);
+		sgp4Epoch.clear();
+		sgp4Epoch.set(1979, 11, 31, 0, 0, 0);
+		SGP4_EPOCH_MILLIS = sgp4Epoch.getTimeInMillis();
+	}
+
 	private final double julEpoch;
+	private final Propagator propagator;
 
-	public AbstractSatellite(final TLE tle) {
+	AbstractSatellite(final TLE tle, final Propagator propagator) {
 		this.tle = tle;
+		this.propagator = propagator;
 		julEpoch = AbstractSatellite.juliandDateOfEpoch(tle.getEpoch());
 	}
 
@@ -176,53 +192,100 @@ public abstract class AbstractSatellite implements Satellite {
 	 * @return the number of days offset
 	 */
 	private static double calcCurrentDaynum(final Date date) {
+		return calcCurrentDaynum(date.getTime());
+	}
 
-		final long now = date.getTime();
-
-		final Calendar sgp4Epoch = Calendar.getInstance(TZ);
-		sgp4Epoch.clear();
-		sgp4Epoch.set(1979, 11, 31, 0, 0, 0);
-		final long then = sgp4Epoch.getTimeInMillis();
-		final long millis = now - then;
+	private static double calcCurrentDaynum(final long now) {
+		final long millis = now - SGP4_EPOCH_MILLIS;
 		return millis / 1000.0 / 60.0 / 60.0 / 24.0;
 	}
 
 	/**
-	 * Returns the square of a double.
-	 * 
-	 * @param arg
-	 *            the value for which to get the double
-	 * @return the arg squared
+	 * Returns the allocation free propagation of a satellite, which must be
+	 * created by {@link SatelliteFactory} or otherwise extend this class.
 	 */
-	protected static double sqr(final double arg) {
+	static StateVectorSource stateVectors(final Satellite satellite) {
+		Preconditions.checkArgument(satellite instanceof StateVectorSource,
+				"satellite must be created by SatelliteFactory");
+		return (StateVectorSource) satellite;
+	}
 
-		return arg * arg;
+	/**
+	 * Returns a new satellite with the same element set, of the same kind and
+	 * precision for the satellites of this library, so that it can be
+	 * propagated without changing the last position calculated by the given
+	 * one.
+	 */
+	static Satellite copyOf(final Satellite satellite) {
+		final TLE tle = satellite.getTLE();
+		if (satellite instanceof SecularSatellite) {
+			return new SecularSatellite(tle,
+					((AbstractSatellite) satellite).propagator.precision);
+		} else if (satellite instanceof AbstractSatellite) {
+			return SatelliteFactory.createSatellite(tle,
+					((AbstractSatellite) satellite).propagator.precision);
+		} else {
+			return SatelliteFactory.createSatellite(tle);
+		}
+	}
+
+	/**
+	 * Returns the precision a satellite of this library propagates with, or
+	 * null for other implementations of {@link Satellite}.
+	 */
+	static Precision precisionOf(final Satellite satellite) {
+		return satellite instanceof AbstractSatellite
+				? ((AbstractSatellite) satellite).propagator.precision
+				: null;
 	}
 
 	/**
-	 * Calculates scalar magnitude of a vector4 argument.
+	 * Returns {@link #stateVectors(Satellite)} of each of the satellites.
+	 */
+	static StateVectorSource[] stateVectors(
+			final List<? extends Satellite> satellites) {
+		final StateVectorSource[] vectors = new StateVectorSource[satellites
+				.size()];
+		for (int i = 0; i < vectors.length; i++) {
+			vectors[i] = stateVectors(satellites.get(i));
+		}
+		return vectors;
+	}
+
+	/**
+	 * Returns the Julian date (UTC) of the given time.
 	 * 
-	 * @param v
-	 *            the vector were measuring
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @return the Julian date
+	 */
+	static double julianDateUTC(final long timeMillis) {
+		return AbstractSatellite.calcCurrentDaynum(timeMillis) + 2444238.5;
+	}
+
+	/**
+	 * Returns the epoch of the TLE.
 	 * 
+	 * @param tle
+	 *            the three line elements
+	 * @return the epoch in milliseconds since 1970-01-01T00:00:00Z
 	 */
-	protected static void magnitude(final Vector4 v) {
-		v.setW(Math.sqrt(AbstractSatellite.sqr(v.getX())
-				+ AbstractSatellite.sqr(v.getY())
-				+ AbstractSatellite.sqr(v.getZ())));
+	static long epochMillis(final TLE tle) {
+		return SGP4_EPOCH_MILLIS
+				+ Math.round((AbstractSatellite.juliandDateOfEpoch(tle
+						.getEpoch()) - 2444238.5) * SECS_PER_DAY * 1000.0);
 	}
 
 	/**
-	 * Multiplies the vector v1 by the scalar k.
+	 * Returns the square of a double.
 	 * 
-	 * @param k
-	 *            the multiplier
-	 * @param v
-	 *            the vector
+	 * @param arg
+	 *            the value for which to get the double
+	 * @return the arg squared
 	 */
-	private static void scaleVector(final double k, final Vector4 v) {
-		v.multiply(k);
-		AbstractSatellite.magnitude(v);
+	protected static double sqr(final double arg) {
+
+		return arg * arg;
 	}
 
 	/**
@@ -254,7 +317,7 @@ public abstract class AbstractSatellite implements Satellite {
 		return arg - Math.floor(arg);
 	}
 
-	private static double thetaGJD(final double theJD) {
+	static double thetaGJD(final double theJD) {
 		/* Reference: The 1992 Astronomical Almanac, page B6. */
 
 		final double ut = AbstractSatellite.frac(theJD + 0.5);
@@ -268,20 +331,6 @@ public abstract class AbstractSatellite implements Satellite {
 		return TWO_PI * gmst / SECS_PER_DAY;
 	}
 
-	/**
-	 * Calculates the dot product of two vectors.
-	 * 
-	 * @param v1
-	 *            vector 1
-	 * @param v2
-	 *            vector 2
-	 * @return the dot product
-	 */
-	private static double dot(final Vector4 v1, final Vector4 v2) {
-		return v1.getX() * v2.getX() + v1.getY() * v2.getY() + v1.getZ()
-				* v2.getZ();
-	}
-
 	/**
 	 * Calculates the modulus of 2 * PI.
 	 * 
@@ -316,18 +365,50 @@ public abstract class AbstractSatellite implements Satellite {
 	 */
 	private void calculateLatLonAlt(final double time) {
 
-		calculateLatLonAlt(time, satPos, position);
+		final Precision precision = propagator.precision;
+		satPos.setTheta(precision.atan2(state[1], state[0]));
+		calculateLatLonAlt(precision, time, state[0], state[1], state[2],
+				geodetic);
+		satPos.setLatitude(geodetic[0]);
+		satPos.setLongitude(geodetic[1]);
+		satPos.setAltitude(geodetic[2]);
+	}
+
+	/**
+	 * Calculates the geodetic position of an object given its ECI position
+	 * and time without allocating, see {@link #calculateLatLonAlt(double)}.
+	 * 
+	 * @param julianUTC
+	 *            Julian date of UTC
+	 * @param x
+	 *            ECI x (km)
+	 * @param y
+	 *            ECI y (km)
+	 * @param z
+	 *            ECI z (km)
+	 * @param geodetic
+	 *            receives latitude (radians), longitude (radians, 0 to 2 PI)
+	 *            and altitude (km) in that order
+	 */
+	static void calculateLatLonAlt(final double julianUTC, final double x,
+			final double y, final double z, final double[] geodetic) {
+		calculateLatLonAlt(Precision.EXACT, julianUTC, x, y, z, geodetic);
 	}
 
-	private void calculateLatLonAlt(final double time, SatPos satPos,
-			Vector4 position) {
-		satPos.setTheta(Math.atan2(position.getY(), position.getX()));
-		satPos.setLongitude(AbstractSatellite.mod2PI(satPos.getTheta()
-				- AbstractSatellite.thetaGJD(time)));
-		final double r = Math.sqrt(AbstractSatellite.sqr(position.getX())
-				+ AbstractSatellite.sqr(position.getY()));
+	/**
+	 * As {@link #calculateLatLonAlt(double, double, double, double, double[])}
+	 * with trigonometric functions of the given precision.
+	 */
+	static void calculateLatLonAlt(final Precision precision,
+			final double julianUTC, final double x, final double y,
+			final double z, final double[] geodetic) {
+		final double theta = precision.atan2(y, x);
+		final double longitude = AbstractSatellite.mod2PI(theta
+				- AbstractSatellite.thetaGJD(julianUTC));
+		final double r = Math.sqrt(AbstractSatellite.sqr(x)
+				+ AbstractSatellite.sqr(y));
 		final double e2 = FLATTENING_FACTOR * (2.0 - FLATTENING_FACTOR);
-		satPos.setLatitude(Math.atan2(position.getZ(), r));
+		double latitude = precision.atan2(z, r);
 
 		double phi;
 		double c;
@@ -335,41 +416,43 @@ public abstract class AbstractSatellite implements Satellite {
 		boolean converged = false;
 
 		do {
-			phi = satPos.getLatitude();
-			c = invert(Math.sqrt(1.0 - e2 * sqr(Math.sin(phi))));
-			satPos.setLatitude(Math.atan2(position.getZ() + EARTH_RADIUS_KM * c
-					* e2 * Math.sin(phi), r));
+			phi = latitude;
+			final double sinPhi = precision.sin(phi);
+			c = invert(Math.sqrt(1.0 - e2 * sqr(sinPhi)));
+			latitude = precision.atan2(z + EARTH_RADIUS_KM * c * e2 * sinPhi,
+					r);
 
-			converged = Math.abs(satPos.getLatitude() - phi) < EPSILON;
+			converged = Math.abs(latitude - phi) < EPSILON;
 
 		} while (i++ < 10 && !converged);
 
-		satPos.setAltitude(r / Math.cos(satPos.getLatitude()) - EARTH_RADIUS_KM
-				* c);
+		final double altitude = r / precision.cos(latitude) - EARTH_RADIUS_KM
+				* c;
 
-		double temp = satPos.getLatitude();
-
-		if (temp > PI_OVER_TWO) {
-			temp -= TWO_PI;
-			satPos.setLatitude(temp);
+		if (latitude > PI_OVER_TWO) {
+			latitude -= TWO_PI;
 		}
+		geodetic[0] = latitude;
+		geodetic[1] = longitude;
+		geodetic[2] = altitude;
 	}
 
 	/**
 	 * Converts the satellite'S position and velocity vectors from normalized
 	 * values to km and km/sec.
 	 * 
-	 * @param pos
-	 *            the position
-	 * @param vel
-	 *            the velocity
+	 * @param state
+	 *            the position and velocity
 	 */
-	private static void convertSatState(final Vector4 pos, final Vector4 vel) {
+	private static void convertSatState(final double[] state) {
 		/* Converts the satellite'S position and velocity */
 		/* vectors from normalized values to km and km/sec */
-		AbstractSatellite.scaleVector(EARTH_RADIUS_KM, pos);
-		AbstractSatellite.scaleVector(EARTH_RADIUS_KM * MINS_PER_DAY
-				/ SECS_PER_DAY, vel);
+		final double velocityScale = EARTH_RADIUS_KM * MINS_PER_DAY
+				/ SECS_PER_DAY;
+		for (int i = 0; i < 3; i++) {
+			state[i] *= EARTH_RADIUS_KM;
+			state[i + 3] *= velocityScale;
+		}
 	}
 
 	@Override
@@ -386,21 +469,16 @@ public abstract class AbstractSatellite implements Satellite {
 
 		final double tsince = (julUTC - julEpoch) * MINS_PER_DAY;
 
-		calculateSDP4orSGP4(tsince);
+		propagate(tsince);
+		satPos.setPhase(state[6]);
 
 		/* Scale position and velocity vectors to km and km/sec */
-		AbstractSatellite.convertSatState(position, velocity);
-
-		/* Calculate velocity of satellite */
-
-		AbstractSatellite.magnitude(velocity);
-
-		final Vector4 squintVector = new Vector4();
+		AbstractSatellite.convertSatState(state);
 
 		//
 		// /** All angles in rads. Distance in km. Velocity in km/S **/
 		// /* Calculate satellite Azi, Ele, Range and Range-rate */
-		calculateObs(julUTC, position, velocity, gsPos, squintVector);
+		calculateObs(julUTC, gsPos);
 		//
 		/* Calculate satellite Lat North, Lon East and Alt. */
 
@@ -414,56 +492,6 @@ public abstract class AbstractSatellite implements Satellite {
 		return satPos;
 	}
 
-	private void calculateSDP4orSGP4(final double tsince) {
-		if (tle.isDeepspace()) {
-			((DeepSpaceSatellite) this).calculateSDP4(tsince);
-		} else {
-			((LEOSatellite) this).calculateSGP4(tsince);
-		}
-	}
-
-	/**
-	 * Calculate_User_PosVel() passes the user'S observer position and the time
-	 * of interest and returns the ECI position and velocity of the observer.
-	 * The velocity calculation assumes the observer position is stationary
-	 * relative to the earth'S surface.
-	 * 
-	 * Reference: The 1992 Astronomical Almanac, page K11.
-	 * 
-	 * @param time
-	 *            the time
-	 * @param gsPos
-	 *            the ground station position
-	 * @param obsPos
-	 *            the position of the observer
-	 * @param obsVel
-	 *            the velocity of the observer
-	 */
-	private static void calculateUserPosVel(final double time,
-			final GroundStationPosition gsPos,
-			AtomicReference<Double> gsPosTheta, final Vector4 obsPos,
-			final Vector4 obsVel) {
-
-		gsPosTheta.set(AbstractSatellite.mod2PI(AbstractSatellite
-				.thetaGJD(time) + DEG2RAD * gsPos.getLongitude()));
-		final double c = AbstractSatellite
-				.invert(Math.sqrt(1.0
-						+ FLATTENING_FACTOR
-						* (FLATTENING_FACTOR - 2)
-						* AbstractSatellite.sqr(Math.sin(DEG2RAD
-								* gsPos.getLatitude()))));
-		final double sq = AbstractSatellite.sqr(1.0 - FLATTENING_FACTOR) * c;
-		final double achcp = (EARTH_RADIUS_KM * c + (gsPos.getHeightAMSL() / 1000.0))
-				* Math.cos(DEG2RAD * gsPos.getLatitude());
-		obsPos.setXYZ(achcp * Math.cos(gsPosTheta.get()),
-				achcp * Math.sin(gsPosTheta.get()),
-				(EARTH_RADIUS_KM * sq + (gsPos.getHeightAMSL() / 1000.0))
-						* Math.sin(DEG2RAD * gsPos.getLatitude()));
-		obsVel.setXYZ(-MFACTOR * obsPos.getY(), MFACTOR * obsPos.getX(), 0);
-		AbstractSatellite.magnitude(obsPos);
-		AbstractSatellite.magnitude(obsVel);
-	}
-
 	/**
 	 * The procedures Calculate_Obs and Calculate_RADec calculate thetopocentric
 	 * coordinates of the object with ECI position, {pos}, and velocity, {vel},
@@ -482,55 +510,160 @@ public abstract class AbstractSatellite implements Satellite {
 	 * 
 	 * @param julianUTC
 	 *            Julian date of UTC
-	 * @param positionVector
-	 *            the position vector
-	 * @param velocityVector
-	 *            the velocity vector
 	 * @param gsPos
 	 *            the ground tstation position
-	 * @param squintVector
-	 *            the squint vector
-	 * @param satellitePosition
-	 *            the satellite position
 	 * 
 	 */
 	private void calculateObs(final double julianUTC,
-			final Vector4 positionVector, final Vector4 velocityVector,
-			final GroundStationPosition gsPos, final Vector4 squintVector) {
+			final GroundStationPosition gsPos) {
 
-		final Vector4 obsPos = new Vector4();
-		final Vector4 obsVel = new Vector4();
-		final Vector4 range = new Vector4();
-		final Vector4 rgvel = new Vector4();
+		AbstractSatellite.calculateObs(propagator.precision, julianUTC, state,
+				gsPos, obs);
 
-		AtomicReference<Double> gsPosTheta = new AtomicReference<Double>();
-		AbstractSatellite.calculateUserPosVel(julianUTC, gsPos, gsPosTheta,
-				obsPos, obsVel);
+		satPos.setAzimuth(obs[0]);
+		satPos.setElevation(obs[1]);
+		satPos.setRange(obs[2]);
+		satPos.setRangeRate(obs[3]);
 
-		range.setXYZ(positionVector.getX() - obsPos.getX(),
-				positionVector.getY() - obsPos.getY(), positionVector.getZ()
-						- obsPos.getZ());
+		final int sector = (int) (satPos.getAzimuth() / TWO_PI * 360.0 / 10.0);
 
-		/* Save these values globally for calculating squint angles later... */
+		double elevation = (satPos.getElevation() / Satellite.TWO_PI) * 360.0;
 
-		squintVector.setXYZ(range.getX(), range.getY(), range.getZ());
+		if (elevation > 90) {
+			elevation = 180 - elevation;
+		}
 
-		rgvel.setXYZ(velocityVector.getX() - obsVel.getX(),
-				velocityVector.getY() - obsVel.getY(), velocityVector.getZ()
-						- obsVel.getZ());
+		satPos.setAboveHorizon((elevation - gsPos.getHorizonElevation(sector)) > EPSILON);
+	}
 
-		AbstractSatellite.magnitude(range);
+	/**
+	 * Calculates the azimuth, elevation, range and range rate of an object with
+	 * the given ECI state as seen from a ground station. The observer position
+	 * and velocity (Calculate_User_PosVel) assume the observer is stationary
+	 * relative to the earth's surface. Nothing is allocated so this can be used
+	 * in tight loops.
+	 * 
+	 * Reference: The 1992 Astronomical Almanac, page K11.
+	 * 
+	 * @param julianUTC
+	 *            Julian date of UTC
+	 * @param state
+	 *            ECI position (km) and velocity (km/s) as {x, y, z, vx, vy, vz}
+	 * @param gsPos
+	 *            the ground station position
+	 * @param obs
+	 *            receives azimuth (radians), elevation (radians), range (km)
+	 *            and range rate (km/s) in that order
+	 */
+	static void calculateObs(final double julianUTC, final double[] state,
+			final GroundStationPosition gsPos, final double[] obs) {
+		calculateObs(Precision.EXACT, julianUTC, state, gsPos, obs);
+	}
+
+	/**
+	 * As
+	 * {@link #calculateObs(double, double[], GroundStationPosition, double[])}
+	 * with trigonometric functions of the given precision.
+	 */
+	static void calculateObs(final Precision precision,
+			final double julianUTC, final double[] state,
+			final GroundStationPosition gsPos, final double[] obs) {
+		final double sinLat = precision.sin(DEG2RAD * gsPos.getLatitude());
+		final double cosLat = precision.cos(DEG2RAD * gsPos.getLatitude());
+		calculateObs(precision, julianUTC, state, DEG2RAD
+				* gsPos.getLongitude(), sinLat, cosLat, stationRadialKm(gsPos,
+				sinLat, cosLat), stationZKm(gsPos, sinLat), obs);
+	}
 
+	/**
+	 * Writes the terms of {@link #calculateObs(double, double[], double[], double[])}
+	 * that depend only on the ground station so that they can be calculated
+	 * once per station.
+	 * 
+	 * @param gsPos
+	 *            the ground station position
+	 * @param terms
+	 *            receives the {@link #STATION_TERMS} station terms
+	 */
+	static void stationTerms(final GroundStationPosition gsPos,
+			final double[] terms) {
 		final double sinLat = Math.sin(DEG2RAD * gsPos.getLatitude());
 		final double cosLat = Math.cos(DEG2RAD * gsPos.getLatitude());
-		final double sinTheta = Math.sin(gsPosTheta.get());
-		final double cosTheta = Math.cos(gsPosTheta.get());
-		final double topS = sinLat * cosTheta * range.getX() + sinLat
-				* sinTheta * range.getY() - cosLat * range.getZ();
-		final double topE = -sinTheta * range.getX() + cosTheta * range.getY();
-		final double topZ = cosLat * cosTheta * range.getX() + cosLat
-				* sinTheta * range.getY() + sinLat * range.getZ();
-		double azim = Math.atan(-topE / topS);
+		terms[0] = DEG2RAD * gsPos.getLongitude();
+		terms[1] = sinLat;
+		terms[2] = cosLat;
+		terms[3] = stationRadialKm(gsPos, sinLat, cosLat);
+		terms[4] = stationZKm(gsPos, sinLat);
+	}
+
+	/**
+	 * As {@link #calculateObs(double, double[], GroundStationPosition, double[])}
+	 * using station terms from
+	 * {@link #stationTerms(GroundStationPosition, double[])}.
+	 * 
+	 * @param julianUTC
+	 *            Julian date of UTC
+	 * @param state
+	 *            ECI position (km) and velocity (km/s) as {x, y, z, vx, vy, vz}
+	 * @param terms
+	 *            the station terms
+	 * @param obs
+	 *            receives azimuth (radians), elevation (radians), range (km)
+	 *            and range rate (km/s) in that order
+	 */
+	static void calculateObs(final double julianUTC, final double[] state,
+			final double[] terms, final double[] obs) {
+		calculateObs(Precision.EXACT, julianUTC, state, terms[0], terms[1],
+				terms[2], terms[3], terms[4], obs);
+	}
+
+	private static double stationRadialKm(final GroundStationPosition gsPos,
+			final double sinLat, final double cosLat) {
+		final double c = AbstractSatellite.invert(Math.sqrt(1.0
+				+ FLATTENING_FACTOR * (FLATTENING_FACTOR - 2)
+				* AbstractSatellite.sqr(sinLat)));
+		return (EARTH_RADIUS_KM * c + (gsPos.getHeightAMSL() / 1000.0))
+				* cosLat;
+	}
+
+	private static double stationZKm(final GroundStationPosition gsPos,
+			final double sinLat) {
+		final double c = AbstractSatellite.invert(Math.sqrt(1.0
+				+ FLATTENING_FACTOR * (FLATTENING_FACTOR - 2)
+				* AbstractSatellite.sqr(sinLat)));
+		final double sq = AbstractSatellite.sqr(1.0 - FLATTENING_FACTOR) * c;
+		return (EARTH_RADIUS_KM * sq + (gsPos.getHeightAMSL() / 1000.0))
+				* sinLat;
+	}
+
+	private static void calculateObs(final Precision precision,
+			final double julianUTC, final double[] state,
+			final double lonRad, final double sinLat,
+			final double cosLat, final double achcp, final double obsZ,
+			final double[] obs) {
+
+		final double theta = AbstractSatellite.mod2PI(AbstractSatellite
+				.thetaGJD(julianUTC) + lonRad);
+		final double sinTheta = precision.sin(theta);
+		final double cosTheta = precision.cos(theta);
+		final double obsX = achcp * cosTheta;
+		final double obsY = achcp * sinTheta;
+
+		final double rangeX = state[0] - obsX;
+		final double rangeY = state[1] - obsY;
+		final double rangeZ = state[2] - obsZ;
+		final double rgvelX = state[3] + MFACTOR * obsY;
+		final double rgvelY = state[4] - MFACTOR * obsX;
+		final double rgvelZ = state[5];
+		final double range = Math.sqrt(AbstractSatellite.sqr(rangeX)
+				+ AbstractSatellite.sqr(rangeY) + AbstractSatellite.sqr(rangeZ));
+
+		final double topS = sinLat * cosTheta * rangeX + sinLat * sinTheta
+				* rangeY - cosLat * rangeZ;
+		final double topE = -sinTheta * rangeX + cosTheta * rangeY;
+		final double topZ = cosLat * cosTheta * rangeX + cosLat * sinTheta
+				* rangeY + sinLat * rangeZ;
+		double azim = precision.atan(-topE / topS);
 
 		if (topS > 0.0) {
 			azim = azim + Math.PI;
@@ -540,20 +673,10 @@ public abstract class AbstractSatellite implements Satellite {
 			azim = azim + TWO_PI;
 		}
 
-		satPos.setAzimuth(azim);
-		satPos.setElevation(Math.asin(topZ / range.getW()));
-		satPos.setRange(range.getW());
-		satPos.setRangeRate(AbstractSatellite.dot(range, rgvel) / range.getW());
-
-		final int sector = (int) (satPos.getAzimuth() / TWO_PI * 360.0 / 10.0);
-
-		double elevation = (satPos.getElevation() / Satellite.TWO_PI) * 360.0;
-
-		if (elevation > 90) {
-			elevation = 180 - elevation;
-		}
-
-		satPos.setAboveHorizon((elevation - gsPos.getHorizonElevation(sector)) > EPSILON);
+		obs[0] = azim;
+		obs[1] = precision.asin(topZ / range);
+		obs[2] = range;
+		obs[3] = (rangeX * rgvelX + rangeY * rgvelY + rangeZ * rgvelZ) / range;
 	}
 
 	@Override
@@ -579,239 +702,25 @@ public abstract class AbstractSatellite implements Satellite {
 	}
 
 	/**
-	 * @return the s4
-	 */
-	protected double getS4() {
-		return s4;
-	}
-
-	/**
-	 * @return the qoms24
-	 */
-	protected double getQoms24() {
-		return qoms24;
-	}
-
-	/**
-	 * Checks and adjusts the calculation if the perigee is less tan 156KM.
+	 * Propagates to tsince minutes after the epoch into state, reporting to
+	 * the {@link Metrics} in use. Timings are only taken when metrics are set.
 	 */
-	private void checkPerigee() {
-		s4 = S;
-		qoms24 = QOMS2T;
-
-		if (perigee < PERIGEE_156_KM) {
-			if (perigee <= 98.0) {
-				s4 = 20.0;
-			} else {
-				s4 = perigee - 78.0;
+	private void propagate(final double tsince) {
+		final Metrics metrics = Metrics.get();
+		if (metrics == Metrics.NONE) {
+			propagator.propagate(tsince, state);
+		} else {
+			final long start = System.nanoTime();
+			propagator.propagate(tsince, state);
+			final long nanos = System.nanoTime() - start;
+			metrics.propagation(tle.isDeepspace(), nanos,
+					propagator.keplerIterations);
+			if (propagator.integratorSteps > 0) {
+				metrics.integratorSteps(propagator.integratorSteps);
 			}
-
-			qoms24 = Math.pow((120 - s4) / EARTH_RADIUS_KM, 4);
-			s4 = s4 / EARTH_RADIUS_KM + 1.0;
 		}
 	}
 
-	/**
-	 * Sets perigee and checks and adjusts the calculation if the perigee is
-	 * less tan 156KM.
-	 * 
-	 * @param perigee
-	 *            the perigee to set
-	 */
-	protected void setPerigee(final double perigee) {
-		this.perigee = perigee;
-		checkPerigee();
-	}
-
-	static class Vector4 {
-
-		/** the w part of the vector. ` */
-		private double w;
-		/** the x part of the vector. ` */
-		private double x;
-		/** the y part of the vector. ` */
-		private double y;
-		/** the z part of the vector. ` */
-		private double z;
-
-		/** default constructor. */
-		Vector4() {
-			this.w = 0.0;
-			this.x = 0.0;
-			this.y = 0.0;
-			this.z = 0.0;
-		}
-
-		/**
-		 * @param w
-		 *            the w value
-		 * @param x
-		 *            the x value
-		 * @param y
-		 *            the y value
-		 * @param z
-		 *            the z value
-		 */
-		Vector4(final double w, final double x, final double y, final double z) {
-			this.w = w;
-			this.x = x;
-			this.y = y;
-			this.z = z;
-		}
-
-		/**
-		 * Gets the string representation of the object.
-		 * 
-		 * @return the string representation of the object
-		 */
-		@Override
-		public final String toString() {
-			return "w: " + w + ", x: " + x + ", y: " + y + ", z: " + z;
-		}
-
-		/**
-		 * @return the w
-		 */
-		public final double getW() {
-			return w;
-		}
-
-		/**
-		 * @param w
-		 *            the w to set
-		 */
-		public final void setW(final double w) {
-			this.w = w;
-		}
-
-		/**
-		 * @return the x
-		 */
-		public final double getX() {
-			return x;
-		}
-
-		/**
-		 * @param x
-		 *            the x to set
-		 */
-		public final void setX(final double x) {
-			this.x = x;
-		}
-
-		/**
-		 * @return the y
-		 */
-		public final double getY() {
-			return y;
-		}
-
-		/**
-		 * @param y
-		 *            the y to set
-		 */
-		public final void setY(final double y) {
-			this.y = y;
-		}
-
-		/**
-		 * @return the z
-		 */
-		public final double getZ() {
-			return z;
-		}
-
-		/**
-		 * @param z
-		 *            the z to set
-		 */
-		public final void setZ(final double z) {
-			this.z = z;
-		}
-
-		public final void multiply(final double multiplier) {
-			this.x *= multiplier;
-			this.y *= multiplier;
-			this.z *= multiplier;
-		}
-
-		public final void setXYZ(final double xValue, final double yValue,
-				final double zValue) {
-			this.x = xValue;
-			this.y = yValue;
-			this.z = zValue;
-		}
-
-		public Vector4 subtract(final Vector4 vector) {
-			return new Vector4(this.w - vector.w, this.x - vector.x, this.y
-					- vector.y, this.z - vector.z);
-		}
-
-		public static final Vector4 scalarMultiply(final Vector4 vector,
-				final double multiplier) {
-
-			return new Vector4(vector.w * Math.abs(multiplier), vector.x
-					* multiplier, vector.y * multiplier, vector.z * multiplier);
-		}
-
-		/**
-		 * Calculates the angle between vectors v1 and v2.
-		 */
-		public static final double angle(final Vector4 v1, final Vector4 v2) {
-			AbstractSatellite.magnitude(v1);
-			AbstractSatellite.magnitude(v2);
-			return Math.acos(AbstractSatellite.dot(v1, v2) / (v1.w * v2.w));
-		}
-
-		/**
-		 * Subtracts vector v2 from v1.
-		 */
-		public static final Vector4 subtract(final Vector4 v1, final Vector4 v2) {
-
-			final Vector4 v3 = new Vector4();
-			v3.x = v1.x - v2.x;
-			v3.y = v1.y - v2.y;
-			v3.z = v1.z - v2.z;
-			AbstractSatellite.magnitude(v3);
-			return v3;
-		}
-	}
-
-	/**
-	 * Solves Keplers' Equation.
-	 * 
-	 * @param temp
-	 *            an array of temporary values we pass around as part of the
-	 *            orbit calculation.
-	 * @param axn
-	 * @param ayn
-	 * @param capu
-	 */
-	protected static void converge(final double[] temp, final double axn,
-			final double ayn, final double capu) {
-
-		boolean converged = false;
-		int i = 0;
-
-		do {
-			temp[7] = Math.sin(temp[2]);
-			temp[8] = Math.cos(temp[2]);
-			temp[3] = axn * temp[7];
-			temp[4] = ayn * temp[8];
-			temp[5] = axn * temp[8];
-			temp[6] = ayn * temp[7];
-			final double epw = (capu - temp[4] + temp[3] - temp[2])
-					/ (1.0 - temp[5] - temp[6]) + temp[2];
-
-			if (Math.abs(epw - temp[2]) <= EPSILON) {
-				converged = true;
-			} else {
-				temp[2] = epw;
-			}
-
-		} while (i++ < 10 && !converged);
-	}
-
 	@Override
 	public synchronized void calculateSatelliteVectors(final Date date) {
 		// Re-initialize, object can contain data from previous calculations
@@ -827,13 +736,11 @@ public abstract class AbstractSatellite implements Satellite {
 
 		// Calculations of satellite position, no ground stations involved here
 		// yet
-		calculateSDP4orSGP4(tsince);
+		propagate(tsince);
+		satPos.setPhase(state[6]);
 
 		// Scale position and velocity vectors to km and km/s
-		AbstractSatellite.convertSatState(position, velocity);
-
-		// Calculate the magnitude of the velocity of satellite
-		AbstractSatellite.magnitude(velocity);
+		AbstractSatellite.convertSatState(state);
 
 		satPos.setEclipsed(isEclipsed());
 		satPos.setEclipseDepth(eclipseDepth);
@@ -841,6 +748,34 @@ public abstract class AbstractSatellite implements Satellite {
 		satPos.setTime(date);
 	}
 
+	/**
+	 * Calculates the position and velocity vectors of the satellite and copies
+	 * them into the given array. Unlike calculateSatelliteVectors(Date) no
+	 * objects are allocated, which makes this method suitable for generating
+	 * many positions in a loop. The vectors calculated by previous calls to
+	 * calculateSatelliteVectors(..) are replaced.
+	 * 
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @param eciState
+	 *            array of length at least 6 that receives the ECI position in
+	 *            km and the velocity in km/s as {x, y, z, vx, vy, vz}
+	 */
+	@Override
+	public synchronized void calculateSatelliteVectors(final long timeMillis,
+			final double[] eciState) {
+
+		julUTC = AbstractSatellite.julianDateUTC(timeMillis);
+
+		final double tsince = (julUTC - julEpoch) * MINS_PER_DAY;
+
+		propagate(tsince);
+
+		AbstractSatellite.convertSatState(state);
+
+		System.arraycopy(state, 0, eciState, 0, 6);
+	}
+
 	@Override
 	public synchronized SatPos calculateSatelliteGroundTrack() {
 		calculateLatLonAlt(julUTC);
@@ -851,10 +786,9 @@ public abstract class AbstractSatellite implements Satellite {
 	@Override
 	public synchronized SatPos calculateSatPosForGroundStation(
 			final GroundStationPosition gsPos) {
-		final Vector4 squintVector = new Vector4();
 		// All angles in rads. Distance in km. Velocity in km/s
 		// Calculate satellite Azi, Ele, Range and Range-rate
-		calculateObs(julUTC, position, velocity, gsPos, squintVector);
+		calculateObs(julUTC, gsPos);
 
 		return this.satPos;
 	}
@@ -864,17 +798,26 @@ public abstract class AbstractSatellite implements Satellite {
 	 */
 	private boolean isEclipsed() {
 
-		final Vector4 sunVector = calculateSunVector();
+		calculateSunPosition(julUTC, sun);
 
 		/* Calculates stellite's eclipse status and depth */
 
 		/* Determine partial eclipse */
 
-		final double sdEarth = Math.asin(EARTH_RADIUS / position.w);
-		final Vector4 rho = Vector4.subtract(sunVector, position);
-		final double sdSun = Math.asin(SOLAR_RADIUS / rho.w);
-		final Vector4 earth = Vector4.scalarMultiply(position, -1);
-		final double delta = Vector4.angle(sunVector, earth);
+		final double r = Math.sqrt(AbstractSatellite.sqr(state[0])
+				+ AbstractSatellite.sqr(state[1])
+				+ AbstractSatellite.sqr(state[2]));
+		final double sdEarth = Math.asin(EARTH_RADIUS / r);
+		final double rho = Math.sqrt(AbstractSatellite.sqr(sun[0] - state[0])
+				+ AbstractSatellite.sqr(sun[1] - state[1])
+				+ AbstractSatellite.sqr(sun[2] - state[2]));
+		final double sdSun = Math.asin(SOLAR_RADIUS / rho);
+		final double sunDistance = Math.sqrt(AbstractSatellite.sqr(sun[0])
+				+ AbstractSatellite.sqr(sun[1]) + AbstractSatellite.sqr(sun[2]));
+		/* angle between the sun and the earth seen from the satellite */
+		final double delta = Math.acos(-(sun[0] * state[0] + sun[1]
+				* state[1] + sun[2] * state[2])
+				/ (sunDistance * r));
 		eclipseDepth = sdEarth - sdSun - delta;
 
 		if (sdEarth < sdSun) {
@@ -884,9 +827,17 @@ public abstract class AbstractSatellite implements Satellite {
 		}
 	}
 
-	private Vector4 calculateSunVector() {
+	/**
+	 * Calculates the position of the sun in the ECI frame.
+	 * 
+	 * @param julianUTC
+	 *            the Julian date (UTC)
+	 * @param sun
+	 *            receives the x, y and z of the sun in km
+	 */
+	static void calculateSunPosition(final double julianUTC, final double[] sun) {
 
-		final double mjd = julUTC - 2415020.0;
+		final double mjd = julianUTC - 2415020.0;
 		final double year = 1900 + mjd / 365.25;
 		final double solTime = (mjd + deltaEt(year) / SECS_PER_DAY) / 36525.0;
 
@@ -917,8 +868,9 @@ public abstract class AbstractSatellite implements Satellite {
 				* solTime + 0.00256 * Math.cos(o));
 		r = ASTRONOMICAL_UNIT * r;
 
-		return new Vector4(r, r * Math.cos(lsa), r * Math.sin(lsa)
-				* Math.cos(eps), r * Math.sin(lsa) * Math.sin(eps));
+		sun[0] = r * Math.cos(lsa);
+		sun[1] = r * Math.sin(lsa) * Math.cos(eps);
+		sun[2] = r * Math.sin(lsa) * Math.sin(eps);
 	}
 
 	/**
@@ -931,7 +883,7 @@ public abstract class AbstractSatellite implements Satellite {
 	 * Values determined using data from 1950-1991 in the 1990 Astronomical
 	 * Almanac. See DELTA_ET.WQ1 for details.
 	 */
-	private double deltaEt(final double year) {
+	private static double deltaEt(final double year) {
 
 		return 26.465 + 0.747622 * (year - 1950) + 1.886913
 				* Math.sin(TWO_PI * (year - 1975) / 33);
@@ -940,49 +892,10 @@ public abstract class AbstractSatellite implements Satellite {
 	/**
 	 * Returns angle in radians from argument in degrees.
 	 */
-	private double radians(final double degrees) {
+	private static double radians(final double degrees) {
 		return degrees * DEG2RAD;
 	}
 
-	protected void calculatePhase(final double xlt, final double xnode,
-			final double omgadf) {
-		/* Phase in radians */
-		double phaseValue = xlt - xnode - omgadf + TWO_PI;
-
-		if (phaseValue < 0.0) {
-			phaseValue += TWO_PI;
-		}
-
-		satPos.setPhase(AbstractSatellite.mod2PI(phaseValue));
-	}
-
-	protected void calculatePositionAndVelocity(final double rk,
-			final double uk, final double xnodek, final double xinck,
-			final double rdotk, final double rfdotk) {
-		/* Orientation vectors */
-		final double sinuk = Math.sin(uk);
-		final double cosuk = Math.cos(uk);
-		final double sinik = Math.sin(xinck);
-		final double cosik = Math.cos(xinck);
-		final double sinnok = Math.sin(xnodek);
-		final double cosnok = Math.cos(xnodek);
-		final double xmx = -sinnok * cosik;
-		final double xmy = cosnok * cosik;
-		final double ux = xmx * sinuk + cosnok * cosuk;
-		final double uy = xmy * sinuk + sinnok * cosuk;
-		final double uz = sinik * sinuk;
-		final double vx = xmx * cosuk - cosnok * sinuk;
-		final double vy = xmy * cosuk - sinnok * sinuk;
-		final double vz = sinik * cosuk;
-
-		/* Position and velocity */
-		position.setXYZ(ux, uy, uz);
-		position.multiply(rk);
-		velocity.setX(rdotk * ux + rfdotk * vx);
-		velocity.setY(rdotk * uy + rfdotk * vy);
-		velocity.setZ(rdotk * uz + rfdotk * vz);
-	}
-
 	protected static double invert(final double value) {
 		return 1.0 / value;
 	}
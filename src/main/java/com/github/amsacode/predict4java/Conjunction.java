@@ -0,0 +1,67 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Immutable close approach between two satellites found by a
+ * {@link ConjunctionScreener}.
+ */
+public class Conjunction {
+
+	private final TLE primary;
+	private final TLE secondary;
+	private final long tca;
+	private final double missDistance;
+	private final double relativeSpeed;
+
+	Conjunction(final TLE primary, final TLE secondary, final long tca,
+			final double missDistance, final double relativeSpeed) {
+		this.primary = primary;
+		this.secondary = secondary;
+		this.tca = tca;
+		this.missDistance = missDistance;
+		this.relativeSpeed = relativeSpeed;
+	}
+
+	/**
+	 * @return the element set of the primary satellite
+	 */
+	public final TLE getPrimary() {
+		return primary;
+	}
+
+	/**
+	 * @return the element set of the secondary satellite
+	 */
+	public final TLE getSecondary() {
+		return secondary;
+	}
+
+	/**
+	 * @return the time of closest approach in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 */
+	public final long getTca() {
+		return tca;
+	}
+
+	/**
+	 * @return the distance between the satellites at closest approach in km
+	 */
+	public final double getMissDistance() {
+		return missDistance;
+	}
+
+	/**
+	 * @return the relative speed at closest approach in km/s
+	 */
+	public final double getRelativeSpeed() {
+		return relativeSpeed;
+	}
+
+	@Override
+	public String toString() {
+		return "Conjunction [primary=" + primary.getCatnum() + ", secondary="
+				+ secondary.getCatnum() + ", tca=" + tca + ", missDistance="
+				+ missDistance + ", relativeSpeed=" + relativeSpeed + "]";
+	}
+
+}
@@ -0,0 +1,610 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Screens a set of primary satellites (for example an operator's fleet)
+ * against a set of secondary satellites (for example the whole catalog) for
+ * close approaches over a time window.
+ * <p>
+ * The screening has four stages:
+ * <ol>
+ * <li>secondaries whose range of radius (apogee/perigee) can not come near
+ * any primary, and vice versa, are dropped before propagation</li>
+ * <li>every remaining satellite is propagated once per step and the
+ * secondaries are hashed into a grid of cells as large as the distance two
+ * satellites can close over a step. Only pairs in neighbouring cells are
+ * considered</li>
+ * <li>pairs are then rejected by the apogee/perigee and orbit path sieves
+ * ({@link OrbitSieve}) and kept only if their range rate changes from
+ * negative to positive over the step</li>
+ * <li>the time of closest approach is found by root finding on the range rate
+ * of the Hermite interpolated states and then polished against the
+ * propagator</li>
+ * </ol>
+ * Propagation and the pair search are spread over the threads of an executor.
+ * Approaches at the very start or end of the window where the range rate does
+ * not change sign are not reported.
+ */
+public class ConjunctionScreener {
+
+	/** Default interval between propagated states. */
+	public static final long DEFAULT_STEP_MILLIS = 10000;
+
+	/**
+	 * Added to the threshold for the sieves to allow for the difference
+	 * between mean elements and the propagated orbit.
+	 */
+	private static final double SIEVE_MARGIN_KM = 30;
+	/** Additional margin for deep space satellites perturbed by sun and moon. */
+	private static final double DEEP_SPACE_SIEVE_MARGIN_KM = 200;
+	/** Allows for speed changing between propagated states. */
+	private static final double SPEED_MARGIN = 1.05;
+	private static final int MAX_ROOT_ITERATIONS = 60;
+	private static final double ROOT_TOLERANCE_SECONDS = 1e-4;
+	private static final int POLISH_ITERATIONS = 3;
+
+	private final double thresholdKm;
+	private final long stepMillis;
+	private final ExecutorService executor;
+	private final int parallelism;
+
+	/**
+	 * Creates a screener that propagates every
+	 * {@link #DEFAULT_STEP_MILLIS} and uses a thread per processor for each
+	 * call to {@link #screen(List, List, long, long)}.
+	 *
+	 * @param thresholdKm
+	 *            approaches closer than this are reported
+	 */
+	public ConjunctionScreener(final double thresholdKm) {
+		this(thresholdKm, DEFAULT_STEP_MILLIS, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param thresholdKm
+	 *            approaches closer than this are reported
+	 * @param stepMillis
+	 *            the interval between propagated states. Smaller steps make
+	 *            the grid cells smaller (fewer candidate pairs) at the cost of
+	 *            more propagation
+	 * @param executor
+	 *            runs the propagation and pair search, is not shut down by
+	 *            this class. If null a pool with a thread per processor is
+	 *            created for each screening
+	 */
+	public ConjunctionScreener(final double thresholdKm,
+			final long stepMillis, final ExecutorService executor) {
+		Preconditions.checkArgument(thresholdKm > 0,
+				"thresholdKm must be positive");
+		Preconditions.checkArgument(stepMillis > 0,
+				"stepMillis must be positive");
+		this.thresholdKm = thresholdKm;
+		this.stepMillis = stepMillis;
+		this.executor = executor;
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Finds the close approaches between primaries and secondaries in a time
+	 * window. A satellite may be in both lists, in which case each pair is
+	 * reported once and a satellite is never paired with itself.
+	 *
+	 * @param primaries
+	 *            the primary satellites
+	 * @param secondaries
+	 *            the secondary satellites
+	 * @param startMillis
+	 *            the start of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param endMillis
+	 *            the end of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @return the close approaches ordered by time of closest approach
+	 */
+	public List<Conjunction> screen(final List<? extends Satellite> primaries,
+			final List<? extends Satellite> secondaries,
+			final long startMillis, final long endMillis) {
+		Preconditions.checkNotNull(primaries);
+		Preconditions.checkNotNull(secondaries);
+		Preconditions.checkArgument(endMillis >= startMillis,
+				"endMillis must not be before startMillis");
+		final ExecutorService exec = executor == null ? Executors
+				.newFixedThreadPool(parallelism) : executor;
+		try {
+			return new Screening(primaries, secondaries).run(exec,
+					startMillis, endMillis);
+		} finally {
+			if (executor == null) {
+				exec.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * State of one call to screen.
+	 */
+	private final class Screening {
+
+		private final Satellite[] satellites;
+		private final StateVectorSource[] vectors;
+		private final boolean[] primary;
+		private final boolean[] secondary;
+		private final OrbitSieve sieve;
+		private final SpatialHashGrid grid = new SpatialHashGrid();
+		private int[] active;
+		private double[] current;
+		private double[] next;
+
+		Screening(final List<? extends Satellite> primaries,
+				final List<? extends Satellite> secondaries) {
+			// primaries are indexed first so a pair of satellites that are
+			// both primary and secondary is only searched from the lower index
+			final Map<Satellite, Integer> indexes = new IdentityHashMap<Satellite, Integer>();
+			final List<Satellite> all = new ArrayList<Satellite>();
+			for (final Satellite satellite : primaries) {
+				index(satellite, indexes, all);
+			}
+			for (final Satellite satellite : secondaries) {
+				index(satellite, indexes, all);
+			}
+			final int n = all.size();
+			satellites = all.toArray(new Satellite[n]);
+			vectors = AbstractSatellite.stateVectors(all);
+			primary = new boolean[n];
+			secondary = new boolean[n];
+			for (final Satellite satellite : primaries) {
+				primary[indexes.get(satellite)] = true;
+			}
+			for (final Satellite satellite : secondaries) {
+				secondary[indexes.get(satellite)] = true;
+			}
+			sieve = new OrbitSieve(satellites);
+		}
+
+		private void index(final Satellite satellite,
+				final Map<Satellite, Integer> indexes, final List<Satellite> all) {
+			Preconditions.checkNotNull(satellite);
+			if (!indexes.containsKey(satellite)) {
+				indexes.put(satellite, all.size());
+				all.add(satellite);
+			}
+		}
+
+		List<Conjunction> run(final ExecutorService exec,
+				final long startMillis, final long endMillis) {
+			active = activeSatellites();
+			current = new double[satellites.length * 6];
+			next = new double[satellites.length * 6];
+			final List<Conjunction> results = new ArrayList<Conjunction>();
+			double speed0 = propagate(exec, startMillis, current);
+			long t0 = startMillis;
+			while (t0 < endMillis) {
+				final long t1 = Math.min(t0 + stepMillis, endMillis);
+				final double speed1 = propagate(exec, t1, next);
+				// at closest approach in [t0, t1] the pair is within the
+				// threshold so at t0 they are within this distance
+				final double cellSize = thresholdKm + 2
+						* Math.max(speed0, speed1) * SPEED_MARGIN * (t1 - t0)
+						/ 1000.0;
+				buildGrid(cellSize);
+				results.addAll(search(exec, t0, t1, cellSize));
+				final double[] temp = current;
+				current = next;
+				next = temp;
+				t0 = t1;
+				speed0 = speed1;
+			}
+			Collections.sort(results, new Comparator<Conjunction>() {
+				@Override
+				public int compare(final Conjunction a, final Conjunction b) {
+					return a.getTca() < b.getTca() ? -1 : a.getTca() == b
+							.getTca() ? 0 : 1;
+				}
+			});
+			return results;
+		}
+
+		/**
+		 * Applies the apogee/perigee sieve to whole satellites, returning the
+		 * indexes of those that can come near at least one satellite of the
+		 * other kind.
+		 */
+		private int[] activeSatellites() {
+			final int n = satellites.length;
+			final int[] primaries = ofKind(primary);
+			final int[] secondaries = ofKind(secondary);
+			final boolean[] keep = new boolean[n];
+			markOverlapping(primaries, secondaries, keep);
+			markOverlapping(secondaries, primaries, keep);
+			int count = 0;
+			for (int i = 0; i < n; i++) {
+				if (keep[i]) {
+					count++;
+				}
+			}
+			final int[] result = new int[count];
+			int k = 0;
+			for (int i = 0; i < n; i++) {
+				if (keep[i]) {
+					result[k++] = i;
+				}
+			}
+			return result;
+		}
+
+		private int[] ofKind(final boolean[] kind) {
+			int count = 0;
+			for (final boolean b : kind) {
+				if (b) {
+					count++;
+				}
+			}
+			final int[] result = new int[count];
+			int k = 0;
+			for (int i = 0; i < kind.length; i++) {
+				if (kind[i]) {
+					result[k++] = i;
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Marks the members of a whose radii overlap those of some member of b
+		 * (other than itself) allowing for the margins of both.
+		 */
+		private void markOverlapping(final int[] a, final int[] b,
+				final boolean[] keep) {
+			if (b.length == 0) {
+				return;
+			}
+			// sort b by lowest radius and keep the running maximum of highest
+			// radius so that the members of b that reach low enough can be
+			// checked with one binary search
+			final Integer[] sorted = new Integer[b.length];
+			for (int k = 0; k < b.length; k++) {
+				sorted[k] = b[k];
+			}
+			Arrays.sort(sorted, new Comparator<Integer>() {
+				@Override
+				public int compare(final Integer x, final Integer y) {
+					return Double.compare(low(x), low(y));
+				}
+			});
+			final double[] lows = new double[b.length];
+			final double[] maxHigh = new double[b.length];
+			final double[] secondMaxHigh = new double[b.length];
+			final int[] maxHighIndex = new int[b.length];
+			double max = Double.NEGATIVE_INFINITY;
+			double secondMax = Double.NEGATIVE_INFINITY;
+			int maxIndex = -1;
+			for (int k = 0; k < b.length; k++) {
+				final int j = sorted[k];
+				lows[k] = low(j);
+				final double high = high(j);
+				if (high > max) {
+					secondMax = max;
+					max = high;
+					maxIndex = j;
+				} else if (high > secondMax) {
+					secondMax = high;
+				}
+				maxHigh[k] = max;
+				secondMaxHigh[k] = secondMax;
+				maxHighIndex[k] = maxIndex;
+			}
+			for (final int i : a) {
+				final double limit = high(i) + thresholdKm;
+				int k = Arrays.binarySearch(lows, limit);
+				if (k < 0) {
+					k = -k - 2;
+				} else {
+					while (k + 1 < lows.length && lows[k + 1] == limit) {
+						k++;
+					}
+				}
+				if (k >= 0) {
+					// the highest radius of another satellite
+					final double high = maxHighIndex[k] == i ? secondMaxHigh[k]
+							: maxHigh[k];
+					if (high + thresholdKm >= low(i)) {
+						keep[i] = true;
+					}
+				}
+			}
+		}
+
+		private double low(final int i) {
+			return sieve.perigee(i) - margin(i);
+		}
+
+		private double high(final int i) {
+			return sieve.apogee(i) + margin(i);
+		}
+
+		private double margin(final int i) {
+			return sieve.isDeepSpace(i) ? SIEVE_MARGIN_KM
+					+ DEEP_SPACE_SIEVE_MARGIN_KM : SIEVE_MARGIN_KM;
+		}
+
+		/**
+		 * Propagates the active satellites to the given time, returning the
+		 * largest speed.
+		 */
+		private double propagate(final ExecutorService exec,
+				final long timeMillis, final double[] states) {
+			final List<Callable<Double>> tasks = new ArrayList<Callable<Double>>();
+			for (int c = 0; c < parallelism; c++) {
+				final int from = (int) ((long) active.length * c / parallelism);
+				final int to = (int) ((long) active.length * (c + 1) / parallelism);
+				if (from < to) {
+					tasks.add(new Callable<Double>() {
+						@Override
+						public Double call() {
+							final double[] state = new double[6];
+							double max = 0;
+							for (int k = from; k < to; k++) {
+								final int i = active[k];
+								vectors[i].calculateSatelliteVectors(
+										timeMillis, state);
+								System.arraycopy(state, 0, states, i * 6, 6);
+								max = Math.max(max, speed(states, i));
+							}
+							return max;
+						}
+					});
+				}
+			}
+			double max = 0;
+			for (final Double speed : invokeAll(exec, tasks)) {
+				max = Math.max(max, speed);
+			}
+			return max;
+		}
+
+		private void buildGrid(final double cellSize) {
+			grid.clear(cellSize, satellites.length, active.length);
+			for (final int i : active) {
+				if (secondary[i]) {
+					grid.add(i, current[i * 6], current[i * 6 + 1],
+							current[i * 6 + 2]);
+				}
+			}
+		}
+
+		private List<Conjunction> search(final ExecutorService exec,
+				final long t0, final long t1, final double cellSize) {
+			final List<Callable<List<Conjunction>>> tasks = new ArrayList<Callable<List<Conjunction>>>();
+			for (int c = 0; c < parallelism; c++) {
+				final int from = (int) ((long) active.length * c / parallelism);
+				final int to = (int) ((long) active.length * (c + 1) / parallelism);
+				if (from < to) {
+					tasks.add(new Callable<List<Conjunction>>() {
+						@Override
+						public List<Conjunction> call() {
+							return search(from, to, t0, t1, cellSize);
+						}
+					});
+				}
+			}
+			final List<Conjunction> results = new ArrayList<Conjunction>();
+			for (final List<Conjunction> list : invokeAll(exec, tasks)) {
+				results.addAll(list);
+			}
+			return results;
+		}
+
+		private List<Conjunction> search(final int from, final int to,
+				final long t0, final long t1, final double cellSize) {
+			final List<Conjunction> results = new ArrayList<Conjunction>(0);
+			final Refiner refiner = new Refiner();
+			final double sieveDistance = thresholdKm + SIEVE_MARGIN_KM;
+			final double cellSizeSquared = cellSize * cellSize;
+			for (int k = from; k < to; k++) {
+				final int p = active[k];
+				if (!primary[p]) {
+					continue;
+				}
+				final double x = current[p * 6];
+				final double y = current[p * 6 + 1];
+				final double z = current[p * 6 + 2];
+				final int cx = grid.cell(x);
+				final int cy = grid.cell(y);
+				final int cz = grid.cell(z);
+				for (int dx = -1; dx <= 1; dx++) {
+					for (int dy = -1; dy <= 1; dy++) {
+						for (int dz = -1; dz <= 1; dz++) {
+							for (int s = grid.first(cx + dx, cy + dy, cz + dz); s >= 0; s = grid
+									.next(s)) {
+								if (s == p
+										|| (primary[s] && secondary[p] && s < p)) {
+									// itself or reported from the other side
+									continue;
+								}
+								final double ex = current[s * 6] - x;
+								final double ey = current[s * 6 + 1] - y;
+								final double ez = current[s * 6 + 2] - z;
+								if (ex * ex + ey * ey + ez * ez > cellSizeSquared) {
+									continue;
+								}
+								if (!closingThenOpening(p, s)) {
+									continue;
+								}
+								final double distance = sieveDistance
+										+ (sieve.isDeepSpace(p)
+												|| sieve.isDeepSpace(s) ? DEEP_SPACE_SIEVE_MARGIN_KM
+												: 0);
+								if (!sieve.radiiOverlap(p, s, distance)
+										|| !sieve.pathsMayApproach(p, s, t0,
+												distance, refiner.scratch)) {
+									continue;
+								}
+								final Conjunction conjunction = refiner
+										.refine(p, s, t0, t1);
+								if (conjunction != null) {
+									results.add(conjunction);
+								}
+							}
+						}
+					}
+				}
+			}
+			return results;
+		}
+
+		/**
+		 * Returns true if the range rate of the pair goes from negative at the
+		 * start of the step to non-negative at the end.
+		 */
+		private boolean closingThenOpening(final int p, final int s) {
+			return rangeRateSign(current, p, s) < 0
+					&& rangeRateSign(next, p, s) >= 0;
+		}
+
+		/**
+		 * Returns the dot product of relative position and velocity which has
+		 * the sign of the range rate.
+		 */
+		private double rangeRateSign(final double[] states, final int p,
+				final int s) {
+			double sum = 0;
+			for (int j = 0; j < 3; j++) {
+				sum += (states[s * 6 + j] - states[p * 6 + j])
+						* (states[s * 6 + 3 + j] - states[p * 6 + 3 + j]);
+			}
+			return sum;
+		}
+
+		/**
+		 * Finds the time of closest approach of a pair within a step. One per
+		 * thread.
+		 */
+		private final class Refiner {
+
+			final double[] scratch = new double[OrbitSieve.SCRATCH_LENGTH];
+			private final double[] a = new double[6];
+			private final double[] b = new double[6];
+
+			Conjunction refine(final int p, final int s, final long t0,
+					final long t1) {
+				final double h = (t1 - t0) / 1000.0;
+				// false position (Illinois) on the interpolated range rate
+				double lo = 0;
+				double hi = h;
+				double fLo = rangeRateSign(current, p, s);
+				double fHi = rangeRateSign(next, p, s);
+				double t = hi;
+				int side = 0;
+				for (int i = 0; i < MAX_ROOT_ITERATIONS && hi - lo > ROOT_TOLERANCE_SECONDS; i++) {
+					t = (lo * fHi - hi * fLo) / (fHi - fLo);
+					final double f = interpolatedRangeRateSign(p, s, h, t);
+					if (f < 0) {
+						lo = t;
+						fLo = f;
+						if (side == -1) {
+							fHi /= 2;
+						}
+						side = -1;
+					} else {
+						hi = t;
+						fHi = f;
+						if (side == 1) {
+							fLo /= 2;
+						}
+						side = 1;
+					}
+				}
+				// polish with Newton steps using the propagator
+				double tca = t0 + t * 1000.0;
+				long millis = Math.round(tca);
+				double dot = 0;
+				double relativeSpeedSquared = 0;
+				double rangeSquared = 0;
+				for (int i = 0; i < POLISH_ITERATIONS; i++) {
+					vectors[p].calculateSatelliteVectors(millis, a);
+					vectors[s].calculateSatelliteVectors(millis, b);
+					dot = 0;
+					relativeSpeedSquared = 0;
+					rangeSquared = 0;
+					for (int j = 0; j < 3; j++) {
+						final double dr = b[j] - a[j];
+						final double dv = b[3 + j] - a[3 + j];
+						dot += dr * dv;
+						relativeSpeedSquared += dv * dv;
+						rangeSquared += dr * dr;
+					}
+					tca = Math.max(t0, Math.min(t1, millis - dot
+							/ relativeSpeedSquared * 1000.0));
+					final long m = Math.round(tca);
+					if (m == millis) {
+						break;
+					}
+					millis = m;
+				}
+				// straight line motion for the fraction of a millisecond
+				final double miss = Math.sqrt(Math.max(0, rangeSquared - dot
+						* dot / relativeSpeedSquared));
+				if (miss > thresholdKm) {
+					return null;
+				}
+				return new Conjunction(satellites[p].getTLE(),
+						satellites[s].getTLE(), Math.round(tca), miss,
+						Math.sqrt(relativeSpeedSquared));
+			}
+
+			private double interpolatedRangeRateSign(final int p, final int s,
+					final double h, final double t) {
+				Hermite.interpolate(current, p * 6, next, p * 6, h, t, a);
+				Hermite.interpolate(current, s * 6, next, s * 6, h, t, b);
+				double sum = 0;
+				for (int j = 0; j < 3; j++) {
+					sum += (b[j] - a[j]) * (b[3 + j] - a[3 + j]);
+				}
+				return sum;
+			}
+		}
+	}
+
+	private static double speed(final double[] states, final int i) {
+		final double vx = states[i * 6 + 3];
+		final double vy = states[i * 6 + 4];
+		final double vz = states[i * 6 + 5];
+		return Math.sqrt(vx * vx + vy * vy + vz * vz);
+	}
+
+	private static <T> List<T> invokeAll(final ExecutorService exec,
+			final List<? extends Callable<T>> tasks) {
+		try {
+			final List<T> results = new ArrayList<T>(tasks.size());
+			for (final Future<T> future : exec.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+}
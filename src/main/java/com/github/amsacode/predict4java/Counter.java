@@ -0,0 +1,27 @@
+package com.github.amsacode.predict4java;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe count used by {@link CountingMetrics}. This version is an
+ * {@link AtomicLong}; the multi-release jar carries a Java 17 version of this
+ * class (src/main/java17) that uses a LongAdder, which does not contend when
+ * many threads count at once.
+ */
+final class Counter {
+
+	private final AtomicLong value = new AtomicLong();
+
+	void increment() {
+		value.incrementAndGet();
+	}
+
+	void add(final long amount) {
+		value.addAndGet(amount);
+	}
+
+	long get() {
+		return value.get();
+	}
+
+}
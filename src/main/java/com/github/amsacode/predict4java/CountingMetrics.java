@@ -0,0 +1,116 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * {@link Metrics} that keeps totals in thread safe counters.
+ */
+public final class CountingMetrics extends Metrics {
+
+	private final Counter sgp4Propagations = new Counter();
+	private final Counter sgp4Nanos = new Counter();
+	private final Counter sdp4Propagations = new Counter();
+	private final Counter sdp4Nanos = new Counter();
+	private final Counter keplerIterations = new Counter();
+	private final Counter integratorSteps = new Counter();
+	private final Counter passSearches = new Counter();
+	private final Counter passSearchNanos = new Counter();
+	private final Counter tleParseErrors = new Counter();
+	private final Counter cacheHits = new Counter();
+	private final Counter cacheMisses = new Counter();
+
+	@Override
+	public void propagation(final boolean deepSpace, final long nanos,
+			final int iterations) {
+		if (deepSpace) {
+			sdp4Propagations.increment();
+			sdp4Nanos.add(nanos);
+		} else {
+			sgp4Propagations.increment();
+			sgp4Nanos.add(nanos);
+		}
+		keplerIterations.add(iterations);
+	}
+
+	@Override
+	public void integratorSteps(final int steps) {
+		integratorSteps.add(steps);
+	}
+
+	@Override
+	public void passSearch(final long nanos) {
+		passSearches.increment();
+		passSearchNanos.add(nanos);
+	}
+
+	@Override
+	public void tleParseError() {
+		tleParseErrors.increment();
+	}
+
+	@Override
+	public void cacheHit() {
+		cacheHits.increment();
+	}
+
+	@Override
+	public void cacheMiss() {
+		cacheMisses.increment();
+	}
+
+	public long getSgp4Propagations() {
+		return sgp4Propagations.get();
+	}
+
+	public long getSgp4Nanos() {
+		return sgp4Nanos.get();
+	}
+
+	public long getSdp4Propagations() {
+		return sdp4Propagations.get();
+	}
+
+	public long getSdp4Nanos() {
+		return sdp4Nanos.get();
+	}
+
+	public long getKeplerIterations() {
+		return keplerIterations.get();
+	}
+
+	public long getIntegratorSteps() {
+		return integratorSteps.get();
+	}
+
+	public long getPassSearches() {
+		return passSearches.get();
+	}
+
+	public long getPassSearchNanos() {
+		return passSearchNanos.get();
+	}
+
+	public long getTleParseErrors() {
+		return tleParseErrors.get();
+	}
+
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	@Override
+	public String toString() {
+		return "CountingMetrics [sgp4Propagations=" + getSgp4Propagations()
+				+ ", sgp4Nanos=" + getSgp4Nanos() + ", sdp4Propagations="
+				+ getSdp4Propagations() + ", sdp4Nanos=" + getSdp4Nanos()
+				+ ", keplerIterations=" + getKeplerIterations()
+				+ ", integratorSteps=" + getIntegratorSteps()
+				+ ", passSearches=" + getPassSearches() + ", passSearchNanos="
+				+ getPassSearchNanos() + ", tleParseErrors="
+				+ getTleParseErrors() + ", cacheHits=" + getCacheHits()
+				+ ", cacheMisses=" + getCacheMisses() + "]";
+	}
+
+}
@@ -0,0 +1,299 @@
+package com.github.amsacode.predict4java;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Calculates how often each point of a {@link CoverageGrid} is in view of at
+ * least one of a set of satellites above a minimum elevation.
+ * <p>
+ * Each satellite is propagated once per step and rotated into the earth fixed
+ * frame. The footprint cap of the satellite (the earth central angle within
+ * which it is above the minimum elevation, which for zero elevation is
+ * {@link SatPos#getRangeCircleRadiusKm()} divided by the earth radius)
+ * selects the rows of the grid and the range of longitudes in each row that
+ * can see it, and only those points get the exact elevation test. Instances
+ * are immutable and thus thread safe.
+ */
+public class CoverageEngine {
+
+	/** Polar radius, which gives the largest footprint cap. */
+	private static final double POLAR_RADIUS_KM = 6356.75;
+	/**
+	 * Added to the cap angle to allow for geodetic and geocentric latitude
+	 * differing and for the height of points.
+	 */
+	private static final double CAP_MARGIN_RADIANS = Math.toRadians(0.5);
+
+	private final double minElevation;
+	private final double sinMinElevation;
+	private final double cosMinElevation;
+	private final long stepMillis;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param minElevationDegrees
+	 *            the minimum elevation in degrees for a satellite to cover a
+	 *            point
+	 * @param stepMillis
+	 *            the interval between samples, which is also the resolution of
+	 *            the access intervals
+	 */
+	public CoverageEngine(final double minElevationDegrees,
+			final long stepMillis) {
+		Preconditions.checkArgument(minElevationDegrees >= 0
+				&& minElevationDegrees < 90,
+				"minElevationDegrees must be between 0 and 90");
+		Preconditions.checkArgument(stepMillis > 0,
+				"stepMillis must be positive");
+		this.minElevation = Math.toRadians(minElevationDegrees);
+		this.sinMinElevation = Math.sin(minElevation);
+		this.cosMinElevation = Math.cos(minElevation);
+		this.stepMillis = stepMillis;
+	}
+
+	/**
+	 * Calculates the coverage of the grid by the satellites over a window.
+	 *
+	 * @param grid
+	 *            the ground points
+	 * @param satellites
+	 *            the satellites
+	 * @param startMillis
+	 *            the start of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param endMillis
+	 *            the end of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @return the coverage
+	 */
+	public CoverageResult analyze(final CoverageGrid grid,
+			final List<? extends Satellite> satellites, final long startMillis,
+			final long endMillis) {
+		Preconditions.checkNotNull(grid);
+		Preconditions.checkNotNull(satellites);
+		Preconditions.checkArgument(endMillis >= startMillis,
+				"endMillis must not be before startMillis");
+		final int n = grid.size();
+		final double[] geometry = grid.geometry();
+		final boolean[] covered = new boolean[n];
+		int[] current = new int[n];
+		int currentCount = 0;
+		int[] previous = new int[n];
+		int previousCount = 0;
+		final boolean[] wasCovered = new boolean[n];
+		final long[] openSince = new long[n];
+		final long[][] intervals = new long[n][];
+		final int[] sizes = new int[n];
+		final double[] state = new double[6];
+		final StateVectorSource[] vectors = AbstractSatellite
+				.stateVectors(satellites);
+		for (long t = startMillis; t < endMillis; t += stepMillis) {
+			final double theta = AbstractSatellite.thetaGJD(AbstractSatellite
+					.julianDateUTC(t));
+			final double cosTheta = Math.cos(theta);
+			final double sinTheta = Math.sin(theta);
+			for (final StateVectorSource satellite : vectors) {
+				satellite.calculateSatelliteVectors(t, state);
+				// earth fixed position
+				final double x = cosTheta * state[0] + sinTheta * state[1];
+				final double y = -sinTheta * state[0] + cosTheta * state[1];
+				final double z = state[2];
+				final double r = Math.sqrt(x * x + y * y + z * z);
+				if (r <= POLAR_RADIUS_KM) {
+					continue;
+				}
+				final double cap = Math.acos(POLAR_RADIUS_KM * cosMinElevation
+						/ r)
+						- minElevation + CAP_MARGIN_RADIANS;
+				final double lat = Math.asin(z / r);
+				final double lon = Math.atan2(y, x);
+				final int[] rowStarts = grid.rowStarts();
+				final double[] rowLatitudes = grid.rowLatitudes();
+				int row = firstRowAtOrAbove(rowLatitudes,
+						Math.toDegrees(lat - cap));
+				final double maxRowLatitude = Math.toDegrees(lat + cap);
+				final double cosCap = Math.cos(cap);
+				final double sinLat = Math.sin(lat);
+				final double cosLat = Math.cos(lat);
+				for (; row < rowLatitudes.length
+						&& rowLatitudes[row] <= maxRowLatitude; row++) {
+					final double rowLat = Math.toRadians(rowLatitudes[row]);
+					final double c = (cosCap - Math.sin(rowLat) * sinLat)
+							/ (Math.cos(rowLat) * cosLat);
+					final int from = rowStarts[row];
+					final int to = rowStarts[row + 1];
+					if (c > 1) {
+						continue;
+					} else if (c <= -1) {
+						currentCount = test(grid, geometry, from, to, x, y, z,
+								covered, current, currentCount);
+					} else {
+						final double delta = Math.acos(c);
+						currentCount = testLongitudes(grid, geometry, from,
+								to, lon - delta, lon + delta, x, y, z, covered,
+								current, currentCount);
+					}
+				}
+			}
+			for (int k = 0; k < currentCount; k++) {
+				final int i = current[k];
+				if (!wasCovered[i]) {
+					openSince[i] = t;
+				}
+			}
+			for (int k = 0; k < previousCount; k++) {
+				final int i = previous[k];
+				if (!covered[i]) {
+					add(intervals, sizes, i, openSince[i], t);
+				}
+				wasCovered[i] = false;
+			}
+			for (int k = 0; k < currentCount; k++) {
+				final int i = current[k];
+				wasCovered[i] = true;
+				covered[i] = false;
+			}
+			final int[] temp = previous;
+			previous = current;
+			current = temp;
+			previousCount = currentCount;
+			currentCount = 0;
+		}
+		for (int k = 0; k < previousCount; k++) {
+			final int i = previous[k];
+			add(intervals, sizes, i, openSince[i], endMillis);
+		}
+		for (int i = 0; i < n; i++) {
+			intervals[i] = intervals[i] == null ? new long[0] : Arrays.copyOf(
+					intervals[i], sizes[i]);
+		}
+		return new CoverageResult(grid, startMillis, endMillis, intervals);
+	}
+
+	private static int firstRowAtOrAbove(final double[] rowLatitudes,
+			final double latitude) {
+		int k = Arrays.binarySearch(rowLatitudes, latitude);
+		if (k < 0) {
+			k = -k - 1;
+		}
+		return k;
+	}
+
+	/**
+	 * Tests the points of a row with longitude between from and to radians,
+	 * which may extend beyond -PI to PI.
+	 */
+	private int testLongitudes(final CoverageGrid grid,
+			final double[] geometry, final int rowFrom, final int rowTo,
+			final double from, final double to, final double x,
+			final double y, final double z, final boolean[] covered,
+			final int[] current, final int count) {
+		final double[] longitudes = grid.sortedLongitudes();
+		int result = count;
+		if (from < -Math.PI) {
+			result = test(grid, geometry, rowFrom,
+					upper(longitudes, rowFrom, rowTo, to), x, y, z, covered,
+					current, result);
+			result = test(grid, geometry,
+					lower(longitudes, rowFrom, rowTo, from + 2 * Math.PI),
+					rowTo, x, y, z, covered, current, result);
+		} else if (to >= Math.PI) {
+			result = test(grid, geometry,
+					lower(longitudes, rowFrom, rowTo, from), rowTo, x, y, z,
+					covered, current, result);
+			result = test(grid, geometry, rowFrom,
+					upper(longitudes, rowFrom, rowTo, to - 2 * Math.PI), x, y,
+					z, covered, current, result);
+		} else {
+			result = test(grid, geometry,
+					lower(longitudes, rowFrom, rowTo, from),
+					upper(longitudes, rowFrom, rowTo, to), x, y, z, covered,
+					current, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first position in [from, to) with longitude at least value.
+	 */
+	private static int lower(final double[] longitudes, final int from,
+			final int to, final double value) {
+		int lo = from;
+		int hi = to;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (longitudes[mid] < value) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the first position in [from, to) with longitude greater than
+	 * value.
+	 */
+	private static int upper(final double[] longitudes, final int from,
+			final int to, final double value) {
+		int lo = from;
+		int hi = to;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (longitudes[mid] <= value) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Applies the exact elevation test to the points at positions [from, to)
+	 * of the sorted order that are not already covered.
+	 */
+	private int test(final CoverageGrid grid, final double[] geometry,
+			final int from, final int to, final double x, final double y,
+			final double z, final boolean[] covered, final int[] current,
+			final int count) {
+		final int[] sorted = grid.sorted();
+		int result = count;
+		for (int k = from; k < to; k++) {
+			final int i = sorted[k];
+			if (covered[i]) {
+				continue;
+			}
+			final double rx = x - geometry[i * 6];
+			final double ry = y - geometry[i * 6 + 1];
+			final double rz = z - geometry[i * 6 + 2];
+			final double up = rx * geometry[i * 6 + 3] + ry
+					* geometry[i * 6 + 4] + rz * geometry[i * 6 + 5];
+			// sin(elevation) = up / range
+			if (up > 0
+					&& up * up >= sinMinElevation * sinMinElevation
+							* (rx * rx + ry * ry + rz * rz)) {
+				covered[i] = true;
+				current[result++] = i;
+			}
+		}
+		return result;
+	}
+
+	private static void add(final long[][] intervals, final int[] sizes,
+			final int i, final long start, final long end) {
+		if (intervals[i] == null) {
+			intervals[i] = new long[4];
+		} else if (sizes[i] + 2 > intervals[i].length) {
+			intervals[i] = Arrays.copyOf(intervals[i], intervals[i].length * 2);
+		}
+		intervals[i][sizes[i]++] = start;
+		intervals[i][sizes[i]++] = end;
+	}
+
+}
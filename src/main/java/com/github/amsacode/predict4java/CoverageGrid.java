@@ -0,0 +1,178 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * The ground points (cells) of a coverage analysis, see
+ * {@link CoverageEngine}. The earth fixed position and local vertical of each
+ * point are calculated once and the points are grouped into rows of equal
+ * latitude sorted by longitude so that the points under a satellite's
+ * footprint can be found without visiting the whole grid. Instances are
+ * immutable and thus thread safe.
+ */
+public class CoverageGrid {
+
+	private final GroundStationPosition[] points;
+	/** Earth fixed position in km and up vector, 6 values per point. */
+	private final double[] geometry;
+	/** Point indexes sorted by latitude then longitude. */
+	private final int[] sorted;
+	/** Longitude in radians (-PI to PI) of each entry of sorted. */
+	private final double[] sortedLongitudes;
+	private final double[] rowLatitudes;
+	/** Start of each row in sorted, with a final entry for the end. */
+	private final int[] rowStarts;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param points
+	 *            the ground points, the horizon elevations are ignored
+	 */
+	public CoverageGrid(final List<GroundStationPosition> points) {
+		Preconditions.checkNotNull(points);
+		final int n = points.size();
+		this.points = points.toArray(new GroundStationPosition[n]);
+		geometry = new double[n * 6];
+		final double[] terms = new double[AbstractSatellite.STATION_TERMS];
+		for (int i = 0; i < n; i++) {
+			AbstractSatellite.stationTerms(this.points[i], terms);
+			final double cosLon = Math.cos(terms[0]);
+			final double sinLon = Math.sin(terms[0]);
+			geometry[i * 6] = terms[3] * cosLon;
+			geometry[i * 6 + 1] = terms[3] * sinLon;
+			geometry[i * 6 + 2] = terms[4];
+			geometry[i * 6 + 3] = terms[2] * cosLon;
+			geometry[i * 6 + 4] = terms[2] * sinLon;
+			geometry[i * 6 + 5] = terms[1];
+		}
+		final List<Integer> order = new ArrayList<Integer>(n);
+		for (int i = 0; i < n; i++) {
+			order.add(i);
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				final int c = Double.compare(latitude(a), latitude(b));
+				return c != 0 ? c : Double.compare(longitude(a), longitude(b));
+			}
+		});
+		sorted = new int[n];
+		sortedLongitudes = new double[n];
+		final double[] latitudes = new double[n];
+		final int[] starts = new int[n + 1];
+		int rows = 0;
+		for (int k = 0; k < n; k++) {
+			final int i = order.get(k);
+			sorted[k] = i;
+			sortedLongitudes[k] = longitude(i);
+			if (k == 0 || latitude(i) != latitudes[rows - 1]) {
+				latitudes[rows] = latitude(i);
+				starts[rows] = k;
+				rows++;
+			}
+		}
+		starts[rows] = n;
+		rowLatitudes = Arrays.copyOf(latitudes, rows);
+		rowStarts = Arrays.copyOf(starts, rows + 1);
+	}
+
+	/**
+	 * Returns a grid of points at the centres of cells of the given size
+	 * covering a latitude and longitude range at sea level.
+	 *
+	 * @param minLatitude
+	 *            the southern edge in degrees
+	 * @param maxLatitude
+	 *            the northern edge in degrees
+	 * @param minLongitude
+	 *            the western edge in degrees
+	 * @param maxLongitude
+	 *            the eastern edge in degrees
+	 * @param cellDegrees
+	 *            the size of a cell in degrees
+	 * @return the grid
+	 */
+	public static CoverageGrid regular(final double minLatitude,
+			final double maxLatitude, final double minLongitude,
+			final double maxLongitude, final double cellDegrees) {
+		Preconditions.checkArgument(cellDegrees > 0,
+				"cellDegrees must be positive");
+		Preconditions.checkArgument(minLatitude <= maxLatitude
+				&& minLongitude <= maxLongitude, "empty range");
+		final int rows = (int) Math.ceil((maxLatitude - minLatitude)
+				/ cellDegrees);
+		final int columns = (int) Math.ceil((maxLongitude - minLongitude)
+				/ cellDegrees);
+		final List<GroundStationPosition> points = new ArrayList<GroundStationPosition>(
+				rows * columns);
+		for (int r = 0; r < rows; r++) {
+			final double lat = minLatitude + (r + 0.5) * cellDegrees;
+			for (int c = 0; c < columns; c++) {
+				points.add(new GroundStationPosition(lat, minLongitude
+						+ (c + 0.5) * cellDegrees, 0));
+			}
+		}
+		return new CoverageGrid(points);
+	}
+
+	/**
+	 * @return the number of points
+	 */
+	public final int size() {
+		return points.length;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the point
+	 * @return the point
+	 */
+	public final GroundStationPosition get(final int index) {
+		return points[index];
+	}
+
+	private double latitude(final int i) {
+		return points[i].getLatitude();
+	}
+
+	/**
+	 * Returns the longitude of point i in radians from -PI to PI.
+	 */
+	private double longitude(final int i) {
+		double lon = Math.toRadians(points[i].getLongitude()) % (2 * Math.PI);
+		if (lon >= Math.PI) {
+			lon -= 2 * Math.PI;
+		} else if (lon < -Math.PI) {
+			lon += 2 * Math.PI;
+		}
+		return lon;
+	}
+
+	double[] geometry() {
+		return geometry;
+	}
+
+	int[] sorted() {
+		return sorted;
+	}
+
+	double[] sortedLongitudes() {
+		return sortedLongitudes;
+	}
+
+	double[] rowLatitudes() {
+		return rowLatitudes;
+	}
+
+	int[] rowStarts() {
+		return rowStarts;
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * The coverage of each point of a {@link CoverageGrid} over a time window
+ * calculated by a {@link CoverageEngine}. Access intervals are the times when
+ * at least one satellite is above the minimum elevation, to the resolution of
+ * the engine's step. Gaps are the times in the window outside the access
+ * intervals, including any before the first access and after the last.
+ */
+public class CoverageResult {
+
+	private final CoverageGrid grid;
+	private final long start;
+	private final long end;
+	private final long[][] intervals;
+	private final long[] coveredMillis;
+	private final long[] maxGapMillis;
+	private final int[] gaps;
+
+	CoverageResult(final CoverageGrid grid, final long start, final long end,
+			final long[][] intervals) {
+		this.grid = grid;
+		this.start = start;
+		this.end = end;
+		this.intervals = intervals;
+		final int n = intervals.length;
+		coveredMillis = new long[n];
+		maxGapMillis = new long[n];
+		gaps = new int[n];
+		for (int i = 0; i < n; i++) {
+			long previousEnd = start;
+			final long[] list = intervals[i];
+			for (int k = 0; k < list.length; k += 2) {
+				coveredMillis[i] += list[k + 1] - list[k];
+				gap(i, list[k] - previousEnd);
+				previousEnd = list[k + 1];
+			}
+			gap(i, end - previousEnd);
+		}
+	}
+
+	private void gap(final int i, final long length) {
+		if (length > 0) {
+			gaps[i]++;
+			maxGapMillis[i] = Math.max(maxGapMillis[i], length);
+		}
+	}
+
+	/**
+	 * @return the grid
+	 */
+	public final CoverageGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * @return the start of the window in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 */
+	public final long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the end of the window in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 */
+	public final long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Returns the access intervals of a point as start and end time pairs in
+	 * milliseconds since 1970-01-01T00:00:00Z. The array is returned without
+	 * copying and should not be modified.
+	 *
+	 * @param index
+	 *            the index of the point in the grid
+	 * @return the access intervals
+	 */
+	public final long[] getAccessIntervals(final int index) {
+		return intervals[index];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the point in the grid
+	 * @return the fraction of the window that the point is covered
+	 */
+	public final double getCoverageFraction(final int index) {
+		return end == start ? 0 : coveredMillis[index]
+				/ (double) (end - start);
+	}
+
+	/**
+	 * @param index
+	 *            the index of the point in the grid
+	 * @return the longest time in milliseconds that the point is not covered
+	 */
+	public final long getMaxGapMillis(final int index) {
+		return maxGapMillis[index];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the point in the grid
+	 * @return the mean length in milliseconds of the times that the point is
+	 *         not covered, zero if it is always covered
+	 */
+	public final double getMeanGapMillis(final int index) {
+		return gaps[index] == 0 ? 0 : (end - start - coveredMillis[index])
+				/ (double) gaps[index];
+	}
+
+	/**
+	 * Returns the coverage fraction averaged over the points weighted by the
+	 * cosine of their latitude, which for a regular grid is the fraction of
+	 * the area covered.
+	 *
+	 * @return the mean coverage fraction
+	 */
+	public final double getMeanCoverageFraction() {
+		double sum = 0;
+		double weights = 0;
+		for (int i = 0; i < intervals.length; i++) {
+			final double weight = Math.cos(Math.toRadians(grid.get(i)
+					.getLatitude()));
+			sum += weight * getCoverageFraction(i);
+			weights += weight;
+		}
+		return weights == 0 ? 0 : sum / weights;
+	}
+
+}
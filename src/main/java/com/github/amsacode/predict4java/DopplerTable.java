@@ -0,0 +1,61 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Doppler corrected uplink and downlink frequencies sampled at a fixed
+ * interval, typically over a {@link SatPassTime}. The values are held in
+ * primitive arrays indexed by sample so that radio control software can step
+ * through them without boxing. The arrays are returned without copying and
+ * should not be modified.
+ */
+public class DopplerTable {
+
+	private final long[] times;
+	private final double[] rangeRates;
+	private final long[] uplinkFreqs;
+	private final long[] downlinkFreqs;
+
+	DopplerTable(final long[] times, final double[] rangeRates,
+			final long[] uplinkFreqs, final long[] downlinkFreqs) {
+		this.times = times;
+		this.rangeRates = rangeRates;
+		this.uplinkFreqs = uplinkFreqs;
+		this.downlinkFreqs = downlinkFreqs;
+	}
+
+	/**
+	 * @return the number of samples
+	 */
+	public final int size() {
+		return times.length;
+	}
+
+	/**
+	 * @return the sample times in milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public final long[] getTimes() {
+		return times;
+	}
+
+	/**
+	 * @return the range rates in km/s, positive when the satellite is moving
+	 *         away from the ground station
+	 */
+	public final double[] getRangeRates() {
+		return rangeRates;
+	}
+
+	/**
+	 * @return the uplink frequencies in Hz corrected for doppler
+	 */
+	public final long[] getUplinkFreqs() {
+		return uplinkFreqs;
+	}
+
+	/**
+	 * @return the downlink frequencies in Hz corrected for doppler
+	 */
+	public final long[] getDownlinkFreqs() {
+		return downlinkFreqs;
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Immutable passage of a satellite through the earth's shadow found by an
+ * {@link EclipseFinder}. The penumbra interval is when any part of the sun is
+ * hidden by the earth and the umbra interval, which it contains, is when all
+ * of it is. Intervals that began before or continue after the searched window
+ * are cut at the window.
+ */
+public class Eclipse {
+
+	private final long penumbraStart;
+	private final long umbraStart;
+	private final long umbraEnd;
+	private final long penumbraEnd;
+	private final boolean umbra;
+
+	Eclipse(final long penumbraStart, final long umbraStart,
+			final long umbraEnd, final long penumbraEnd, final boolean umbra) {
+		this.penumbraStart = penumbraStart;
+		this.umbraStart = umbraStart;
+		this.umbraEnd = umbraEnd;
+		this.penumbraEnd = penumbraEnd;
+		this.umbra = umbra;
+	}
+
+	/**
+	 * @return the time of penumbra entry in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 */
+	public final long getPenumbraStart() {
+		return penumbraStart;
+	}
+
+	/**
+	 * @return the time of umbra entry in milliseconds since
+	 *         1970-01-01T00:00:00Z, only meaningful if {@link #hasUmbra()}
+	 */
+	public final long getUmbraStart() {
+		return umbraStart;
+	}
+
+	/**
+	 * @return the time of umbra exit in milliseconds since
+	 *         1970-01-01T00:00:00Z, only meaningful if {@link #hasUmbra()}
+	 */
+	public final long getUmbraEnd() {
+		return umbraEnd;
+	}
+
+	/**
+	 * @return the time of penumbra exit in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 */
+	public final long getPenumbraEnd() {
+		return penumbraEnd;
+	}
+
+	/**
+	 * @return false if the satellite only grazed the penumbra
+	 */
+	public final boolean hasUmbra() {
+		return umbra;
+	}
+
+	@Override
+	public String toString() {
+		return "Eclipse [penumbraStart=" + penumbraStart + ", umbraStart="
+				+ umbraStart + ", umbraEnd=" + umbraEnd + ", penumbraEnd="
+				+ penumbraEnd + ", umbra=" + umbra + "]";
+	}
+
+}
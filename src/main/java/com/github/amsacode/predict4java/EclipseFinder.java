@@ -0,0 +1,388 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Finds the times that satellites enter and leave the earth's penumbra and
+ * umbra over a time window.
+ * <p>
+ * The umbra depth is the eclipse depth of {@link SatPos} (the earth's
+ * semi-diameter less the sun's semi-diameter less the angle between them as
+ * seen from the satellite) and the penumbra depth is the same plus the sun's
+ * diameter, each being non-negative in its shadow. Both are sampled every
+ * step, sign changes are refined by root finding and local maxima that come
+ * near zero are searched for short grazing passages between samples. The sun
+ * position is calculated once an hour for the window and interpolated (see
+ * {@link SunTable}), so it is shared by all samples and satellites. The step
+ * should be small compared with the orbital period. Instances are immutable
+ * and thus thread safe.
+ */
+public class EclipseFinder {
+
+	/** Default interval between samples. */
+	public static final long DEFAULT_STEP_MILLIS = 60000;
+	/** Default accuracy of the event times. */
+	public static final long DEFAULT_TOLERANCE_MILLIS = 1;
+
+	private static final int UMBRA = 0;
+	private static final int PENUMBRA = 1;
+	private static final int MAX_ROOT_ITERATIONS = 60;
+	private static final double GOLDEN = (Math.sqrt(5) - 1) / 2;
+	/** Allows for the rate of change of depth varying over a step. */
+	private static final double RATE_MARGIN = 1.5;
+
+	private static final int PENUMBRA_ENTRY = 0;
+	private static final int UMBRA_ENTRY = 1;
+	private static final int UMBRA_EXIT = 2;
+	private static final int PENUMBRA_EXIT = 3;
+
+	private final long stepMillis;
+	private final long toleranceMillis;
+
+	/**
+	 * Creates a finder that samples every {@link #DEFAULT_STEP_MILLIS} and
+	 * finds event times to within {@link #DEFAULT_TOLERANCE_MILLIS}.
+	 */
+	public EclipseFinder() {
+		this(DEFAULT_STEP_MILLIS, DEFAULT_TOLERANCE_MILLIS);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param stepMillis
+	 *            the interval between samples
+	 * @param toleranceMillis
+	 *            the accuracy of the event times, passages through the
+	 *            shadow shorter than this may be missed
+	 */
+	public EclipseFinder(final long stepMillis, final long toleranceMillis) {
+		Preconditions.checkArgument(stepMillis > 0,
+				"stepMillis must be positive");
+		Preconditions.checkArgument(toleranceMillis >= 1,
+				"toleranceMillis must be at least 1");
+		this.stepMillis = stepMillis;
+		this.toleranceMillis = toleranceMillis;
+	}
+
+	/**
+	 * Finds the eclipses of a satellite in a time window.
+	 *
+	 * @param satellite
+	 *            the satellite
+	 * @param startMillis
+	 *            the start of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param endMillis
+	 *            the end of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @return the eclipses in time order
+	 */
+	public List<Eclipse> find(final Satellite satellite,
+			final long startMillis, final long endMillis) {
+		return find(Collections.singletonList(satellite), startMillis,
+				endMillis).get(0);
+	}
+
+	/**
+	 * Finds the eclipses of satellites in a time window.
+	 *
+	 * @param satellites
+	 *            the satellites
+	 * @param startMillis
+	 *            the start of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param endMillis
+	 *            the end of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @return the eclipses in time order of each satellite, in the order of
+	 *         satellites
+	 */
+	public List<List<Eclipse>> find(final List<? extends Satellite> satellites,
+			final long startMillis, final long endMillis) {
+		Preconditions.checkNotNull(satellites);
+		Preconditions.checkArgument(endMillis >= startMillis,
+				"endMillis must not be before startMillis");
+		final SunTable sun = new SunTable(startMillis, endMillis);
+		final List<List<Eclipse>> result = new ArrayList<List<Eclipse>>(
+				satellites.size());
+		for (final Satellite satellite : satellites) {
+			result.add(new Search(satellite, sun).run(startMillis, endMillis));
+		}
+		return result;
+	}
+
+	/**
+	 * State of the search for the eclipses of one satellite.
+	 */
+	private final class Search {
+
+		private final StateVectorSource vectors;
+		private final SunTable sunTable;
+		private final double[] state = new double[6];
+		private final double[] sun = new double[3];
+		private final double[] depth = new double[2];
+		/** Bound on the rate of change of depth at the last evaluation. */
+		private double rate;
+		private final List<long[]> events = new ArrayList<long[]>();
+
+		Search(final Satellite satellite, final SunTable sunTable) {
+			this.vectors = AbstractSatellite.stateVectors(satellite);
+			this.sunTable = sunTable;
+		}
+
+		List<Eclipse> run(final long start, final long end) {
+			// samples k - 1, k and k + 1 of both depths and the rate at k
+			final double[] before = new double[2];
+			final double[] current = new double[2];
+			final double[] after = new double[2];
+			evaluate(start);
+			copy(depth, current);
+			final boolean inPenumbra = current[PENUMBRA] >= 0;
+			final boolean inUmbra = current[UMBRA] >= 0;
+			double currentRate = rate;
+			long previous = Long.MIN_VALUE;
+			long t = start;
+			while (t < end) {
+				final long next = Math.min(t + stepMillis, end);
+				evaluate(next);
+				copy(depth, after);
+				final double afterRate = rate;
+				for (int f = UMBRA; f <= PENUMBRA; f++) {
+					if (current[f] < 0 != after[f] < 0) {
+						final boolean entry = after[f] >= 0;
+						events.add(new long[] {
+								root(f, t, current[f], next, after[f]),
+								f == UMBRA ? (entry ? UMBRA_ENTRY : UMBRA_EXIT)
+										: (entry ? PENUMBRA_ENTRY
+												: PENUMBRA_EXIT) });
+					}
+				}
+				searchMaximum(previous, before, t, current, currentRate, next,
+						after);
+				copy(current, before);
+				copy(after, current);
+				currentRate = afterRate;
+				previous = t;
+				t = next;
+			}
+			if (previous != Long.MIN_VALUE) {
+				searchMaximum(previous, before, t, current, currentRate,
+						Long.MIN_VALUE, null);
+			}
+			return eclipses(start, end, inPenumbra, inUmbra);
+		}
+
+		/**
+		 * Looks for a passage through the shadow between samples around
+		 * sample t when it is a local maximum of depth that is below zero but
+		 * within reach of it.
+		 */
+		private void searchMaximum(final long previous, final double[] before,
+				final long t, final double[] current, final double currentRate,
+				final long next, final double[] after) {
+			for (int f = PENUMBRA; f >= UMBRA; f--) {
+				final boolean hasBefore = previous != Long.MIN_VALUE;
+				final boolean hasAfter = next != Long.MIN_VALUE;
+				if (current[f] >= 0 || hasBefore && before[f] >= 0
+						|| hasAfter && after[f] >= 0) {
+					continue;
+				}
+				if (hasBefore && before[f] > current[f] || hasAfter
+						&& after[f] > current[f]) {
+					continue;
+				}
+				if (current[f] + RATE_MARGIN * currentRate * stepMillis
+						/ 1000.0 < 0) {
+					// the umbra depth is always less than the penumbra depth
+					return;
+				}
+				final long a = hasBefore ? previous : t;
+				final long b = hasAfter ? next : t;
+				final long inside = findNonNegative(f, a, b);
+				if (inside == Long.MIN_VALUE) {
+					// the umbra can't be reached if the penumbra isn't
+					return;
+				}
+				final double inDepth = value(f, inside);
+				final double aDepth = hasBefore ? before[f] : current[f];
+				final double bDepth = hasAfter ? after[f] : current[f];
+				events.add(new long[] { root(f, a, aDepth, inside, inDepth),
+						f == UMBRA ? UMBRA_ENTRY : PENUMBRA_ENTRY });
+				events.add(new long[] { root(f, inside, inDepth, b, bDepth),
+						f == UMBRA ? UMBRA_EXIT : PENUMBRA_EXIT });
+			}
+		}
+
+		/**
+		 * Returns a time in [a, b] with non-negative depth found by golden
+		 * section search for the maximum or Long.MIN_VALUE if there is none.
+		 */
+		private long findNonNegative(final int f, final long a, final long b) {
+			long lo = a;
+			long hi = b;
+			long x1 = hi - Math.round(GOLDEN * (hi - lo));
+			long x2 = lo + Math.round(GOLDEN * (hi - lo));
+			double f1 = value(f, x1);
+			double f2 = value(f, x2);
+			while (true) {
+				if (f1 >= 0) {
+					return x1;
+				} else if (f2 >= 0) {
+					return x2;
+				} else if (hi - lo <= toleranceMillis) {
+					return Long.MIN_VALUE;
+				} else if (f1 < f2) {
+					lo = x1;
+					x1 = x2;
+					f1 = f2;
+					x2 = lo + Math.round(GOLDEN * (hi - lo));
+					f2 = value(f, x2);
+				} else {
+					hi = x2;
+					x2 = x1;
+					f2 = f1;
+					x1 = hi - Math.round(GOLDEN * (hi - lo));
+					f1 = value(f, x1);
+				}
+			}
+		}
+
+		/**
+		 * Returns the time of the zero of depth f between t0 and t1 where it
+		 * has opposite signs, using false position (Illinois).
+		 */
+		private long root(final int f, final long t0, final double f0,
+				final long t1, final double f1) {
+			// g is negative at lo and non-negative at hi
+			final double sign = f0 < 0 ? 1 : -1;
+			long lo = 0;
+			long hi = t1 - t0;
+			double gLo = sign * f0;
+			double gHi = sign * f1;
+			double weightLo = gLo;
+			double weightHi = gHi;
+			int side = 0;
+			for (int i = 0; i < MAX_ROOT_ITERATIONS
+					&& hi - lo > toleranceMillis; i++) {
+				final double estimate = (lo * weightHi - hi * weightLo)
+						/ (weightHi - weightLo);
+				final long t = Math.max(lo + 1,
+						Math.min(hi - 1, Math.round(estimate)));
+				final double g = sign * value(f, t0 + t);
+				if (g < 0) {
+					lo = t;
+					gLo = g;
+					weightLo = g;
+					if (side == -1) {
+						weightHi /= 2;
+					}
+					side = -1;
+				} else {
+					hi = t;
+					gHi = g;
+					weightHi = g;
+					if (side == 1) {
+						weightLo /= 2;
+					}
+					side = 1;
+				}
+			}
+			return t0 + Math.round((lo * gHi - hi * gLo) / (gHi - gLo));
+		}
+
+		private double value(final int f, final long timeMillis) {
+			evaluate(timeMillis);
+			return depth[f];
+		}
+
+		/**
+		 * Calculates the umbra and penumbra depths in radians at a time and
+		 * a bound on their rate of change in radians per second.
+		 */
+		private void evaluate(final long timeMillis) {
+			vectors.calculateSatelliteVectors(timeMillis, state);
+			sunTable.position(timeMillis, sun);
+			final double r = Math.sqrt(state[0] * state[0] + state[1]
+					* state[1] + state[2] * state[2]);
+			final double sunDistance = Math.sqrt(sun[0] * sun[0] + sun[1]
+					* sun[1] + sun[2] * sun[2]);
+			final double rhoX = sun[0] - state[0];
+			final double rhoY = sun[1] - state[1];
+			final double rhoZ = sun[2] - state[2];
+			final double rho = Math.sqrt(rhoX * rhoX + rhoY * rhoY + rhoZ
+					* rhoZ);
+			final double sdEarth = Math.asin(Math.min(1,
+					AbstractSatellite.EARTH_RADIUS / r));
+			final double sdSun = Math.asin(AbstractSatellite.SOLAR_RADIUS
+					/ rho);
+			final double cosDelta = -(sun[0] * state[0] + sun[1] * state[1] + sun[2]
+					* state[2])
+					/ (sunDistance * r);
+			final double delta = Math.acos(Math.max(-1,
+					Math.min(1, cosDelta)));
+			depth[UMBRA] = sdEarth - sdSun - delta;
+			depth[PENUMBRA] = sdEarth + sdSun - delta;
+			final double speed = Math.sqrt(state[3] * state[3] + state[4]
+					* state[4] + state[5] * state[5]);
+			final double horizon = Math.sqrt(Math.max(r * r
+					- AbstractSatellite.EARTH_RADIUS
+					* AbstractSatellite.EARTH_RADIUS, 1));
+			rate = speed / r * (1 + AbstractSatellite.EARTH_RADIUS / horizon);
+		}
+
+		private List<Eclipse> eclipses(final long start, final long end,
+				final boolean inPenumbra, final boolean inUmbra) {
+			Collections.sort(events, new Comparator<long[]>() {
+				@Override
+				public int compare(final long[] a, final long[] b) {
+					final int c = a[0] < b[0] ? -1 : (a[0] == b[0] ? 0 : 1);
+					return c != 0 ? c : (int) (a[1] - b[1]);
+				}
+			});
+			final List<Eclipse> result = new ArrayList<Eclipse>();
+			boolean penumbra = inPenumbra;
+			long penumbraStart = start;
+			boolean umbra = inUmbra;
+			long umbraStart = start;
+			long umbraEnd = end;
+			for (final long[] event : events) {
+				final long time = event[0];
+				if (event[1] == PENUMBRA_ENTRY) {
+					penumbra = true;
+					penumbraStart = time;
+					umbra = false;
+				} else if (event[1] == UMBRA_ENTRY) {
+					if (!umbra) {
+						umbraStart = time;
+						umbra = true;
+					}
+					umbraEnd = end;
+				} else if (event[1] == UMBRA_EXIT) {
+					umbraEnd = time;
+				} else {
+					result.add(new Eclipse(penumbraStart, umbraStart, umbraEnd,
+							time, umbra));
+					penumbra = false;
+					umbra = false;
+				}
+			}
+			if (penumbra) {
+				result.add(new Eclipse(penumbraStart, umbraStart, umbraEnd,
+						end, umbra));
+			}
+			return result;
+		}
+	}
+
+	private static void copy(final double[] from, final double[] to) {
+		to[0] = from[0];
+		to[1] = from[1];
+	}
+
+}
@@ -0,0 +1,284 @@
+package com.github.amsacode.predict4java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Read access to a file of precomputed ECI states written by
+ * {@link EphemerisWriter}. The file is memory mapped when opened so opening is
+ * quick whatever the size of the file and the states are read from the page
+ * cache, shared by every process reading the same file.
+ * <p>
+ * The file is a header, the catalog numbers of the satellites, then a state
+ * of six little endian doubles (position in km, velocity in km/s) per
+ * satellite and sample time, ordered as given by the {@link Layout}. A state
+ * is found by arithmetic on its indexes so any state can be read in constant
+ * time. Instances are immutable and thread safe.
+ */
+public final class EphemerisFile {
+
+	/**
+	 * The order of the states in the file.
+	 */
+	public enum Layout {
+		/**
+		 * All the satellites at the first sample time, then all at the
+		 * second and so on. Best for snapshots of the whole catalog.
+		 */
+		TIME_MAJOR,
+		/**
+		 * All the sample times of the first satellite, then all of the second
+		 * and so on. Best for the history of a few satellites.
+		 */
+		SATELLITE_MAJOR
+	}
+
+	/**
+	 * The length of the scratch array needed by
+	 * {@link #getState(int, long, double[], double[])}.
+	 */
+	public static final int SCRATCH_LENGTH = 12;
+
+	static final int MAGIC = 0x50344a45;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 40;
+	static final int STATE_BYTES = 48;
+	static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	/** States per mapped region, a region must be less than 2GB. */
+	static final long STATES_PER_REGION = Integer.MAX_VALUE / STATE_BYTES;
+
+	private final Layout layout;
+	private final int satellites;
+	private final int samples;
+	private final long startMillis;
+	private final long stepMillis;
+	private final int[] catnums;
+	private final Map<Integer, Integer> indexes;
+	private final MappedByteBuffer[] regions;
+
+	/**
+	 * Opens and maps a file written by {@link EphemerisWriter}.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the file cannot be read or is not an ephemeris file
+	 */
+	public EphemerisFile(final File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			if (channel.size() < HEADER_BYTES) {
+				throw new IOException("not an ephemeris file: " + file);
+			}
+			final MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0,
+					HEADER_BYTES);
+			header.order(ORDER);
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new IOException("not an ephemeris file: " + file);
+			}
+			final int layoutOrdinal = header.getInt(8);
+			if (layoutOrdinal < 0 || layoutOrdinal >= Layout.values().length) {
+				throw new IOException("unknown layout in ephemeris file: "
+						+ file);
+			}
+			layout = Layout.values()[layoutOrdinal];
+			satellites = header.getInt(12);
+			samples = header.getInt(16);
+			startMillis = header.getLong(24);
+			stepMillis = header.getLong(32);
+			final long dataStart = dataStart(satellites);
+			final long states = (long) satellites * samples;
+			if (channel.size() < dataStart + states * STATE_BYTES) {
+				throw new IOException("ephemeris file is truncated: " + file);
+			}
+			final MappedByteBuffer catalog = channel.map(MapMode.READ_ONLY,
+					HEADER_BYTES, 4L * satellites);
+			catalog.order(ORDER);
+			catnums = new int[satellites];
+			indexes = new HashMap<Integer, Integer>();
+			for (int i = 0; i < satellites; i++) {
+				catnums[i] = catalog.getInt(4 * i);
+				indexes.put(catnums[i], i);
+			}
+			regions = map(channel, MapMode.READ_ONLY, dataStart, states);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * @return the order of the states in the file
+	 */
+	public Layout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * @return the number of satellites
+	 */
+	public int size() {
+		return satellites;
+	}
+
+	/**
+	 * @return the number of sample times
+	 */
+	public int getSampleCount() {
+		return samples;
+	}
+
+	/**
+	 * @return the first sample time in milliseconds since 1970-01-01 UTC
+	 */
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	/**
+	 * @return the time between samples in milliseconds
+	 */
+	public long getStepMillis() {
+		return stepMillis;
+	}
+
+	/**
+	 * @return the last sample time in milliseconds since 1970-01-01 UTC
+	 */
+	public long getEndMillis() {
+		return startMillis + (samples - 1) * stepMillis;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the satellite
+	 * @return the catalog number of the satellite
+	 */
+	public int getCatnum(final int index) {
+		return catnums[index];
+	}
+
+	/**
+	 * @param catnum
+	 *            the catalog number of a satellite
+	 * @return the index of the satellite or -1 if it is not in the file
+	 */
+	public int indexOf(final int catnum) {
+		final Integer index = indexes.get(catnum);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Reads the state of a satellite at a sample time, the time
+	 * getStartMillis() + sample * getStepMillis().
+	 *
+	 * @param index
+	 *            the index of the satellite
+	 * @param sample
+	 *            the index of the sample time
+	 * @param out
+	 *            receives x, y, z, dx, dy, dz
+	 */
+	public void getSample(final int index, final int sample,
+			final double[] out) {
+		Preconditions.checkArgument(index >= 0 && index < satellites,
+				"index out of range: " + index);
+		Preconditions.checkArgument(sample >= 0 && sample < samples,
+				"sample out of range: " + sample);
+		read(index, sample, out, 0);
+	}
+
+	/**
+	 * Calculates the state of a satellite at any time between the first and
+	 * last sample by Hermite interpolation of the samples either side.
+	 *
+	 * @param index
+	 *            the index of the satellite
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01 UTC
+	 * @param scratch
+	 *            working space of at least {@link #SCRATCH_LENGTH} elements,
+	 *            so that lookups do not allocate
+	 * @param out
+	 *            receives x, y, z, dx, dy, dz
+	 */
+	public void getState(final int index, final long timeMillis,
+			final double[] scratch, final double[] out) {
+		Preconditions.checkArgument(index >= 0 && index < satellites,
+				"index out of range: " + index);
+		Preconditions.checkArgument(scratch.length >= SCRATCH_LENGTH,
+				"scratch must have at least " + SCRATCH_LENGTH + " elements");
+		Preconditions.checkArgument(timeMillis >= startMillis
+				&& timeMillis <= getEndMillis(), "time outside of the file: "
+				+ timeMillis);
+		final long offset = timeMillis - startMillis;
+		final int sample = (int) (offset / stepMillis);
+		final long sampleMillis = sample * stepMillis;
+		if (offset == sampleMillis) {
+			read(index, sample, out, 0);
+			return;
+		}
+		read(index, sample, scratch, 0);
+		read(index, sample + 1, scratch, 6);
+		Hermite.interpolate(scratch, 0, scratch, 6, stepMillis / 1000.0,
+				(offset - sampleMillis) / 1000.0, out);
+	}
+
+	private void read(final int index, final int sample, final double[] out,
+			final int outOffset) {
+		final long state = stateIndex(layout, satellites, samples, index,
+				sample);
+		final MappedByteBuffer region = regions[(int) (state
+				/ STATES_PER_REGION)];
+		final int position = (int) (state % STATES_PER_REGION) * STATE_BYTES;
+		for (int i = 0; i < 6; i++) {
+			out[outOffset + i] = region.getDouble(position + 8 * i);
+		}
+	}
+
+	static long stateIndex(final Layout layout, final int satellites,
+			final int samples, final int index, final int sample) {
+		if (layout == Layout.TIME_MAJOR) {
+			return (long) sample * satellites + index;
+		} else {
+			return (long) index * samples + sample;
+		}
+	}
+
+	/**
+	 * @return the offset of the first state, aligned to 8 bytes
+	 */
+	static long dataStart(final int satellites) {
+		return (HEADER_BYTES + 4L * satellites + 7) / 8 * 8;
+	}
+
+	/**
+	 * Maps the states in regions holding whole states.
+	 */
+	static MappedByteBuffer[] map(final FileChannel channel,
+			final MapMode mode, final long dataStart, final long states)
+			throws IOException {
+		final int n = (int) ((states + STATES_PER_REGION - 1)
+				/ STATES_PER_REGION);
+		final MappedByteBuffer[] regions = new MappedByteBuffer[n];
+		for (int i = 0; i < n; i++) {
+			final long first = i * STATES_PER_REGION;
+			final long count = Math.min(STATES_PER_REGION, states - first);
+			regions[i] = channel.map(mode, dataStart + first * STATE_BYTES,
+					count * STATE_BYTES);
+			regions[i].order(ORDER);
+		}
+		return regions;
+	}
+
+}
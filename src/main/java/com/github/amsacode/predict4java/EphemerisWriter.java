@@ -0,0 +1,222 @@
+package com.github.amsacode.predict4java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Propagates a catalog of satellites at regular times and writes the ECI
+ * states to a memory mapped file that is read with {@link EphemerisFile}.
+ * The satellites are split between threads, each writing the states of its
+ * satellites straight into the mapped file.
+ */
+public final class EphemerisWriter {
+
+	/** One minute. */
+	public static final long DEFAULT_STEP_MILLIS = 60000;
+
+	private final long stepMillis;
+	private final EphemerisFile.Layout layout;
+	private final ExecutorService executor;
+	private final int parallelism;
+
+	/**
+	 * Creates a writer of time major files with a state every
+	 * {@link #DEFAULT_STEP_MILLIS} that uses a thread per processor for each
+	 * call to {@link #write(File, List, long, long)}.
+	 */
+	public EphemerisWriter() {
+		this(DEFAULT_STEP_MILLIS, EphemerisFile.Layout.TIME_MAJOR, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param stepMillis
+	 *            the time between states
+	 * @param layout
+	 *            the order of the states in the file
+	 * @param executor
+	 *            runs the propagation, is not shut down by this class. If null
+	 *            a pool with a thread per processor is created for each write
+	 */
+	public EphemerisWriter(final long stepMillis,
+			final EphemerisFile.Layout layout, final ExecutorService executor) {
+		Preconditions.checkArgument(stepMillis > 0,
+				"stepMillis must be positive");
+		Preconditions.checkNotNull(layout);
+		this.stepMillis = stepMillis;
+		this.layout = layout;
+		this.executor = executor;
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Writes the states of the satellites from startMillis to endMillis
+	 * (rounded down to a whole number of steps) to the file, replacing it if
+	 * it exists. The states are written to a temporary file in the same
+	 * directory that is then renamed to the file, so readers of the file see
+	 * either the old or the new file in full. The rename is atomic on POSIX
+	 * systems, elsewhere the old file may have to be deleted first.
+	 *
+	 * @param file
+	 *            the file
+	 * @param satellites
+	 *            the satellites
+	 * @param startMillis
+	 *            the time of the first state in milliseconds since 1970-01-01
+	 *            UTC
+	 * @param endMillis
+	 *            the latest time of the last state in milliseconds since
+	 *            1970-01-01 UTC
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void write(final File file,
+			final List<? extends Satellite> satellites, final long startMillis,
+			final long endMillis) throws IOException {
+		Preconditions.checkNotNull(file);
+		Preconditions.checkNotNull(satellites);
+		Preconditions.checkArgument(endMillis >= startMillis,
+				"endMillis must not be before startMillis");
+		final long sampleCount = (endMillis - startMillis) / stepMillis + 1;
+		Preconditions.checkArgument(sampleCount <= Integer.MAX_VALUE,
+				"too many samples");
+		final int samples = (int) sampleCount;
+		final StateVectorSource[] vectors = AbstractSatellite
+				.stateVectors(satellites);
+
+		final File temp = File.createTempFile("." + file.getName() + ".",
+				".tmp", file.getAbsoluteFile().getParentFile());
+		boolean renamed = false;
+		try {
+			writeTo(temp, satellites, vectors, startMillis, samples);
+			if (!temp.renameTo(file)
+					&& !(file.delete() && temp.renameTo(file))) {
+				throw new IOException("could not rename " + temp + " to "
+						+ file);
+			}
+			renamed = true;
+		} finally {
+			if (!renamed) {
+				temp.delete();
+			}
+		}
+	}
+
+	private void writeTo(final File file,
+			final List<? extends Satellite> satellites,
+			final StateVectorSource[] vectors, final long startMillis,
+			final int samples) throws IOException {
+		final int n = satellites.size();
+		final long dataStart = EphemerisFile.dataStart(n);
+		final long states = (long) n * samples;
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(dataStart + states * EphemerisFile.STATE_BYTES);
+			final FileChannel channel = raf.getChannel();
+			final MappedByteBuffer catalog = channel.map(MapMode.READ_WRITE,
+					EphemerisFile.HEADER_BYTES, 4L * n);
+			catalog.order(EphemerisFile.ORDER);
+			for (int i = 0; i < n; i++) {
+				catalog.putInt(4 * i, satellites.get(i).getTLE().getCatnum());
+			}
+			catalog.force();
+			final MappedByteBuffer[] regions = EphemerisFile.map(channel,
+					MapMode.READ_WRITE, dataStart, states);
+			propagate(vectors, startMillis, samples, regions);
+			for (final MappedByteBuffer region : regions) {
+				region.force();
+			}
+			// the header is written last so a temporary file left incomplete
+			// is not read as an ephemeris
+			final MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0,
+					EphemerisFile.HEADER_BYTES);
+			header.order(EphemerisFile.ORDER);
+			header.putInt(4, EphemerisFile.VERSION);
+			header.putInt(8, layout.ordinal());
+			header.putInt(12, n);
+			header.putInt(16, samples);
+			header.putLong(24, startMillis);
+			header.putLong(32, stepMillis);
+			header.putInt(0, EphemerisFile.MAGIC);
+			header.force();
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void propagate(final StateVectorSource[] satellites,
+			final long startMillis, final int samples,
+			final MappedByteBuffer[] regions) {
+		final int n = satellites.length;
+		final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int c = 0; c < parallelism; c++) {
+			final int from = (int) ((long) n * c / parallelism);
+			final int to = (int) ((long) n * (c + 1) / parallelism);
+			if (from < to) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						final double[] state = new double[6];
+						for (int i = from; i < to; i++) {
+							final StateVectorSource satellite = satellites[i];
+							for (int s = 0; s < samples; s++) {
+								satellite.calculateSatelliteVectors(startMillis
+										+ s * stepMillis, state);
+								write(regions, n, samples, i, s, state);
+							}
+						}
+						return null;
+					}
+				});
+			}
+		}
+		final ExecutorService exec = executor == null ? Executors
+				.newFixedThreadPool(parallelism) : executor;
+		try {
+			for (final Future<Void> future : exec.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			if (executor == null) {
+				exec.shutdown();
+			}
+		}
+	}
+
+	private void write(final MappedByteBuffer[] regions, final int n,
+			final int samples, final int index, final int sample,
+			final double[] state) {
+		final long i = EphemerisFile.stateIndex(layout, n, samples, index,
+				sample);
+		final MappedByteBuffer region = regions[(int) (i
+				/ EphemerisFile.STATES_PER_REGION)];
+		final int position = (int) (i % EphemerisFile.STATES_PER_REGION)
+				* EphemerisFile.STATE_BYTES;
+		for (int k = 0; k < 6; k++) {
+			region.putDouble(position + 8 * k, state[k]);
+		}
+	}
+
+}
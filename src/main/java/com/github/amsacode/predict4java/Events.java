@@ -0,0 +1,54 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Hooks for recording events of the hot paths with JDK Flight Recorder. This
+ * version, used on runtimes before Java 11, does nothing and the calls are
+ * removed by the JIT. The multi-release jar carries a Java 11 version of this
+ * class (src/main/java11) that records the events when they are enabled in a
+ * recording.
+ * <p>
+ * A begin method returns a handle that is passed to the matching end method,
+ * null when the event is not being recorded.
+ */
+final class Events {
+
+	private Events() {
+		// prevent instantiation
+	}
+
+	static Object beginPassSearch() {
+		return null;
+	}
+
+	static void endPassSearch(final Object event, final int catnum,
+			final String station, final int iterations) {
+		// not recorded
+	}
+
+	static Object beginPasses() {
+		return null;
+	}
+
+	static void endPasses(final Object event, final int catnum,
+			final String station, final int passes, final int iterations) {
+		// not recorded
+	}
+
+	static Object beginIntegration() {
+		return null;
+	}
+
+	static void endIntegration(final Object event, final int catnum,
+			final int steps) {
+		// not recorded
+	}
+
+	static Object beginTleImport() {
+		return null;
+	}
+
+	static void endTleImport(final Object event, final int count) {
+		// not recorded
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Trigonometric functions from tables and low order polynomials, with an
+ * absolute error of less than {@link Precision#FAST_MAX_ERROR}. Used by
+ * {@link Precision#FAST}.
+ */
+final class FastTrig {
+
+	private static final int SIN_TABLE_SIZE = 512;
+	private static final double STEP = 2 * Math.PI / SIN_TABLE_SIZE;
+	private static final double INVERSE_STEP = 1 / STEP;
+	private static final double[] SIN = new double[SIN_TABLE_SIZE];
+	private static final double[] COS = new double[SIN_TABLE_SIZE];
+
+	private static final int ATAN_TABLE_SIZE = 256;
+	private static final double[] ATAN = new double[ATAN_TABLE_SIZE + 1];
+
+	private static final double PI_OVER_TWO = Math.PI / 2;
+
+	static {
+		for (int i = 0; i < SIN_TABLE_SIZE; i++) {
+			SIN[i] = Math.sin(i * STEP);
+			COS[i] = Math.cos(i * STEP);
+		}
+		for (int i = 0; i <= ATAN_TABLE_SIZE; i++) {
+			ATAN[i] = Math.atan((double) i / ATAN_TABLE_SIZE);
+		}
+	}
+
+	private FastTrig() {
+		// prevent instantiation
+	}
+
+	/**
+	 * sin(a) from the nearest table angle: sin(t + d) = sin(t) cos(d) + cos(t)
+	 * sin(d) with |d| at most half a step (0.006 rad), where cos(d) and sin(d)
+	 * are good to 6E-11 with two terms.
+	 */
+	static double sin(final double a) {
+		final double k = Math.floor(a * INVERSE_STEP + 0.5);
+		final double d = a - k * STEP;
+		final int i = (int) ((long) k & (SIN_TABLE_SIZE - 1));
+		final double d2 = d * d;
+		return SIN[i] * (1 - 0.5 * d2) + COS[i] * d * (1 - d2 / 6);
+	}
+
+	static double cos(final double a) {
+		final double k = Math.floor(a * INVERSE_STEP + 0.5);
+		final double d = a - k * STEP;
+		final int i = (int) ((long) k & (SIN_TABLE_SIZE - 1));
+		final double d2 = d * d;
+		return COS[i] * (1 - 0.5 * d2) - SIN[i] * d * (1 - d2 / 6);
+	}
+
+	static double atan(final double a) {
+		if (a != a) {
+			return a;
+		} else if (a > 1) {
+			return PI_OVER_TWO - atanUnit(1 / a);
+		} else if (a < -1) {
+			return -PI_OVER_TWO + atanUnit(-1 / a);
+		} else if (a < 0) {
+			return -atanUnit(-a);
+		} else {
+			return atanUnit(a);
+		}
+	}
+
+	static double atan2(final double y, final double x) {
+		final double ax = Math.abs(x);
+		final double ay = Math.abs(y);
+		if (!(ax > 0 && ay > 0) || ax == Double.POSITIVE_INFINITY
+				|| ay == Double.POSITIVE_INFINITY) {
+			// zeros, infinities and NaN
+			return Math.atan2(y, x);
+		}
+		double angle;
+		if (ay > ax) {
+			angle = PI_OVER_TWO - atanUnit(ax / ay);
+		} else {
+			angle = atanUnit(ay / ax);
+		}
+		if (x < 0) {
+			angle = Math.PI - angle;
+		}
+		return y < 0 ? -angle : angle;
+	}
+
+	static double asin(final double a) {
+		return atan2(a, Math.sqrt((1 - a) * (1 + a)));
+	}
+
+	static double acos(final double a) {
+		return atan2(Math.sqrt((1 - a) * (1 + a)), a);
+	}
+
+	/**
+	 * atan(a) for a in 0 to 1 from the nearest table value: atan(a) = atan(t)
+	 * + atan(u) with u = (a - t) / (1 + a t), |u| at most 0.002, where atan(u)
+	 * is good to 6E-15 with two terms.
+	 */
+	private static double atanUnit(final double a) {
+		final int i = (int) (a * ATAN_TABLE_SIZE + 0.5);
+		final double t = (double) i / ATAN_TABLE_SIZE;
+		final double u = (a - t) / (1 + a * t);
+		return ATAN[i] + u * (1 - u * u / 3);
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.github.amsacode.predict4java;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Calculates the footprint (range circle) of a satellite into a caller
+ * supplied array, giving the same points as {@link SatPos#getRangeCircle()}
+ * without allocating. The cosine of each azimuth is tabulated once and the
+ * terms that depend on altitude are only recalculated when the altitude
+ * changes by more than a tolerance, so per point only the trigonometry of
+ * the latitude and longitude of the point remains.
+ * <p>
+ * Instances cache the altitude terms so are not thread safe.
+ */
+public class Footprint {
+
+	private final double[] cosAzimuths;
+	private final boolean[] east;
+	private final boolean[] northOrSouth;
+	private final double altitudeToleranceKm;
+
+	private double altitude = Double.NaN;
+	private double beta;
+	private double sinBeta;
+	private double cosBeta;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param incrementDegrees
+	 *            the azimuth increment between points, as for
+	 *            {@link SatPos#getRangeCircle(double)}
+	 * @param altitudeToleranceKm
+	 *            the altitude change in km below which the radius of the
+	 *            previous calculation is reused, zero to always recalculate
+	 */
+	public Footprint(final double incrementDegrees,
+			final double altitudeToleranceKm) {
+		Preconditions.checkArgument(incrementDegrees >= 1,
+				"incrementDegrees must be at least 1");
+		Preconditions.checkArgument(altitudeToleranceKm >= 0,
+				"altitudeToleranceKm must not be negative");
+		int n = 0;
+		for (int azi = 0; azi < 360; azi += incrementDegrees) {
+			n++;
+		}
+		cosAzimuths = new double[n];
+		east = new boolean[n];
+		northOrSouth = new boolean[n];
+		int i = 0;
+		for (int azi = 0; azi < 360; azi += incrementDegrees) {
+			cosAzimuths[i] = Math.cos((azi / 360.0) * 2.0 * Math.PI);
+			east[i] = (180 - azi) >= 0;
+			northOrSouth[i] = azi == 0 || azi == 180;
+			i++;
+		}
+		this.altitudeToleranceKm = altitudeToleranceKm;
+	}
+
+	/**
+	 * Constructor with an increment of 1 degree which always recalculates the
+	 * radius.
+	 */
+	public Footprint() {
+		this(1.0, 0);
+	}
+
+	/**
+	 * @return the number of points in the footprint
+	 */
+	public final int size() {
+		return cosAzimuths.length;
+	}
+
+	/**
+	 * Calculates the footprint of the satellite position.
+	 *
+	 * @param pos
+	 *            the satellite position
+	 * @param latLons
+	 *            receives latitude and longitude pairs in degrees, length at
+	 *            least 2 * {@link #size()}
+	 * @return the number of points written
+	 */
+	public final int calculate(final SatPos pos, final double[] latLons) {
+		return calculate(pos.getLatitude(), pos.getLongitude(),
+				pos.getAltitude(), latLons);
+	}
+
+	/**
+	 * Calculates the footprint of a satellite.
+	 *
+	 * @param latitude
+	 *            the sub satellite latitude in radians
+	 * @param longitude
+	 *            the sub satellite longitude in radians
+	 * @param altitudeKm
+	 *            the altitude in km
+	 * @param latLons
+	 *            receives latitude and longitude pairs in degrees (longitude
+	 *            0 to 360), length at least 2 * {@link #size()}
+	 * @return the number of points written
+	 */
+	public int calculate(final double latitude, final double longitude,
+			final double altitudeKm, final double[] latLons) {
+		Preconditions.checkArgument(latLons.length >= 2 * cosAzimuths.length,
+				"latLons too small");
+		if (!(Math.abs(altitudeKm - altitude) <= altitudeToleranceKm)) {
+			altitude = altitudeKm;
+			beta = SatPos.rangeCircleRadiusKm(altitudeKm) / SatPos.R0;
+			sinBeta = Math.sin(beta);
+			cosBeta = Math.cos(beta);
+		}
+		final double sinLat = Math.sin(latitude);
+		final double cosLat = Math.cos(latitude);
+		final boolean overPole = beta > ((Math.PI / 2.0) - latitude);
+		for (int i = 0; i < cosAzimuths.length; i++) {
+			// the same expressions as SatPos.getRangeCircle so that the
+			// rounding, and the branches taken on it, are the same
+			final double rangelat = Math.asin(sinLat * cosBeta
+					+ cosAzimuths[i] * sinBeta * cosLat);
+			final double num = cosBeta - sinLat * Math.sin(rangelat);
+			final double den = cosLat * Math.cos(rangelat);
+			double rangelong;
+			if (northOrSouth[i] && overPole) {
+				rangelong = longitude + Math.PI;
+			} else if (Math.abs(num / den) > 1.0) {
+				rangelong = longitude;
+			} else if (east[i]) {
+				rangelong = longitude - Math.acos(num / den);
+			} else {
+				rangelong = longitude + Math.acos(num / den);
+			}
+
+			while (rangelong < 0.0) {
+				rangelong += Math.PI * 2.0;
+			}
+
+			while (rangelong > Math.PI * 2.0) {
+				rangelong -= Math.PI * 2.0;
+			}
+
+			latLons[2 * i] = (rangelat / (2.0 * Math.PI)) * 360.0;
+			latLons[2 * i + 1] = (rangelong / (2.0 * Math.PI)) * 360.0;
+		}
+		return cosAzimuths.length;
+	}
+
+}
@@ -149,4 +149,35 @@ public class GroundStationPosition {
         return name;
     }
 
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        long temp = Double.doubleToLongBits(latitude);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(longitude);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(heightAMSL);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + Arrays.hashCode(horizonElevations);
+        result = prime * result + name.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final GroundStationPosition other = (GroundStationPosition) obj;
+        return Double.doubleToLongBits(latitude) == Double.doubleToLongBits(other.latitude)
+                && Double.doubleToLongBits(longitude) == Double.doubleToLongBits(other.longitude)
+                && Double.doubleToLongBits(heightAMSL) == Double.doubleToLongBits(other.heightAMSL)
+                && Arrays.equals(horizonElevations, other.horizonElevations)
+                && name.equals(other.name);
+    }
+
 }
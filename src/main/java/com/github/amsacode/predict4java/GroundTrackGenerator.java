@@ -0,0 +1,211 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Generates the ground track of a satellite as polylines suitable for drawing
+ * on a map. Only the ECI position and its geodetic conversion are calculated
+ * for each sample (nothing relative to a ground station).
+ * <p>
+ * Sampling is adaptive: an interval is halved while the propagated position at
+ * its midpoint is further than the tolerance from the straight line between
+ * its end points, so that straight stretches of the track get few points and
+ * the turns near the extremes of latitude get many.
+ * <p>
+ * The track is split where it crosses the antimeridian. Each segment is a
+ * packed {@code double[]} of {@code lon0, lat0, lon1, lat1, ...} in degrees
+ * with longitude in the range -180 to 180, and segments after the first start
+ * at the longitude (+/-180) where the previous one ended.
+ * <p>
+ * Instances hold scratch arrays so are not thread safe.
+ */
+public class GroundTrackGenerator {
+
+	private static final double DEFAULT_TOLERANCE_DEGREES = 0.05;
+	private static final long DEFAULT_MIN_STEP_MILLIS = 1000;
+	private static final int DEFAULT_STEPS_PER_ORBIT = 16;
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final StateVectorSource vectors;
+	private final double toleranceDegrees;
+	private final long minStepMillis;
+	private final long maxStepMillis;
+
+	private final double[] state = new double[6];
+	private final double[] geodetic = new double[3];
+
+	private double[] points = new double[INITIAL_CAPACITY];
+	private int size;
+	private List<double[]> segments;
+
+	/**
+	 * Constructor using a tolerance of 0.05 degrees, a minimum step of one
+	 * second and a maximum step of 1/16 of the orbital period.
+	 *
+	 * @param satellite
+	 *            the satellite
+	 */
+	public GroundTrackGenerator(final Satellite satellite) {
+		this(satellite, DEFAULT_TOLERANCE_DEGREES, DEFAULT_MIN_STEP_MILLIS,
+				periodMillis(satellite.getTLE()) / DEFAULT_STEPS_PER_ORBIT);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param satellite
+	 *            the satellite
+	 * @param toleranceDegrees
+	 *            the maximum distance in degrees (longitude scaled by the
+	 *            cosine of latitude) of the track from the polyline at the
+	 *            midpoint of each interval
+	 * @param minStepMillis
+	 *            intervals are not halved below this
+	 * @param maxStepMillis
+	 *            the initial interval between samples
+	 */
+	public GroundTrackGenerator(final Satellite satellite,
+			final double toleranceDegrees, final long minStepMillis,
+			final long maxStepMillis) {
+		Preconditions.checkNotNull(satellite);
+		Preconditions.checkArgument(toleranceDegrees > 0,
+				"toleranceDegrees must be positive");
+		Preconditions.checkArgument(minStepMillis > 0,
+				"minStepMillis must be positive");
+		Preconditions.checkArgument(maxStepMillis >= minStepMillis,
+				"maxStepMillis must be at least minStepMillis");
+		this.vectors = AbstractSatellite.stateVectors(satellite);
+		this.toleranceDegrees = toleranceDegrees;
+		this.minStepMillis = minStepMillis;
+		this.maxStepMillis = maxStepMillis;
+	}
+
+	/**
+	 * Generates the ground track between two times.
+	 *
+	 * @param startMillis
+	 *            the start time in milliseconds since 1970-01-01T00:00:00Z
+	 * @param endMillis
+	 *            the end time in milliseconds since 1970-01-01T00:00:00Z
+	 * @return the segments of the track split at the antimeridian, each a
+	 *         packed array of longitude and latitude pairs in degrees
+	 */
+	public List<double[]> generate(final long startMillis, final long endMillis) {
+		Preconditions.checkArgument(endMillis >= startMillis,
+				"endMillis must not be before startMillis");
+		segments = new ArrayList<double[]>();
+		size = 0;
+		sample(startMillis);
+		double lon = geodetic[1];
+		double lat = geodetic[0];
+		add(lon, lat);
+		long t = startMillis;
+		while (t < endMillis) {
+			final long next = Math.min(t + maxStepMillis, endMillis);
+			sample(next);
+			final double nextLon = geodetic[1];
+			final double nextLat = geodetic[0];
+			refine(t, lon, lat, next, nextLon, nextLat);
+			t = next;
+			lon = nextLon;
+			lat = nextLat;
+		}
+		endSegment();
+		final List<double[]> result = segments;
+		segments = null;
+		return result;
+	}
+
+	private void refine(final long t0, final double lon0, final double lat0,
+			final long t1, final double lon1, final double lat1) {
+		if (t1 - t0 >= 2 * minStepMillis) {
+			final long tm = t0 + (t1 - t0) / 2;
+			sample(tm);
+			final double lonm = geodetic[1];
+			final double latm = geodetic[0];
+			final double chordLon = normalize(lon0 + normalize(lon1 - lon0) / 2);
+			final double chordLat = (lat0 + lat1) / 2;
+			final double dLon = normalize(lonm - chordLon)
+					* Math.cos(Math.toRadians(latm));
+			final double dLat = latm - chordLat;
+			if (dLon * dLon + dLat * dLat > toleranceDegrees
+					* toleranceDegrees) {
+				refine(t0, lon0, lat0, tm, lonm, latm);
+				refine(tm, lonm, latm, t1, lon1, lat1);
+				return;
+			}
+		}
+		add(lon1, lat1);
+	}
+
+	/**
+	 * Propagates the satellite and writes latitude and longitude in degrees
+	 * to geodetic[0] and geodetic[1].
+	 */
+	private void sample(final long timeMillis) {
+		vectors.calculateSatelliteVectors(timeMillis, state);
+		AbstractSatellite.calculateLatLonAlt(
+				AbstractSatellite.julianDateUTC(timeMillis), state[0],
+				state[1], state[2], geodetic);
+		geodetic[0] = Math.toDegrees(geodetic[0]);
+		geodetic[1] = normalize(Math.toDegrees(geodetic[1]));
+	}
+
+	private void add(final double lon, final double lat) {
+		if (size > 0) {
+			final double lastLon = points[size - 2];
+			final double lastLat = points[size - 1];
+			final double delta = lon - lastLon;
+			if (Math.abs(delta) > 180) {
+				// crosses the antimeridian, end the segment on it
+				final double edge = lastLon > 0 ? 180 : -180;
+				final double unwrapped = lon - Math.signum(delta) * 360;
+				final double fraction = (edge - lastLon)
+						/ (unwrapped - lastLon);
+				final double crossingLat = lastLat + fraction
+						* (lat - lastLat);
+				append(edge, crossingLat);
+				endSegment();
+				append(-edge, crossingLat);
+			}
+		}
+		append(lon, lat);
+	}
+
+	private void append(final double lon, final double lat) {
+		if (size + 2 > points.length) {
+			points = Arrays.copyOf(points, points.length * 2);
+		}
+		points[size++] = lon;
+		points[size++] = lat;
+	}
+
+	private void endSegment() {
+		if (size > 0) {
+			segments.add(Arrays.copyOf(points, size));
+			size = 0;
+		}
+	}
+
+	/**
+	 * Returns the longitude in the range -180 (inclusive) to 180 (exclusive).
+	 */
+	private static double normalize(final double lon) {
+		double x = lon % 360;
+		if (x >= 180) {
+			x -= 360;
+		} else if (x < -180) {
+			x += 360;
+		}
+		return x;
+	}
+
+	private static long periodMillis(final TLE tle) {
+		return Math.round(Satellite.TWO_PI / tle.getXno() * 60000.0);
+	}
+
+}
@@ -0,0 +1,254 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Cubic Hermite interpolation of ECI states. A state is the position in km and
+ * the velocity in km/s stored as {x, y, z, vx, vy, vz}. Between two
+ * propagated states the position is interpolated using the velocities as the
+ * end point derivatives and the velocity is the derivative of the
+ * interpolating polynomial.
+ * 
+ * <p>
+ * For an orbit with radius r and angular rate w the position error is bounded
+ * by h^4 * r * w^4 / 384 where h is the time between the two states, plus
+ * terms for the propagated velocity not being the exact derivative of the
+ * propagated position. The latter are sampled rather than bounded, so the
+ * total is an estimate, see
+ * {@link #positionErrorEstimateKm(TLE, double, double, double)}.
+ */
+final class Hermite {
+
+	private static final double MINS_PER_DAY = 1.44E3;
+	private static final double SECS_PER_DAY = 8.64E4;
+	private static final int SAMPLES = 720;
+	private static final long DIFFERENCE_MILLIS = 500;
+	private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+	private Hermite() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Interpolates between two ECI states.
+	 * 
+	 * @param a
+	 *            array containing the state at the start of the interval
+	 * @param aOffset
+	 *            offset of the start state in a
+	 * @param b
+	 *            array containing the state at the end of the interval
+	 * @param bOffset
+	 *            offset of the end state in b
+	 * @param h
+	 *            length of the interval in seconds
+	 * @param t
+	 *            seconds since the start of the interval, normally between 0
+	 *            and h
+	 * @param out
+	 *            receives the interpolated state
+	 */
+	static void interpolate(final double[] a, final int aOffset,
+			final double[] b, final int bOffset, final double h,
+			final double t, final double[] out) {
+		final double s = t / h;
+		final double s2 = s * s;
+		final double s3 = s2 * s;
+		final double h00 = 2 * s3 - 3 * s2 + 1;
+		final double h10 = (s3 - 2 * s2 + s) * h;
+		final double h01 = -2 * s3 + 3 * s2;
+		final double h11 = (s3 - s2) * h;
+		final double d00 = (6 * s2 - 6 * s) / h;
+		final double d10 = 3 * s2 - 4 * s + 1;
+		final double d01 = -d00;
+		final double d11 = 3 * s2 - 2 * s;
+		for (int i = 0; i < 3; i++) {
+			final double p0 = a[aOffset + i];
+			final double v0 = a[aOffset + 3 + i];
+			final double p1 = b[bOffset + i];
+			final double v1 = b[bOffset + 3 + i];
+			out[i] = h00 * p0 + h10 * v0 + h01 * p1 + h11 * v1;
+			out[3 + i] = d00 * p0 + d10 * v0 + d01 * p1 + d11 * v1;
+		}
+	}
+
+	/**
+	 * Returns an estimate in km of the largest position error of interpolating
+	 * the orbit described by the TLE over intervals of the given length,
+	 * relative to direct propagation. The error has three parts:
+	 * <ul>
+	 * <li>the interpolation error of a smooth orbit, bounded using the apogee
+	 * radius and the angular rate at perigee of the unperturbed orbit</li>
+	 * <li>the velocity reported by SGP4/SDP4 not being exactly the derivative of
+	 * the reported position; with end point derivatives in error by at most e
+	 * the interpolated position is in error by at most h * e / 4</li>
+	 * <li>SDP4 only recalculating the lunar-solar periodics every 30 minutes, so
+	 * both the propagated states and the direct propagation can be out by the
+	 * change in the periodics over that time</li>
+	 * </ul>
+	 * The first two parts are doubled to allow for the remaining
+	 * perturbations. Only the first is a bound; the velocity and periodics
+	 * errors are the largest of samples over one orbit from the epoch and
+	 * may be exceeded elsewhere, so the result is not guaranteed.
+	 * 
+	 * @param tle
+	 *            the three line elements
+	 * @param velocityErrorKmPerSecond
+	 *            the largest difference between the propagated velocity and
+	 *            the derivative of the propagated position, see
+	 *            {@link #velocityErrorKmPerSecond(Satellite)}
+	 * @param periodicsErrorKm
+	 *            the largest position change due to the lunar-solar periodics
+	 *            being recalculated, see {@link #periodicsErrorKm(Satellite)}
+	 * @param stepSeconds
+	 *            the interval between propagated states in seconds
+	 * @return the error estimate in km
+	 */
+	static double positionErrorEstimateKm(final TLE tle,
+			final double velocityErrorKmPerSecond,
+			final double periodicsErrorKm, final double stepSeconds) {
+		final double s = stepSeconds * maxAngularRate(tle);
+		return 2.0 * (apogeeRadiusKm(tle) * s * s * s * s / 384.0 + stepSeconds
+				* velocityErrorKmPerSecond / 4.0) + 2.0 * periodicsErrorKm;
+	}
+
+	/**
+	 * Returns the longest step in seconds for which
+	 * {@link #positionErrorEstimateKm(TLE, double, double, double)} does not
+	 * exceed the given error, or zero if the periodics error alone exceeds it.
+	 * 
+	 * @param tle
+	 *            the three line elements
+	 * @param velocityErrorKmPerSecond
+	 *            the largest difference between the propagated velocity and
+	 *            the derivative of the propagated position
+	 * @param periodicsErrorKm
+	 *            the largest position change due to the lunar-solar periodics
+	 *            being recalculated
+	 * @param maxErrorKm
+	 *            the maximum position error in km
+	 * @return the step in seconds
+	 */
+	static double stepSecondsForError(final TLE tle,
+			final double velocityErrorKmPerSecond,
+			final double periodicsErrorKm, final double maxErrorKm) {
+		// the estimate increases with the step so bisect
+		double low = 0;
+		double high = 1.0;
+		while (positionErrorEstimateKm(tle, velocityErrorKmPerSecond,
+				periodicsErrorKm, high) < maxErrorKm
+				&& high < SECS_PER_DAY) {
+			high *= 2;
+		}
+		for (int i = 0; i < 50; i++) {
+			final double mid = (low + high) / 2;
+			if (positionErrorEstimateKm(tle, velocityErrorKmPerSecond,
+					periodicsErrorKm, mid) <= maxErrorKm) {
+				low = mid;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Estimates the largest difference in km/s between the velocity reported
+	 * by the propagator and the derivative of the reported position by
+	 * sampling one orbit from the TLE epoch with central differences.
+	 * 
+	 * @param satellite
+	 *            the satellite
+	 * @return the velocity error in km/s
+	 */
+	static double velocityErrorKmPerSecond(final Satellite satellite) {
+		final TLE tle = satellite.getTLE();
+		final long epoch = AbstractSatellite.epochMillis(tle);
+		final double[] state = new double[6];
+		final double[] minus = new double[6];
+		final double[] plus = new double[6];
+		final StateVectorSource vectors = AbstractSatellite
+				.stateVectors(satellite);
+		double max = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			final long t = epoch + sampleOffsetMillis(tle, i);
+			// move away first so that the lunar-solar periodics of SDP4 are
+			// recalculated at t - DIFFERENCE_MILLIS and shared by all three
+			vectors.calculateSatelliteVectors(t - HOUR_MILLIS, state);
+			vectors.calculateSatelliteVectors(t - DIFFERENCE_MILLIS, minus);
+			vectors.calculateSatelliteVectors(t, state);
+			vectors.calculateSatelliteVectors(t + DIFFERENCE_MILLIS, plus);
+			double sum = 0;
+			for (int j = 0; j < 3; j++) {
+				final double d = (plus[j] - minus[j])
+						/ (2 * DIFFERENCE_MILLIS / 1000.0) - state[3 + j];
+				sum += d * d;
+			}
+			max = Math.max(max, Math.sqrt(sum));
+		}
+		return max;
+	}
+
+	/**
+	 * Estimates the largest change in km of the position of a deep space
+	 * satellite caused by SDP4 recalculating the lunar-solar periodics, which
+	 * it does when the time has moved by 30 minutes or more since they were
+	 * last calculated. Returns zero for near earth satellites.
+	 * 
+	 * @param satellite
+	 *            the satellite
+	 * @return the position change in km
+	 */
+	static double periodicsErrorKm(final Satellite satellite) {
+		final TLE tle = satellite.getTLE();
+		if (!tle.isDeepspace()) {
+			return 0;
+		}
+		final long epoch = AbstractSatellite.epochMillis(tle);
+		final double[] fresh = new double[6];
+		final double[] stale = new double[6];
+		final StateVectorSource vectors = AbstractSatellite
+				.stateVectors(satellite);
+		double max = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			final long t = epoch + sampleOffsetMillis(tle, i);
+			vectors.calculateSatelliteVectors(t - HOUR_MILLIS, stale);
+			vectors.calculateSatelliteVectors(t, fresh);
+			vectors.calculateSatelliteVectors(t - 2 * HOUR_MILLIS, stale);
+			// recalculated just under 30 minutes before t, then stale at t
+			vectors.calculateSatelliteVectors(t - HOUR_MILLIS / 2 + 1000,
+					stale);
+			vectors.calculateSatelliteVectors(t, stale);
+			double sum = 0;
+			for (int j = 0; j < 3; j++) {
+				final double d = fresh[j] - stale[j];
+				sum += d * d;
+			}
+			max = Math.max(max, Math.sqrt(sum));
+		}
+		return max;
+	}
+
+	private static long sampleOffsetMillis(final TLE tle, final int i) {
+		final double periodSeconds = Satellite.TWO_PI / tle.getXno()
+				* SECS_PER_DAY / MINS_PER_DAY;
+		return (long) (i * periodSeconds * 1000 / SAMPLES);
+	}
+
+	private static double apogeeRadiusKm(final TLE tle) {
+		return semiMajorAxisKm(tle) * (1.0 + tle.getEo());
+	}
+
+	/**
+	 * Returns the angular rate at perigee in radians per second, from
+	 * conservation of angular momentum.
+	 */
+	private static double maxAngularRate(final TLE tle) {
+		final double e = tle.getEo();
+		final double n = tle.getXno() * MINS_PER_DAY / SECS_PER_DAY;
+		return n * Math.sqrt(1.0 + e) / Math.pow(1.0 - e, 1.5);
+	}
+
+	private static double semiMajorAxisKm(final TLE tle) {
+		return Satellite.EARTH_RADIUS_KM
+				* Math.pow(Satellite.XKE / tle.getXno(), Satellite.TWO_THIRDS);
+	}
+}
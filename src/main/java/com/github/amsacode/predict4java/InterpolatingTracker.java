@@ -0,0 +1,186 @@
+package com.github.amsacode.predict4java;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Calculates the position of a satellite as seen from a ground station at high
+ * rates (tens of samples per second) without running SGP4/SDP4 for every
+ * sample. The satellite is propagated at a coarse, fixed cadence and the ECI
+ * position and velocity in between are obtained by cubic Hermite
+ * interpolation, after which only the cheap topocentric transform is applied.
+ * 
+ * <p>
+ * Propagations happen at multiples of the step since 1970-01-01T00:00:00Z and
+ * the two states either side of the last requested time are kept, so samples
+ * taken in time order need one propagation per step. The position error
+ * relative to direct propagation is estimated by
+ * {@link #getPositionErrorEstimateKm()}, which accounts for the interpolation
+ * error, the propagated velocity not being the exact derivative of the
+ * propagated position and, for deep space satellites, the 30 minute refresh of
+ * the SDP4 lunar-solar periodics. The last two are sampled over one orbit from
+ * the epoch when the tracker is created, about 3000 propagations (4300 for a
+ * deep space satellite), so the estimate is not a guaranteed bound.
+ * 
+ * <p>
+ * The tracker propagates its own copy of the satellite, so the position last
+ * calculated by the given satellite is not changed.
+ * 
+ * <p>
+ * Not thread safe!
+ */
+public class InterpolatingTracker {
+
+	private static final long MIN_STEP_MILLIS = 1000L;
+	private static final long MAX_STEP_MILLIS = 5 * 60 * 1000L;
+
+	private final StateVectorSource vectors;
+	private final double[] stationTerms = new double[AbstractSatellite.STATION_TERMS];
+	private final long stepMillis;
+	private final double positionErrorEstimateKm;
+
+	private final double[] before = new double[6];
+	private final double[] after = new double[6];
+	private final double[] state = new double[6];
+	private long beforeTime = Long.MIN_VALUE;
+
+	/**
+	 * Creates a tracker that propagates the satellite every
+	 * {@code stepMillis}. Estimating the position error takes a few thousand
+	 * propagations, see the class description.
+	 * 
+	 * @param satellite
+	 *            the satellite
+	 * @param station
+	 *            the ground station
+	 * @param stepMillis
+	 *            the interval between propagations in milliseconds
+	 */
+	public InterpolatingTracker(final Satellite satellite,
+			final GroundStationPosition station, final long stepMillis) {
+		this(new Sampled(satellite), station, stepMillis);
+	}
+
+	private InterpolatingTracker(final Sampled sampled,
+			final GroundStationPosition station, final long stepMillis) {
+		Preconditions.checkNotNull(station);
+		Preconditions.checkArgument(stepMillis > 0, "stepMillis must be > 0");
+		this.vectors = AbstractSatellite.stateVectors(sampled.copy);
+		AbstractSatellite.stationTerms(station, stationTerms);
+		this.stepMillis = stepMillis;
+		this.positionErrorEstimateKm = Hermite.positionErrorEstimateKm(
+				sampled.copy.getTLE(), sampled.velocityErrorKmPerSecond,
+				sampled.periodicsErrorKm, stepMillis / 1000.0);
+	}
+
+	/**
+	 * Creates a tracker using the longest propagation step (up to 5 minutes)
+	 * for which the position error estimate does not exceed
+	 * {@code maxPositionErrorKm}. For deep space satellites the lunar-solar
+	 * periodics may on their own exceed a very small error, in which case a
+	 * one second step is used and {@link #getPositionErrorEstimateKm()} is
+	 * larger than requested. Estimating the position error takes a few
+	 * thousand propagations, see the class description.
+	 * 
+	 * @param satellite
+	 *            the satellite
+	 * @param station
+	 *            the ground station
+	 * @param maxPositionErrorKm
+	 *            the largest acceptable position error in km
+	 * @return the tracker
+	 */
+	public static InterpolatingTracker withMaxPositionError(
+			final Satellite satellite, final GroundStationPosition station,
+			final double maxPositionErrorKm) {
+		Preconditions.checkArgument(maxPositionErrorKm > 0,
+				"maxPositionErrorKm must be > 0");
+		final Sampled sampled = new Sampled(satellite);
+		final long step = (long) (Hermite.stepSecondsForError(
+				sampled.copy.getTLE(), sampled.velocityErrorKmPerSecond,
+				sampled.periodicsErrorKm, maxPositionErrorKm) * 1000.0);
+		return new InterpolatingTracker(sampled, station, Math.max(
+				MIN_STEP_MILLIS, Math.min(step, MAX_STEP_MILLIS)));
+	}
+
+	/**
+	 * @return the interval between propagations in milliseconds
+	 */
+	public final long getStepMillis() {
+		return stepMillis;
+	}
+
+	/**
+	 * Returns an estimate of the largest distance in km between the
+	 * interpolated position and the position from direct propagation. It is
+	 * not a guaranteed bound, see the class description.
+	 * 
+	 * @return the error estimate in km
+	 */
+	public final double getPositionErrorEstimateKm() {
+		return positionErrorEstimateKm;
+	}
+
+	/**
+	 * Calculates the ECI state of the satellite.
+	 * 
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @param eciState
+	 *            receives the position in km and the velocity in km/s as {x,
+	 *            y, z, vx, vy, vz}
+	 */
+	public void calculateSatelliteVectors(final long timeMillis,
+			final double[] eciState) {
+		final long nodeTime = floor(timeMillis);
+		if (nodeTime != beforeTime) {
+			if (nodeTime == beforeTime + stepMillis) {
+				System.arraycopy(after, 0, before, 0, 6);
+			} else {
+				vectors.calculateSatelliteVectors(nodeTime, before);
+			}
+			vectors.calculateSatelliteVectors(nodeTime + stepMillis, after);
+			beforeTime = nodeTime;
+		}
+		Hermite.interpolate(before, 0, after, 0, stepMillis / 1000.0,
+				(timeMillis - nodeTime) / 1000.0, eciState);
+	}
+
+	/**
+	 * Calculates the azimuth, elevation, range and range rate of the satellite
+	 * as seen from the ground station.
+	 * 
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @param obs
+	 *            receives azimuth (radians), elevation (radians), range (km)
+	 *            and range rate (km/s) in that order
+	 */
+	public void calculateObs(final long timeMillis, final double[] obs) {
+		calculateSatelliteVectors(timeMillis, state);
+		AbstractSatellite.calculateObs(
+				AbstractSatellite.julianDateUTC(timeMillis), state, stationTerms,
+				obs);
+	}
+
+	private long floor(final long timeMillis) {
+		final long r = timeMillis % stepMillis;
+		return r < 0 ? timeMillis - r - stepMillis : timeMillis - r;
+	}
+
+	/**
+	 * The tracker's copy of the satellite and the errors sampled from it.
+	 */
+	private static final class Sampled {
+
+		final Satellite copy;
+		final double velocityErrorKmPerSecond;
+		final double periodicsErrorKm;
+
+		Sampled(final Satellite satellite) {
+			Preconditions.checkNotNull(satellite);
+			copy = AbstractSatellite.copyOf(satellite);
+			velocityErrorKmPerSecond = Hermite.velocityErrorKmPerSecond(copy);
+			periodicsErrorKm = Hermite.periodicsErrorKm(copy);
+		}
+	}
+}
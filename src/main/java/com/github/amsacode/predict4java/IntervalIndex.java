@@ -0,0 +1,209 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Closed intervals of long (start, end) each with an int value, in primitive
+ * arrays sorted by start with an implicit augmented binary tree over the
+ * sorted order as in cgranges (Heng Li): the node at position i is at the
+ * level of the number of trailing ones of i, and the maximum end of its
+ * subtree is kept so that an overlap query visits O(log n + k) intervals.
+ * <p>
+ * Intervals are appended and the index is prepared again on the next query.
+ * Appending in order of start, as when prediction windows roll forward, only
+ * recalculates the maximum ends, otherwise the intervals are sorted again.
+ * <p>
+ * Not thread safe.
+ */
+final class IntervalIndex {
+
+	private static final int INITIAL_CAPACITY = 16;
+	/** Subtrees this small are scanned rather than descended. */
+	private static final int SCAN_LEVEL = 3;
+
+	private long[] starts = new long[INITIAL_CAPACITY];
+	private long[] ends = new long[INITIAL_CAPACITY];
+	private long[] maxEnds = new long[INITIAL_CAPACITY];
+	private int[] values = new int[INITIAL_CAPACITY];
+	private int size;
+	private boolean sorted = true;
+	private boolean indexed = true;
+	private int rootLevel = -1;
+	private final long[] stackPositions = new long[64];
+	private final int[] stackLevels = new int[64];
+	private final boolean[] stackLeftDone = new boolean[64];
+
+	void add(final long start, final long end, final int value) {
+		if (size == starts.length) {
+			final int capacity = size * 2;
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			maxEnds = Arrays.copyOf(maxEnds, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		if (size > 0 && start < starts[size - 1]) {
+			sorted = false;
+		}
+		starts[size] = start;
+		ends[size] = end;
+		values[size] = value;
+		size++;
+		indexed = false;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		size = 0;
+		sorted = true;
+		indexed = true;
+		rootLevel = -1;
+	}
+
+	/**
+	 * Adds to out the values of the intervals that overlap [from, to], in
+	 * order of start.
+	 */
+	void overlap(final long from, final long to, final List<Integer> out) {
+		index();
+		if (size == 0) {
+			return;
+		}
+		// half open as in cgranges: start < en && st < end
+		final long st = from - 1;
+		final long en = to + 1;
+		int t = 0;
+		stackPositions[t] = (1L << rootLevel) - 1;
+		stackLevels[t] = rootLevel;
+		stackLeftDone[t++] = false;
+		while (t > 0) {
+			--t;
+			final long x = stackPositions[t];
+			final int k = stackLevels[t];
+			if (k <= SCAN_LEVEL) {
+				// the subtree is small, scan it
+				final long i0 = x >> k << k;
+				final long i1 = Math.min(size, i0 + (1L << (k + 1)) - 1);
+				for (long i = i0; i < i1 && starts[(int) i] < en; i++) {
+					if (st < ends[(int) i]) {
+						out.add(values[(int) i]);
+					}
+				}
+			} else if (!stackLeftDone[t]) {
+				// revisit after the left child, which may be out of range
+				final long y = x - (1L << (k - 1));
+				stackLeftDone[t++] = true;
+				if (y >= size || maxEnds[(int) y] > st) {
+					stackPositions[t] = y;
+					stackLevels[t] = k - 1;
+					stackLeftDone[t++] = false;
+				}
+			} else if (x < size && starts[(int) x] < en) {
+				if (st < ends[(int) x]) {
+					out.add(values[(int) x]);
+				}
+				stackPositions[t] = x + (1L << (k - 1));
+				stackLevels[t] = k - 1;
+				stackLeftDone[t++] = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the value of the interval with the earliest start after the
+	 * time, or -1 if there is none.
+	 */
+	int firstStartAfter(final long timeMillis) {
+		index();
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (starts[mid] <= timeMillis) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo == size ? -1 : values[lo];
+	}
+
+	private void index() {
+		if (indexed) {
+			return;
+		}
+		if (!sorted) {
+			sort();
+		}
+		rootLevel = prepare();
+		indexed = true;
+	}
+
+	/**
+	 * Calculates the maximum end of each subtree and returns the level of the
+	 * root (cr_index_prepare of cgranges).
+	 */
+	private int prepare() {
+		if (size == 0) {
+			return -1;
+		}
+		long lastI = 0;
+		long last = 0;
+		for (int i = 0; i < size; i += 2) {
+			lastI = i;
+			last = maxEnds[i] = ends[i];
+		}
+		int k;
+		for (k = 1; 1L << k <= size; k++) {
+			final long x = 1L << (k - 1);
+			final long i0 = (x << 1) - 1;
+			final long step = x << 2;
+			for (long i = i0; i < size; i += step) {
+				final long left = maxEnds[(int) (i - x)];
+				final long right = i + x < size ? maxEnds[(int) (i + x)] : last;
+				maxEnds[(int) i] = Math.max(ends[(int) i], Math.max(left,
+						right));
+			}
+			lastI = (lastI >> k & 1) != 0 ? lastI - x : lastI + x;
+			if (lastI < size && maxEnds[(int) lastI] > last) {
+				last = maxEnds[(int) lastI];
+			}
+		}
+		return k - 1;
+	}
+
+	private void sort() {
+		final List<Integer> order = new ArrayList<Integer>(size);
+		for (int i = 0; i < size; i++) {
+			order.add(i);
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				final long x = starts[a];
+				final long y = starts[b];
+				return x < y ? -1 : (x == y ? 0 : 1);
+			}
+		});
+		final long[] s = new long[starts.length];
+		final long[] e = new long[starts.length];
+		final int[] v = new int[starts.length];
+		for (int i = 0; i < size; i++) {
+			final int j = order.get(i);
+			s[i] = starts[j];
+			e[i] = ends[j];
+			v[i] = values[j];
+		}
+		starts = s;
+		ends = e;
+		values = v;
+		sorted = true;
+	}
+
+}
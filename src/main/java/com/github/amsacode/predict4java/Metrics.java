@@ -0,0 +1,96 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Receives counts and timings from the library so that applications can see
+ * where the time goes without a profiler. Subclasses override the methods for
+ * the events they are interested in, the others do nothing. Implementations
+ * must be thread safe and quick, they are called on the propagation path.
+ * <p>
+ * The metrics in use are set for the whole library with
+ * {@link #set(Metrics)}. The default, {@link #NONE}, records nothing and the
+ * library skips taking timings while it is in use.
+ */
+public abstract class Metrics {
+
+	/** Records nothing. */
+	public static final Metrics NONE = new Metrics() {
+	};
+
+	private static volatile Metrics current = NONE;
+
+	/**
+	 * Sets the metrics used by the library.
+	 *
+	 * @param metrics
+	 *            the metrics, or null for {@link #NONE}
+	 */
+	public static void set(final Metrics metrics) {
+		current = metrics == null ? NONE : metrics;
+	}
+
+	/**
+	 * @return the metrics used by the library
+	 */
+	public static Metrics get() {
+		return current;
+	}
+
+	/**
+	 * Called after a satellite was propagated.
+	 *
+	 * @param deepSpace
+	 *            true if SDP4 was used, false for SGP4
+	 * @param nanos
+	 *            the time taken
+	 * @param keplerIterations
+	 *            the iterations of the solution of Kepler's equation
+	 */
+	public void propagation(final boolean deepSpace, final long nanos,
+			final int keplerIterations) {
+		// do nothing
+	}
+
+	/**
+	 * Called after a deep space satellite in a resonant orbit was propagated.
+	 *
+	 * @param steps
+	 *            the steps taken by the numerical integration of the
+	 *            resonance effects
+	 */
+	public void integratorSteps(final int steps) {
+		// do nothing
+	}
+
+	/**
+	 * Called after a search for the next pass of a satellite over a ground
+	 * station.
+	 *
+	 * @param nanos
+	 *            the time taken
+	 */
+	public void passSearch(final long nanos) {
+		// do nothing
+	}
+
+	/**
+	 * Called when an element set could not be parsed.
+	 */
+	public void tleParseError() {
+		// do nothing
+	}
+
+	/**
+	 * Called when a request to {@link PassCache} is answered from the cache.
+	 */
+	public void cacheHit() {
+		// do nothing
+	}
+
+	/**
+	 * Called when a request to {@link PassCache} needs passes predicted.
+	 */
+	public void cacheMiss() {
+		// do nothing
+	}
+
+}
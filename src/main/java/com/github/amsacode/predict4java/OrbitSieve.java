@@ -0,0 +1,210 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Cheap tests, from the mean elements alone, that two satellites cannot come
+ * within a given distance of each other (after Hoots, Crawford and Roehrich,
+ * "An analytic method to determine future close approaches between
+ * satellites", 1984).
+ * <ul>
+ * <li>the apogee/perigee sieve rejects pairs whose ranges of radius do not
+ * overlap</li>
+ * <li>the orbit path sieve rejects pairs whose radii near both nodes of the
+ * line where the orbit planes intersect differ by more than the distance. A
+ * close approach can only happen near those nodes because each satellite must
+ * be within the distance of the other's orbit plane. The nodes are moved with
+ * the J2 secular rates of the right ascension and argument of perigee to the
+ * time being tested</li>
+ * </ul>
+ * Mean elements differ from the propagated orbit by short periodic terms so
+ * the distance should include a margin. The orbit path sieve is not applied to
+ * deep space satellites whose elements are also moved by the sun and moon.
+ */
+final class OrbitSieve {
+
+	static final int SCRATCH_LENGTH = 18;
+
+	private static final double MU = 398600.8;
+	private static final double J2 = 1.082616E-3;
+	private static final double EARTH_RADIUS_KM = 6378.135;
+
+	private final double[] perigee;
+	private final double[] apogee;
+	private final double[] semiLatusRectum;
+	private final double[] eccentricity;
+	private final double[] sinIncl;
+	private final double[] cosIncl;
+	private final double[] raan;
+	private final double[] argPerigee;
+	private final double[] raanRate;
+	private final double[] argPerigeeRate;
+	private final long[] epoch;
+	private final boolean[] deepSpace;
+
+	OrbitSieve(final Satellite[] satellites) {
+		final int n = satellites.length;
+		perigee = new double[n];
+		apogee = new double[n];
+		semiLatusRectum = new double[n];
+		eccentricity = new double[n];
+		sinIncl = new double[n];
+		cosIncl = new double[n];
+		raan = new double[n];
+		argPerigee = new double[n];
+		raanRate = new double[n];
+		argPerigeeRate = new double[n];
+		epoch = new long[n];
+		deepSpace = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			final TLE tle = satellites[i].getTLE();
+			// mean motion in radians per second
+			final double meanMotion = tle.getXno() / 60.0;
+			final double a = Math.cbrt(MU / (meanMotion * meanMotion));
+			final double e = tle.getEo();
+			final double p = a * (1 - e * e);
+			final double k = meanMotion * J2 * (EARTH_RADIUS_KM / p)
+					* (EARTH_RADIUS_KM / p);
+			final double cosI = Math.cos(tle.getXincl());
+			perigee[i] = a * (1 - e);
+			apogee[i] = a * (1 + e);
+			semiLatusRectum[i] = p;
+			eccentricity[i] = e;
+			sinIncl[i] = Math.sin(tle.getXincl());
+			cosIncl[i] = cosI;
+			raan[i] = tle.getXnodeo();
+			argPerigee[i] = tle.getOmegao();
+			raanRate[i] = -1.5 * k * cosI / 1000.0;
+			argPerigeeRate[i] = 0.75 * k * (5 * cosI * cosI - 1) / 1000.0;
+			epoch[i] = AbstractSatellite.epochMillis(tle);
+			deepSpace[i] = tle.isDeepspace();
+		}
+	}
+
+	/**
+	 * @return the mean perigee radius of satellite i in km
+	 */
+	double perigee(final int i) {
+		return perigee[i];
+	}
+
+	/**
+	 * @return the mean apogee radius of satellite i in km
+	 */
+	double apogee(final int i) {
+		return apogee[i];
+	}
+
+	boolean isDeepSpace(final int i) {
+		return deepSpace[i];
+	}
+
+	/**
+	 * Returns false if satellites i and j can not come within the distance of
+	 * each other because their ranges of radius do not overlap.
+	 */
+	boolean radiiOverlap(final int i, final int j, final double distanceKm) {
+		return perigee[i] - distanceKm <= apogee[j]
+				&& perigee[j] - distanceKm <= apogee[i];
+	}
+
+	/**
+	 * Returns false if satellites i and j can not come within the distance of
+	 * each other near the given time because their orbits do not come that
+	 * close.
+	 * 
+	 * @param scratch
+	 *            working array of length at least {@link #SCRATCH_LENGTH}
+	 */
+	boolean pathsMayApproach(final int i, final int j, final long timeMillis,
+			final double distanceKm, final double[] scratch) {
+		if (deepSpace[i] || deepSpace[j]) {
+			return true;
+		}
+		frame(i, timeMillis, scratch, 0);
+		frame(j, timeMillis, scratch, 9);
+		// line of nodes of the two orbit planes
+		final double kx = scratch[7] * scratch[17] - scratch[8] * scratch[16];
+		final double ky = scratch[8] * scratch[15] - scratch[6] * scratch[17];
+		final double kz = scratch[6] * scratch[16] - scratch[7] * scratch[15];
+		final double sinRelativeIncl = Math.sqrt(kx * kx + ky * ky + kz * kz);
+		final double bandI = distanceKm / (perigee[i] * sinRelativeIncl);
+		final double bandJ = distanceKm / (perigee[j] * sinRelativeIncl);
+		if (bandI >= 1 || bandJ >= 1) {
+			// nearly coplanar, the whole orbit is near the other plane
+			return true;
+		}
+		final double deltaI = Math.asin(bandI);
+		final double deltaJ = Math.asin(bandJ);
+		final double nuI = Math.atan2(scratch[3] * kx + scratch[4] * ky
+				+ scratch[5] * kz, scratch[0] * kx + scratch[1] * ky
+				+ scratch[2] * kz);
+		final double nuJ = Math.atan2(scratch[12] * kx + scratch[13] * ky
+				+ scratch[14] * kz, scratch[9] * kx + scratch[10] * ky
+				+ scratch[11] * kz);
+		for (int node = 0; node < 2; node++) {
+			final double shift = node * Math.PI;
+			final double minI = minRadius(i, nuI + shift, deltaI);
+			final double maxI = maxRadius(i, nuI + shift, deltaI);
+			final double minJ = minRadius(j, nuJ + shift, deltaJ);
+			final double maxJ = maxRadius(j, nuJ + shift, deltaJ);
+			if (minI - distanceKm <= maxJ && minJ - distanceKm <= maxI) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the unit vectors towards perigee (p), 90 degrees ahead of perigee
+	 * in the orbit plane (q) and normal to the orbit plane (w) as p, q, w from
+	 * the offset.
+	 */
+	private void frame(final int i, final long timeMillis, final double[] f,
+			final int offset) {
+		final double dt = timeMillis - epoch[i];
+		final double node = raan[i] + raanRate[i] * dt;
+		final double arg = argPerigee[i] + argPerigeeRate[i] * dt;
+		final double cosNode = Math.cos(node);
+		final double sinNode = Math.sin(node);
+		final double cosArg = Math.cos(arg);
+		final double sinArg = Math.sin(arg);
+		final double cosI = cosIncl[i];
+		final double sinI = sinIncl[i];
+		f[offset] = cosNode * cosArg - sinNode * sinArg * cosI;
+		f[offset + 1] = sinNode * cosArg + cosNode * sinArg * cosI;
+		f[offset + 2] = sinArg * sinI;
+		f[offset + 3] = -cosNode * sinArg - sinNode * cosArg * cosI;
+		f[offset + 4] = -sinNode * sinArg + cosNode * cosArg * cosI;
+		f[offset + 5] = cosArg * sinI;
+		f[offset + 6] = sinNode * sinI;
+		f[offset + 7] = -cosNode * sinI;
+		f[offset + 8] = cosI;
+	}
+
+	private double radius(final int i, final double trueAnomaly) {
+		return semiLatusRectum[i]
+				/ (1 + eccentricity[i] * Math.cos(trueAnomaly));
+	}
+
+	/**
+	 * Returns the smallest radius for true anomalies within delta of nu.
+	 */
+	private double minRadius(final int i, final double nu, final double delta) {
+		if (Math.cos(nu) >= Math.cos(delta)) {
+			// perigee is within the band
+			return perigee[i];
+		}
+		return Math.min(radius(i, nu - delta), radius(i, nu + delta));
+	}
+
+	/**
+	 * Returns the largest radius for true anomalies within delta of nu.
+	 */
+	private double maxRadius(final int i, final double nu, final double delta) {
+		if (-Math.cos(nu) >= Math.cos(delta)) {
+			// apogee is within the band
+			return apogee[i];
+		}
+		return Math.max(radius(i, nu - delta), radius(i, nu + delta));
+	}
+
+}
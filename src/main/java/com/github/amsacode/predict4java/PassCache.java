@@ -0,0 +1,282 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * A bounded cache of the passes of satellites over ground stations.
+ * <p>
+ * There is an entry per satellite (catalog number) and station holding the
+ * passes over a contiguous window of time. A request for a window that
+ * overlaps the cached one only predicts the passes in the part of the window
+ * that is not covered and extends the entry. An entry is replaced when a
+ * request comes with a newer element set (later epoch, or the same epoch and
+ * a higher set number) for the satellite, when it is older than the time to
+ * live, or when the least recently used entry is evicted to keep the number
+ * of entries bounded. A request with an older element set than the cached
+ * one is predicted but not cached.
+ * <p>
+ * Predictions are made outside the lock so requests for other satellites are
+ * not held up by a miss. The result is only stored if the entry has not been
+ * replaced by one with a newer element set in the meantime.
+ */
+public final class PassCache {
+
+	private static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+
+	private final long ttlMillis;
+	private final Map<Key, Passes> entries;
+	private int computeCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxEntries
+	 *            the maximum number of satellite and station pairs cached
+	 * @param ttlMillis
+	 *            the time after which an entry is predicted again
+	 */
+	public PassCache(final int maxEntries, final long ttlMillis) {
+		Preconditions.checkArgument(maxEntries > 0,
+				"maxEntries must be positive");
+		Preconditions.checkArgument(ttlMillis >= 0,
+				"ttlMillis must be non-negative");
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<Key, Passes>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					final Map.Entry<Key, Passes> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the passes of the satellite over the station that overlap the
+	 * window from start to end, in time order.
+	 *
+	 * @param tle
+	 *            the element set of the satellite
+	 * @param station
+	 *            the ground station
+	 * @param start
+	 *            the start of the window
+	 * @param end
+	 *            the end of the window
+	 * @return the passes, unmodifiable
+	 * @throws SatNotFoundException
+	 *             if the satellite is never seen from the station
+	 */
+	public List<SatPassTime> getPasses(final TLE tle,
+			final GroundStationPosition station, final Date start,
+			final Date end) throws SatNotFoundException {
+		Preconditions.checkNotNull(tle);
+		Preconditions.checkNotNull(station);
+		Preconditions.checkArgument(!end.before(start),
+				"end must not be before start");
+		final long startMillis = start.getTime();
+		final long endMillis = end.getTime();
+		final Key key = new Key(tle.getCatnum(), station);
+		final long now = System.currentTimeMillis();
+		final Passes cached;
+		synchronized (this) {
+			cached = entries.get(key);
+		}
+		final Passes entry;
+		if (cached != null && cached.compareTo(tle) > 0) {
+			// an older element set than the cached one, not cached
+			Metrics.get().cacheMiss();
+			return new Passes(tle, now, startMillis, endMillis, predict(tle,
+					station, startMillis, endMillis)).passes(startMillis,
+					endMillis);
+		} else if (cached == null || cached.compareTo(tle) < 0
+				|| now - cached.created > ttlMillis
+				|| startMillis > cached.end || endMillis < cached.start) {
+			entry = new Passes(tle, now, startMillis, endMillis, predict(tle,
+					station, startMillis, endMillis));
+		} else if (startMillis < cached.start || endMillis > cached.end) {
+			entry = extend(cached, tle, station, startMillis, endMillis);
+		} else {
+			Metrics.get().cacheHit();
+			return cached.passes(startMillis, endMillis);
+		}
+		Metrics.get().cacheMiss();
+		synchronized (this) {
+			// another request may have cached a newer element set meanwhile
+			final Passes current = entries.get(key);
+			if (current == null || current == cached
+					|| current.compareTo(tle) < 0) {
+				entries.put(key, entry);
+			}
+		}
+		return entry.passes(startMillis, endMillis);
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of windows predicted. @VisibleForTesting
+	 *
+	 * @return the number of windows predicted
+	 */
+	synchronized int getComputeCount() {
+		return computeCount;
+	}
+
+	private Passes extend(final Passes entry, final TLE tle,
+			final GroundStationPosition station, final long startMillis,
+			final long endMillis) throws SatNotFoundException {
+		final List<SatPassTime> passes = new ArrayList<SatPassTime>();
+		if (startMillis < entry.start) {
+			// drop the pass in progress at the old start, it is cached
+			for (final SatPassTime pass : predict(tle, station, startMillis,
+					entry.start)) {
+				if (pass.getEndTime().getTime() <= firstStart(entry.passes)) {
+					passes.add(pass);
+				}
+			}
+		}
+		passes.addAll(entry.passes);
+		if (endMillis > entry.end) {
+			final long lastEnd = lastEnd(passes);
+			for (final SatPassTime pass : predict(tle, station, entry.end,
+					endMillis)) {
+				if (pass.getStartTime().getTime() >= lastEnd) {
+					passes.add(pass);
+				}
+			}
+		}
+		return new Passes(tle, entry.created, Math.min(startMillis, entry.start),
+				Math.max(endMillis, entry.end), passes);
+	}
+
+	/**
+	 * Returns the passes that overlap the window. The search starts a quarter
+	 * orbit before the window so a pass in progress at the start is found.
+	 */
+	private List<SatPassTime> predict(final TLE tle,
+			final GroundStationPosition station, final long startMillis,
+			final long endMillis) throws SatNotFoundException {
+		synchronized (this) {
+			computeCount++;
+		}
+		final int hours = (int) ((endMillis - startMillis + MILLIS_PER_HOUR - 1)
+				/ MILLIS_PER_HOUR);
+		final List<SatPassTime> passes = new ArrayList<SatPassTime>();
+		for (final SatPassTime pass : new PassPredictor(tle, station).getPasses(
+				new Date(startMillis), hours, true)) {
+			if (pass.getEndTime().getTime() > startMillis
+					&& pass.getStartTime().getTime() < endMillis) {
+				passes.add(pass);
+			}
+		}
+		return passes;
+	}
+
+	private static long firstStart(final List<SatPassTime> passes) {
+		return passes.isEmpty() ? Long.MAX_VALUE : passes.get(0).getStartTime()
+				.getTime();
+	}
+
+	private static long lastEnd(final List<SatPassTime> passes) {
+		return passes.isEmpty() ? Long.MIN_VALUE : passes
+				.get(passes.size() - 1).getEndTime().getTime();
+	}
+
+	private static final class Key {
+
+		private final int catnum;
+		private final GroundStationPosition station;
+
+		Key(final int catnum, final GroundStationPosition station) {
+			this.catnum = catnum;
+			this.station = station;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * catnum + station.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return catnum == other.catnum && station.equals(other.station);
+		}
+
+	}
+
+	/**
+	 * The passes overlapping the window from start to end predicted with one
+	 * element set. Immutable.
+	 */
+	private static final class Passes {
+
+		private final long epochMillis;
+		private final int setnum;
+		private final long created;
+		private final long start;
+		private final long end;
+		private final List<SatPassTime> passes;
+
+		Passes(final TLE tle, final long created, final long start,
+				final long end, final List<SatPassTime> passes) {
+			this.epochMillis = AbstractSatellite.epochMillis(tle);
+			this.setnum = tle.getSetnum();
+			this.created = created;
+			this.start = start;
+			this.end = end;
+			this.passes = passes;
+		}
+
+		/**
+		 * Returns a negative number, zero or a positive number as the element
+		 * set of this entry is older than, the same as or newer than the
+		 * given one.
+		 */
+		int compareTo(final TLE tle) {
+			final long other = AbstractSatellite.epochMillis(tle);
+			if (epochMillis != other) {
+				return epochMillis < other ? -1 : 1;
+			}
+			return setnum < tle.getSetnum() ? -1
+					: (setnum == tle.getSetnum() ? 0 : 1);
+		}
+
+		List<SatPassTime> passes(final long startMillis, final long endMillis) {
+			final List<SatPassTime> list = new ArrayList<SatPassTime>();
+			for (final SatPassTime pass : passes) {
+				if (pass.getEndTime().getTime() > startMillis
+						&& pass.getStartTime().getTime() < endMillis) {
+					list.add(pass);
+				}
+			}
+			return Collections.unmodifiableList(list);
+		}
+
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Thrown when no pass of a satellite can be found, because it never rises
+ * above the horizon of the station or because the search ran out of its
+ * {@link PassSearchBudget}. These are expected outcomes for much of a catalog
+ * rather than programming errors so the exception has no stack trace, which
+ * makes it cheap to throw.
+ */
+public class PassNotFoundException extends SatNotFoundException {
+
+	private static final long serialVersionUID = -2236931713356297414L;
+
+	/**
+	 * Why no pass was found.
+	 */
+	public enum Reason {
+		/** The satellite never rises above the horizon of the station. */
+		NEVER_VISIBLE,
+		/** The simulated time searched for a pass. */
+		SEARCH_TIME,
+		/** The number of propagations. */
+		PROPAGATIONS,
+		/** The wall clock time. */
+		TIMEOUT,
+		/** The budget was cancelled or the thread interrupted. */
+		CANCELLED
+	}
+
+	private final Reason reason;
+	private final int catnum;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param reason
+	 *            why no pass was found
+	 * @param catnum
+	 *            the catalog number of the satellite
+	 * @param message
+	 *            the message
+	 */
+	public PassNotFoundException(final Reason reason, final int catnum,
+			final String message) {
+		super("satellite " + catnum + ": " + message);
+		this.reason = reason;
+		this.catnum = catnum;
+	}
+
+	/**
+	 * @return why no pass was found
+	 */
+	public Reason getReason() {
+		return reason;
+	}
+
+	/**
+	 * @return the catalog number of the satellite
+	 */
+	public int getCatnum() {
+		return catnum;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+}
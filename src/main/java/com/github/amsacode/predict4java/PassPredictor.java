@@ -39,6 +39,7 @@ package com.github.amsacode.predict4java;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
@@ -46,6 +47,8 @@ import java.util.TimeZone;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.github.davidmoten.guavamini.Preconditions;
+
 /**
  * Class which provides Pass Prediction.
  * 
@@ -103,12 +106,21 @@ public class PassPredictor {
 		if (null == sat) {
 			throw new SatNotFoundException("Satellite has not been created");
 		} else if (!sat.willBeSeen(qth)) {
-			throw new SatNotFoundException(
+			throw new PassNotFoundException(
+					PassNotFoundException.Reason.NEVER_VISIBLE,
+					tle.getCatnum(),
 					"Satellite will never appear above the horizon");
 		}
 
 	}
 
+	private PassPredictor(final TLE tle, final GroundStationPosition qth,
+			final Satellite sat) {
+		this.tle = tle;
+		this.qth = qth;
+		this.sat = sat;
+	}
+
 	/**
 	 * Gets the downlink frequency corrected for doppler.
 	 * 
@@ -126,8 +138,7 @@ public class PassPredictor {
 		cal.clear();
 		cal.setTimeInMillis(date.getTime());
 		final SatPos satPos = getSatPos(cal.getTime());
-		final double rangeRate = satPos.getRangeRate();
-		return (long) ((double) freq * (SPEED_OF_LIGHT - rangeRate * 1000.0) / SPEED_OF_LIGHT);
+		return downlinkFreq(freq, satPos.getRangeRate());
 	}
 
 	public SatPos getSatPos(final Date time) throws SatNotFoundException {
@@ -141,8 +152,122 @@ public class PassPredictor {
 		cal.clear();
 		cal.setTimeInMillis(date.getTime());
 		final SatPos satPos = getSatPos(cal.getTime());
-		final double rangeRate = satPos.getRangeRate();
-		return (long) ((double) freq * (SPEED_OF_LIGHT + rangeRate * 1000.0) / SPEED_OF_LIGHT);
+		return uplinkFreq(freq, satPos.getRangeRate());
+	}
+
+	private static long downlinkFreq(final double freq, final double rangeRate) {
+		return (long) (freq * (SPEED_OF_LIGHT - rangeRate * 1000.0) / SPEED_OF_LIGHT);
+	}
+
+	private static long uplinkFreq(final double freq, final double rangeRate) {
+		return (long) (freq * (SPEED_OF_LIGHT + rangeRate * 1000.0) / SPEED_OF_LIGHT);
+	}
+
+	/**
+	 * Gets the doppler corrected uplink and downlink frequencies over a pass,
+	 * propagating the satellite for every sample.
+	 * 
+	 * @param pass
+	 *            the pass, samples are taken from its start time to its end
+	 *            time inclusive
+	 * @param stepMillis
+	 *            the interval between samples in milliseconds
+	 * @param uplinkFreq
+	 *            the original uplink frequency in Hz
+	 * @param downlinkFreq
+	 *            the original downlink frequency in Hz
+	 * @return the doppler table
+	 * @throws IllegalArgumentException
+	 *             if the step is not positive or the pass ends before it
+	 *             starts
+	 */
+	public DopplerTable getDopplerTable(final SatPassTime pass,
+			final long stepMillis, final long uplinkFreq,
+			final long downlinkFreq) {
+		return getDopplerTable(pass, stepMillis, uplinkFreq, downlinkFreq,
+				stepMillis);
+	}
+
+	/**
+	 * Gets the doppler corrected uplink and downlink frequencies over a pass.
+	 * The satellite is propagated every {@code propagationStepMillis} and the
+	 * samples in between are obtained by cubic Hermite interpolation of the
+	 * satellite's position and velocity. For a LEO satellite a propagation step
+	 * of 60 seconds gives range rate errors well below 1 m/s.
+	 * 
+	 * @param pass
+	 *            the pass, samples are taken from its start time to its end
+	 *            time inclusive
+	 * @param stepMillis
+	 *            the interval between samples in milliseconds
+	 * @param uplinkFreq
+	 *            the original uplink frequency in Hz
+	 * @param downlinkFreq
+	 *            the original downlink frequency in Hz
+	 * @param propagationStepMillis
+	 *            the interval between propagations in milliseconds. If less
+	 *            than or equal to stepMillis every sample is propagated.
+	 * @return the doppler table
+	 * @throws IllegalArgumentException
+	 *             if a step is not positive or the pass ends before it starts
+	 */
+	public DopplerTable getDopplerTable(final SatPassTime pass,
+			final long stepMillis, final long uplinkFreq,
+			final long downlinkFreq, final long propagationStepMillis) {
+		Preconditions.checkNotNull(pass);
+		Preconditions.checkArgument(stepMillis > 0, "stepMillis must be > 0");
+		Preconditions.checkArgument(propagationStepMillis > 0,
+				"propagationStepMillis must be > 0");
+
+		final long start = pass.getStartTime().getTime();
+		final long end = pass.getEndTime().getTime();
+		Preconditions.checkArgument(end >= start,
+				"pass must not end before it starts");
+		final long samples = (end - start) / stepMillis + 1;
+		Preconditions.checkArgument(samples <= Integer.MAX_VALUE,
+				"too many samples");
+		final int n = (int) samples;
+		final long[] times = new long[n];
+		final double[] rangeRates = new double[n];
+		final long[] uplinkFreqs = new long[n];
+		final long[] downlinkFreqs = new long[n];
+
+		final double[] state = new double[6];
+		final double[] obs = new double[4];
+		final boolean interpolate = propagationStepMillis > stepMillis;
+		final double[] before = new double[6];
+		final double[] after = new double[6];
+		final StateVectorSource vectors = AbstractSatellite.stateVectors(sat);
+		long nodeTime = start;
+		if (interpolate) {
+			vectors.calculateSatelliteVectors(nodeTime, before);
+			vectors.calculateSatelliteVectors(nodeTime + propagationStepMillis,
+					after);
+		}
+
+		for (int i = 0; i < n; i++) {
+			final long time = start + i * stepMillis;
+			if (interpolate) {
+				while (time > nodeTime + propagationStepMillis) {
+					nodeTime += propagationStepMillis;
+					System.arraycopy(after, 0, before, 0, 6);
+					vectors.calculateSatelliteVectors(nodeTime
+							+ propagationStepMillis, after);
+				}
+				Hermite.interpolate(before, 0, after, 0,
+						propagationStepMillis / 1000.0,
+						(time - nodeTime) / 1000.0, state);
+			} else {
+				vectors.calculateSatelliteVectors(time, state);
+			}
+			AbstractSatellite.calculateObs(
+					AbstractSatellite.julianDateUTC(time), state, qth, obs);
+			times[i] = time;
+			rangeRates[i] = obs[3];
+			uplinkFreqs[i] = uplinkFreq(uplinkFreq, obs[3]);
+			downlinkFreqs[i] = downlinkFreq(downlinkFreq, obs[3]);
+		}
+		return new DopplerTable(times, rangeRates, uplinkFreqs, downlinkFreqs);
 	}
 
 	public SatPassTime nextSatPass(final Date date) throws SatNotFoundException {
@@ -151,6 +276,51 @@ public class PassPredictor {
 
 	public SatPassTime nextSatPass(final Date date, final boolean windBack)
 			throws SatNotFoundException {
+		return nextSatPass(date, windBack, new PassSearchBudget());
+	}
+
+	/**
+	 * Finds the next pass within the given budget.
+	 * 
+	 * @param date
+	 *            the time to search from
+	 * @param windBack
+	 *            if true the search starts a quarter of an orbit earlier so
+	 *            that a pass in progress is found
+	 * @param budget
+	 *            limits the search
+	 * @return the pass
+	 * @throws PassNotFoundException
+	 *             if the budget runs out before a pass is found
+	 * @throws SatNotFoundException
+	 */
+	public SatPassTime nextSatPass(final Date date, final boolean windBack,
+			final PassSearchBudget budget) throws SatNotFoundException {
+		Preconditions.checkNotNull(budget);
+		return nextSatPass(date, windBack, budget.start(tle.getCatnum()));
+	}
+
+	private SatPassTime nextSatPass(final Date date, final boolean windBack,
+			final PassSearchBudget.Search search) throws SatNotFoundException {
+		final Metrics metrics = Metrics.get();
+		final Object event = Events.beginPassSearch();
+		if (metrics == Metrics.NONE && event == null) {
+			return findNextSatPass(date, windBack, search);
+		}
+		final long start = System.nanoTime();
+		final int iterations = iterationCount;
+		try {
+			return findNextSatPass(date, windBack, search);
+		} finally {
+			metrics.passSearch(System.nanoTime() - start);
+			Events.endPassSearch(event, tle.getCatnum(), qth.getName(),
+					iterationCount - iterations);
+		}
+	}
+
+	private SatPassTime findNextSatPass(final Date date,
+			final boolean windBack, final PassSearchBudget.Search search)
+			throws SatNotFoundException {
 
 		int aosAzimuth = 0;
 		int losAzimuth = 0;
@@ -170,7 +340,8 @@ public class PassPredictor {
 			cal.add(Calendar.MINUTE, (int) (-24.0 * 60.0 / meanMotion / 4.0));
 		}
 
-		SatPos satPos = getSatPos(cal.getTime());
+		search.startPass(cal.getTimeInMillis());
+		SatPos satPos = getPosition(cal, 0, search);
 		SatPos prevPos = satPos;
 
 		// test for the elevation being above the horizon
@@ -179,7 +350,7 @@ public class PassPredictor {
 			// move time forward in 30 second intervals until the sat goes below
 			// the horizon
 			do {
-				satPos = getPosition(cal, 60);
+				satPos = getPosition(cal, 60, search);
 			} while (satPos.getElevation() > 0.0);
 
 			// move time forward 3/4 orbit
@@ -190,7 +361,7 @@ public class PassPredictor {
 
 		// now find the next time it comes above the horizon
 		do {
-			satPos = getPosition(cal, 60);
+			satPos = getPosition(cal, 60, search);
 			final Date now = cal.getTime();
 			elevation = satPos.getElevation();
 			if (elevation > maxElevation) {
@@ -202,7 +373,7 @@ public class PassPredictor {
 		// refine it to 5 seconds
 		cal.add(Calendar.SECOND, -60);
 		do {
-			satPos = getPosition(cal, 5);
+			satPos = getPosition(cal, 5, search);
 			final Date now = cal.getTime();
 			elevation = satPos.getElevation();
 			if (elevation > maxElevation) {
@@ -218,7 +389,7 @@ public class PassPredictor {
 
 		// now find when it goes below
 		do {
-			satPos = getPosition(cal, 30);
+			satPos = getPosition(cal, 30, search);
 			final Date now = cal.getTime();
 			final String currPolePassed = getPolePassed(prevPos, satPos);
 			if (!currPolePassed.equals(DEADSPOT_NONE)) {
@@ -236,7 +407,7 @@ public class PassPredictor {
 		// refine it to 5 seconds
 		cal.add(Calendar.SECOND, -30);
 		do {
-			satPos = getPosition(cal, 5);
+			satPos = getPosition(cal, 5, search);
 			final Date now = cal.getTime();
 			elevation = satPos.getElevation();
 			if (elevation > maxElevation) {
@@ -256,14 +427,17 @@ public class PassPredictor {
 	/**
 	 * @param cal
 	 * @param offSet
+	 * @param search
 	 * @return
-	 * @throws InvalidTleException
+	 * @throws PassNotFoundException
+	 *             if the budget of the search is used up
 	 * @throws SatNotFoundException
 	 */
-	private SatPos getPosition(final Calendar cal, final int offSet)
-			throws SatNotFoundException {
+	private SatPos getPosition(final Calendar cal, final int offSet,
+			final PassSearchBudget.Search search) throws SatNotFoundException {
 		SatPos satPos;
 		cal.add(Calendar.SECOND, offSet);
+		search.check(cal.getTimeInMillis());
 		satPos = getSatPos(cal.getTime());
 		return satPos;
 	}
@@ -285,6 +459,36 @@ public class PassPredictor {
 	 */
 	public List<SatPassTime> getPasses(final Date start, final int hoursAhead,
 			final boolean windBack) throws SatNotFoundException {
+		return getPasses(start, hoursAhead, windBack, new PassSearchBudget());
+	}
+
+	/**
+	 * Gets the passes from start to hoursAhead later within the given budget,
+	 * which limits the simulated time searched for each pass and the
+	 * propagations and wall clock time of the whole call.
+	 * 
+	 * @param start
+	 *            the time to search from
+	 * @param hoursAhead
+	 *            the hours after start to find passes starting in
+	 * @param windBack
+	 *            if true the search starts a quarter of an orbit earlier so
+	 *            that a pass in progress is found
+	 * @param budget
+	 *            limits the search
+	 * @return the passes
+	 * @throws PassNotFoundException
+	 *             if the budget runs out before the passes are found
+	 * @throws SatNotFoundException
+	 */
+	public List<SatPassTime> getPasses(final Date start, final int hoursAhead,
+			final boolean windBack, final PassSearchBudget budget)
+			throws SatNotFoundException {
+		Preconditions.checkNotNull(budget);
+
+		final PassSearchBudget.Search search = budget.start(tle.getCatnum());
+
+		final Object event = Events.beginPasses();
 
 		this.iterationCount = 0;
 
@@ -300,21 +504,117 @@ public class PassPredictor {
 
 		int count = 0;
 
-		do {
-			if (count > 0) {
-				windBackTime = false;
-			}
-			final SatPassTime pass = nextSatPass(trackStartDate, windBackTime);
-			lastAOS = pass.getStartTime();
-			passes.add(pass);
-			trackStartDate = new Date(pass.getEndTime().getTime()
-					+ (threeQuarterOrbitMinutes() * 60L * 1000L));
-			count++;
-		} while (lastAOS.compareTo(trackEndDate) < 0);
+		try {
+			do {
+				if (count > 0) {
+					windBackTime = false;
+				}
+				final SatPassTime pass = nextSatPass(trackStartDate,
+						windBackTime, search);
+				lastAOS = pass.getStartTime();
+				passes.add(pass);
+				trackStartDate = new Date(pass.getEndTime().getTime()
+						+ (threeQuarterOrbitMinutes() * 60L * 1000L));
+				count++;
+			} while (lastAOS.compareTo(trackEndDate) < 0);
+		} finally {
+			// recorded for searches that run out of budget too
+			Events.endPasses(event, tle.getCatnum(), qth.getName(),
+					passes.size(), iterationCount);
+		}
 
 		return passes;
 	}
 
+	/**
+	 * Gets the passes of each satellite of a catalog from start to hoursAhead
+	 * later without throwing for the satellites whose passes cannot be found.
+	 * Each result gives whether the passes were found, the satellite never
+	 * rises above the horizon of the station, its element set is invalid, the
+	 * search ran out of budget or the propagation failed. The limits of the
+	 * budget apply to each satellite, cancelling the budget stops the
+	 * remaining searches.
+	 * 
+	 * @param tles
+	 *            the element sets of the satellites
+	 * @param qth
+	 *            the ground station position
+	 * @param start
+	 *            the time to search from
+	 * @param hoursAhead
+	 *            the hours after start to find passes starting in
+	 * @param windBack
+	 *            if true the search starts a quarter of an orbit earlier so
+	 *            that a pass in progress is found
+	 * @param budget
+	 *            limits the search for each satellite
+	 * @return a result for each element set, in the same order
+	 */
+	public static List<PassResult> predictPasses(final List<TLE> tles,
+			final GroundStationPosition qth, final Date start,
+			final int hoursAhead, final boolean windBack,
+			final PassSearchBudget budget) {
+		Preconditions.checkNotNull(tles);
+		Preconditions.checkNotNull(qth);
+		Preconditions.checkNotNull(start);
+		Preconditions.checkNotNull(budget);
+		final List<SatPassTime> none = Collections.emptyList();
+		final List<PassResult> results = new ArrayList<PassResult>(
+				tles.size());
+		for (final TLE tle : tles) {
+			Preconditions.checkNotNull(tle);
+			if (!isValid(tle)) {
+				results.add(new PassResult(tle, PassResult.Status.INVALID_TLE,
+						none, null, null));
+				continue;
+			}
+			try {
+				final Satellite sat = SatelliteFactory.createSatellite(tle);
+				if (!sat.willBeSeen(qth)) {
+					results.add(new PassResult(tle,
+							PassResult.Status.NEVER_VISIBLE, none,
+							PassNotFoundException.Reason.NEVER_VISIBLE, null));
+					continue;
+				}
+				results.add(new PassResult(tle, PassResult.Status.VISIBLE,
+						new PassPredictor(tle, qth, sat).getPasses(start,
+								hoursAhead, windBack, budget), null, null));
+			} catch (final PassNotFoundException e) {
+				results.add(new PassResult(tle,
+						e.getReason() == PassNotFoundException.Reason.NEVER_VISIBLE
+								? PassResult.Status.NEVER_VISIBLE
+								: PassResult.Status.BUDGET_EXCEEDED, none,
+						e.getReason(), null));
+			} catch (final SatNotFoundException e) {
+				results.add(new PassResult(tle,
+						PassResult.Status.PROPAGATION_FAILED, none, null, e));
+			} catch (final RuntimeException e) {
+				// the elements pass validation but do not describe an orbit
+				// the kernel can propagate, one bad element set must not stop
+				// the prediction of the rest of the catalog
+				results.add(new PassResult(tle,
+						PassResult.Status.PROPAGATION_FAILED, none, null, e));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Returns true if the elements describe an orbit that can be propagated:
+	 * finite, an eccentricity in [0, 1), an inclination in [0, 180] degrees
+	 * and a positive mean motion.
+	 */
+	static boolean isValid(final TLE tle) {
+		return tle.getMeanmo() > 0
+				&& !Double.isInfinite(tle.getMeanmo()) && tle.getEccn() >= 0
+				&& tle.getEccn() < 1 && tle.getIncl() >= 0
+				&& tle.getIncl() <= 180 && !Double.isNaN(tle.getRaan())
+				&& !Double.isNaN(tle.getArgper())
+				&& !Double.isNaN(tle.getMeanan())
+				&& !Double.isNaN(tle.getBstar())
+				&& !Double.isInfinite(tle.getBstar());
+	}
+
 	/**
 	 * Returns the iterationCount. @VisibleForTesting
 	 * 
@@ -0,0 +1,111 @@
+package com.github.amsacode.predict4java;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of the pass prediction of one satellite of a catalog by
+ * {@link PassPredictor#predictPasses(List, GroundStationPosition,
+ * java.util.Date, int, boolean, PassSearchBudget)}. Immutable.
+ */
+public final class PassResult {
+
+	/**
+	 * The outcome of a prediction.
+	 */
+	public enum Status {
+		/** The passes were found. */
+		VISIBLE,
+		/** The satellite never rises above the horizon of the station. */
+		NEVER_VISIBLE,
+		/**
+		 * The element set cannot be propagated, for instance an eccentricity
+		 * outside [0, 1) or a mean motion that is not positive.
+		 */
+		INVALID_TLE,
+		/**
+		 * The search ran out of its {@link PassSearchBudget} or was
+		 * cancelled.
+		 */
+		BUDGET_EXCEEDED,
+		/**
+		 * The element set passed validation but propagating it or searching
+		 * its passes failed, for instance a degenerate orbit or a satellite
+		 * that could not be created. The exception is given by
+		 * {@link PassResult#getError()}.
+		 */
+		PROPAGATION_FAILED
+	}
+
+	private final TLE tle;
+	private final Status status;
+	private final List<SatPassTime> passes;
+	private final PassNotFoundException.Reason reason;
+	private final Exception error;
+
+	PassResult(final TLE tle, final Status status,
+			final List<SatPassTime> passes,
+			final PassNotFoundException.Reason reason,
+			final Exception error) {
+		this.tle = tle;
+		this.status = status;
+		this.passes = Collections.unmodifiableList(passes);
+		this.reason = reason;
+		this.error = error;
+	}
+
+	/**
+	 * @return the element set of the satellite
+	 */
+	public TLE getTLE() {
+		return tle;
+	}
+
+	/**
+	 * @return the outcome
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return true if the passes were found
+	 */
+	public boolean isVisible() {
+		return status == Status.VISIBLE;
+	}
+
+	/**
+	 * @return the passes in time order, empty unless the status is
+	 *         {@link Status#VISIBLE}
+	 */
+	public List<SatPassTime> getPasses() {
+		return passes;
+	}
+
+	/**
+	 * @return {@link PassNotFoundException.Reason#NEVER_VISIBLE} if the
+	 *         status is {@link Status#NEVER_VISIBLE}, the limit that stopped
+	 *         the search if it is {@link Status#BUDGET_EXCEEDED}, otherwise
+	 *         null
+	 */
+	public PassNotFoundException.Reason getReason() {
+		return reason;
+	}
+
+	/**
+	 * @return the exception that stopped the prediction if the status is
+	 *         {@link Status#PROPAGATION_FAILED}, otherwise null
+	 */
+	public Exception getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "PassResult [catnum=" + tle.getCatnum() + ", status=" + status
+				+ (reason == null ? "" : ", reason=" + reason) + ", passes="
+				+ passes.size() + "]";
+	}
+
+}
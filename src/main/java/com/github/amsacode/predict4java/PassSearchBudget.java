@@ -0,0 +1,167 @@
+package com.github.amsacode.predict4java;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Limits the work of a pass search by {@link PassPredictor} so that an
+ * object that never rises or never sets (a marginal inclination, a decayed
+ * or bad element set, a geostationary object just below or above the
+ * horizon) cannot hold up the caller. A search that runs out of budget
+ * throws a {@link PassNotFoundException} giving the limit that was reached.
+ * <p>
+ * The limits are:
+ * <ul>
+ * <li>the simulated time searched for each pass, from the start of the
+ * search for it to the end of the pass</li>
+ * <li>the number of propagations of a call</li>
+ * <li>the wall clock time of a call</li>
+ * </ul>
+ * A budget can also be cancelled from another thread, which stops every
+ * search using it at its next propagation, and a search stops if its thread
+ * is interrupted. A budget can be shared by the searches of a batch so that
+ * they can be cancelled together.
+ */
+public final class PassSearchBudget {
+
+	/** The default limit of the simulated time searched for a pass, 30 days. */
+	public static final long DEFAULT_MAX_SEARCH_MILLIS = 30L * 24 * 60 * 60
+			* 1000;
+
+	private final long maxSearchMillis;
+	private final long maxPropagations;
+	private final long timeoutMillis;
+	private volatile boolean cancelled;
+
+	/**
+	 * Creates a budget that searches {@link #DEFAULT_MAX_SEARCH_MILLIS} of
+	 * simulated time for each pass with no other limits.
+	 */
+	public PassSearchBudget() {
+		this(DEFAULT_MAX_SEARCH_MILLIS, Long.MAX_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxSearchMillis
+	 *            the simulated time searched for each pass
+	 * @param maxPropagations
+	 *            the propagations allowed for a call, Long.MAX_VALUE for no
+	 *            limit
+	 * @param timeoutMillis
+	 *            the wall clock time allowed for a call, Long.MAX_VALUE for no
+	 *            limit
+	 */
+	public PassSearchBudget(final long maxSearchMillis,
+			final long maxPropagations, final long timeoutMillis) {
+		Preconditions.checkArgument(maxSearchMillis > 0,
+				"maxSearchMillis must be positive");
+		Preconditions.checkArgument(maxPropagations > 0,
+				"maxPropagations must be positive");
+		Preconditions.checkArgument(timeoutMillis >= 0,
+				"timeoutMillis must be non-negative");
+		this.maxSearchMillis = maxSearchMillis;
+		this.maxPropagations = maxPropagations;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * @return the simulated time searched for each pass
+	 */
+	public long getMaxSearchMillis() {
+		return maxSearchMillis;
+	}
+
+	/**
+	 * @return the propagations allowed for a call
+	 */
+	public long getMaxPropagations() {
+		return maxPropagations;
+	}
+
+	/**
+	 * @return the wall clock time allowed for a call
+	 */
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * Stops the searches using this budget at their next propagation.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return true if {@link #cancel()} has been called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Starts the accounting of a call to {@link PassPredictor}.
+	 */
+	Search start(final int catnum) {
+		return new Search(catnum);
+	}
+
+	/**
+	 * The use of the budget by one call. Not thread safe.
+	 */
+	final class Search {
+
+		private final int catnum;
+		private final long startNanos;
+		private long propagations;
+		private long passStartMillis;
+
+		private Search(final int catnum) {
+			this.catnum = catnum;
+			this.startNanos = timeoutMillis == Long.MAX_VALUE ? 0 : System
+					.nanoTime();
+		}
+
+		/**
+		 * Starts the search for a pass.
+		 */
+		void startPass(final long timeMillis) {
+			passStartMillis = timeMillis;
+		}
+
+		/**
+		 * Checks the budget before a propagation at the given time.
+		 * 
+		 * @throws PassNotFoundException
+		 *             if the budget is used up
+		 */
+		void check(final long timeMillis) throws PassNotFoundException {
+			if (cancelled || Thread.currentThread().isInterrupted()) {
+				throw new PassNotFoundException(
+						PassNotFoundException.Reason.CANCELLED, catnum,
+						"search cancelled");
+			}
+			if (++propagations > maxPropagations) {
+				throw new PassNotFoundException(
+						PassNotFoundException.Reason.PROPAGATIONS, catnum,
+						"no pass found in " + maxPropagations
+								+ " propagations");
+			}
+			if (timeMillis - passStartMillis > maxSearchMillis) {
+				throw new PassNotFoundException(
+						PassNotFoundException.Reason.SEARCH_TIME, catnum,
+						"no pass found in " + maxSearchMillis
+								+ "ms of simulated time");
+			}
+			if (timeoutMillis != Long.MAX_VALUE
+					&& (System.nanoTime() - startNanos) / 1000000 >= timeoutMillis) {
+				throw new PassNotFoundException(
+						PassNotFoundException.Reason.TIMEOUT, catnum,
+						"no pass found in " + timeoutMillis + "ms");
+			}
+		}
+
+	}
+
+}
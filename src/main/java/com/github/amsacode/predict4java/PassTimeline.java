@@ -0,0 +1,247 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * A store of predicted passes for fast visibility queries: the passes over a
+ * station or of a satellite that overlap a window or are in progress at a
+ * time, and the next acquisition of signal (AOS) at a station or at any
+ * station.
+ * <p>
+ * The start and end times of the passes are kept in {@link IntervalIndex}es
+ * of primitive arrays, one for each station, one for each satellite and one
+ * for all passes, so a query takes O(log n + k) for k passes found rather
+ * than a scan of the passes. Passes are appended as prediction windows roll
+ * forward and {@link #removeBefore(long)} drops the passes that are over.
+ * <p>
+ * Instances are thread safe.
+ */
+public final class PassTimeline {
+
+	private final List<TimelinePass> passes = new ArrayList<TimelinePass>();
+	private final IntervalIndex all = new IntervalIndex();
+	private final Map<GroundStationPosition, IntervalIndex> byStation = new HashMap<GroundStationPosition, IntervalIndex>();
+	private final Map<Integer, IntervalIndex> bySatellite = new HashMap<Integer, IntervalIndex>();
+	private final Map<Key, Long> lastEnds = new HashMap<Key, Long>();
+
+	/**
+	 * Adds the passes of a satellite over a station. Passes that start before
+	 * the end of the last pass stored for the satellite and station are
+	 * ignored so the passes of overlapping prediction windows can be added.
+	 *
+	 * @param tle
+	 *            the element set of the satellite
+	 * @param station
+	 *            the ground station
+	 * @param list
+	 *            the passes in time order, as from
+	 *            {@link PassPredictor#getPasses(java.util.Date, int, boolean)}
+	 * @return the number of passes added
+	 */
+	public synchronized int add(final TLE tle,
+			final GroundStationPosition station, final List<SatPassTime> list) {
+		Preconditions.checkNotNull(tle);
+		Preconditions.checkNotNull(station);
+		Preconditions.checkNotNull(list);
+		final Key key = new Key(tle.getCatnum(), station);
+		final Long last = lastEnds.get(key);
+		long lastEnd = last == null ? Long.MIN_VALUE : last;
+		int count = 0;
+		for (final SatPassTime pass : list) {
+			if (pass.getStartTime().getTime() > lastEnd) {
+				index(new TimelinePass(tle.getCatnum(), station, pass));
+				lastEnd = pass.getEndTime().getTime();
+				count++;
+			}
+		}
+		if (count > 0) {
+			lastEnds.put(key, lastEnd);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the passes over a station that overlap a window.
+	 *
+	 * @param station
+	 *            the ground station
+	 * @param startMillis
+	 *            the start of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param endMillis
+	 *            the end of the window, inclusive
+	 * @return the passes in order of start
+	 */
+	public synchronized List<TimelinePass> getPasses(
+			final GroundStationPosition station, final long startMillis,
+			final long endMillis) {
+		Preconditions.checkArgument(endMillis >= startMillis,
+				"endMillis must not be before startMillis");
+		return overlap(byStation.get(station), startMillis, endMillis);
+	}
+
+	/**
+	 * Returns the passes over a station in progress at a time, that is the
+	 * satellites visible from the station at the time.
+	 *
+	 * @param station
+	 *            the ground station
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @return the passes in order of start
+	 */
+	public synchronized List<TimelinePass> getPasses(
+			final GroundStationPosition station, final long timeMillis) {
+		return overlap(byStation.get(station), timeMillis, timeMillis);
+	}
+
+	/**
+	 * Returns the passes of a satellite over any station that overlap a
+	 * window.
+	 *
+	 * @param catnum
+	 *            the catalog number of the satellite
+	 * @param startMillis
+	 *            the start of the window in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param endMillis
+	 *            the end of the window, inclusive
+	 * @return the passes in order of start
+	 */
+	public synchronized List<TimelinePass> getPasses(final int catnum,
+			final long startMillis, final long endMillis) {
+		Preconditions.checkArgument(endMillis >= startMillis,
+				"endMillis must not be before startMillis");
+		return overlap(bySatellite.get(catnum), startMillis, endMillis);
+	}
+
+	/**
+	 * Returns the pass with the next AOS after a time at any station.
+	 *
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @return the pass or null if no pass starts after the time
+	 */
+	public synchronized TimelinePass nextAos(final long timeMillis) {
+		return next(all, timeMillis);
+	}
+
+	/**
+	 * Returns the pass with the next AOS after a time at a station.
+	 *
+	 * @param station
+	 *            the ground station
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @return the pass or null if no pass starts after the time
+	 */
+	public synchronized TimelinePass nextAos(
+			final GroundStationPosition station, final long timeMillis) {
+		return next(byStation.get(station), timeMillis);
+	}
+
+	/**
+	 * Removes the passes that end before a time.
+	 *
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public synchronized void removeBefore(final long timeMillis) {
+		final List<TimelinePass> kept = new ArrayList<TimelinePass>();
+		for (final TimelinePass pass : passes) {
+			if (pass.getPass().getEndTime().getTime() >= timeMillis) {
+				kept.add(pass);
+			}
+		}
+		if (kept.size() == passes.size()) {
+			return;
+		}
+		passes.clear();
+		all.clear();
+		byStation.clear();
+		bySatellite.clear();
+		for (final TimelinePass pass : kept) {
+			index(pass);
+		}
+	}
+
+	/**
+	 * @return the number of passes
+	 */
+	public synchronized int size() {
+		return passes.size();
+	}
+
+	private void index(final TimelinePass pass) {
+		final int value = passes.size();
+		passes.add(pass);
+		final long start = pass.getPass().getStartTime().getTime();
+		final long end = pass.getPass().getEndTime().getTime();
+		all.add(start, end, value);
+		IntervalIndex station = byStation.get(pass.getStation());
+		if (station == null) {
+			station = new IntervalIndex();
+			byStation.put(pass.getStation(), station);
+		}
+		station.add(start, end, value);
+		IntervalIndex satellite = bySatellite.get(pass.getCatnum());
+		if (satellite == null) {
+			satellite = new IntervalIndex();
+			bySatellite.put(pass.getCatnum(), satellite);
+		}
+		satellite.add(start, end, value);
+	}
+
+	private List<TimelinePass> overlap(final IntervalIndex index,
+			final long startMillis, final long endMillis) {
+		final List<TimelinePass> list = new ArrayList<TimelinePass>();
+		if (index != null) {
+			final List<Integer> values = new ArrayList<Integer>();
+			index.overlap(startMillis, endMillis, values);
+			for (final int value : values) {
+				list.add(passes.get(value));
+			}
+		}
+		return list;
+	}
+
+	private TimelinePass next(final IntervalIndex index, final long timeMillis) {
+		if (index == null) {
+			return null;
+		}
+		final int value = index.firstStartAfter(timeMillis);
+		return value < 0 ? null : passes.get(value);
+	}
+
+	private static final class Key {
+
+		private final int catnum;
+		private final GroundStationPosition station;
+
+		Key(final int catnum, final GroundStationPosition station) {
+			this.catnum = catnum;
+			this.station = station;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * catnum + station.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return catnum == other.catnum && station.equals(other.station);
+		}
+
+	}
+
+}
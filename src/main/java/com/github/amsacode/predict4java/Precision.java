@@ -0,0 +1,101 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * The precision of the trigonometric functions used to propagate a satellite
+ * and to calculate its observations, ground position and range circle.
+ * {@link #FAST} is for display work such as maps and sky plots that need
+ * many positions and no more than metre level accuracy: positions are within
+ * a centimetre and azimuth and elevation within 1E-7 radians of
+ * {@link #EXACT}, and {@link Satellite#getPosition(GroundStationPosition,
+ * java.util.Date)} takes about two thirds of the time.
+ */
+public enum Precision {
+
+	/** The functions of {@link Math}. */
+	EXACT {
+		@Override
+		double sin(final double a) {
+			return Math.sin(a);
+		}
+
+		@Override
+		double cos(final double a) {
+			return Math.cos(a);
+		}
+
+		@Override
+		double atan(final double a) {
+			return Math.atan(a);
+		}
+
+		@Override
+		double atan2(final double y, final double x) {
+			return Math.atan2(y, x);
+		}
+
+		@Override
+		double asin(final double a) {
+			return Math.asin(a);
+		}
+
+		@Override
+		double acos(final double a) {
+			return Math.acos(a);
+		}
+	},
+
+	/**
+	 * Table based approximations with an absolute error of less than
+	 * {@link #FAST_MAX_ERROR}. The lunar-solar terms of SDP4 are always exact.
+	 */
+	FAST {
+		@Override
+		double sin(final double a) {
+			return FastTrig.sin(a);
+		}
+
+		@Override
+		double cos(final double a) {
+			return FastTrig.cos(a);
+		}
+
+		@Override
+		double atan(final double a) {
+			return FastTrig.atan(a);
+		}
+
+		@Override
+		double atan2(final double y, final double x) {
+			return FastTrig.atan2(y, x);
+		}
+
+		@Override
+		double asin(final double a) {
+			return FastTrig.asin(a);
+		}
+
+		@Override
+		double acos(final double a) {
+			return FastTrig.acos(a);
+		}
+	};
+
+	/**
+	 * The maximum absolute error of the functions used with {@link #FAST}, in
+	 * radians for the inverse functions.
+	 */
+	public static final double FAST_MAX_ERROR = 1E-9;
+
+	abstract double sin(double a);
+
+	abstract double cos(double a);
+
+	abstract double atan(double a);
+
+	abstract double atan2(double y, double x);
+
+	abstract double asin(double a);
+
+	abstract double acos(double a);
+
+}
@@ -0,0 +1,263 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * An orbit model that calculates the position and velocity of a satellite at
+ * a time since the epoch of its element set. The models ({@link SGP4} and
+ * {@link SDP4}) are final classes that keep all of their state to themselves
+ * and {@link #propagate(double, double[])} is the only abstract method, so a
+ * loop propagating one satellite has a monomorphic call site that the JIT can
+ * inline. Instances are not thread safe, the owning {@link AbstractSatellite}
+ * guards them with its lock.
+ */
+abstract class Propagator {
+
+	/**
+	 * Number of values written by propagate: the position in earth radii, the
+	 * velocity in earth radii per minute and the phase in radians.
+	 */
+	static final int OUT_LENGTH = 7;
+
+	static final double TWO_PI = Satellite.TWO_PI;
+	static final double EPSILON = Satellite.EPSILON;
+	static final double TWO_THIRDS = Satellite.TWO_THIRDS;
+	static final double EARTH_RADIUS_KM = Satellite.EARTH_RADIUS_KM;
+	static final double XKE = Satellite.XKE;
+	static final double CK2 = Satellite.CK2;
+	static final double CK4 = AbstractSatellite.CK4;
+	static final double J3_HARMONIC = Satellite.J3_HARMONIC;
+
+	private static final double S = 1.012229;
+	private static final double QOMS2T = 1.880279E-09;
+	private static final double PERIGEE_156_KM = 156.0;
+
+	final TLE tle;
+
+	/** The precision of the trigonometric functions. */
+	final Precision precision;
+
+	private double s4;
+	private double qoms24;
+
+	/** Iterations of Kepler's equation in the last propagation. */
+	int keplerIterations;
+
+	/** Resonance integration steps in the last propagation. */
+	int integratorSteps;
+
+	Propagator(final TLE tle, final Precision precision) {
+		this.tle = tle;
+		this.precision = precision;
+	}
+
+	/**
+	 * Calculates the position, velocity and phase of the satellite.
+	 *
+	 * @param tsince
+	 *            minutes since the epoch of the element set
+	 * @param out
+	 *            receives the {@link #OUT_LENGTH} values
+	 */
+	abstract void propagate(double tsince, double[] out);
+
+	/**
+	 * Sets the perigee and adjusts S and QOMS2T if it is less than 156KM.
+	 *
+	 * @param perigee
+	 *            the perigee height in km
+	 */
+	final void setPerigee(final double perigee) {
+		s4 = S;
+		qoms24 = QOMS2T;
+
+		if (perigee < PERIGEE_156_KM) {
+			if (perigee <= 98.0) {
+				s4 = 20.0;
+			} else {
+				s4 = perigee - 78.0;
+			}
+
+			qoms24 = Math.pow((120 - s4) / EARTH_RADIUS_KM, 4);
+			s4 = s4 / EARTH_RADIUS_KM + 1.0;
+		}
+	}
+
+	/**
+	 * @return the s4
+	 */
+	final double getS4() {
+		return s4;
+	}
+
+	/**
+	 * @return the qoms24
+	 */
+	final double getQoms24() {
+		return qoms24;
+	}
+
+	/**
+	 * Solves Keplers' Equation.
+	 *
+	 * @param precision
+	 *            the precision of the trigonometric functions
+	 * @param temp
+	 *            an array of temporary values we pass around as part of the
+	 *            orbit calculation.
+	 * @param axn
+	 * @param ayn
+	 * @param capu
+	 * @return the number of iterations
+	 */
+	static int converge(final Precision precision, final double[] temp,
+			final double axn, final double ayn, final double capu) {
+
+		boolean converged = false;
+		int i = 0;
+
+		do {
+			temp[7] = precision.sin(temp[2]);
+			temp[8] = precision.cos(temp[2]);
+			temp[3] = axn * temp[7];
+			temp[4] = ayn * temp[8];
+			temp[5] = axn * temp[8];
+			temp[6] = ayn * temp[7];
+			final double epw = (capu - temp[4] + temp[3] - temp[2])
+					/ (1.0 - temp[5] - temp[6]) + temp[2];
+
+			if (Math.abs(epw - temp[2]) <= EPSILON) {
+				converged = true;
+			} else {
+				temp[2] = epw;
+			}
+
+		} while (i++ < 10 && !converged);
+
+		return i;
+	}
+
+	/**
+	 * Solves Kepler's equation for the mean elements and writes the position
+	 * and velocity of the unperturbed ellipse to out[0] to out[5]. Used by the
+	 * secular only mode, which leaves out the periodic perturbations.
+	 *
+	 * @param precision
+	 *            the precision of the trigonometric functions
+	 * @param a
+	 *            the semi major axis in earth radii
+	 * @param e
+	 *            the eccentricity
+	 * @param xm
+	 *            the mean anomaly
+	 * @param omega
+	 *            the argument of perigee
+	 * @param xnode
+	 *            the right ascension of the ascending node
+	 * @param sini
+	 *            the sine of the inclination
+	 * @param cosi
+	 *            the cosine of the inclination
+	 * @return the number of iterations
+	 */
+	static int calculateSecular(final Precision precision, final double a,
+			final double e, final double xm, final double omega,
+			final double xnode, final double sini, final double cosi,
+			final double[] out) {
+		final double capm = AbstractSatellite.mod2PI(xm);
+		double eanom = capm;
+		double sine;
+		double cose;
+		int iterations = 0;
+		while (true) {
+			iterations++;
+			sine = precision.sin(eanom);
+			cose = precision.cos(eanom);
+			final double delta = (eanom - e * sine - capm) / (1.0 - e * cose);
+			if (Math.abs(delta) <= EPSILON || iterations > 10) {
+				break;
+			}
+			eanom -= delta;
+		}
+
+		final double ecose = 1.0 - e * cose;
+		final double beta = Math.sqrt(1.0 - e * e);
+		final double r = a * ecose;
+		final double sqrta = Math.sqrt(a);
+		final double rdot = XKE * sqrta * e * sine / r;
+		final double rfdot = XKE * sqrta * beta / r;
+
+		/* Argument of latitude from the true anomaly */
+		final double cosv = (cose - e) / ecose;
+		final double sinv = beta * sine / ecose;
+		final double sinw = precision.sin(omega);
+		final double cosw = precision.cos(omega);
+		final double sinu = sinv * cosw + cosv * sinw;
+		final double cosu = cosv * cosw - sinv * sinw;
+
+		final double sinno = precision.sin(xnode);
+		final double cosno = precision.cos(xnode);
+		final double xmx = -sinno * cosi;
+		final double xmy = cosno * cosi;
+		final double ux = xmx * sinu + cosno * cosu;
+		final double uy = xmy * sinu + sinno * cosu;
+		final double uz = sini * sinu;
+		final double vx = xmx * cosu - cosno * sinu;
+		final double vy = xmy * cosu - sinno * sinu;
+		final double vz = sini * cosu;
+
+		out[0] = r * ux;
+		out[1] = r * uy;
+		out[2] = r * uz;
+		out[3] = rdot * ux + rfdot * vx;
+		out[4] = rdot * uy + rfdot * vy;
+		out[5] = rdot * uz + rfdot * vz;
+		return iterations;
+	}
+
+	/**
+	 * Writes the phase in radians to out[6].
+	 */
+	static void calculatePhase(final double xlt, final double xnode,
+			final double omgadf, final double[] out) {
+		/* Phase in radians */
+		double phaseValue = xlt - xnode - omgadf + TWO_PI;
+
+		if (phaseValue < 0.0) {
+			phaseValue += TWO_PI;
+		}
+
+		out[6] = AbstractSatellite.mod2PI(phaseValue);
+	}
+
+	/**
+	 * Writes the position and velocity to out[0] to out[5].
+	 */
+	static void calculatePositionAndVelocity(final Precision precision,
+			final double rk, final double uk, final double xnodek,
+			final double xinck, final double rdotk, final double rfdotk,
+			final double[] out) {
+		/* Orientation vectors */
+		final double sinuk = precision.sin(uk);
+		final double cosuk = precision.cos(uk);
+		final double sinik = precision.sin(xinck);
+		final double cosik = precision.cos(xinck);
+		final double sinnok = precision.sin(xnodek);
+		final double cosnok = precision.cos(xnodek);
+		final double xmx = -sinnok * cosik;
+		final double xmy = cosnok * cosik;
+		final double ux = xmx * sinuk + cosnok * cosuk;
+		final double uy = xmy * sinuk + sinnok * cosuk;
+		final double uz = sinik * sinuk;
+		final double vx = xmx * cosuk - cosnok * sinuk;
+		final double vy = xmy * cosuk - sinnok * sinuk;
+		final double vz = sinik * cosuk;
+
+		/* Position and velocity */
+		out[0] = rk * ux;
+		out[1] = rk * uy;
+		out[2] = rk * uz;
+		out[3] = rdotk * ux + rfdotk * vx;
+		out[4] = rdotk * uy + rfdotk * vy;
+		out[5] = rdotk * uz + rfdotk * vz;
+	}
+
+}
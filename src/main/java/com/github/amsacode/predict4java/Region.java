@@ -0,0 +1,238 @@
+package com.github.amsacode.predict4java;
+
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * An area of the earth's surface watched by a {@link RegionMonitor}: a
+ * latitude and longitude box or a polygon. Edges are straight lines in
+ * latitude and longitude. A region may cross the antimeridian but must span
+ * less than 360 degrees of longitude, so it cannot contain a pole. Instances
+ * are immutable and thus thread safe.
+ */
+public final class Region {
+
+	static final int OUTSIDE = 0;
+	static final int PARTIAL = 1;
+	static final int INSIDE = 2;
+
+	private final String name;
+	private final double[] lats;
+	/** Longitudes unwrapped so that consecutive vertices differ by < 180. */
+	private final double[] lons;
+	private final double minLat;
+	private final double maxLat;
+	private final double minLon;
+	private final double maxLon;
+
+	private Region(final String name, final double[] lats, final double[] lons) {
+		this.name = name;
+		this.lats = lats;
+		this.lons = lons;
+		double minLat = Double.POSITIVE_INFINITY;
+		double maxLat = Double.NEGATIVE_INFINITY;
+		double minLon = Double.POSITIVE_INFINITY;
+		double maxLon = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < lats.length; i++) {
+			minLat = Math.min(minLat, lats[i]);
+			maxLat = Math.max(maxLat, lats[i]);
+			minLon = Math.min(minLon, lons[i]);
+			maxLon = Math.max(maxLon, lons[i]);
+		}
+		Preconditions.checkArgument(maxLon - minLon < 360,
+				"region must span less than 360 degrees of longitude");
+		this.minLat = minLat;
+		this.maxLat = maxLat;
+		this.minLon = minLon;
+		this.maxLon = maxLon;
+	}
+
+	/**
+	 * Creates a box. If minLon is greater than maxLon the box crosses the
+	 * antimeridian.
+	 *
+	 * @param name
+	 *            the name of the region
+	 * @param minLat
+	 *            the southern edge in degrees
+	 * @param minLon
+	 *            the western edge in degrees
+	 * @param maxLat
+	 *            the northern edge in degrees
+	 * @param maxLon
+	 *            the eastern edge in degrees
+	 * @return the region
+	 */
+	public static Region box(final String name, final double minLat,
+			final double minLon, final double maxLat, final double maxLon) {
+		Preconditions.checkArgument(minLat >= -90 && maxLat <= 90
+				&& minLat < maxLat, "latitudes must be increasing in -90 to 90");
+		final double east = maxLon > minLon ? maxLon : maxLon + 360;
+		return new Region(name, new double[] { minLat, minLat, maxLat, maxLat },
+				new double[] { minLon, east, east, minLon });
+	}
+
+	/**
+	 * Creates a polygon.
+	 *
+	 * @param name
+	 *            the name of the region
+	 * @param vertices
+	 *            at least three vertices in order around the polygon, in
+	 *            degrees. It is closed from the last vertex to the first.
+	 * @return the region
+	 */
+	public static Region polygon(final String name,
+			final List<Position> vertices) {
+		Preconditions.checkArgument(vertices.size() >= 3,
+				"a polygon needs at least 3 vertices");
+		final int n = vertices.size();
+		final double[] lats = new double[n];
+		final double[] lons = new double[n];
+		for (int i = 0; i < n; i++) {
+			final Position p = vertices.get(i);
+			Preconditions.checkArgument(p.getLat() >= -90 && p.getLat() <= 90,
+					"latitude out of range: " + p.getLat());
+			lats[i] = p.getLat();
+			lons[i] = p.getLon();
+			if (i > 0) {
+				// take the short way round from the previous vertex
+				while (lons[i] - lons[i - 1] > 180) {
+					lons[i] -= 360;
+				}
+				while (lons[i] - lons[i - 1] < -180) {
+					lons[i] += 360;
+				}
+			}
+		}
+		return new Region(name, lats, lons);
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns true if the point is in the region.
+	 *
+	 * @param lat
+	 *            the latitude in degrees
+	 * @param lon
+	 *            the longitude in degrees, any range
+	 * @return true if the point is in the region
+	 */
+	public boolean contains(final double lat, final double lon) {
+		if (lat < minLat || lat > maxLat) {
+			return false;
+		}
+		final double x = unwrap(lon);
+		if (x > maxLon) {
+			return false;
+		}
+		// even-odd rule
+		boolean inside = false;
+		for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+			if ((lats[i] > lat) != (lats[j] > lat)
+					&& x < (lons[j] - lons[i]) * (lat - lats[i])
+							/ (lats[j] - lats[i]) + lons[i]) {
+				inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	double getMinLat() {
+		return minLat;
+	}
+
+	double getMaxLat() {
+		return maxLat;
+	}
+
+	/**
+	 * @return the western limit in degrees, at most 360 less than
+	 *         {@link #getMaxLon()}
+	 */
+	double getMinLon() {
+		return minLon;
+	}
+
+	double getMaxLon() {
+		return maxLon;
+	}
+
+	/**
+	 * Returns whether the box is {@link #INSIDE}, {@link #OUTSIDE} or
+	 * {@link #PARTIAL}ly inside the region. The longitudes are in the range
+	 * of {@link #getMinLon()} to {@link #getMaxLon()}.
+	 */
+	int classify(final double lat0, final double lon0, final double lat1,
+			final double lon1) {
+		if (lat1 < minLat || lat0 > maxLat || lon1 < minLon || lon0 > maxLon) {
+			return OUTSIDE;
+		}
+		for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+			if (clips(lons[j], lats[j], lons[i], lats[i], lon0, lat0, lon1,
+					lat1)) {
+				return PARTIAL;
+			}
+		}
+		// the boundary misses the box so all of it is on one side
+		return contains((lat0 + lat1) / 2, (lon0 + lon1) / 2) ? INSIDE
+				: OUTSIDE;
+	}
+
+	/**
+	 * Returns the longitude moved by a multiple of 360 to be at least
+	 * minLon and less than minLon + 360.
+	 */
+	private double unwrap(final double lon) {
+		double x = (lon - minLon) % 360;
+		if (x < 0) {
+			x += 360;
+		}
+		return x + minLon;
+	}
+
+	/**
+	 * Returns true if the segment touches the closed box (Liang-Barsky).
+	 */
+	private static boolean clips(final double x0, final double y0,
+			final double x1, final double y1, final double minX,
+			final double minY, final double maxX, final double maxY) {
+		final double dx = x1 - x0;
+		final double dy = y1 - y0;
+		final double[] p = { -dx, dx, -dy, dy };
+		final double[] q = { x0 - minX, maxX - x0, y0 - minY, maxY - y0 };
+		double t0 = 0;
+		double t1 = 1;
+		for (int k = 0; k < 4; k++) {
+			if (p[k] == 0) {
+				if (q[k] < 0) {
+					return false;
+				}
+			} else {
+				final double t = q[k] / p[k];
+				if (p[k] < 0) {
+					t0 = Math.max(t0, t);
+				} else {
+					t1 = Math.min(t1, t);
+				}
+				if (t0 > t1) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "Region [name=" + name + "]";
+	}
+
+}
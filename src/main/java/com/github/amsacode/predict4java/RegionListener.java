@@ -0,0 +1,35 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Receives the satellites entering and leaving a {@link Region} watched by a
+ * {@link RegionMonitor}. Calls are made on the thread calling
+ * {@link RegionMonitor#update(long)} (or
+ * {@link RegionMonitor#subscribe(Region, RegionListener)}) and are never made
+ * concurrently for one monitor.
+ */
+public interface RegionListener {
+
+	/**
+	 * Called when the sub satellite point of a satellite enters the region.
+	 * 
+	 * @param region
+	 *            the region
+	 * @param satellite
+	 *            the satellite
+	 * @param timeMillis
+	 *            the time of the update that found it in the region
+	 */
+	void onEnter(Region region, Satellite satellite, long timeMillis);
+
+	/**
+	 * Called when the sub satellite point of a satellite leaves the region.
+	 * 
+	 * @param region
+	 *            the region
+	 * @param satellite
+	 *            the satellite
+	 * @param timeMillis
+	 *            the time of the update that found it out of the region
+	 */
+	void onExit(Region region, Satellite satellite, long timeMillis);
+}
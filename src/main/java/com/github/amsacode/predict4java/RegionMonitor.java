@@ -0,0 +1,480 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Tells listeners when satellites enter and leave regions of the earth's
+ * surface, for alerts over many regions at once.
+ * <p>
+ * The sub satellite points (as given by
+ * {@link Satellite#calculateSatelliteGroundTrack()}) are indexed in a grid of
+ * latitude and longitude cells. Each cell holds a list of the satellites in
+ * it, and the subscribed regions that cover it marked as covering all of the
+ * cell or part of it. {@link #update(long)} propagates each satellite, moves
+ * it to its new cell when it has changed and only considers the regions of
+ * that cell: a region covering the whole cell contains the satellite without
+ * a test, a region covering part of it is tested against the sub satellite
+ * point. The work per update is then proportional to the satellites and the
+ * regions near each of them rather than to satellites times regions.
+ * <p>
+ * A monitor runs at the times it is updated with, so alerts some minutes
+ * ahead come from a monitor updated with times that far in the future.
+ * <p>
+ * Instances are thread safe. Listeners are called on the thread calling
+ * {@link #update(long)} or {@link #subscribe(Region, RegionListener)}, may
+ * subscribe and cancel but must not call {@link #update(long)}.
+ */
+public final class RegionMonitor {
+
+	/** One degree. */
+	public static final double DEFAULT_CELL_DEGREES = 1;
+
+	private static final int NONE = -1;
+
+	private final List<Satellite> satellites;
+	private final StateVectorSource[] vectors;
+	private final double cellDegrees;
+	private final int rows;
+	private final int cols;
+
+	/** The first satellite in each cell. */
+	private final int[] heads;
+	/**
+	 * The subscriptions covering each cell as (id << 1) | 1 if the region
+	 * covers all of the cell, in increasing id. Replaced rather than modified.
+	 */
+	private final int[][] cellEntries;
+
+	private final int[] cells;
+	private final int[] next;
+	private final int[] prev;
+	private final double[] lats;
+	private final double[] lons;
+	/** The ids of the subscriptions each satellite is in, increasing. */
+	private final int[][] inside;
+	private final int[] insideCounts;
+
+	private final List<Subscription> subscriptions = new ArrayList<Subscription>();
+	private long timeMillis;
+	private boolean updating;
+
+	private final double[] state = new double[6];
+	private final double[] geodetic = new double[3];
+	private int[] now = new int[4];
+	private int[] entered = new int[4];
+	private int[] exited = new int[4];
+
+	/**
+	 * Constructor with cells of {@link #DEFAULT_CELL_DEGREES}.
+	 *
+	 * @param satellites
+	 *            the satellites
+	 */
+	public RegionMonitor(final List<? extends Satellite> satellites) {
+		this(satellites, DEFAULT_CELL_DEGREES);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param satellites
+	 *            the satellites
+	 * @param cellDegrees
+	 *            the size of the cells in degrees of latitude and longitude,
+	 *            must divide 180
+	 */
+	public RegionMonitor(final List<? extends Satellite> satellites,
+			final double cellDegrees) {
+		Preconditions.checkNotNull(satellites);
+		Preconditions.checkArgument(cellDegrees > 0 && cellDegrees <= 180,
+				"cellDegrees must be in (0, 180]");
+		final double rowCount = 180 / cellDegrees;
+		Preconditions.checkArgument(
+				Math.abs(rowCount - Math.rint(rowCount)) < 1e-9,
+				"cellDegrees must divide 180");
+		this.satellites = new ArrayList<Satellite>(satellites);
+		this.vectors = AbstractSatellite.stateVectors(satellites);
+		this.cellDegrees = cellDegrees;
+		this.rows = (int) Math.rint(rowCount);
+		this.cols = 2 * rows;
+		heads = new int[rows * cols];
+		Arrays.fill(heads, NONE);
+		cellEntries = new int[rows * cols][];
+		final int n = satellites.size();
+		cells = new int[n];
+		Arrays.fill(cells, NONE);
+		next = new int[n];
+		prev = new int[n];
+		lats = new double[n];
+		lons = new double[n];
+		inside = new int[n][];
+		insideCounts = new int[n];
+	}
+
+	/**
+	 * Watches a region. If the monitor has been updated the listener is told
+	 * of the satellites in the region at the time of the last update before
+	 * this method returns.
+	 *
+	 * @param region
+	 *            the region
+	 * @param listener
+	 *            receives the satellites entering and leaving the region
+	 * @return the subscription
+	 */
+	public RegionSubscription subscribe(final Region region,
+			final RegionListener listener) {
+		Preconditions.checkNotNull(region);
+		Preconditions.checkNotNull(listener);
+		final List<Satellite> found = new ArrayList<Satellite>();
+		final Subscription subscription;
+		final long time;
+		synchronized (this) {
+			final int id = subscriptions.size();
+			subscription = new Subscription(id, region, listener,
+					cellsOf(region));
+			subscriptions.add(subscription);
+			for (final int entry : subscription.cells) {
+				final int cell = entry >>> 1;
+				final boolean all = (entry & 1) != 0;
+				cellEntries[cell] = append(cellEntries[cell], id << 1
+						| (all ? 1 : 0));
+				for (int i = heads[cell]; i != NONE; i = next[i]) {
+					if (all || region.contains(lats[i], lons[i])) {
+						// the largest id so far, the ids stay in order
+						addInside(i, id);
+						found.add(satellites.get(i));
+					}
+				}
+			}
+			time = timeMillis;
+		}
+		for (final Satellite satellite : found) {
+			if (!subscription.cancelled) {
+				listener.onEnter(region, satellite, time);
+			}
+		}
+		return subscription;
+	}
+
+	/**
+	 * Propagates the satellites to the time, moves them between cells and
+	 * tells the listeners of the satellites entering and leaving their
+	 * regions.
+	 *
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public synchronized void update(final long timeMillis) {
+		if (updating) {
+			throw new IllegalStateException(
+					"update must not be called by a listener");
+		}
+		updating = true;
+		try {
+			this.timeMillis = timeMillis;
+			final double julianUTC = AbstractSatellite.julianDateUTC(timeMillis);
+			for (int i = 0; i < cells.length; i++) {
+				vectors[i].calculateSatelliteVectors(timeMillis, state);
+				AbstractSatellite.calculateLatLonAlt(julianUTC, state[0],
+						state[1], state[2], geodetic);
+				lats[i] = Math.toDegrees(geodetic[0]);
+				lons[i] = Math.toDegrees(geodetic[1]);
+				final int cell = cell(lats[i], lons[i]);
+				if (cell != cells[i]) {
+					unlink(i);
+					link(i, cell);
+				}
+				evaluate(i);
+			}
+		} finally {
+			updating = false;
+		}
+	}
+
+	/**
+	 * Returns the satellites over a region at the time of the last update,
+	 * visiting only the cells the region covers. The region need not be
+	 * subscribed.
+	 *
+	 * @param region
+	 *            the region
+	 * @return the satellites in the region
+	 */
+	public synchronized List<Satellite> getSatellites(final Region region) {
+		Preconditions.checkNotNull(region);
+		final List<Satellite> list = new ArrayList<Satellite>();
+		for (final int entry : cellsOf(region)) {
+			for (int i = heads[entry >>> 1]; i != NONE; i = next[i]) {
+				if ((entry & 1) != 0 || region.contains(lats[i], lons[i])) {
+					list.add(satellites.get(i));
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Works out the subscriptions satellite i is in now and tells the
+	 * listeners of the changes.
+	 */
+	private void evaluate(final int i) {
+		int nowCount = 0;
+		if (cells[i] != NONE) {
+			final int[] entries = cellEntries[cells[i]];
+			if (entries != null) {
+				if (now.length < entries.length) {
+					now = new int[entries.length];
+				}
+				for (final int entry : entries) {
+					final int id = entry >>> 1;
+					final Subscription subscription = subscriptions.get(id);
+					if (subscription != null
+							&& ((entry & 1) != 0 || subscription.region
+									.contains(lats[i], lons[i]))) {
+						now[nowCount++] = id;
+					}
+				}
+			}
+		}
+		final int[] before = inside[i];
+		final int beforeCount = insideCounts[i];
+		if (nowCount == 0 && beforeCount == 0) {
+			return;
+		}
+		// both in increasing order
+		if (entered.length < nowCount) {
+			entered = new int[now.length];
+		}
+		if (exited.length < beforeCount) {
+			exited = new int[before.length];
+		}
+		int enteredCount = 0;
+		int exitedCount = 0;
+		int a = 0;
+		int b = 0;
+		while (a < nowCount || b < beforeCount) {
+			if (b == beforeCount || a < nowCount && now[a] < before[b]) {
+				entered[enteredCount++] = now[a++];
+			} else if (a == nowCount || before[b] < now[a]) {
+				exited[exitedCount++] = before[b++];
+			} else {
+				a++;
+				b++;
+			}
+		}
+		if (enteredCount == 0 && exitedCount == 0) {
+			return;
+		}
+		if (before == null || before.length < nowCount) {
+			inside[i] = Arrays.copyOf(now, nowCount);
+		} else {
+			System.arraycopy(now, 0, before, 0, nowCount);
+		}
+		insideCounts[i] = nowCount;
+		final Satellite satellite = satellites.get(i);
+		// copied as listeners may subscribe or cancel
+		final int[] exits = Arrays.copyOf(exited, exitedCount);
+		final int[] entries = Arrays.copyOf(entered, enteredCount);
+		for (final int id : exits) {
+			final Subscription subscription = subscriptions.get(id);
+			if (subscription != null) {
+				subscription.listener.onExit(subscription.region, satellite,
+						timeMillis);
+			}
+		}
+		for (final int id : entries) {
+			final Subscription subscription = subscriptions.get(id);
+			if (subscription != null) {
+				subscription.listener.onEnter(subscription.region, satellite,
+						timeMillis);
+			}
+		}
+	}
+
+	private synchronized void cancel(final Subscription subscription) {
+		if (subscription.cancelled) {
+			return;
+		}
+		subscription.cancelled = true;
+		subscriptions.set(subscription.id, null);
+		for (final int entry : subscription.cells) {
+			final int cell = entry >>> 1;
+			cellEntries[cell] = remove(cellEntries[cell], subscription.id);
+			for (int i = heads[cell]; i != NONE; i = next[i]) {
+				removeInside(i, subscription.id);
+			}
+		}
+	}
+
+	/**
+	 * Returns the cells covered by the region as (cell << 1) | 1 if the
+	 * region covers all of the cell.
+	 */
+	private int[] cellsOf(final Region region) {
+		final Map<Integer, Integer> classes = new LinkedHashMap<Integer, Integer>();
+		final int row0 = row(region.getMinLat());
+		final int row1 = row(region.getMaxLat());
+		final long k0 = (long) Math.floor(region.getMinLon() / cellDegrees);
+		final long k1 = (long) Math.floor(region.getMaxLon() / cellDegrees);
+		for (int row = row0; row <= row1; row++) {
+			final double lat0 = row * cellDegrees - 90;
+			final double lat1 = Math.min(90, lat0 + cellDegrees);
+			for (long k = k0; k <= k1; k++) {
+				final int c = region.classify(lat0, k * cellDegrees, lat1,
+						(k + 1) * cellDegrees);
+				if (c != Region.OUTSIDE) {
+					final int cell = row * cols
+							+ (int) (((k % cols) + cols) % cols);
+					final Integer previous = classes.put(cell, c);
+					if (previous != null && previous != c) {
+						// the same cell at both ends of the region
+						classes.put(cell, Region.PARTIAL);
+					}
+				}
+			}
+		}
+		final int[] result = new int[classes.size()];
+		int j = 0;
+		for (final Map.Entry<Integer, Integer> entry : classes.entrySet()) {
+			result[j++] = entry.getKey() << 1
+					| (entry.getValue() == Region.INSIDE ? 1 : 0);
+		}
+		return result;
+	}
+
+	private int row(final double lat) {
+		return Math.max(0,
+				Math.min(rows - 1, (int) Math.floor((lat + 90) / cellDegrees)));
+	}
+
+	/**
+	 * Returns the cell of a point or NONE if it is not a number.
+	 */
+	private int cell(final double lat, final double lon) {
+		if (Double.isNaN(lat) || Double.isNaN(lon)) {
+			return NONE;
+		}
+		double x = lon % 360;
+		if (x < 0) {
+			x += 360;
+		}
+		final int col = Math.min(cols - 1, (int) Math.floor(x / cellDegrees));
+		return row(lat) * cols + col;
+	}
+
+	private void link(final int i, final int cell) {
+		cells[i] = cell;
+		if (cell == NONE) {
+			return;
+		}
+		prev[i] = NONE;
+		next[i] = heads[cell];
+		if (heads[cell] != NONE) {
+			prev[heads[cell]] = i;
+		}
+		heads[cell] = i;
+	}
+
+	private void unlink(final int i) {
+		final int cell = cells[i];
+		if (cell == NONE) {
+			return;
+		}
+		if (prev[i] == NONE) {
+			heads[cell] = next[i];
+		} else {
+			next[prev[i]] = next[i];
+		}
+		if (next[i] != NONE) {
+			prev[next[i]] = prev[i];
+		}
+		cells[i] = NONE;
+	}
+
+	private void addInside(final int i, final int id) {
+		if (inside[i] == null) {
+			inside[i] = new int[2];
+		} else if (insideCounts[i] == inside[i].length) {
+			inside[i] = Arrays.copyOf(inside[i], inside[i].length * 2);
+		}
+		inside[i][insideCounts[i]++] = id;
+	}
+
+	private void removeInside(final int i, final int id) {
+		final int[] ids = inside[i];
+		final int count = insideCounts[i];
+		for (int k = 0; k < count; k++) {
+			if (ids[k] == id) {
+				System.arraycopy(ids, k + 1, ids, k, count - k - 1);
+				insideCounts[i]--;
+				return;
+			}
+		}
+	}
+
+	private static int[] append(final int[] entries, final int entry) {
+		if (entries == null) {
+			return new int[] { entry };
+		}
+		final int[] result = Arrays.copyOf(entries, entries.length + 1);
+		result[entries.length] = entry;
+		return result;
+	}
+
+	private static int[] remove(final int[] entries, final int id) {
+		int count = 0;
+		for (final int entry : entries) {
+			if (entry >>> 1 != id) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return null;
+		}
+		final int[] result = new int[count];
+		int j = 0;
+		for (final int entry : entries) {
+			if (entry >>> 1 != id) {
+				result[j++] = entry;
+			}
+		}
+		return result;
+	}
+
+	private final class Subscription implements RegionSubscription {
+
+		final int id;
+		final Region region;
+		final RegionListener listener;
+		/** As returned by cellsOf. */
+		final int[] cells;
+		volatile boolean cancelled;
+
+		Subscription(final int id, final Region region,
+				final RegionListener listener, final int[] cells) {
+			this.id = id;
+			this.region = region;
+			this.listener = listener;
+			this.cells = cells;
+		}
+
+		@Override
+		public Region getRegion() {
+			return region;
+		}
+
+		@Override
+		public void cancel() {
+			RegionMonitor.this.cancel(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Links a {@link RegionListener} to a {@link RegionMonitor}.
+ */
+public interface RegionSubscription {
+
+	/**
+	 * @return the region watched
+	 */
+	Region getRegion();
+
+	/**
+	 * Stops the events for the region. No exit events are sent for the
+	 * satellites in it.
+	 */
+	void cancel();
+}
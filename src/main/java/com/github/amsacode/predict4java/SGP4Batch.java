@@ -0,0 +1,343 @@
+package com.github.amsacode.predict4java;
+
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Propagates a catalog of near earth satellites with SGP4 to the same time in
+ * one call. The constants that {@link SGP4} keeps per satellite are held here
+ * in one primitive array per constant (structure of arrays) so a snapshot of
+ * the catalog walks contiguous memory instead of a satellite object graph.
+ * <p>
+ * The secular update, which is only multiplications and additions, is done
+ * for all satellites in a first loop without branches or calls that the JIT
+ * can vectorise. The periodic terms and Kepler's equation, which need the
+ * trigonometric functions, are done in a second loop. The results are the
+ * same as {@link AbstractSatellite#calculateSatelliteVectors(long, double[])}.
+ * <p>
+ * Instances are thread safe, calls to propagate are serialized.
+ */
+public final class SGP4Batch {
+
+	private static final double MINS_PER_DAY = 1.44E3;
+	private static final double SECS_PER_DAY = 8.6400E4;
+	private static final double VELOCITY_SCALE = Propagator.EARTH_RADIUS_KM
+			* MINS_PER_DAY / SECS_PER_DAY;
+
+	private final int size;
+
+	private final double[] julEpoch;
+	private final double[] xmo;
+	private final double[] omegao;
+	private final double[] xnodeo;
+	private final double[] eo;
+	private final double[] xincl;
+	private final double[] bstarC4;
+	private final double[] bstarC5;
+	private final double[] aodp;
+	private final double[] aycof;
+	private final double[] c1;
+	private final double[] cosio;
+	private final double[] d2;
+	private final double[] d3;
+	private final double[] d4;
+	private final double[] delmo;
+	private final double[] omgcof;
+	private final double[] eta;
+	private final double[] omgdot;
+	private final double[] sinio;
+	private final double[] xnodp;
+	private final double[] sinmo;
+	private final double[] t2cof;
+	private final double[] t3cof;
+	private final double[] t4cof;
+	private final double[] t5cof;
+	private final double[] x1mth2;
+	private final double[] x3thm1;
+	private final double[] x7thm1;
+	private final double[] xmcof;
+	private final double[] xmdot;
+	private final double[] xnodcf;
+	private final double[] xnodot;
+	private final double[] xlcof;
+	private final boolean[] simple;
+
+	/* Results of the secular update. */
+	private final double[] tsince;
+	private final double[] xmdf;
+	private final double[] omgadf;
+	private final double[] xnode;
+	private final double[] tempa;
+	private final double[] tempe;
+	private final double[] templ;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param tles
+	 *            the element sets of near earth satellites
+	 * @throws IllegalArgumentException
+	 *             if an element set is for a deep space satellite
+	 */
+	public SGP4Batch(final List<TLE> tles) {
+		Preconditions.checkNotNull(tles);
+		size = tles.size();
+		julEpoch = new double[size];
+		xmo = new double[size];
+		omegao = new double[size];
+		xnodeo = new double[size];
+		eo = new double[size];
+		xincl = new double[size];
+		bstarC4 = new double[size];
+		bstarC5 = new double[size];
+		aodp = new double[size];
+		aycof = new double[size];
+		c1 = new double[size];
+		cosio = new double[size];
+		d2 = new double[size];
+		d3 = new double[size];
+		d4 = new double[size];
+		delmo = new double[size];
+		omgcof = new double[size];
+		eta = new double[size];
+		omgdot = new double[size];
+		sinio = new double[size];
+		xnodp = new double[size];
+		sinmo = new double[size];
+		t2cof = new double[size];
+		t3cof = new double[size];
+		t4cof = new double[size];
+		t5cof = new double[size];
+		x1mth2 = new double[size];
+		x3thm1 = new double[size];
+		x7thm1 = new double[size];
+		xmcof = new double[size];
+		xmdot = new double[size];
+		xnodcf = new double[size];
+		xnodot = new double[size];
+		xlcof = new double[size];
+		simple = new boolean[size];
+		tsince = new double[size];
+		xmdf = new double[size];
+		omgadf = new double[size];
+		xnode = new double[size];
+		tempa = new double[size];
+		tempe = new double[size];
+		templ = new double[size];
+		for (int i = 0; i < size; i++) {
+			final TLE tle = tles.get(i);
+			Preconditions.checkArgument(!tle.isDeepspace(),
+					"deep space satellites are not propagated by SGP4: "
+							+ tle.getName());
+			final SGP4 sgp4 = new SGP4(tle);
+			julEpoch[i] = AbstractSatellite.juliandDateOfEpoch(tle.getEpoch());
+			xmo[i] = tle.getXmo();
+			omegao[i] = tle.getOmegao();
+			xnodeo[i] = tle.getXnodeo();
+			eo[i] = tle.getEo();
+			xincl[i] = tle.getXincl();
+			bstarC4[i] = tle.getBstar() * sgp4.c4;
+			bstarC5[i] = tle.getBstar() * sgp4.c5;
+			aodp[i] = sgp4.aodp;
+			aycof[i] = sgp4.aycof;
+			c1[i] = sgp4.c1;
+			cosio[i] = sgp4.cosio;
+			d2[i] = sgp4.d2;
+			d3[i] = sgp4.d3;
+			d4[i] = sgp4.d4;
+			delmo[i] = sgp4.delmo;
+			omgcof[i] = sgp4.omgcof;
+			eta[i] = sgp4.eta;
+			omgdot[i] = sgp4.omgdot;
+			sinio[i] = sgp4.sinio;
+			xnodp[i] = sgp4.xnodp;
+			sinmo[i] = sgp4.sinmo;
+			t2cof[i] = sgp4.t2cof;
+			t3cof[i] = sgp4.t3cof;
+			t4cof[i] = sgp4.t4cof;
+			t5cof[i] = sgp4.t5cof;
+			x1mth2[i] = sgp4.x1mth2;
+			x3thm1[i] = sgp4.x3thm1;
+			x7thm1[i] = sgp4.x7thm1;
+			xmcof[i] = sgp4.xmcof;
+			xmdot[i] = sgp4.xmdot;
+			xnodcf[i] = sgp4.xnodcf;
+			xnodot[i] = sgp4.xnodot;
+			xlcof[i] = sgp4.xlcof;
+			simple[i] = sgp4.sgp4Simple;
+		}
+	}
+
+	/**
+	 * @return the number of satellites
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Calculates the ECI position (km) and velocity (km/s) of every satellite
+	 * at the given time. The six values of satellite i are written to
+	 * eciStates[6 * i] to eciStates[6 * i + 5] in the order x, y, z, dx, dy,
+	 * dz.
+	 *
+	 * @param timeMillis
+	 *            the time in milliseconds since the epoch 1970-01-01 UTC
+	 * @param eciStates
+	 *            receives the states, length at least 6 * size()
+	 */
+	public synchronized void propagate(final long timeMillis,
+			final double[] eciStates) {
+		Preconditions.checkArgument(eciStates.length >= 6 * size,
+				"eciStates must have length at least 6 * size()");
+		final double julUTC = AbstractSatellite.julianDateUTC(timeMillis);
+		updateSecular(julUTC);
+		for (int i = 0; i < size; i++) {
+			updatePeriodic(i, eciStates);
+		}
+	}
+
+	/**
+	 * Update for secular gravity and atmospheric drag. The higher order drag
+	 * coefficients are zero for satellites with the simple flag set so the
+	 * loop has no branches.
+	 */
+	private void updateSecular(final double julUTC) {
+		for (int i = 0; i < size; i++) {
+			final double t = (julUTC - julEpoch[i]) * MINS_PER_DAY;
+			final double tsq = t * t;
+			final double tcube = tsq * t;
+			final double tfour = t * tcube;
+			tsince[i] = t;
+			xmdf[i] = xmo[i] + xmdot[i] * t;
+			omgadf[i] = omegao[i] + omgdot[i] * t;
+			xnode[i] = xnodeo[i] + xnodot[i] * t + xnodcf[i] * tsq;
+			tempa[i] = 1.0 - c1[i] * t - d2[i] * tsq - d3[i] * tcube - d4[i]
+					* tfour;
+			tempe[i] = bstarC4[i] * t;
+			templ[i] = t2cof[i] * tsq + t3cof[i] * tcube + tfour
+					* (t4cof[i] + t * t5cof[i]);
+		}
+	}
+
+	private void updatePeriodic(final int i, final double[] out) {
+		final double t = tsince[i];
+		final double xmdf = this.xmdf[i];
+		final double omgadf = this.omgadf[i];
+		final double xnode = this.xnode[i];
+		double xmp = xmdf;
+		double omega = omgadf;
+		double tempe = this.tempe[i];
+
+		if (!simple[i]) {
+			final double delomg = omgcof[i] * t;
+			final double delm = xmcof[i]
+					* (Math.pow(1.0 + eta[i] * Math.cos(xmdf), 3) - delmo[i]);
+			final double temp = delomg + delm;
+			xmp = xmdf + temp;
+			omega = omgadf - temp;
+			tempe = tempe + bstarC5[i] * (Math.sin(xmp) - sinmo[i]);
+		}
+
+		final double a = aodp[i] * Math.pow(tempa[i], 2);
+		final double e = eo[i] - tempe;
+		final double xl = xmp + omega + xnode + xnodp[i] * templ[i];
+		final double beta = Math.sqrt(1.0 - e * e);
+		final double xn = Propagator.XKE / Math.pow(a, 1.5);
+
+		/* Long period periodics */
+		final double axn = e * Math.cos(omega);
+		final double temp0 = 1.0 / (a * (beta * beta));
+		final double xll = temp0 * xlcof[i] * axn;
+		final double aynl = temp0 * aycof[i];
+		final double xlt = xl + xll;
+		final double ayn = e * Math.sin(omega) + aynl;
+
+		/* Solve Kepler's Equation */
+		final double capu = AbstractSatellite.mod2PI(xlt - xnode);
+		double epw = capu;
+		double sinepw;
+		double cosepw;
+		double temp3;
+		double temp4;
+		double temp5;
+		double temp6;
+		boolean converged = false;
+		int j = 0;
+		do {
+			sinepw = Math.sin(epw);
+			cosepw = Math.cos(epw);
+			temp3 = axn * sinepw;
+			temp4 = ayn * cosepw;
+			temp5 = axn * cosepw;
+			temp6 = ayn * sinepw;
+			final double next = (capu - temp4 + temp3 - epw)
+					/ (1.0 - temp5 - temp6) + epw;
+			if (Math.abs(next - epw) <= Propagator.EPSILON) {
+				converged = true;
+			} else {
+				epw = next;
+			}
+		} while (j++ < 10 && !converged);
+
+		/* Short period preliminary quantities */
+		final double ecose = temp5 + temp6;
+		final double esine = temp3 - temp4;
+		final double elsq = axn * axn + ayn * ayn;
+		final double onemel = 1.0 - elsq;
+		final double pl = a * onemel;
+		final double r = a * (1.0 - ecose);
+		final double invr = 1.0 / r;
+		final double rdot = Propagator.XKE * Math.sqrt(a) * esine * invr;
+		final double rfdot = Propagator.XKE * Math.sqrt(pl) * invr;
+		final double aovr = a * invr;
+		final double betal = Math.sqrt(onemel);
+		final double invbetal = 1.0 / (1.0 + betal);
+		final double cosu = aovr * (cosepw - axn + ayn * esine * invbetal);
+		final double sinu = aovr * (sinepw - ayn - axn * esine * invbetal);
+		final double u = Math.atan2(sinu, cosu);
+		final double sin2u = 2.0 * sinu * cosu;
+		final double cos2u = 2.0 * cosu * cosu - 1;
+		final double invpl = 1.0 / pl;
+		final double temp1 = Propagator.CK2 * invpl;
+		final double temp2 = temp1 * invpl;
+
+		/* Update for short periodics */
+		final double rk = r * (1.0 - 1.5 * temp2 * betal * x3thm1[i]) + 0.5
+				* temp1 * x1mth2[i] * cos2u;
+		final double uk = u - 0.25 * temp2 * x7thm1[i] * sin2u;
+		final double xnodek = xnode + 1.5 * temp2 * cosio[i] * sin2u;
+		final double xinck = xincl[i] + 1.5 * temp2 * cosio[i] * sinio[i]
+				* cos2u;
+		final double rdotk = rdot - xn * temp1 * x1mth2[i] * sin2u;
+		final double rfdotk = rfdot + xn * temp1
+				* (x1mth2[i] * cos2u + 1.5 * x3thm1[i]);
+
+		/* Orientation vectors */
+		final double sinuk = Math.sin(uk);
+		final double cosuk = Math.cos(uk);
+		final double sinik = Math.sin(xinck);
+		final double cosik = Math.cos(xinck);
+		final double sinnok = Math.sin(xnodek);
+		final double cosnok = Math.cos(xnodek);
+		final double xmx = -sinnok * cosik;
+		final double xmy = cosnok * cosik;
+		final double ux = xmx * sinuk + cosnok * cosuk;
+		final double uy = xmy * sinuk + sinnok * cosuk;
+		final double uz = sinik * sinuk;
+		final double vx = xmx * cosuk - cosnok * sinuk;
+		final double vy = xmy * cosuk - sinnok * sinuk;
+		final double vz = sinik * cosuk;
+
+		/* Position and velocity in km and km/s */
+		final int k = 6 * i;
+		out[k] = rk * ux * Propagator.EARTH_RADIUS_KM;
+		out[k + 1] = rk * uy * Propagator.EARTH_RADIUS_KM;
+		out[k + 2] = rk * uz * Propagator.EARTH_RADIUS_KM;
+		out[k + 3] = (rdotk * ux + rfdotk * vx) * VELOCITY_SCALE;
+		out[k + 4] = (rdotk * uy + rfdotk * vy) * VELOCITY_SCALE;
+		out[k + 5] = (rdotk * uz + rfdotk * vz) * VELOCITY_SCALE;
+	}
+
+}
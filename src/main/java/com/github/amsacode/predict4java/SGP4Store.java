@@ -0,0 +1,328 @@
+package com.github.amsacode.predict4java;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Holds the initialised SGP4 constants of a catalog of near earth satellites
+ * in one direct (off-heap) buffer, a fixed size record per satellite, so a
+ * large catalog is a single object to the garbage collector instead of a
+ * satellite, a TLE and scratch arrays per satellite.
+ * <p>
+ * Satellites are propagated through a {@link View}, a flyweight that is
+ * pointed at a record with {@link View#at(int)} and reads the constants from
+ * the buffer as it needs them. The results are the same as
+ * {@link AbstractSatellite#calculateSatelliteVectors(long, double[])}. The
+ * store is immutable once created and can be shared by threads; a view is not
+ * thread safe so use a view per thread.
+ */
+public final class SGP4Store {
+
+	private static final double MINS_PER_DAY = 1.44E3;
+	private static final double SECS_PER_DAY = 8.6400E4;
+	private static final double VELOCITY_SCALE = Propagator.EARTH_RADIUS_KM
+			* MINS_PER_DAY / SECS_PER_DAY;
+
+	/* Byte offsets of the values in a record. */
+	private static final int JUL_EPOCH = 0;
+	private static final int XMO = 8;
+	private static final int OMEGAO = 16;
+	private static final int XNODEO = 24;
+	private static final int EO = 32;
+	private static final int XINCL = 40;
+	private static final int BSTAR_C4 = 48;
+	private static final int BSTAR_C5 = 56;
+	private static final int AODP = 64;
+	private static final int AYCOF = 72;
+	private static final int C1 = 80;
+	private static final int COSIO = 88;
+	private static final int D2 = 96;
+	private static final int D3 = 104;
+	private static final int D4 = 112;
+	private static final int DELMO = 120;
+	private static final int OMGCOF = 128;
+	private static final int ETA = 136;
+	private static final int OMGDOT = 144;
+	private static final int SINIO = 152;
+	private static final int XNODP = 160;
+	private static final int SINMO = 168;
+	private static final int T2COF = 176;
+	private static final int T3COF = 184;
+	private static final int T4COF = 192;
+	private static final int T5COF = 200;
+	private static final int X1MTH2 = 208;
+	private static final int X3THM1 = 216;
+	private static final int X7THM1 = 224;
+	private static final int XMCOF = 232;
+	private static final int XMDOT = 240;
+	private static final int XNODCF = 248;
+	private static final int XNODOT = 256;
+	private static final int XLCOF = 264;
+	private static final int CATNUM = 272;
+	private static final int SIMPLE = 276;
+
+	/** Size in bytes of the record of one satellite. */
+	static final int RECORD_BYTES = 280;
+
+	private final ByteBuffer buffer;
+	private final int size;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param tles
+	 *            the element sets of near earth satellites
+	 * @throws IllegalArgumentException
+	 *             if an element set is for a deep space satellite
+	 */
+	public SGP4Store(final List<TLE> tles) {
+		Preconditions.checkNotNull(tles);
+		size = tles.size();
+		buffer = ByteBuffer.allocateDirect(size * RECORD_BYTES).order(
+				ByteOrder.nativeOrder());
+		for (int i = 0; i < size; i++) {
+			final TLE tle = tles.get(i);
+			Preconditions.checkArgument(!tle.isDeepspace(),
+					"deep space satellites are not propagated by SGP4: "
+							+ tle.getName());
+			final SGP4 sgp4 = new SGP4(tle);
+			final int base = i * RECORD_BYTES;
+			buffer.putDouble(base + JUL_EPOCH,
+					AbstractSatellite.juliandDateOfEpoch(tle.getEpoch()));
+			buffer.putDouble(base + XMO, tle.getXmo());
+			buffer.putDouble(base + OMEGAO, tle.getOmegao());
+			buffer.putDouble(base + XNODEO, tle.getXnodeo());
+			buffer.putDouble(base + EO, tle.getEo());
+			buffer.putDouble(base + XINCL, tle.getXincl());
+			buffer.putDouble(base + BSTAR_C4, tle.getBstar() * sgp4.c4);
+			buffer.putDouble(base + BSTAR_C5, tle.getBstar() * sgp4.c5);
+			buffer.putDouble(base + AODP, sgp4.aodp);
+			buffer.putDouble(base + AYCOF, sgp4.aycof);
+			buffer.putDouble(base + C1, sgp4.c1);
+			buffer.putDouble(base + COSIO, sgp4.cosio);
+			buffer.putDouble(base + D2, sgp4.d2);
+			buffer.putDouble(base + D3, sgp4.d3);
+			buffer.putDouble(base + D4, sgp4.d4);
+			buffer.putDouble(base + DELMO, sgp4.delmo);
+			buffer.putDouble(base + OMGCOF, sgp4.omgcof);
+			buffer.putDouble(base + ETA, sgp4.eta);
+			buffer.putDouble(base + OMGDOT, sgp4.omgdot);
+			buffer.putDouble(base + SINIO, sgp4.sinio);
+			buffer.putDouble(base + XNODP, sgp4.xnodp);
+			buffer.putDouble(base + SINMO, sgp4.sinmo);
+			buffer.putDouble(base + T2COF, sgp4.t2cof);
+			buffer.putDouble(base + T3COF, sgp4.t3cof);
+			buffer.putDouble(base + T4COF, sgp4.t4cof);
+			buffer.putDouble(base + T5COF, sgp4.t5cof);
+			buffer.putDouble(base + X1MTH2, sgp4.x1mth2);
+			buffer.putDouble(base + X3THM1, sgp4.x3thm1);
+			buffer.putDouble(base + X7THM1, sgp4.x7thm1);
+			buffer.putDouble(base + XMCOF, sgp4.xmcof);
+			buffer.putDouble(base + XMDOT, sgp4.xmdot);
+			buffer.putDouble(base + XNODCF, sgp4.xnodcf);
+			buffer.putDouble(base + XNODOT, sgp4.xnodot);
+			buffer.putDouble(base + XLCOF, sgp4.xlcof);
+			buffer.putInt(base + CATNUM, tle.getCatnum());
+			buffer.putInt(base + SIMPLE, sgp4.sgp4Simple ? 1 : 0);
+		}
+	}
+
+	/**
+	 * @return the number of satellites
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the satellite
+	 * @return the catalog number of the satellite
+	 */
+	public int getCatnum(final int index) {
+		return buffer.getInt(record(index) + CATNUM);
+	}
+
+	/**
+	 * @return a new view, pointed at the first satellite
+	 */
+	public View view() {
+		return new View();
+	}
+
+	private int record(final int index) {
+		Preconditions.checkArgument(index >= 0 && index < size,
+				"index out of range: " + index);
+		return index * RECORD_BYTES;
+	}
+
+	/**
+	 * A flyweight propagator over the records of the store.
+	 */
+	public final class View {
+
+		private int base;
+
+		View() {
+			// created by SGP4Store.view()
+		}
+
+		/**
+		 * Points this view at the satellite with the given index.
+		 *
+		 * @param index
+		 *            the index of the satellite in the store
+		 * @return this
+		 */
+		public View at(final int index) {
+			base = record(index);
+			return this;
+		}
+
+		/**
+		 * @return the index of the satellite this view points at
+		 */
+		public int index() {
+			return base / RECORD_BYTES;
+		}
+
+		/**
+		 * Calculates the ECI position (km) and velocity (km/s) of the
+		 * satellite this view points at and writes them into eciState in the
+		 * order x, y, z, dx, dy, dz.
+		 *
+		 * @param timeMillis
+		 *            the time in milliseconds since the epoch 1970-01-01 UTC
+		 * @param eciState
+		 *            receives the six values
+		 */
+		public void calculateSatelliteVectors(final long timeMillis,
+				final double[] eciState) {
+			final double julUTC = AbstractSatellite.julianDateUTC(timeMillis);
+			final double tsince = (julUTC - get(JUL_EPOCH)) * MINS_PER_DAY;
+
+			/* Update for secular gravity and atmospheric drag. */
+			final double xmdf = get(XMO) + get(XMDOT) * tsince;
+			final double omgadf = get(OMEGAO) + get(OMGDOT) * tsince;
+			final double xnoddf = get(XNODEO) + get(XNODOT) * tsince;
+			double omega = omgadf;
+			double xmp = xmdf;
+			final double tsq = tsince * tsince;
+			final double xnode = xnoddf + get(XNODCF) * tsq;
+			double tempa = 1.0 - get(C1) * tsince;
+			double tempe = get(BSTAR_C4) * tsince;
+			double templ = get(T2COF) * tsq;
+
+			if (buffer.getInt(base + SIMPLE) == 0) {
+				final double delomg = get(OMGCOF) * tsince;
+				final double delm = get(XMCOF)
+						* (Math.pow(1.0 + get(ETA) * Math.cos(xmdf), 3) - get(DELMO));
+				final double temp = delomg + delm;
+				xmp = xmdf + temp;
+				omega = omgadf - temp;
+				final double tcube = tsq * tsince;
+				final double tfour = tsince * tcube;
+				tempa = tempa - get(D2) * tsq - get(D3) * tcube - get(D4)
+						* tfour;
+				tempe = tempe + get(BSTAR_C5) * (Math.sin(xmp) - get(SINMO));
+				templ = templ + get(T3COF) * tcube + tfour
+						* (get(T4COF) + tsince * get(T5COF));
+			}
+
+			final double a = get(AODP) * Math.pow(tempa, 2);
+			final double e = get(EO) - tempe;
+			final double xl = xmp + omega + xnode + get(XNODP) * templ;
+			final double beta = Math.sqrt(1.0 - e * e);
+			final double xn = Propagator.XKE / Math.pow(a, 1.5);
+
+			/* Long period periodics */
+			final double axn = e * Math.cos(omega);
+			final double temp0 = 1.0 / (a * (beta * beta));
+			final double xll = temp0 * get(XLCOF) * axn;
+			final double aynl = temp0 * get(AYCOF);
+			final double xlt = xl + xll;
+			final double ayn = e * Math.sin(omega) + aynl;
+
+			/* Solve Kepler's Equation */
+			final double capu = AbstractSatellite.mod2PI(xlt - xnode);
+			double epw = capu;
+			double sinepw;
+			double cosepw;
+			double temp3;
+			double temp4;
+			double temp5;
+			double temp6;
+			boolean converged = false;
+			int i = 0;
+			do {
+				sinepw = Math.sin(epw);
+				cosepw = Math.cos(epw);
+				temp3 = axn * sinepw;
+				temp4 = ayn * cosepw;
+				temp5 = axn * cosepw;
+				temp6 = ayn * sinepw;
+				final double next = (capu - temp4 + temp3 - epw)
+						/ (1.0 - temp5 - temp6) + epw;
+				if (Math.abs(next - epw) <= Propagator.EPSILON) {
+					converged = true;
+				} else {
+					epw = next;
+				}
+			} while (i++ < 10 && !converged);
+
+			/* Short period preliminary quantities */
+			final double ecose = temp5 + temp6;
+			final double esine = temp3 - temp4;
+			final double elsq = axn * axn + ayn * ayn;
+			final double onemel = 1.0 - elsq;
+			final double pl = a * onemel;
+			final double r = a * (1.0 - ecose);
+			final double invr = 1.0 / r;
+			final double rdot = Propagator.XKE * Math.sqrt(a) * esine * invr;
+			final double rfdot = Propagator.XKE * Math.sqrt(pl) * invr;
+			final double aovr = a * invr;
+			final double betal = Math.sqrt(onemel);
+			final double invbetal = 1.0 / (1.0 + betal);
+			final double cosu = aovr * (cosepw - axn + ayn * esine * invbetal);
+			final double sinu = aovr * (sinepw - ayn - axn * esine * invbetal);
+			final double u = Math.atan2(sinu, cosu);
+			final double sin2u = 2.0 * sinu * cosu;
+			final double cos2u = 2.0 * cosu * cosu - 1;
+			final double invpl = 1.0 / pl;
+			final double temp1 = Propagator.CK2 * invpl;
+			final double temp2 = temp1 * invpl;
+
+			/* Update for short periodics */
+			final double x1mth2 = get(X1MTH2);
+			final double x3thm1 = get(X3THM1);
+			final double cosio = get(COSIO);
+			final double rk = r * (1.0 - 1.5 * temp2 * betal * x3thm1) + 0.5
+					* temp1 * x1mth2 * cos2u;
+			final double uk = u - 0.25 * temp2 * get(X7THM1) * sin2u;
+			final double xnodek = xnode + 1.5 * temp2 * cosio * sin2u;
+			final double xinck = get(XINCL) + 1.5 * temp2 * cosio
+					* get(SINIO) * cos2u;
+			final double rdotk = rdot - xn * temp1 * x1mth2 * sin2u;
+			final double rfdotk = rfdot + xn * temp1
+					* (x1mth2 * cos2u + 1.5 * x3thm1);
+
+			Propagator.calculatePositionAndVelocity(Precision.EXACT, rk, uk,
+					xnodek, xinck, rdotk, rfdotk, eciState);
+
+			/* Scale to km and km/s */
+			for (int j = 0; j < 3; j++) {
+				eciState[j] *= Propagator.EARTH_RADIUS_KM;
+				eciState[j + 3] *= VELOCITY_SCALE;
+			}
+		}
+
+		private double get(final int offset) {
+			return buffer.getDouble(base + offset);
+		}
+
+	}
+
+}
@@ -37,9 +37,7 @@
  */
 package com.github.amsacode.predict4java;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.TimeZone;
 
 public class SatPassTime {
 
@@ -54,15 +52,6 @@ public class SatPassTime {
 	private static final String NEW_LINE = "\n";
 	private static final String DEG_NL = " deg.\n";
 
-	private static final SimpleDateFormat TIME_FORMAT;
-	private static final SimpleDateFormat DATE_FORMAT;
-	static {
-		TIME_FORMAT = new SimpleDateFormat("h:mm a");
-		TIME_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-		DATE_FORMAT = new SimpleDateFormat("MMMMMM d, yyyy");
-		DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-	}
-
 	public SatPassTime(final Date startTime, final Date endTime,
 			final String polePassed, final int aos, final int los,
 			final double maxEl) {
@@ -120,12 +109,12 @@ public class SatPassTime {
 		return maxEl;
 	}
 
-	private synchronized static String formatDate(Date date) {
-		return DATE_FORMAT.format(date);
+	private static String formatDate(Date date) {
+		return TimeFormats.formatDate(date);
 	}
 
-	private synchronized static String formatTime(Date date) {
-		return TIME_FORMAT.format(date);
+	private static String formatTime(Date date) {
+		return TimeFormats.formatTime(date);
 	}
 
 	/**
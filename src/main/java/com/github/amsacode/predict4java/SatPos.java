@@ -53,7 +53,7 @@ public class SatPos {
 
 	/* WGS 84 Earth radius km */
 	private static final double EARTH_RADIUS_KM = 6.378137E3;
-	private static final double R0 = 6378.16;
+	static final double R0 = 6378.16;
 
 	// the internal representation will be in radians
 	private double azimuth;
@@ -345,7 +345,23 @@ public class SatPos {
 	 */
 	public final List<Position> getRangeCircle(double incrementDegrees) {
 
-		return calculateRangeCirclePoints(this, incrementDegrees);
+		return calculateRangeCirclePoints(this, incrementDegrees,
+				Precision.EXACT);
+
+	}
+
+	/**
+	 * Calculates the footprint range circle using the given increment and
+	 * trigonometric functions of the given precision.
+	 * 
+	 * @param incrementDegrees
+	 * @param precision
+	 * @return a list of {@link Position}
+	 */
+	public final List<Position> getRangeCircle(double incrementDegrees,
+			Precision precision) {
+
+		return calculateRangeCirclePoints(this, incrementDegrees, precision);
 
 	}
 
@@ -366,21 +382,25 @@ public class SatPos {
 	 * @return a list of {@link Position}
 	 */
 	private static List<Position> calculateRangeCirclePoints(final SatPos pos,
-			double incrementDegrees) {
+			double incrementDegrees, final Precision precision) {
 
 		final double radiusKm = pos.getRangeCircleRadiusKm();
 
 		final double latitude = pos.latitude;
 		final double longitude = pos.longitude;
 		final double beta = radiusKm / R0;
+		final double sinLatitude = precision.sin(latitude);
+		final double cosLatitude = precision.cos(latitude);
+		final double sinBeta = precision.sin(beta);
+		final double cosBeta = precision.cos(beta);
 		List<Position> result = new ArrayList<Position>();
 		for (int azi = 0; azi < 360; azi += incrementDegrees) {
 			final double azimuth = (azi / 360.0) * 2.0 * Math.PI;
-			double rangelat = Math.asin(Math.sin(latitude) * Math.cos(beta)
-					+ Math.cos(azimuth) * Math.sin(beta) * Math.cos(latitude));
-			final double num = Math.cos(beta)
-					- (Math.sin(latitude) * Math.sin(rangelat));
-			final double den = Math.cos(latitude) * Math.cos(rangelat);
+			double rangelat = precision.asin(sinLatitude * cosBeta
+					+ precision.cos(azimuth) * sinBeta * cosLatitude);
+			final double num = cosBeta
+					- (sinLatitude * precision.sin(rangelat));
+			final double den = cosLatitude * precision.cos(rangelat);
 			double rangelong;
 
 			if (azi == 0 && (beta > ((Math.PI / 2.0) - latitude))) {
@@ -391,9 +411,9 @@ public class SatPos {
 				rangelong = longitude;
 			} else {
 				if ((180 - azi) >= 0) {
-					rangelong = longitude - Math.acos(num / den);
+					rangelong = longitude - precision.acos(num / den);
 				} else {
-					rangelong = longitude + Math.acos(num / den);
+					rangelong = longitude + precision.acos(num / den);
 				}
 			}
 
@@ -430,6 +450,10 @@ public class SatPos {
 	}
 
 	public double getRangeCircleRadiusKm() {
+		return rangeCircleRadiusKm(altitude);
+	}
+
+	static double rangeCircleRadiusKm(final double altitude) {
 		return 0.5 * (12756.33 * Math.acos(EARTH_RADIUS_KM
 				/ (EARTH_RADIUS_KM + altitude)));
 	}
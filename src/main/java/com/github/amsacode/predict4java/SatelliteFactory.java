@@ -63,18 +63,56 @@ public final class SatelliteFactory {
 	 */
 	public static synchronized Satellite createSatellite(final TLE tle)
 			throws IllegalArgumentException {
+		return createSatellite(tle, Precision.EXACT);
+	}
+
+	/**
+	 * Creates a <code>Satellite</code> from a <code>TLE</code> that uses
+	 * trigonometric functions of the given precision.
+	 * 
+	 * @param tle
+	 *            The 'Three Line Elements'
+	 * @param precision
+	 *            the precision
+	 * @return <code>Satellite</code>
+	 * @throws IllegalArgumentException
+	 *             when the given TLE or precision is null
+	 */
+	public static Satellite createSatellite(final TLE tle,
+			final Precision precision) throws IllegalArgumentException {
 
 		if (null == tle) {
 			throw new IllegalArgumentException("TLE was null");
 		}
+		if (null == precision) {
+			throw new IllegalArgumentException("precision was null");
+		}
 
 		Satellite satellite = null;
 
 		if (tle.isDeepspace()) {
-			satellite = new DeepSpaceSatellite(tle);
+			satellite = new DeepSpaceSatellite(tle, precision);
 		} else {
-			satellite = new LEOSatellite(tle);
+			satellite = new LEOSatellite(tle, precision);
 		}
 		return satellite;
 	}
+
+	/**
+	 * Creates a <code>Satellite</code> propagated with the secular terms only,
+	 * see {@link SecularSatellite}.
+	 * 
+	 * @param tle
+	 *            The 'Three Line Elements'
+	 * @return <code>Satellite</code>
+	 * @throws IllegalArgumentException
+	 *             when the given TLE is null
+	 */
+	public static Satellite createSecularSatellite(final TLE tle)
+			throws IllegalArgumentException {
+		if (null == tle) {
+			throw new IllegalArgumentException("TLE was null");
+		}
+		return new SecularSatellite(tle);
+	}
 }
@@ -0,0 +1,50 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * A satellite propagated with the secular terms of SGP4 or SDP4 only, for
+ * coarse screening before the survivors are propagated in full with
+ * {@link SatelliteFactory#createSatellite(TLE)}.
+ * <p>
+ * The mean elements are updated for the secular effects of gravity and drag
+ * (and for deep space satellites the lunar-solar secular rates and
+ * resonances) and Kepler's equation is solved, but the long and short period
+ * periodics and the lunar-solar periodics are left out. The secular rates
+ * are the same as those of the full models so the difference does not grow
+ * with time, it is the size of the periodics left out. Against the full
+ * models over a week the position differs by up to about:
+ * <ul>
+ * <li>20 km (10 km radially, 0.02 km/s in velocity) for near earth
+ * satellites</li>
+ * <li>25 km for geosynchronous satellites</li>
+ * <li>65 km for 12 hour (Molniya) orbits</li>
+ * <li>750 km near perigee for highly eccentric deep space orbits</li>
+ * </ul>
+ * A near earth satellite is propagated in about 60% of the time of the full
+ * model. Screens should be made with margins of these sizes.
+ */
+public final class SecularSatellite extends AbstractSatellite {
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param tle
+	 *            the three line elements
+	 */
+	public SecularSatellite(final TLE tle) {
+		this(tle, Precision.EXACT);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param tle
+	 *            the three line elements
+	 * @param precision
+	 *            the precision of the trigonometric functions
+	 */
+	public SecularSatellite(final TLE tle, final Precision precision) {
+		super(tle, tle.isDeepspace() ? new SDP4(tle, true, precision)
+				: new SGP4(tle, true, precision));
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Immutable position of a satellite in the sky of a ground station found by
+ * a {@link SkyQuery}.
+ */
+public class SkyPosition {
+
+	private final TLE tle;
+	private final double azimuth;
+	private final double elevation;
+	private final double range;
+	private final double rangeRate;
+
+	SkyPosition(final TLE tle, final double azimuth, final double elevation,
+			final double range, final double rangeRate) {
+		this.tle = tle;
+		this.azimuth = azimuth;
+		this.elevation = elevation;
+		this.range = range;
+		this.rangeRate = rangeRate;
+	}
+
+	/**
+	 * @return the element set of the satellite
+	 */
+	public final TLE getTLE() {
+		return tle;
+	}
+
+	/**
+	 * @return the azimuth in radians
+	 */
+	public final double getAzimuth() {
+		return azimuth;
+	}
+
+	/**
+	 * @return the elevation in radians
+	 */
+	public final double getElevation() {
+		return elevation;
+	}
+
+	/**
+	 * @return the range in km
+	 */
+	public final double getRange() {
+		return range;
+	}
+
+	/**
+	 * @return the range rate in km/s
+	 */
+	public final double getRangeRate() {
+		return rangeRate;
+	}
+
+	@Override
+	public String toString() {
+		return "SkyPosition [catnum=" + tle.getCatnum() + ", azimuth="
+				+ azimuth + ", elevation=" + elevation + ", range=" + range
+				+ ", rangeRate=" + rangeRate + "]";
+	}
+
+}
@@ -0,0 +1,252 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Finds the satellites of a catalog above the horizon of any ground station
+ * at a time, for dashboards that ask what is overhead every second.
+ * <p>
+ * {@link #update(long)} propagates every satellite once and indexes its sub
+ * satellite point, the unit vector from the centre of the earth to the
+ * satellite in the earth fixed frame, in a {@link SpatialHashGrid}. A
+ * satellite is only in view of stations within its footprint cap (the earth
+ * central angle within which it is above the minimum elevation, as in
+ * {@link CoverageEngine}). The caps differ by altitude so the satellites are
+ * indexed in bands of cap size, each with cells sized for the largest cap in
+ * the band. A {@link #query(GroundStationPosition)} visits the cells within
+ * the cap of each band around the station, compares the central angle to
+ * each satellite found with its cap and calculates the exact azimuth and
+ * elevation only for those within it.
+ * <p>
+ * Updates should be made from one thread. Queries can be made from any
+ * thread at the same time as an update and see the positions of the last
+ * completed update.
+ */
+public final class SkyQuery {
+
+	/** Polar radius, which gives the largest footprint cap. */
+	private static final double POLAR_RADIUS_KM = 6356.75;
+	/**
+	 * Added to the cap angle to allow for geodetic and geocentric latitude
+	 * differing and for the height of stations.
+	 */
+	private static final double CAP_MARGIN_RADIANS = Math.toRadians(0.5);
+	/** The largest footprint cap of each band of the index in degrees. */
+	private static final double[] BAND_MAX_CAP_DEGREES = { 10, 20, 30, 45,
+			60, 180 };
+	private static final double[] BAND_CHORDS = new double[BAND_MAX_CAP_DEGREES.length];
+	static {
+		for (int b = 0; b < BAND_CHORDS.length; b++) {
+			BAND_CHORDS[b] = 2 * Math.sin(Math
+					.toRadians(BAND_MAX_CAP_DEGREES[b]) / 2);
+		}
+	}
+	private static final int NO_BAND = -1;
+
+	private static final Comparator<SkyPosition> HIGHEST_FIRST = new Comparator<SkyPosition>() {
+		@Override
+		public int compare(final SkyPosition a, final SkyPosition b) {
+			return Double.compare(b.getElevation(), a.getElevation());
+		}
+	};
+
+	private final List<Satellite> satellites;
+	private final StateVectorSource[] vectors;
+	private final double minElevation;
+	private final double cosMinElevation;
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param satellites
+	 *            the catalog
+	 * @param minElevationDegrees
+	 *            the minimum elevation in degrees for a satellite to be in
+	 *            view
+	 */
+	public SkyQuery(final List<? extends Satellite> satellites,
+			final double minElevationDegrees) {
+		Preconditions.checkNotNull(satellites);
+		Preconditions.checkArgument(minElevationDegrees >= 0
+				&& minElevationDegrees < 90,
+				"minElevationDegrees must be between 0 and 90");
+		this.satellites = new ArrayList<Satellite>(satellites);
+		this.vectors = AbstractSatellite.stateVectors(satellites);
+		this.minElevation = Math.toRadians(minElevationDegrees);
+		this.cosMinElevation = Math.cos(minElevation);
+	}
+
+	/**
+	 * Propagates the catalog to the time and rebuilds the index.
+	 *
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public void update(final long timeMillis) {
+		final int n = satellites.size();
+		final double julianUTC = AbstractSatellite.julianDateUTC(timeMillis);
+		final double theta = AbstractSatellite.thetaGJD(julianUTC);
+		final double cosTheta = Math.cos(theta);
+		final double sinTheta = Math.sin(theta);
+		final double[] states = new double[n * 6];
+		final double[] points = new double[n * 3];
+		final double[] cosCaps = new double[n];
+		final int[] bands = new int[n];
+		final int[] bandCounts = new int[BAND_MAX_CAP_DEGREES.length];
+		final double[] state = new double[6];
+		for (int i = 0; i < n; i++) {
+			vectors[i].calculateSatelliteVectors(timeMillis, state);
+			System.arraycopy(state, 0, states, i * 6, 6);
+			// earth fixed position
+			final double x = cosTheta * state[0] + sinTheta * state[1];
+			final double y = -sinTheta * state[0] + cosTheta * state[1];
+			final double z = state[2];
+			final double r = Math.sqrt(x * x + y * y + z * z);
+			if (!(r > POLAR_RADIUS_KM)) {
+				// decayed or not propagated
+				bands[i] = NO_BAND;
+				continue;
+			}
+			final double cap = Math.acos(POLAR_RADIUS_KM * cosMinElevation / r)
+					- minElevation + CAP_MARGIN_RADIANS;
+			points[i * 3] = x / r;
+			points[i * 3 + 1] = y / r;
+			points[i * 3 + 2] = z / r;
+			cosCaps[i] = Math.cos(cap);
+			int b = 0;
+			while (Math.toDegrees(cap) > BAND_MAX_CAP_DEGREES[b]) {
+				b++;
+			}
+			bands[i] = b;
+			bandCounts[b]++;
+		}
+		final SpatialHashGrid[] grids = new SpatialHashGrid[BAND_MAX_CAP_DEGREES.length];
+		for (int b = 0; b < grids.length; b++) {
+			if (bandCounts[b] > 0) {
+				grids[b] = new SpatialHashGrid();
+				grids[b].clear(BAND_CHORDS[b] / 2, n, bandCounts[b]);
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			if (bands[i] != NO_BAND) {
+				grids[bands[i]].add(i, points[i * 3], points[i * 3 + 1],
+						points[i * 3 + 2]);
+			}
+		}
+		snapshot = new Snapshot(timeMillis, julianUTC, states, points,
+				cosCaps, grids);
+	}
+
+	/**
+	 * @return the time of the last update in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 * @throws IllegalStateException
+	 *             if there has been no update
+	 */
+	public long getTimeMillis() {
+		return current().timeMillis;
+	}
+
+	/**
+	 * Returns the satellites in view of the station at the time of the last
+	 * update.
+	 *
+	 * @param station
+	 *            the ground station
+	 * @return the positions of the satellites at or above the minimum
+	 *         elevation, highest first
+	 * @throws IllegalStateException
+	 *             if there has been no update
+	 */
+	public List<SkyPosition> query(final GroundStationPosition station) {
+		Preconditions.checkNotNull(station);
+		final Snapshot s = current();
+		final double[] terms = new double[AbstractSatellite.STATION_TERMS];
+		AbstractSatellite.stationTerms(station, terms);
+		// earth fixed unit vector of the station
+		double px = terms[3] * Math.cos(terms[0]);
+		double py = terms[3] * Math.sin(terms[0]);
+		double pz = terms[4];
+		final double norm = Math.sqrt(px * px + py * py + pz * pz);
+		px /= norm;
+		py /= norm;
+		pz /= norm;
+		final double[] state = new double[6];
+		final double[] obs = new double[4];
+		final List<SkyPosition> list = new ArrayList<SkyPosition>();
+		for (int b = 0; b < s.grids.length; b++) {
+			final SpatialHashGrid grid = s.grids[b];
+			if (grid == null) {
+				continue;
+			}
+			final double chord = BAND_CHORDS[b];
+			final int cx1 = grid.cell(px + chord);
+			final int cy1 = grid.cell(py + chord);
+			final int cz1 = grid.cell(pz + chord);
+			for (int cx = grid.cell(px - chord); cx <= cx1; cx++) {
+				for (int cy = grid.cell(py - chord); cy <= cy1; cy++) {
+					for (int cz = grid.cell(pz - chord); cz <= cz1; cz++) {
+						for (int i = grid.first(cx, cy, cz); i >= 0; i = grid
+								.next(i)) {
+							// cosine of the central angle
+							if (px * s.points[i * 3] + py * s.points[i * 3 + 1]
+									+ pz * s.points[i * 3 + 2] < s.cosCaps[i]) {
+								continue;
+							}
+							System.arraycopy(s.states, i * 6, state, 0, 6);
+							AbstractSatellite.calculateObs(s.julianUTC, state,
+									terms, obs);
+							if (obs[1] >= minElevation) {
+								list.add(new SkyPosition(satellites.get(i)
+										.getTLE(), obs[0], obs[1], obs[2],
+										obs[3]));
+							}
+						}
+					}
+				}
+			}
+		}
+		Collections.sort(list, HIGHEST_FIRST);
+		return list;
+	}
+
+	private Snapshot current() {
+		final Snapshot s = snapshot;
+		if (s == null) {
+			throw new IllegalStateException("update has not been called");
+		}
+		return s;
+	}
+
+	/**
+	 * The positions and index of one update. Not modified once published.
+	 */
+	private static final class Snapshot {
+
+		final long timeMillis;
+		final double julianUTC;
+		final double[] states;
+		final double[] points;
+		final double[] cosCaps;
+		final SpatialHashGrid[] grids;
+
+		Snapshot(final long timeMillis, final double julianUTC,
+				final double[] states, final double[] points,
+				final double[] cosCaps, final SpatialHashGrid[] grids) {
+			this.timeMillis = timeMillis;
+			this.julianUTC = julianUTC;
+			this.states = states;
+			this.points = points;
+			this.cosCaps = cosCaps;
+			this.grids = grids;
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.github.amsacode.predict4java;
+
+import java.util.Arrays;
+
+/**
+ * Hashes points in three dimensions into cubic cells so that the points near
+ * a given point can be found by visiting the 27 cells around it. Entries are
+ * the integer indexes of the points, chained through primitive arrays so that
+ * rebuilding the grid for every time step allocates nothing once the capacity
+ * has been reached.
+ *
+ * <p>
+ * Not thread safe while being built, safe for concurrent reads afterwards.
+ */
+final class SpatialHashGrid {
+
+	private static final int EMPTY = -1;
+	private static final int BITS = 21;
+	private static final long BITS_MASK = (1L << BITS) - 1;
+
+	private long[] keys = new long[0];
+	private int[] heads = new int[0];
+	private int[] next = new int[0];
+	private int mask;
+	private double cellSize;
+
+	/**
+	 * Removes all points and sets the cell size.
+	 *
+	 * @param cellSize
+	 *            the length of the side of a cell
+	 * @param maxIndex
+	 *            one more than the largest index that will be added
+	 * @param count
+	 *            the number of points that will be added
+	 */
+	void clear(final double cellSize, final int maxIndex, final int count) {
+		this.cellSize = cellSize;
+		if (next.length < maxIndex) {
+			next = new int[maxIndex];
+		}
+		int capacity = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+		if (keys.length < capacity) {
+			keys = new long[capacity];
+			heads = new int[capacity];
+		} else {
+			capacity = keys.length;
+		}
+		mask = capacity - 1;
+		Arrays.fill(heads, EMPTY);
+	}
+
+	void add(final int index, final double x, final double y, final double z) {
+		final long key = key(cell(x), cell(y), cell(z));
+		int slot = slot(key);
+		while (heads[slot] != EMPTY && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		next[index] = heads[slot];
+		heads[slot] = index;
+	}
+
+	/**
+	 * Returns the first index in the cell or -1 if the cell is empty.
+	 */
+	int first(final int cx, final int cy, final int cz) {
+		final long key = key(cx, cy, cz);
+		int slot = slot(key);
+		while (heads[slot] != EMPTY) {
+			if (keys[slot] == key) {
+				return heads[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return EMPTY;
+	}
+
+	/**
+	 * Returns the index after the given index in its cell or -1.
+	 */
+	int next(final int index) {
+		return next[index];
+	}
+
+	int cell(final double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long key(final int cx, final int cy, final int cz) {
+		// cells far enough apart to alias are separated by the distance check
+		return ((cx & BITS_MASK) << (2 * BITS)) | ((cy & BITS_MASK) << BITS)
+				| (cz & BITS_MASK);
+	}
+
+	private int slot(final long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Allocation free propagation to ECI state vectors. Kept out of
+ * {@link Satellite} so that implementations of that public interface outside
+ * the library are not broken, see
+ * {@link AbstractSatellite#stateVectors(Satellite)}.
+ */
+interface StateVectorSource {
+
+	/**
+	 * Calculates the position and velocity vectors of the satellite and copies
+	 * them into the given array.
+	 * 
+	 * @param timeMillis
+	 *            the time in milliseconds since 1970-01-01T00:00:00Z
+	 * @param eciState
+	 *            array of length at least 6 that receives the ECI position in
+	 *            km and the velocity in km/s as {x, y, z, vx, vy, vz}
+	 */
+	void calculateSatelliteVectors(long timeMillis, double[] eciState);
+
+}
@@ -0,0 +1,45 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Positions of the sun calculated at fixed intervals over a time window and
+ * linearly interpolated in between. The sun moves about 0.04 degrees an hour
+ * so with hourly knots the interpolated direction is within 1e-7 radians of
+ * {@link AbstractSatellite#calculateSunPosition(double, double[])}, which
+ * moves an eclipse event of a low earth orbit satellite by well under a
+ * millisecond. Instances are immutable and thus thread safe.
+ */
+final class SunTable {
+
+	static final long KNOT_MILLIS = 60 * 60 * 1000L;
+
+	private final long start;
+	private final double[] knots;
+
+	SunTable(final long startMillis, final long endMillis) {
+		this.start = startMillis;
+		final int n = (int) ((endMillis - startMillis) / KNOT_MILLIS) + 2;
+		knots = new double[n * 3];
+		final double[] sun = new double[3];
+		for (int i = 0; i < n; i++) {
+			AbstractSatellite.calculateSunPosition(
+					AbstractSatellite.julianDateUTC(startMillis + i
+							* KNOT_MILLIS), sun);
+			System.arraycopy(sun, 0, knots, i * 3, 3);
+		}
+	}
+
+	/**
+	 * Writes the interpolated ECI position of the sun in km into sun.
+	 */
+	void position(final long timeMillis, final double[] sun) {
+		final long offset = timeMillis - start;
+		final int i = Math.max(0,
+				Math.min((int) (offset / KNOT_MILLIS), knots.length / 3 - 2));
+		final double f = (offset - i * KNOT_MILLIS) / (double) KNOT_MILLIS;
+		final int k = i * 3;
+		for (int j = 0; j < 3; j++) {
+			sun[j] = knots[k + j] + f * (knots[k + 3 + j] - knots[k + j]);
+		}
+	}
+
+}
@@ -130,7 +130,7 @@ public class TLE implements Serializable {
      * @throws IllegalArgumentException here was something wrong with the TLE
      */
     public TLE(final String[] tle) throws IllegalArgumentException {
-        {
+        try {
             if (null == tle) {
                 throw new IllegalArgumentException("TLE was null");
             }
@@ -201,6 +201,9 @@ public class TLE implements Serializable {
             temp *= DEG2RAD;
             xmo = temp;
 
+        } catch (final RuntimeException e) {
+            Metrics.get().tleParseError();
+            throw e;
         }
 
 		/* Preprocess tle set */
@@ -428,6 +431,7 @@ public class TLE implements Serializable {
 
     public static List<TLE> importSat(final InputStream fileIS)
             throws IOException {
+        final Object event = Events.beginTleImport();
         final List<TLE> importedSats = new ArrayList<TLE>();
 
         final BufferedReader buf = new BufferedReader(new InputStreamReader(
@@ -456,6 +460,8 @@ public class TLE implements Serializable {
             }
         }
 
+        Events.endTleImport(event, importedSats.size());
+
         return importedSats;
     }
 
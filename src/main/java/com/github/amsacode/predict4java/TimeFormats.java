@@ -0,0 +1,42 @@
+package com.github.amsacode.predict4java;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Formats the UTC times of {@link SatPassTime}. This version shares a
+ * SimpleDateFormat per pattern between threads under a lock; the
+ * multi-release jar carries a Java 17 version of this class
+ * (src/main/java17) that uses the immutable java.time formatters.
+ */
+final class TimeFormats {
+
+	private static final SimpleDateFormat TIME_FORMAT;
+	private static final SimpleDateFormat DATE_FORMAT;
+	static {
+		TIME_FORMAT = new SimpleDateFormat("h:mm a");
+		TIME_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
+		DATE_FORMAT = new SimpleDateFormat("MMMMMM d, yyyy");
+		DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
+	}
+
+	private TimeFormats() {
+		// prevent instantiation
+	}
+
+	/**
+	 * @return the date, for example January 3, 2010
+	 */
+	static synchronized String formatDate(final Date date) {
+		return DATE_FORMAT.format(date);
+	}
+
+	/**
+	 * @return the time of day, for example 4:07 PM
+	 */
+	static synchronized String formatTime(final Date date) {
+		return TIME_FORMAT.format(date);
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Immutable pass of a satellite over a ground station held by a
+ * {@link PassTimeline}.
+ */
+public class TimelinePass {
+
+	private final int catnum;
+	private final GroundStationPosition station;
+	private final SatPassTime pass;
+
+	TimelinePass(final int catnum, final GroundStationPosition station,
+			final SatPassTime pass) {
+		this.catnum = catnum;
+		this.station = station;
+		this.pass = pass;
+	}
+
+	/**
+	 * @return the catalog number of the satellite
+	 */
+	public final int getCatnum() {
+		return catnum;
+	}
+
+	/**
+	 * @return the ground station
+	 */
+	public final GroundStationPosition getStation() {
+		return station;
+	}
+
+	/**
+	 * @return the pass
+	 */
+	public final SatPassTime getPass() {
+		return pass;
+	}
+
+	@Override
+	public String toString() {
+		return "TimelinePass [catnum=" + catnum + ", station="
+				+ station.getName() + ", pass=" + pass + "]";
+	}
+
+}
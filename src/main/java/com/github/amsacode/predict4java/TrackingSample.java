@@ -0,0 +1,77 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Immutable position of a satellite as seen from a ground station at one
+ * tick of a {@link TrackingService}. Angles are in radians as for
+ * {@link SatPos}.
+ */
+public class TrackingSample {
+
+	private final int catnum;
+	private final long time;
+	private final double azimuth;
+	private final double elevation;
+	private final double range;
+	private final double rangeRate;
+
+	TrackingSample(final int catnum, final long time, final double azimuth,
+			final double elevation, final double range, final double rangeRate) {
+		this.catnum = catnum;
+		this.time = time;
+		this.azimuth = azimuth;
+		this.elevation = elevation;
+		this.range = range;
+		this.rangeRate = rangeRate;
+	}
+
+	/**
+	 * @return the catalog number of the satellite
+	 */
+	public final int getCatnum() {
+		return catnum;
+	}
+
+	/**
+	 * @return the nominal tick time in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 */
+	public final long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return the azimuth in radians
+	 */
+	public final double getAzimuth() {
+		return azimuth;
+	}
+
+	/**
+	 * @return the elevation in radians
+	 */
+	public final double getElevation() {
+		return elevation;
+	}
+
+	/**
+	 * @return the range in km
+	 */
+	public final double getRange() {
+		return range;
+	}
+
+	/**
+	 * @return the range rate in km/s
+	 */
+	public final double getRangeRate() {
+		return rangeRate;
+	}
+
+	@Override
+	public String toString() {
+		return "TrackingSample [catnum=" + catnum + ", time=" + time
+				+ ", azimuth=" + azimuth + ", elevation=" + elevation
+				+ ", range=" + range + ", rangeRate=" + rangeRate + "]";
+	}
+
+}
@@ -0,0 +1,447 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Publishes the position of satellites as seen from ground stations at fixed
+ * rates from a shared scheduler. Subscriptions for the same element set,
+ * propagation model, precision, ground station and rate are coalesced so
+ * that the satellite is propagated once per tick however many subscribers
+ * there are.
+ * 
+ * <p>
+ * Ticks are aligned to multiples of the rate since 1970-01-01T00:00:00Z and
+ * samples are calculated for the nominal tick time rather than the time the
+ * scheduler happened to run, so timestamps do not drift under load. If the
+ * scheduler falls behind, only the latest tick is published.
+ * 
+ * <p>
+ * Instances of this class are thread safe.
+ */
+public class TrackingService {
+
+	private static Log log = LogFactory.getLog(TrackingService.class);
+
+	private final ScheduledExecutorService scheduler;
+	private final boolean ownsScheduler;
+	private final ConcurrentMap<Key, Group> groups = new ConcurrentHashMap<Key, Group>();
+	/** Guards the creation and removal of groups. */
+	private final Object lock = new Object();
+	private boolean shutdown;
+
+	/**
+	 * Creates a service that publishes from its own daemon thread.
+	 */
+	public TrackingService() {
+		this(Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread t = new Thread(r, "predict4java-tracking");
+				t.setDaemon(true);
+				return t;
+			}
+		}), true);
+	}
+
+	/**
+	 * Creates a service that publishes from the given scheduler. The scheduler
+	 * is not shut down by {@link #shutdown()}.
+	 * 
+	 * @param scheduler
+	 *            the scheduler used to run the ticks
+	 */
+	public TrackingService(final ScheduledExecutorService scheduler) {
+		this(scheduler, false);
+	}
+
+	private TrackingService(final ScheduledExecutorService scheduler,
+			final boolean ownsScheduler) {
+		Preconditions.checkNotNull(scheduler);
+		this.scheduler = scheduler;
+		this.ownsScheduler = ownsScheduler;
+	}
+
+	/**
+	 * Subscribes to the position of a satellite as seen from a ground station.
+	 * {@link TrackingSubscriber#onSubscribe(TrackingSubscription)} is called
+	 * before this method returns and no samples are delivered until they are
+	 * requested.
+	 * 
+	 * @param satellite
+	 *            the satellite to track
+	 * @param station
+	 *            the ground station
+	 * @param periodMillis
+	 *            the interval between samples in milliseconds
+	 * @param subscriber
+	 *            receives the samples
+	 * @return the subscription, the same object passed to onSubscribe
+	 */
+	public TrackingSubscription subscribe(final Satellite satellite,
+			final GroundStationPosition station, final long periodMillis,
+			final TrackingSubscriber subscriber) {
+		Preconditions.checkNotNull(satellite);
+		Preconditions.checkNotNull(station);
+		Preconditions.checkNotNull(subscriber);
+		Preconditions.checkArgument(periodMillis > 0, "periodMillis must be > 0");
+		final StateVectorSource vectors = AbstractSatellite
+				.stateVectors(satellite);
+
+		final Key key = new Key(satellite, station, periodMillis);
+		final Subscription subscription = new Subscription(key, subscriber);
+		subscriber.onSubscribe(subscription);
+
+		synchronized (lock) {
+			if (shutdown) {
+				subscription.complete();
+			} else if (!subscription.isDone()) {
+				Group group = groups.get(key);
+				if (group == null) {
+					group = new Group(satellite, vectors, station,
+							periodMillis);
+					groups.put(key, group);
+					group.subscriptions.add(subscription);
+					group.start();
+				} else {
+					group.subscriptions.add(subscription);
+				}
+			}
+		}
+		return subscription;
+	}
+
+	/**
+	 * Stops all ticks and completes all subscribers. A subscriber that is
+	 * receiving a sample is completed after onNext returns, by the thread
+	 * delivering the sample.
+	 */
+	public void shutdown() {
+		final List<Group> stopped;
+		synchronized (lock) {
+			shutdown = true;
+			stopped = new ArrayList<Group>(groups.values());
+			groups.clear();
+			for (final Group group : stopped) {
+				group.future.cancel(false);
+			}
+		}
+		for (final Group group : stopped) {
+			for (final Subscription subscription : group.subscriptions) {
+				subscription.complete();
+			}
+		}
+		if (ownsScheduler) {
+			scheduler.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the number of satellite, ground station and rate combinations
+	 * being propagated. @VisibleForTesting
+	 * 
+	 * @return the number of groups
+	 */
+	final int getGroupCount() {
+		return groups.size();
+	}
+
+	private void remove(final Subscription subscription) {
+		synchronized (lock) {
+			final Group group = groups.get(subscription.key);
+			if (group != null && group.subscriptions.remove(subscription)
+					&& group.subscriptions.isEmpty()) {
+				group.future.cancel(false);
+				groups.remove(subscription.key);
+			}
+		}
+	}
+
+	private void removeGroup(final Group group) {
+		synchronized (lock) {
+			group.future.cancel(false);
+			groups.values().remove(group);
+		}
+	}
+
+	/**
+	 * The subscribers sharing one propagation per tick.
+	 */
+	private final class Group implements Runnable {
+
+		private final Satellite satellite;
+		private final StateVectorSource vectors;
+		private final GroundStationPosition station;
+		private final long periodMillis;
+		private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+		private final double[] state = new double[6];
+		private final double[] obs = new double[4];
+		private ScheduledFuture<?> future;
+		private long lastTick = Long.MIN_VALUE;
+
+		Group(final Satellite satellite, final StateVectorSource vectors,
+				final GroundStationPosition station, final long periodMillis) {
+			this.satellite = satellite;
+			this.vectors = vectors;
+			this.station = station;
+			this.periodMillis = periodMillis;
+		}
+
+		void start() {
+			final long now = System.currentTimeMillis();
+			final long delay = periodMillis - now % periodMillis;
+			future = scheduler.scheduleAtFixedRate(this, delay, periodMillis,
+					TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void run() {
+			// round to the nearest tick so that the scheduler running slightly
+			// early or late still gives the nominal time
+			final long tick = (System.currentTimeMillis() + periodMillis / 2)
+					/ periodMillis * periodMillis;
+			if (tick <= lastTick) {
+				return;
+			}
+			lastTick = tick;
+
+			final TrackingSample sample;
+			try {
+				vectors.calculateSatelliteVectors(tick, state);
+				AbstractSatellite.calculateObs(
+						AbstractSatellite.julianDateUTC(tick), state, station,
+						obs);
+				sample = new TrackingSample(satellite.getTLE().getCatnum(),
+						tick, obs[0], obs[1], obs[2], obs[3]);
+			} catch (final RuntimeException e) {
+				log.warn("could not calculate position of "
+						+ satellite.getTLE().getName(), e);
+				removeGroup(this);
+				for (final Subscription subscription : subscriptions) {
+					subscription.error(e);
+				}
+				return;
+			}
+			for (final Subscription subscription : subscriptions) {
+				subscription.emit(sample);
+			}
+		}
+	}
+
+	/**
+	 * Delivers the signals of one subscriber. Samples are queued by the
+	 * scheduler thread and the terminal signal may come from another thread
+	 * (shutdown), so every call to the subscriber is made from a drain loop
+	 * that only one thread at a time can be in. The queued samples are
+	 * delivered before the terminal signal and nothing after it. A subscriber
+	 * that throws from onNext is cancelled and sent the exception with
+	 * onError, the other subscribers of its group are not affected.
+	 */
+	private final class Subscription implements TrackingSubscription {
+
+		private final Key key;
+		private final TrackingSubscriber subscriber;
+		private final AtomicLong requested = new AtomicLong();
+		private final Queue<TrackingSample> queue = new ConcurrentLinkedQueue<TrackingSample>();
+		private final AtomicInteger wip = new AtomicInteger();
+		private final AtomicBoolean terminated = new AtomicBoolean();
+		/** Set after error so the drain loop sees both. */
+		private volatile boolean terminal;
+		private Throwable error;
+		/** Cancelled or the terminal signal delivered. */
+		private volatile boolean done;
+
+		Subscription(final Key key, final TrackingSubscriber subscriber) {
+			this.key = key;
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(final long n) {
+			Preconditions.checkArgument(n > 0, "n must be > 0");
+			while (true) {
+				final long r = requested.get();
+				final long u = r + n < 0 ? Long.MAX_VALUE : r + n;
+				if (requested.compareAndSet(r, u)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public void cancel() {
+			done = true;
+			remove(this);
+		}
+
+		boolean isDone() {
+			return done || terminated.get();
+		}
+
+		void emit(final TrackingSample sample) {
+			if (!isDone() && take()) {
+				queue.offer(sample);
+				drain();
+			}
+		}
+
+		private boolean take() {
+			while (true) {
+				final long r = requested.get();
+				if (r == 0) {
+					return false;
+				} else if (r == Long.MAX_VALUE
+						|| requested.compareAndSet(r, r - 1)) {
+					return true;
+				}
+			}
+		}
+
+		void error(final Throwable e) {
+			terminate(e);
+		}
+
+		void complete() {
+			terminate(null);
+		}
+
+		private void terminate(final Throwable e) {
+			if (terminated.compareAndSet(false, true)) {
+				error = e;
+				terminal = true;
+				drain();
+			}
+		}
+
+		private void drain() {
+			if (wip.getAndIncrement() != 0) {
+				// the thread in the loop below will see the new signal
+				return;
+			}
+			int missed = 1;
+			do {
+				TrackingSample sample;
+				while (!done && (sample = queue.poll()) != null) {
+					try {
+						subscriber.onNext(sample);
+					} catch (final RuntimeException e) {
+						// only this subscriber stops, the group keeps ticking
+						log.warn("subscriber threw from onNext, cancelling", e);
+						cancel();
+						signal(e);
+					}
+				}
+				if (done) {
+					queue.clear();
+				} else if (terminal) {
+					done = true;
+					queue.clear();
+					signal(error);
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * Calls onError, or onComplete if the error is null. An exception
+		 * thrown by the subscriber is logged so that it does not stop the
+		 * scheduler thread.
+		 */
+		private void signal(final Throwable e) {
+			try {
+				if (e != null) {
+					subscriber.onError(e);
+				} else {
+					subscriber.onComplete();
+				}
+			} catch (final RuntimeException e2) {
+				log.warn("subscriber threw from a terminal signal", e2);
+			}
+		}
+	}
+
+	/**
+	 * Identifies subscriptions that can share propagations: the same element
+	 * set propagated by the same model (the class of the satellite, so that
+	 * for example secular and full perturbation satellites are kept apart)
+	 * with the same {@link Precision}, seen from the same ground station at
+	 * the same rate.
+	 */
+	private static final class Key {
+
+		private final int catnum;
+		private final int setnum;
+		private final double epoch;
+		private final Class<?> model;
+		/** Null for satellites that are not an {@link AbstractSatellite}. */
+		private final Precision precision;
+		private final GroundStationPosition station;
+		private final long periodMillis;
+
+		Key(final Satellite satellite, final GroundStationPosition station,
+				final long periodMillis) {
+			final TLE tle = satellite.getTLE();
+			this.catnum = tle.getCatnum();
+			this.setnum = tle.getSetnum();
+			this.epoch = tle.getEpoch();
+			this.model = satellite.getClass();
+			this.precision = AbstractSatellite.precisionOf(satellite);
+			this.station = station;
+			this.periodMillis = periodMillis;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + catnum;
+			result = prime * result + setnum;
+			final long temp = Double.doubleToLongBits(epoch);
+			result = prime * result + (int) (temp ^ (temp >>> 32));
+			result = prime * result + model.hashCode();
+			result = prime * result
+					+ (precision == null ? 0 : precision.hashCode());
+			result = prime * result + station.hashCode();
+			result = prime * result
+					+ (int) (periodMillis ^ (periodMillis >>> 32));
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return catnum == other.catnum
+					&& setnum == other.setnum
+					&& Double.doubleToLongBits(epoch) == Double
+							.doubleToLongBits(other.epoch)
+					&& model == other.model
+					&& precision == other.precision
+					&& periodMillis == other.periodMillis
+					&& station.equals(other.station);
+		}
+	}
+}
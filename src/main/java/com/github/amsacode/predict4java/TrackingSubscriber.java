@@ -0,0 +1,42 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Receives {@link TrackingSample}s from a {@link TrackingService}. The
+ * contract follows the Reactive Streams (java.util.concurrent.Flow) subscriber:
+ * {@link #onSubscribe(TrackingSubscription)} is called first, then
+ * {@link #onNext(TrackingSample)} at most as many times as requested through
+ * the subscription, optionally followed by one of {@link #onError(Throwable)}
+ * or {@link #onComplete()}. Calls are never made concurrently.
+ */
+public interface TrackingSubscriber {
+
+	/**
+	 * Called once before any samples are delivered.
+	 * 
+	 * @param subscription
+	 *            used to request samples and to cancel
+	 */
+	void onSubscribe(TrackingSubscription subscription);
+
+	/**
+	 * Called with the sample for each tick while there is outstanding demand.
+	 * 
+	 * @param sample
+	 *            the position of the satellite at the tick time
+	 */
+	void onNext(TrackingSample sample);
+
+	/**
+	 * Called when the position could not be calculated. No further calls are
+	 * made.
+	 * 
+	 * @param error
+	 *            the cause
+	 */
+	void onError(Throwable error);
+
+	/**
+	 * Called when the service is shut down. No further calls are made.
+	 */
+	void onComplete();
+}
@@ -0,0 +1,24 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Links a {@link TrackingSubscriber} to a {@link TrackingService}.
+ */
+public interface TrackingSubscription {
+
+	/**
+	 * Adds n to the number of samples the subscriber is prepared to receive.
+	 * Ticks that occur while there is no outstanding demand are dropped for
+	 * this subscriber so a slow subscriber always receives the latest position
+	 * rather than a backlog.
+	 * 
+	 * @param n
+	 *            the number of samples, must be positive
+	 */
+	void request(long n);
+
+	/**
+	 * Stops delivery of samples. When the last subscriber for a satellite,
+	 * ground station and rate cancels the satellite is no longer propagated.
+	 */
+	void cancel();
+}
@@ -0,0 +1,387 @@
+package com.github.amsacode.predict4java;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.github.davidmoten.guavamini.Preconditions;
+
+/**
+ * Visibility of a satellite from a station at fixed steps of time, one bit per
+ * step packed 64 to a long. Coverage questions over many satellites and
+ * stations, such as when at least two satellites are visible or when either
+ * of two stations is in contact, become operations on whole words rather than
+ * merges of pass intervals, and {@link #toIntervals()} turns the answer back
+ * into intervals.
+ * <p>
+ * Bitmaps combined must have the same start, step and size. Instances are
+ * immutable and thus thread safe.
+ */
+public final class VisibilityBitmap {
+
+	private static final int WORD_BITS = 64;
+
+	private final long startMillis;
+	private final long stepMillis;
+	private final int size;
+	private final long[] words;
+
+	private VisibilityBitmap(final long startMillis, final long stepMillis,
+			final int size, final long[] words) {
+		this.startMillis = startMillis;
+		this.stepMillis = stepMillis;
+		this.size = size;
+		this.words = words;
+	}
+
+	private static long[] newWords(final long stepMillis, final int size) {
+		Preconditions.checkArgument(stepMillis > 0, "stepMillis must be > 0");
+		Preconditions.checkArgument(size >= 0, "size must be >= 0");
+		return new long[(size + WORD_BITS - 1) / WORD_BITS];
+	}
+
+	/**
+	 * Creates the bitmap of passes, such as from
+	 * {@link PassPredictor#getPasses(Date, int, boolean)}. A step is set if its
+	 * time is within a pass.
+	 *
+	 * @param passes
+	 *            the passes
+	 * @param startMillis
+	 *            the time of the first step in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param stepMillis
+	 *            the time between steps
+	 * @param size
+	 *            the number of steps
+	 * @return the bitmap
+	 */
+	public static VisibilityBitmap fromPasses(final List<SatPassTime> passes,
+			final long startMillis, final long stepMillis, final int size) {
+		Preconditions.checkNotNull(passes);
+		final long[] words = newWords(stepMillis, size);
+		for (final SatPassTime pass : passes) {
+			final long start = pass.getStartTime().getTime() - startMillis;
+			final long end = pass.getEndTime().getTime() - startMillis;
+			if (end < 0) {
+				continue;
+			}
+			// first step at or after the start, last at or before the end
+			final long from = start <= 0 ? 0 : (start + stepMillis - 1)
+					/ stepMillis;
+			final long to = Math.min(end / stepMillis, size - 1L);
+			if (from <= to) {
+				setRange(words, (int) from, (int) to);
+			}
+		}
+		return new VisibilityBitmap(startMillis, stepMillis, size, words);
+	}
+
+	/**
+	 * Creates the bitmap of a satellite above the horizon of a station by
+	 * calculating its position at every step.
+	 *
+	 * @param satellite
+	 *            the satellite
+	 * @param station
+	 *            the ground station, with its horizon elevations
+	 * @param startMillis
+	 *            the time of the first step in milliseconds since
+	 *            1970-01-01T00:00:00Z
+	 * @param stepMillis
+	 *            the time between steps
+	 * @param size
+	 *            the number of steps
+	 * @return the bitmap
+	 */
+	public static VisibilityBitmap sample(final Satellite satellite,
+			final GroundStationPosition station, final long startMillis,
+			final long stepMillis, final int size) {
+		Preconditions.checkNotNull(satellite);
+		Preconditions.checkNotNull(station);
+		final long[] words = newWords(stepMillis, size);
+		for (int i = 0; i < size; i++) {
+			if (satellite.getPosition(station,
+					new Date(startMillis + i * stepMillis)).isAboveHorizon()) {
+				words[i / WORD_BITS] |= 1L << i;
+			}
+		}
+		return new VisibilityBitmap(startMillis, stepMillis, size, words);
+	}
+
+	/**
+	 * Returns the steps set in at least k of the bitmaps, for example the
+	 * times at which at least k satellites are visible. The bitmaps are added
+	 * as bit sliced counters so that 64 steps are counted at once.
+	 *
+	 * @param k
+	 *            the minimum count, at least 1
+	 * @param bitmaps
+	 *            at least one bitmap
+	 * @return the bitmap
+	 */
+	public static VisibilityBitmap atLeast(final int k,
+			final List<VisibilityBitmap> bitmaps) {
+		Preconditions.checkArgument(k >= 1, "k must be >= 1");
+		final VisibilityBitmap first = first(bitmaps);
+		// counters of enough bits to hold k, and a word of overflows
+		final int bits = WORD_BITS - Long.numberOfLeadingZeros(k);
+		final long[] counter = new long[bits];
+		final long[] words = new long[first.words.length];
+		for (int w = 0; w < words.length; w++) {
+			for (int j = 0; j < bits; j++) {
+				counter[j] = 0;
+			}
+			long overflow = 0;
+			for (final VisibilityBitmap bitmap : bitmaps) {
+				long carry = bitmap.words[w];
+				for (int j = 0; j < bits && carry != 0; j++) {
+					final long c = counter[j] & carry;
+					counter[j] ^= carry;
+					carry = c;
+				}
+				overflow |= carry;
+			}
+			// counter >= k, comparing from the most significant bit
+			long greater = 0;
+			long equal = -1L;
+			for (int j = bits - 1; j >= 0; j--) {
+				if ((k >> j & 1) == 1) {
+					equal &= counter[j];
+				} else {
+					greater |= equal & counter[j];
+					equal &= ~counter[j];
+				}
+			}
+			words[w] = overflow | greater | equal;
+		}
+		return new VisibilityBitmap(first.startMillis, first.stepMillis,
+				first.size, words);
+	}
+
+	/**
+	 * Returns the steps set in any of the bitmaps.
+	 *
+	 * @param bitmaps
+	 *            at least one bitmap
+	 * @return the bitmap
+	 */
+	public static VisibilityBitmap or(final List<VisibilityBitmap> bitmaps) {
+		return atLeast(1, bitmaps);
+	}
+
+	/**
+	 * Returns the steps set in all of the bitmaps.
+	 *
+	 * @param bitmaps
+	 *            at least one bitmap
+	 * @return the bitmap
+	 */
+	public static VisibilityBitmap and(final List<VisibilityBitmap> bitmaps) {
+		final VisibilityBitmap first = first(bitmaps);
+		final long[] words = first.words.clone();
+		for (final VisibilityBitmap bitmap : bitmaps) {
+			for (int w = 0; w < words.length; w++) {
+				words[w] &= bitmap.words[w];
+			}
+		}
+		return new VisibilityBitmap(first.startMillis, first.stepMillis,
+				first.size, words);
+	}
+
+	private static VisibilityBitmap first(final List<VisibilityBitmap> bitmaps) {
+		Preconditions.checkArgument(!bitmaps.isEmpty(),
+				"bitmaps must not be empty");
+		final VisibilityBitmap first = bitmaps.get(0);
+		for (final VisibilityBitmap bitmap : bitmaps) {
+			first.checkCompatible(bitmap);
+		}
+		return first;
+	}
+
+	/**
+	 * @param other
+	 *            a bitmap
+	 * @return the steps set in this and the other bitmap
+	 */
+	public VisibilityBitmap and(final VisibilityBitmap other) {
+		checkCompatible(other);
+		final long[] result = new long[words.length];
+		for (int w = 0; w < words.length; w++) {
+			result[w] = words[w] & other.words[w];
+		}
+		return new VisibilityBitmap(startMillis, stepMillis, size, result);
+	}
+
+	/**
+	 * @param other
+	 *            a bitmap
+	 * @return the steps set in this or the other bitmap
+	 */
+	public VisibilityBitmap or(final VisibilityBitmap other) {
+		checkCompatible(other);
+		final long[] result = new long[words.length];
+		for (int w = 0; w < words.length; w++) {
+			result[w] = words[w] | other.words[w];
+		}
+		return new VisibilityBitmap(startMillis, stepMillis, size, result);
+	}
+
+	/**
+	 * @param other
+	 *            a bitmap
+	 * @return the steps set in this but not in the other bitmap
+	 */
+	public VisibilityBitmap andNot(final VisibilityBitmap other) {
+		checkCompatible(other);
+		final long[] result = new long[words.length];
+		for (int w = 0; w < words.length; w++) {
+			result[w] = words[w] & ~other.words[w];
+		}
+		return new VisibilityBitmap(startMillis, stepMillis, size, result);
+	}
+
+	/**
+	 * @return the steps not set in this bitmap, such as coverage gaps
+	 */
+	public VisibilityBitmap not() {
+		final long[] result = new long[words.length];
+		for (int w = 0; w < words.length; w++) {
+			result[w] = ~words[w];
+		}
+		if (size % WORD_BITS != 0) {
+			result[words.length - 1] &= (1L << size) - 1;
+		}
+		return new VisibilityBitmap(startMillis, stepMillis, size, result);
+	}
+
+	/**
+	 * @return the number of steps set
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (final long word : words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * @param index
+	 *            the step
+	 * @return true if the step is set
+	 */
+	public boolean get(final int index) {
+		Preconditions.checkArgument(index >= 0 && index < size,
+				"index out of range: " + index);
+		return (words[index / WORD_BITS] & 1L << index) != 0;
+	}
+
+	/**
+	 * Returns the runs of set steps as intervals from the time of the first
+	 * step of a run to the time of its last step, so the ends are only as
+	 * precise as the step.
+	 *
+	 * @return the intervals in time order
+	 */
+	public List<VisibilityInterval> toIntervals() {
+		final List<VisibilityInterval> list = new ArrayList<VisibilityInterval>();
+		int from = nextSet(0);
+		while (from >= 0) {
+			final int to = nextClear(from);
+			list.add(new VisibilityInterval(getTimeMillis(from),
+					getTimeMillis(to - 1)));
+			from = nextSet(to);
+		}
+		return list;
+	}
+
+	/**
+	 * @param index
+	 *            the step
+	 * @return the time of the step in milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public long getTimeMillis(final int index) {
+		return startMillis + index * stepMillis;
+	}
+
+	/**
+	 * @return the time of the first step in milliseconds since
+	 *         1970-01-01T00:00:00Z
+	 */
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	/**
+	 * @return the time between steps in milliseconds
+	 */
+	public long getStepMillis() {
+		return stepMillis;
+	}
+
+	/**
+	 * @return the number of steps
+	 */
+	public int size() {
+		return size;
+	}
+
+	private int nextSet(final int index) {
+		if (index >= size) {
+			return -1;
+		}
+		int w = index / WORD_BITS;
+		long word = words[w] & -1L << index;
+		while (word == 0) {
+			if (++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+		return w * WORD_BITS + Long.numberOfTrailingZeros(word);
+	}
+
+	private int nextClear(final int index) {
+		int w = index / WORD_BITS;
+		long word = ~words[w] & -1L << index;
+		while (word == 0) {
+			if (++w == words.length) {
+				return size;
+			}
+			word = ~words[w];
+		}
+		return Math.min(size, w * WORD_BITS + Long.numberOfTrailingZeros(word));
+	}
+
+	private static void setRange(final long[] words, final int from,
+			final int to) {
+		final int first = from / WORD_BITS;
+		final int last = to / WORD_BITS;
+		final long firstMask = -1L << from;
+		final long lastMask = -1L >>> (WORD_BITS - 1 - to % WORD_BITS);
+		if (first == last) {
+			words[first] |= firstMask & lastMask;
+		} else {
+			words[first] |= firstMask;
+			for (int w = first + 1; w < last; w++) {
+				words[w] = -1L;
+			}
+			words[last] |= lastMask;
+		}
+	}
+
+	private void checkCompatible(final VisibilityBitmap other) {
+		Preconditions.checkArgument(startMillis == other.startMillis
+				&& stepMillis == other.stepMillis && size == other.size,
+				"bitmaps must have the same start, step and size");
+	}
+
+	@Override
+	public String toString() {
+		return "VisibilityBitmap [startMillis=" + startMillis + ", stepMillis="
+				+ stepMillis + ", size=" + size + ", cardinality="
+				+ cardinality() + "]";
+	}
+
+}
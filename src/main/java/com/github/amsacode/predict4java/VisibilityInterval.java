@@ -0,0 +1,36 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Immutable interval of a {@link VisibilityBitmap}, from the time of its
+ * first set step to the time of its last set step inclusive.
+ */
+public final class VisibilityInterval {
+
+	private final long start;
+	private final long end;
+
+	VisibilityInterval(final long start, final long end) {
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * @return the start in milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the end in milliseconds since 1970-01-01T00:00:00Z
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	@Override
+	public String toString() {
+		return "VisibilityInterval [start=" + start + ", end=" + end + "]";
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.github.amsacode.predict4java;
+
+/**
+ * Hooks for recording events of the hot paths with JDK Flight Recorder, the
+ * Java 11 version of this class in the multi-release jar. The events are
+ * recorded by {@link FlightRecorderEvents}, which is only loaded if the
+ * runtime has the jdk.jfr module.
+ * <p>
+ * A begin method returns a handle that is passed to the matching end method,
+ * null when the event is not being recorded.
+ */
+final class Events {
+
+	private static final boolean AVAILABLE = ModuleLayer.boot()
+			.findModule("jdk.jfr").isPresent();
+
+	private Events() {
+		// prevent instantiation
+	}
+
+	static Object beginPassSearch() {
+		return AVAILABLE ? FlightRecorderEvents.beginPassSearch() : null;
+	}
+
+	static void endPassSearch(final Object event, final int catnum,
+			final String station, final int iterations) {
+		if (event != null) {
+			FlightRecorderEvents.endPassSearch(event, catnum, station,
+					iterations);
+		}
+	}
+
+	static Object beginPasses() {
+		return AVAILABLE ? FlightRecorderEvents.beginPasses() : null;
+	}
+
+	static void endPasses(final Object event, final int catnum,
+			final String station, final int passes, final int iterations) {
+		if (event != null) {
+			FlightRecorderEvents.endPasses(event, catnum, station, passes,
+					iterations);
+		}
+	}
+
+	static Object beginIntegration() {
+		return AVAILABLE ? FlightRecorderEvents.beginIntegration() : null;
+	}
+
+	static void endIntegration(final Object event, final int catnum,
+			final int steps) {
+		if (event != null) {
+			FlightRecorderEvents.endIntegration(event, catnum, steps);
+		}
+	}
+
+	static Object beginTleImport() {
+		return AVAILABLE ? FlightRecorderEvents.beginTleImport() : null;
+	}
+
+	static void endTleImport(final Object event, final int count) {
+		if (event != null) {
+			FlightRecorderEvents.endTleImport(event, count);
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.github.amsacode.predict4java;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JDK Flight Recorder events recorded by {@link Events}. An event object
+ * is only created and timed while its type is enabled in a recording.
+ */
+final class FlightRecorderEvents {
+
+	private FlightRecorderEvents() {
+		// prevent instantiation
+	}
+
+	static Object beginPassSearch() {
+		return begin(new PassSearchEvent());
+	}
+
+	static void endPassSearch(final Object event, final int catnum,
+			final String station, final int iterations) {
+		final PassSearchEvent e = (PassSearchEvent) event;
+		e.catnum = catnum;
+		e.station = station;
+		e.iterations = iterations;
+		end(e);
+	}
+
+	static Object beginPasses() {
+		return begin(new PassesEvent());
+	}
+
+	static void endPasses(final Object event, final int catnum,
+			final String station, final int passes, final int iterations) {
+		final PassesEvent e = (PassesEvent) event;
+		e.catnum = catnum;
+		e.station = station;
+		e.passes = passes;
+		e.iterations = iterations;
+		end(e);
+	}
+
+	static Object beginIntegration() {
+		return begin(new IntegrationEvent());
+	}
+
+	static void endIntegration(final Object event, final int catnum,
+			final int steps) {
+		if (steps > 0) {
+			final IntegrationEvent e = (IntegrationEvent) event;
+			e.catnum = catnum;
+			e.steps = steps;
+			end(e);
+		}
+	}
+
+	static Object beginTleImport() {
+		return begin(new TleImportEvent());
+	}
+
+	static void endTleImport(final Object event, final int count) {
+		final TleImportEvent e = (TleImportEvent) event;
+		e.count = count;
+		end(e);
+	}
+
+	private static Event begin(final Event event) {
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	private static void end(final Event event) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.commit();
+		}
+	}
+
+	@Name("predict4java.PassSearch")
+	@Label("Pass Search")
+	@Description("Search for the next pass of a satellite over a ground "
+			+ "station")
+	@Category("predict4java")
+	static final class PassSearchEvent extends Event {
+		@Label("Catalog Number")
+		int catnum;
+		@Label("Station")
+		String station;
+		@Label("Iterations")
+		@Description("Positions calculated")
+		int iterations;
+	}
+
+	@Name("predict4java.Passes")
+	@Label("Passes")
+	@Description("Prediction of the passes of a satellite over a ground "
+			+ "station in a window")
+	@Category("predict4java")
+	static final class PassesEvent extends Event {
+		@Label("Catalog Number")
+		int catnum;
+		@Label("Station")
+		String station;
+		@Label("Passes")
+		int passes;
+		@Label("Iterations")
+		@Description("Positions calculated")
+		int iterations;
+	}
+
+	@Name("predict4java.Integration")
+	@Label("SDP4 Integration")
+	@Description("Resonance integration of a deep space satellite")
+	@Category("predict4java")
+	static final class IntegrationEvent extends Event {
+		@Label("Catalog Number")
+		int catnum;
+		@Label("Steps")
+		int steps;
+	}
+
+	@Name("predict4java.TleImport")
+	@Label("TLE Import")
+	@Description("Import of a batch of element sets")
+	@Category("predict4java")
+	static final class TleImportEvent extends Event {
+		@Label("Count")
+		int count;
+	}
+
+}
@@ -0,0 +1,26 @@
+package com.github.amsacode.predict4java;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe count used by {@link CountingMetrics}, the Java 17 version of
+ * this class in the multi-release jar. A LongAdder spreads the updates of
+ * concurrent threads over cells so that they do not contend.
+ */
+final class Counter {
+
+	private final LongAdder value = new LongAdder();
+
+	void increment() {
+		value.increment();
+	}
+
+	void add(final long amount) {
+		value.add(amount);
+	}
+
+	long get() {
+		return value.sum();
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.github.amsacode.predict4java;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Formats the UTC times of {@link SatPassTime}, the Java 17 version of this
+ * class in the multi-release jar. The java.time formatters are immutable so
+ * threads format without taking a lock.
+ */
+final class TimeFormats {
+
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter
+			.ofPattern("h:mm a").withZone(ZoneOffset.UTC);
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter
+			.ofPattern("MMMM d, yyyy").withZone(ZoneOffset.UTC);
+
+	private TimeFormats() {
+		// prevent instantiation
+	}
+
+	/**
+	 * @return the date, for example January 3, 2010
+	 */
+	static String formatDate(final Date date) {
+		return DATE_FORMAT.format(Instant.ofEpochMilli(date.getTime()));
+	}
+
+	/**
+	 * @return the time of day, for example 4:07 PM
+	 */
+	static String formatTime(final Date date) {
+		return TIME_FORMAT.format(Instant.ofEpochMilli(date.getTime()));
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class ConjunctionScreenerTest extends AbstractSatelliteTestBase {
+
+    // AO-51 and TIROS N pass within 1000km of each other six times in these
+    // 8 hours
+    private static final long START = new DateTime("2009-12-27T04:00:00Z")
+            .getMillis();
+    private static final long END = START + 8 * 60 * 60 * 1000L;
+    private static final double THRESHOLD_KM = 1000;
+
+    @Test
+    public void testMatchesBruteForce() {
+        final Satellite a = SatelliteFactory.createSatellite(new TLE(LEO_TLE));
+        final Satellite b = SatelliteFactory.createSatellite(new TLE(
+                WEATHER_TLE));
+        final List<Conjunction> conjunctions = new ConjunctionScreener(
+                THRESHOLD_KM).screen(Collections.singletonList(a),
+                Collections.singletonList(b), START, END);
+
+        final List<long[]> minima = bruteForceMinima(a, b, START, END);
+        assertThat(conjunctions.size()).isEqualTo(6);
+        for (final long[] minimum : minima) {
+            final double distance = distance(a, b, minimum[0]);
+            if (distance < THRESHOLD_KM * 0.99) {
+                assertThat(find(conjunctions, minimum[0], distance)).isTrue();
+            }
+        }
+        for (final Conjunction c : conjunctions) {
+            assertThat(c.getMissDistance()).isLessThanOrEqualTo(THRESHOLD_KM);
+            assertThat(c.getPrimary().getCatnum()).isEqualTo(28375);
+            assertThat(c.getSecondary().getCatnum()).isEqualTo(11060);
+            assertThat(c.getRelativeSpeed()).isGreaterThan(0);
+            boolean found = false;
+            for (final long[] minimum : minima) {
+                found |= Math.abs(minimum[0] - c.getTca()) <= 2;
+            }
+            assertThat(found).isTrue();
+        }
+        for (int i = 1; i < conjunctions.size(); i++) {
+            assertThat(conjunctions.get(i - 1).getTca()).isLessThanOrEqualTo(conjunctions.get(i).getTca());
+        }
+    }
+
+    @Test
+    public void testSatellitesInBothListsReportedOnce() {
+        final Satellite a = SatelliteFactory.createSatellite(new TLE(LEO_TLE));
+        final Satellite b = SatelliteFactory.createSatellite(new TLE(
+                WEATHER_TLE));
+        final ConjunctionScreener screener = new ConjunctionScreener(
+                THRESHOLD_KM);
+        final List<Conjunction> oneWay = screener.screen(
+                Collections.singletonList(a), Collections.singletonList(b),
+                START, END);
+        final List<Satellite> both = Arrays.asList(a, b);
+        final List<Conjunction> all = screener.screen(both, both, START, END);
+        assertThat(oneWay.isEmpty()).isFalse();
+        assertThat(all.size()).isEqualTo(oneWay.size());
+        for (final Conjunction c : all) {
+            assertThat(c.getPrimary()).isNotSameAs(c.getSecondary());
+        }
+    }
+
+    @Test
+    public void testApogeePerigeeSieveRejectsLeoAgainstGeo() {
+        final Satellite leo = SatelliteFactory.createSatellite(new TLE(LEO_TLE));
+        final Satellite geo = SatelliteFactory.createSatellite(new TLE(
+                GEOSYNC_TLE));
+        assertThat(new ConjunctionScreener(100).screen(Collections.singletonList(leo),
+                Collections.singletonList(geo), START, END)).isEmpty();
+    }
+
+    @Test
+    public void testOrbitPathSieveDoesNotRejectApproaches() {
+        final Satellite a = SatelliteFactory.createSatellite(new TLE(LEO_TLE));
+        final Satellite b = SatelliteFactory.createSatellite(new TLE(
+                WEATHER_TLE));
+        final OrbitSieve sieve = new OrbitSieve(new Satellite[] { a, b });
+        final double[] scratch = new double[OrbitSieve.SCRATCH_LENGTH];
+        for (final long[] minimum : bruteForceMinima(a, b, START, END)) {
+            final double distance = distance(a, b, minimum[0]);
+            assertThat(sieve.pathsMayApproach(0, 1, minimum[0], distance + 30, scratch)).isTrue();
+        }
+    }
+
+    @Test
+    public void testUsesSuppliedExecutor() {
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final Satellite a = SatelliteFactory.createSatellite(new TLE(
+                    LEO_TLE));
+            final Satellite b = SatelliteFactory.createSatellite(new TLE(
+                    WEATHER_TLE));
+            final List<Conjunction> conjunctions = new ConjunctionScreener(
+                    THRESHOLD_KM, 5000, executor).screen(
+                    Collections.singletonList(a), Collections.singletonList(b),
+                    START, END);
+            assertThat(conjunctions.isEmpty()).isFalse();
+            assertThat(executor.isShutdown()).isFalse();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveThresholdThrows() {
+        new ConjunctionScreener(0);
+    }
+
+    private static boolean find(final List<Conjunction> conjunctions,
+            final long time, final double distance) {
+        for (final Conjunction c : conjunctions) {
+            if (Math.abs(c.getTca() - time) <= 2
+                    && Math.abs(c.getMissDistance() - distance) < 1e-3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the times of the local minima of distance found by sampling
+     * every second then every millisecond around each minimum.
+     */
+    private static List<long[]> bruteForceMinima(final Satellite a,
+            final Satellite b, final long start, final long end) {
+        final List<long[]> result = new ArrayList<long[]>();
+        double before = distance(a, b, start);
+        double current = distance(a, b, start + 1000);
+        for (long t = start + 1000; t + 1000 <= end; t += 1000) {
+            final double after = distance(a, b, t + 1000);
+            if (current <= before && current < after) {
+                long best = t;
+                double min = current;
+                for (long u = t - 1000; u <= t + 1000; u++) {
+                    final double d = distance(a, b, u);
+                    if (d < min) {
+                        min = d;
+                        best = u;
+                    }
+                }
+                result.add(new long[] { best });
+            }
+            before = current;
+            current = after;
+        }
+        return result;
+    }
+
+    private static double distance(final Satellite a, final Satellite b,
+            final long time) {
+        final double[] sa = new double[6];
+        final double[] sb = new double[6];
+        AbstractSatellite.stateVectors(a).calculateSatelliteVectors(time, sa);
+        AbstractSatellite.stateVectors(b).calculateSatelliteVectors(time, sb);
+        double sum = 0;
+        for (int i = 0; i < 3; i++) {
+            sum += (sa[i] - sb[i]) * (sa[i] - sb[i]);
+        }
+        return Math.sqrt(sum);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class CountingMetricsTest extends AbstractSatelliteTestBase {
+
+    private static final Date START = new DateTime("2009-12-26T00:00:00Z")
+            .toDate();
+
+    private CountingMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new CountingMetrics();
+        Metrics.set(metrics);
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.set(null);
+    }
+
+    @Test
+    public void testPropagationsAreCountedByModel() {
+        final Satellite leo = SatelliteFactory.createSatellite(new TLE(LEO_TLE));
+        final Satellite geo = SatelliteFactory.createSatellite(new TLE(
+                GEOSYNC_TLE));
+        final double[] state = new double[6];
+        for (int i = 0; i < 10; i++) {
+            AbstractSatellite.stateVectors(leo)
+                    .calculateSatelliteVectors(START.getTime() + i * 60000L,
+                            state);
+        }
+        AbstractSatellite.stateVectors(geo)
+                .calculateSatelliteVectors(START.getTime(), state);
+        geo.getPosition(GROUND_STATION, START);
+        assertThat(metrics.getSgp4Propagations()).isEqualTo(10);
+        assertThat(metrics.getSdp4Propagations()).isEqualTo(2);
+        assertThat(metrics.getSgp4Nanos()).isGreaterThan(0);
+        assertThat(metrics.getSdp4Nanos()).isGreaterThan(0);
+        assertThat(metrics.getKeplerIterations()).isGreaterThanOrEqualTo(12);
+        assertThat(metrics.getKeplerIterations()).isLessThanOrEqualTo(12 * 11);
+        // the geosynchronous orbit is resonant and days past its epoch
+        assertThat(metrics.getIntegratorSteps()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testPassSearchesAndCacheAreCounted()
+            throws SatNotFoundException {
+        final PassCache cache = new PassCache(10, 60 * 60 * 1000L);
+        final TLE tle = new TLE(LEO_TLE);
+        final Date end = new Date(START.getTime() + 12 * 60 * 60 * 1000L);
+        final int passes = cache.getPasses(tle, GROUND_STATION, START, end)
+                .size();
+        cache.getPasses(tle, GROUND_STATION, START, end);
+        assertThat(metrics.getCacheMisses()).isEqualTo(1);
+        assertThat(metrics.getCacheHits()).isEqualTo(1);
+        assertThat(metrics.getPassSearches()).isGreaterThan(passes);
+        assertThat(metrics.getPassSearchNanos()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testTleParseErrorIsCounted() {
+        try {
+            new TLE(new String[] { LEO_TLE[0], LEO_TLE[1], "2 garbage" });
+        } catch (final RuntimeException e) {
+            // expected
+        }
+        assertThat(metrics.getTleParseErrors()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNullSetsNone() {
+        Metrics.set(null);
+        assertThat(Metrics.get()).isSameAs(Metrics.NONE);
+    }
+
+}
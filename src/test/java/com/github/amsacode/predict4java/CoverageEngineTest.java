@@ -0,0 +1,113 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.assertj.core.data.Offset;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class CoverageEngineTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-27T00:00:00Z")
+            .getMillis();
+    private static final long STEP = 60000;
+    private static final long END = START + 6 * 60 * 60 * 1000L;
+    private static final double MIN_ELEVATION = 5;
+
+    @Test
+    public void testMatchesElevationAtEachStep() {
+        final CoverageGrid grid = CoverageGrid.regular(-80, 80, -180, 180, 20);
+        final List<Satellite> satellites = Arrays.asList(
+                SatelliteFactory.createSatellite(new TLE(LEO_TLE)),
+                SatelliteFactory.createSatellite(new TLE(WEATHER_TLE)));
+        final CoverageResult result = new CoverageEngine(MIN_ELEVATION, STEP)
+                .analyze(grid, satellites, START, END);
+        int coveredSamples = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            final long[] intervals = result.getAccessIntervals(i);
+            for (long t = START; t < END; t += STEP) {
+                double maxElevation = -90;
+                for (final Satellite satellite : satellites) {
+                    maxElevation = Math.max(maxElevation, Math.toDegrees(satellite
+                            .getPosition(grid.get(i), new Date(t))
+                            .getElevation()));
+                }
+                if (Math.abs(maxElevation - MIN_ELEVATION) > 1e-6) {
+                    assertThat(contains(intervals, t)).isEqualTo(maxElevation > MIN_ELEVATION);
+                }
+                if (maxElevation > MIN_ELEVATION) {
+                    coveredSamples++;
+                }
+            }
+        }
+        assertThat(coveredSamples).isGreaterThan(0);
+    }
+
+    @Test
+    public void testStatistics() {
+        final CoverageGrid grid = CoverageGrid.regular(-60, 60, -180, 180, 30);
+        final CoverageResult result = new CoverageEngine(0, STEP).analyze(grid,
+                Collections.singletonList(SatelliteFactory
+                        .createSatellite(new TLE(LEO_TLE))), START, END);
+        for (int i = 0; i < grid.size(); i++) {
+            final long[] intervals = result.getAccessIntervals(i);
+            long covered = 0;
+            long maxGap = 0;
+            long previousEnd = START;
+            for (int k = 0; k < intervals.length; k += 2) {
+                assertThat(intervals[k]).isLessThan(intervals[k + 1]);
+                assertThat(intervals[k]).isGreaterThanOrEqualTo(previousEnd);
+                covered += intervals[k + 1] - intervals[k];
+                maxGap = Math.max(maxGap, intervals[k] - previousEnd);
+                previousEnd = intervals[k + 1];
+            }
+            maxGap = Math.max(maxGap, END - previousEnd);
+            assertThat(result.getCoverageFraction(i)).isEqualTo(covered / (double) (END - START), Offset.offset(1e-12));
+            assertThat(result.getMaxGapMillis(i)).isEqualTo(maxGap);
+            assertThat(result.getMeanGapMillis(i)).isLessThanOrEqualTo(maxGap);
+        }
+        assertThat(result.getMeanCoverageFraction()).isGreaterThan(0);
+        assertThat(result.getMeanCoverageFraction()).isLessThan(1);
+    }
+
+    @Test
+    public void testGeostationaryCoverage() {
+        final Satellite geo = SatelliteFactory.createSatellite(new TLE(
+                GEOSYNC_TLE));
+        final SatPos position = geo.getPosition(GROUND_STATION, new Date(START));
+        final double lat = Math.toDegrees(position.getLatitude());
+        final double lon = Math.toDegrees(position.getLongitude());
+        final List<GroundStationPosition> points = new ArrayList<GroundStationPosition>();
+        points.add(new GroundStationPosition(lat, lon, 0));
+        points.add(new GroundStationPosition(-lat, lon + 180, 0));
+        final CoverageResult result = new CoverageEngine(10, STEP).analyze(
+                new CoverageGrid(points), Collections.singletonList(geo), START,
+                END);
+        assertThat(result.getCoverageFraction(0)).isEqualTo(1.0);
+        assertThat(result.getMaxGapMillis(0)).isEqualTo(0);
+        assertThat(result.getMeanGapMillis(0)).isEqualTo(0);
+        assertThat(result.getCoverageFraction(1)).isEqualTo(0.0);
+        assertThat(result.getMaxGapMillis(1)).isEqualTo(END - START);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveStepThrows() {
+        new CoverageEngine(0, 0);
+    }
+
+    private static boolean contains(final long[] intervals, final long time) {
+        for (int k = 0; k < intervals.length; k += 2) {
+            if (intervals[k] <= time && time < intervals[k + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
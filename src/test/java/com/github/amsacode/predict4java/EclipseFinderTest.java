@@ -0,0 +1,152 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class EclipseFinderTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-27T00:00:00Z")
+            .getMillis();
+    private static final long END = START + 24 * 60 * 60 * 1000L;
+
+    @Test
+    public void testUmbraEventsMatchEclipseDepth() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                WEATHER_TLE));
+        final List<Eclipse> eclipses = new EclipseFinder().find(satellite,
+                START, END);
+        // the window starts in eclipse
+        int entries = 0;
+        boolean eclipsed = false;
+        for (long t = START; t <= END; t += 10000) {
+            final boolean e = isEclipsed(satellite, t);
+            if (e && !eclipsed) {
+                entries++;
+            }
+            eclipsed = e;
+        }
+        assertThat(entries).isGreaterThan(10);
+        assertThat(eclipses.size()).isEqualTo(entries);
+        for (final Eclipse eclipse : eclipses) {
+            assertThat(eclipse.hasUmbra()).isTrue();
+            if (eclipse.getUmbraStart() == START) {
+                continue;
+            }
+            assertThat(isEclipsed(satellite, eclipse.getUmbraStart() - 2)).isFalse();
+            assertThat(isEclipsed(satellite, eclipse.getUmbraStart() + 2)).isTrue();
+            assertThat(isEclipsed(satellite, eclipse.getUmbraEnd() - 2)).isTrue();
+            assertThat(isEclipsed(satellite, eclipse.getUmbraEnd() + 2)).isFalse();
+        }
+    }
+
+    @Test
+    public void testPenumbraContainsUmbra() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                WEATHER_TLE));
+        final List<Eclipse> eclipses = new EclipseFinder().find(satellite,
+                START, END);
+        assertThat(eclipses.size()).isGreaterThan(10);
+        for (final Eclipse eclipse : eclipses.subList(1, eclipses.size())) {
+            // the sun takes a few seconds to set behind the earth
+            assertThat(eclipse.getUmbraStart()).isGreaterThan(eclipse.getPenumbraStart() + 1000);
+            assertThat(eclipse.getUmbraEnd()).isGreaterThan(eclipse.getUmbraStart() + 60000);
+            assertThat(eclipse.getPenumbraEnd()).isGreaterThan(eclipse.getUmbraEnd() + 1000);
+        }
+    }
+
+    @Test
+    public void testLargeStepFindsSameEvents() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                WEATHER_TLE));
+        final List<Eclipse> expected = new EclipseFinder(10000, 1).find(
+                satellite, START, END);
+        final List<Eclipse> eclipses = new EclipseFinder(15 * 60000, 1).find(
+                satellite, START, END);
+        assertThat(eclipses.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertClose(expected.get(i).getPenumbraStart(), eclipses.get(i)
+                    .getPenumbraStart());
+            assertClose(expected.get(i).getUmbraStart(), eclipses.get(i)
+                    .getUmbraStart());
+            assertClose(expected.get(i).getUmbraEnd(), eclipses.get(i)
+                    .getUmbraEnd());
+            assertClose(expected.get(i).getPenumbraEnd(), eclipses.get(i)
+                    .getPenumbraEnd());
+        }
+    }
+
+    @Test
+    public void testWindowStartingInEclipseIsCut() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                WEATHER_TLE));
+        final Eclipse eclipse = new EclipseFinder().find(satellite, START,
+                END).get(1);
+        final long start = (eclipse.getUmbraStart() + eclipse.getUmbraEnd()) / 2;
+        final long end = start + 60000;
+        final List<Eclipse> eclipses = new EclipseFinder().find(satellite,
+                start, end);
+        assertThat(eclipses.size()).isEqualTo(1);
+        assertThat(eclipses.get(0).getPenumbraStart()).isEqualTo(start);
+        assertThat(eclipses.get(0).getUmbraStart()).isEqualTo(start);
+        assertThat(eclipses.get(0).getUmbraEnd()).isEqualTo(end);
+        assertThat(eclipses.get(0).getPenumbraEnd()).isEqualTo(end);
+    }
+
+    @Test
+    public void testListPerSatellite() {
+        final Satellite a = SatelliteFactory.createSatellite(new TLE(LEO_TLE));
+        final Satellite b = SatelliteFactory
+                .createSatellite(new TLE(WEATHER_TLE));
+        final EclipseFinder finder = new EclipseFinder();
+        final List<List<Eclipse>> eclipses = finder.find(Arrays.asList(a, b),
+                START, END);
+        assertThat(eclipses.size()).isEqualTo(2);
+        assertThat(eclipses.get(0).toString()).isEqualTo(finder.find(a, START, END).toString());
+        assertThat(eclipses.get(1).toString()).isEqualTo(finder.find(b, START, END).toString());
+    }
+
+    @Test
+    public void testSunTableInterpolation() {
+        final SunTable table = new SunTable(START, END);
+        final double[] interpolated = new double[3];
+        final double[] exact = new double[3];
+        for (long t = START; t <= END; t += 7 * 60 * 1000L + 13) {
+            table.position(t, interpolated);
+            AbstractSatellite.calculateSunPosition(
+                    AbstractSatellite.julianDateUTC(t), exact);
+            double dot = 0;
+            double a = 0;
+            double b = 0;
+            for (int i = 0; i < 3; i++) {
+                dot += interpolated[i] * exact[i];
+                a += interpolated[i] * interpolated[i];
+                b += exact[i] * exact[i];
+            }
+            final double sinAngle = Math.sqrt(Math.max(0,
+                    1 - dot * dot / (a * b)));
+            assertThat(sinAngle).isLessThan(1e-7);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveStepThrows() {
+        new EclipseFinder(0, 1);
+    }
+
+    private static boolean isEclipsed(final Satellite satellite,
+            final long time) {
+        return satellite.getPosition(GROUND_STATION, new Date(time))
+                .isEclipsed();
+    }
+
+    private static void assertClose(final long expected, final long actual) {
+        assertThat(Math.abs(expected - actual)).as(expected + " != " + actual).isLessThanOrEqualTo(1);
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.data.Offset;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class EphemerisFileTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+    private static final long END = START + 6 * 60 * 60 * 1000L;
+
+    private File file;
+    private List<Satellite> satellites;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("ephemeris", ".bin");
+        satellites = Arrays.asList(
+                SatelliteFactory.createSatellite(new TLE(LEO_TLE)),
+                SatelliteFactory.createSatellite(new TLE(DEEP_SPACE_TLE)),
+                SatelliteFactory.createSatellite(new TLE(WEATHER_TLE)));
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testTimeMajorSamplesMatchPropagation() throws IOException {
+        checkSamples(EphemerisFile.Layout.TIME_MAJOR);
+    }
+
+    @Test
+    public void testSatelliteMajorSamplesMatchPropagation() throws IOException {
+        checkSamples(EphemerisFile.Layout.SATELLITE_MAJOR);
+    }
+
+    @Test
+    public void testInterpolatedStates() throws IOException {
+        new EphemerisWriter().write(file, satellites, START, END);
+        final EphemerisFile ephemeris = new EphemerisFile(file);
+        final double[] expected = new double[6];
+        final double[] scratch = new double[EphemerisFile.SCRATCH_LENGTH];
+        final double[] state = new double[6];
+        // the deep space satellite (index 1) is left out, its position
+        // depends a little on the sequence of times it was propagated at
+        for (long t = START + 17321; t < END; t += 7 * 60 * 1000L + 13) {
+            for (int i = 0; i < satellites.size(); i += 2) {
+                AbstractSatellite.stateVectors(satellites.get(i))
+                        .calculateSatelliteVectors(t, expected);
+                ephemeris.getState(i, t, scratch, state);
+                for (int j = 0; j < 3; j++) {
+                    assertThat(state[j]).isEqualTo(expected[j], Offset.offset(0.01));
+                    assertThat(state[j + 3]).isEqualTo(expected[j + 3], Offset.offset(0.005));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHeader() throws IOException {
+        new EphemerisWriter(120000, EphemerisFile.Layout.SATELLITE_MAJOR, null)
+                .write(file, satellites, START, END + 60000);
+        final EphemerisFile ephemeris = new EphemerisFile(file);
+        assertThat(ephemeris.getLayout()).isEqualTo(EphemerisFile.Layout.SATELLITE_MAJOR);
+        assertThat(ephemeris.size()).isEqualTo(3);
+        assertThat(ephemeris.getSampleCount()).isEqualTo(181);
+        assertThat(ephemeris.getStartMillis()).isEqualTo(START);
+        assertThat(ephemeris.getStepMillis()).isEqualTo(120000);
+        assertThat(ephemeris.getEndMillis()).isEqualTo(END);
+        assertThat(ephemeris.getCatnum(0)).isEqualTo(28375);
+        assertThat(ephemeris.indexOf(ephemeris.getCatnum(2))).isEqualTo(2);
+        assertThat(ephemeris.indexOf(1)).isEqualTo(-1);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAnEphemerisFileThrows() throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[100]);
+        } finally {
+            out.close();
+        }
+        new EphemerisFile(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTimeOutsideFileThrows() throws IOException {
+        new EphemerisWriter().write(file, satellites, START, END);
+        new EphemerisFile(file).getState(0, END + 1,
+                new double[EphemerisFile.SCRATCH_LENGTH], new double[6]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortScratchThrows() throws IOException {
+        new EphemerisWriter().write(file, satellites, START, END);
+        new EphemerisFile(file).getState(0, START + 1, new double[6],
+                new double[6]);
+    }
+
+    @Test
+    public void testRewriteReplacesFileWithoutChangingOpenOne()
+            throws IOException {
+        new EphemerisWriter().write(file, satellites, START, END);
+        final EphemerisFile before = new EphemerisFile(file);
+        final double[] expected = new double[6];
+        before.getSample(1, 10, expected);
+        new EphemerisWriter().write(file, satellites.subList(0, 1), END,
+                END + 60000);
+        final double[] state = new double[6];
+        before.getSample(1, 10, state);
+        assertThat(Arrays.toString(state)).isEqualTo(Arrays.toString(expected));
+        final EphemerisFile after = new EphemerisFile(file);
+        assertThat(after.size()).isEqualTo(1);
+        assertThat(after.getStartMillis()).isEqualTo(END);
+        final String[] left = file.getAbsoluteFile().getParentFile()
+                .list(new FilenameFilter() {
+                    @Override
+                    public boolean accept(final File dir, final String name) {
+                        return name.startsWith("." + file.getName());
+                    }
+                });
+        assertThat(left.length).isEqualTo(0);
+    }
+
+    private void checkSamples(final EphemerisFile.Layout layout)
+            throws IOException {
+        new EphemerisWriter(60000, layout, null).write(file, satellites,
+                START, END);
+        final EphemerisFile ephemeris = new EphemerisFile(file);
+        assertThat(ephemeris.getLayout()).isEqualTo(layout);
+        assertThat(ephemeris.getSampleCount()).isEqualTo(361);
+        final double[] expected = new double[6];
+        final double[] scratch = new double[EphemerisFile.SCRATCH_LENGTH];
+        final double[] state = new double[6];
+        for (int i = 0; i < satellites.size(); i++) {
+            // propagated at the same sequence of times as by the writer
+            final Satellite satellite = SatelliteFactory
+                    .createSatellite(satellites.get(i).getTLE());
+            for (int s = 0; s < ephemeris.getSampleCount(); s++) {
+                final long t = START + s * 60000L;
+                AbstractSatellite.stateVectors(satellite)
+                        .calculateSatelliteVectors(t, expected);
+                ephemeris.getSample(i, s, state);
+                assertThat(Arrays.toString(state)).isEqualTo(Arrays.toString(expected));
+                ephemeris.getState(i, t, scratch, state);
+                assertThat(Arrays.toString(state)).isEqualTo(Arrays.toString(expected));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.data.Offset;
+import org.junit.Test;
+
+public final class FootprintTest {
+
+    private static final double PRECISION = 0;
+
+    @Test
+    public void testMatchesRangeCircle() {
+        final Footprint footprint = new Footprint();
+        final double[] latLons = new double[2 * footprint.size()];
+        for (final double latDegrees : new double[] { -85, -52.5, 0, 10, 45,
+                80 }) {
+            for (final double lonDegrees : new double[] { 0, 10, 179.5, 270 }) {
+                for (final double altitude : new double[] { 400, 1000, 20000,
+                        35786 }) {
+                    final SatPos pos = new SatPos();
+                    pos.setLatitude(Math.toRadians(latDegrees));
+                    pos.setLongitude(Math.toRadians(lonDegrees));
+                    pos.setAltitude(altitude);
+                    checkMatches(pos, 1.0, footprint, latLons);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesRangeCircleWithLargerIncrement() {
+        final Footprint footprint = new Footprint(2.5, 0);
+        final double[] latLons = new double[2 * footprint.size()];
+        final SatPos pos = new SatPos();
+        pos.setLatitude(Math.toRadians(30));
+        pos.setLongitude(Math.toRadians(100));
+        pos.setAltitude(800);
+        checkMatches(pos, 2.5, footprint, latLons);
+    }
+
+    @Test
+    public void testRadiusReusedWithinAltitudeTolerance() {
+        final Footprint footprint = new Footprint(1.0, 10);
+        final double[] first = new double[2 * footprint.size()];
+        final double[] second = new double[2 * footprint.size()];
+        footprint.calculate(0.1, 0.2, 800, first);
+        footprint.calculate(0.1, 0.2, 805, second);
+        assertThat(second).containsExactly(first);
+        footprint.calculate(0.1, 0.2, 820, second);
+        assertThat(Arrays.equals(first, second)).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrayTooSmallThrows() {
+        new Footprint().calculate(0, 0, 800, new double[10]);
+    }
+
+    private static void checkMatches(final SatPos pos,
+            final double incrementDegrees, final Footprint footprint,
+            final double[] latLons) {
+        final List<Position> expected = pos.getRangeCircle(incrementDegrees);
+        assertThat(footprint.calculate(pos, latLons)).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(latLons[2 * i]).isEqualTo(expected.get(i).getLat(), Offset.offset(PRECISION));
+            assertThat(latLons[2 * i + 1]).isEqualTo(expected.get(i).getLon(), Offset.offset(PRECISION));
+        }
+    }
+
+}
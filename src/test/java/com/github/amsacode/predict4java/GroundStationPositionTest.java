@@ -77,4 +77,15 @@ public final class GroundStationPositionTest {
         assertThat(g.getHorizonElevation(1)).isEqualTo(14);
         assertThat(g.getHorizonElevation(35)).isEqualTo(16);
     }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        GroundStationPosition a = new GroundStationPosition(10, 11, 12, "boo");
+        GroundStationPosition b = new GroundStationPosition(10, 11, 12, "boo", new int[36]);
+        assertThat(a.equals(b)).isTrue();
+        assertThat(a.hashCode()).isEqualTo(b.hashCode());
+        assertThat(a.equals(new GroundStationPosition(10, 11, 12, "other"))).isFalse();
+        assertThat(a.equals(new GroundStationPosition(10, 11, 13, "boo"))).isFalse();
+        assertThat(a.equals(null)).isFalse();
+    }
 }
@@ -0,0 +1,156 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import org.assertj.core.data.Offset;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class GroundTrackGeneratorTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+    private static final long DAY_MILLIS = SECONDS_PER_DAY * 1000;
+
+    @Test
+    public void testEndPointsMatchGroundTrack() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final List<double[]> segments = new GroundTrackGenerator(satellite)
+                .generate(START, START + DAY_MILLIS);
+        final double[] first = segments.get(0);
+        final double[] last = segments.get(segments.size() - 1);
+        checkPosition(satellite, START, first[0], first[1]);
+        checkPosition(satellite, START + DAY_MILLIS, last[last.length - 2],
+                last[last.length - 1]);
+    }
+
+    @Test
+    public void testSegmentsSplitAtAntimeridian() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final List<double[]> segments = new GroundTrackGenerator(satellite)
+                .generate(START, START + DAY_MILLIS);
+        // a LEO satellite crosses the antimeridian about once per orbit
+        assertThat(segments.size()).isGreaterThanOrEqualTo(14);
+        for (int i = 0; i < segments.size(); i++) {
+            final double[] segment = segments.get(i);
+            assertThat(segment.length % 2).isEqualTo(0);
+            for (int j = 0; j < segment.length; j += 2) {
+                assertThat(segment[j]).isGreaterThanOrEqualTo(-180).isLessThanOrEqualTo(180);
+                assertThat(Math.abs(segment[j + 1])).isLessThanOrEqualTo(90);
+                if (j > 0) {
+                    assertThat(Math.abs(segment[j] - segment[j - 2])).isLessThan(180);
+                }
+            }
+            if (i > 0) {
+                final double[] previous = segments.get(i - 1);
+                assertThat(Math.abs(previous[previous.length - 2])).isEqualTo(180);
+                assertThat(segment[0]).isEqualTo(-previous[previous.length - 2]);
+                assertThat(segment[1]).isEqualTo(previous[previous.length - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testAdaptiveSamplingUsesFewerPointsThanFixedStep() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final List<double[]> segments = new GroundTrackGenerator(satellite,
+                0.05, 1000, 600000).generate(START, START + DAY_MILLIS);
+        int points = 0;
+        for (final double[] segment : segments) {
+            points += segment.length / 2;
+        }
+        // fewer than sampling every 30 seconds
+        assertThat(points).isLessThan((int) (DAY_MILLIS / 30000));
+    }
+
+    @Test
+    public void testTrackIsWithinToleranceOfPolyline() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final double tolerance = 0.05;
+        final long end = START + DAY_MILLIS / 4;
+        final List<double[]> segments = new GroundTrackGenerator(satellite,
+                tolerance, 1000, 600000).generate(START, end);
+        for (long t = START; t <= end; t += 10000) {
+            final SatPos pos = satellite.getPosition(GROUND_STATION,
+                    new Date(t));
+            final double lat = Math.toDegrees(pos.getLatitude());
+            double lon = Math.toDegrees(pos.getLongitude());
+            if (lon >= 180) {
+                lon -= 360;
+            }
+            // the pieces of a chord split at the antimeridian are on opposite
+            // sides of the map
+            final double distance = Math.min(
+                    distanceToPolylines(segments, lon, lat),
+                    distanceToPolylines(segments, lon + (lon < 0 ? 360 : -360),
+                            lat));
+            // the tolerance is only checked at the midpoint of each interval so
+            // allow a little more elsewhere
+            assertThat(distance).isLessThan(2 * tolerance);
+        }
+    }
+
+    @Test
+    public void testGeostationaryTrackIsSmall() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                GEOSYNC_TLE));
+        final List<double[]> segments = new GroundTrackGenerator(satellite)
+                .generate(START, START + DAY_MILLIS);
+        assertThat(segments.size()).isEqualTo(1);
+        final double[] segment = segments.get(0);
+        for (int j = 0; j < segment.length; j += 2) {
+            assertThat(Math.abs(segment[j + 1])).isLessThan(10);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEndBeforeStartThrows() {
+        new GroundTrackGenerator(SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE))).generate(START, START - 1);
+    }
+
+    private static void checkPosition(final Satellite satellite,
+            final long time, final double lon, final double lat) {
+        final SatPos pos = satellite.getPosition(GROUND_STATION, new Date(time));
+        double expectedLon = Math.toDegrees(pos.getLongitude());
+        if (expectedLon >= 180) {
+            expectedLon -= 360;
+        }
+        assertThat(lon).isEqualTo(expectedLon, Offset.offset(1e-9));
+        assertThat(lat).isEqualTo(Math.toDegrees(pos.getLatitude()), Offset.offset(1e-9));
+    }
+
+    private static double distanceToPolylines(final List<double[]> segments,
+            final double lon, final double lat) {
+        final double scale = Math.cos(Math.toRadians(lat));
+        double min = Double.MAX_VALUE;
+        for (final double[] segment : segments) {
+            for (int j = 2; j < segment.length; j += 2) {
+                final double ax = segment[j - 2] * scale;
+                final double ay = segment[j - 1];
+                final double bx = segment[j] * scale;
+                final double by = segment[j + 1];
+                final double px = lon * scale;
+                final double dx = bx - ax;
+                final double dy = by - ay;
+                final double lengthSquared = dx * dx + dy * dy;
+                double f = lengthSquared == 0 ? 0 : ((px - ax) * dx + (lat - ay)
+                        * dy)
+                        / lengthSquared;
+                f = Math.max(0, Math.min(1, f));
+                final double ex = ax + f * dx - px;
+                final double ey = ay + f * dy - lat;
+                min = Math.min(min, Math.sqrt(ex * ex + ey * ey));
+            }
+        }
+        return min;
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.assertj.core.data.Offset;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class InterpolatingTrackerTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+
+    @Test
+    public void testLeoErrorWithinEstimate() {
+        checkErrorWithinEstimate(LEO_TLE, 10000, 10.0);
+    }
+
+    @Test
+    public void testDeepSpaceErrorWithinEstimate() {
+        checkErrorWithinEstimate(DEEP_SPACE_TLE, 60000, 24.0);
+    }
+
+    @Test
+    public void testMolniyaErrorWithinEstimate() {
+        checkErrorWithinEstimate(MOLNIYA_TLE, 30000, 12.0);
+    }
+
+    @Test
+    public void testObservationsMatchGetPosition() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final InterpolatingTracker tracker = new InterpolatingTracker(
+                satellite, GROUND_STATION, 10000);
+        final double[] obs = new double[4];
+        for (long t = START; t < START + 600000; t += 20) {
+            tracker.calculateObs(t, obs);
+            if (t % 10000 == 4560) {
+                final SatPos pos = satellite.getPosition(GROUND_STATION,
+                        new Date(t));
+                assertThat(obs[0]).isEqualTo(pos.getAzimuth(), Offset.offset(1e-6));
+                assertThat(obs[1]).isEqualTo(pos.getElevation(), Offset.offset(1e-6));
+                assertThat(obs[2]).isEqualTo(pos.getRange(), Offset.offset(1e-3));
+                assertThat(obs[3]).isEqualTo(pos.getRangeRate(), Offset.offset(1e-4));
+            }
+        }
+    }
+
+    @Test
+    public void testCreatingTrackerDoesNotMoveSatellite() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final SatPos before = satellite.getPosition(GROUND_STATION, new Date(
+                START));
+        final double azimuth = before.getAzimuth();
+        final double range = before.getRange();
+        new InterpolatingTracker(satellite, GROUND_STATION, 10000);
+        // recalculated from the satellite's last propagated state
+        final SatPos after = satellite.calculateSatPosForGroundStation(
+                GROUND_STATION);
+        assertThat(after.getAzimuth()).isEqualTo(azimuth);
+        assertThat(after.getRange()).isEqualTo(range);
+    }
+
+    @Test
+    public void testWithMaxPositionErrorChoosesStepMeetingEstimate() {
+        final InterpolatingTracker tracker = InterpolatingTracker
+                .withMaxPositionError(SatelliteFactory
+                        .createSatellite(new TLE(LEO_TLE)), GROUND_STATION,
+                        0.01);
+        assertThat(tracker.getStepMillis()).isGreaterThanOrEqualTo(1000);
+        assertThat(tracker.getPositionErrorEstimateKm()).isLessThanOrEqualTo(0.01);
+    }
+
+    @Test
+    public void testBackwardsInTime() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final InterpolatingTracker tracker = new InterpolatingTracker(
+                satellite, GROUND_STATION, 10000);
+        final double[] state = new double[6];
+        final double[] direct = new double[6];
+        tracker.calculateSatelliteVectors(START + 60000, state);
+        tracker.calculateSatelliteVectors(START - 5, state);
+        AbstractSatellite.stateVectors(satellite)
+                .calculateSatelliteVectors(START - 5, direct);
+        assertThat(state[0]).isEqualTo(direct[0], Offset.offset(1e-3));
+        assertThat(state[4]).isEqualTo(direct[4], Offset.offset(1e-4));
+    }
+
+    private static void checkErrorWithinEstimate(final String[] tle,
+            final long stepMillis, final double hours) {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                tle));
+        final InterpolatingTracker tracker = new InterpolatingTracker(
+                satellite, GROUND_STATION, stepMillis);
+        final double[] state = new double[6];
+        final double[] direct = new double[6];
+        double maxError = 0;
+        for (long t = START; t < START + hours * 3600000; t += 997) {
+            tracker.calculateSatelliteVectors(t, state);
+            AbstractSatellite.stateVectors(satellite)
+                    .calculateSatelliteVectors(t, direct);
+            final double error = Math.sqrt(sqr(state[0] - direct[0])
+                    + sqr(state[1] - direct[1]) + sqr(state[2] - direct[2]));
+            maxError = Math.max(maxError, error);
+        }
+        assertThat(maxError).isLessThanOrEqualTo(tracker.getPositionErrorEstimateKm());
+    }
+
+    private static double sqr(final double x) {
+        return x * x;
+    }
+}
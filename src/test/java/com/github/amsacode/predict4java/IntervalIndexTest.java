@@ -0,0 +1,77 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public final class IntervalIndexTest {
+
+    @Test
+    public void testOverlapMatchesScan() {
+        final Random random = new Random(6);
+        for (final int n : new int[] { 0, 1, 2, 7, 8, 9, 100, 1000, 4097 }) {
+            for (final boolean inOrder : new boolean[] { true, false }) {
+                final IntervalIndex index = new IntervalIndex();
+                final long[] starts = new long[n];
+                final long[] ends = new long[n];
+                long time = 0;
+                for (int i = 0; i < n; i++) {
+                    time += random.nextInt(100);
+                    starts[i] = inOrder ? time : random.nextInt(100 * n + 1);
+                    ends[i] = starts[i] + random.nextInt(i % 50 == 0 ? 5000 : 300);
+                    index.add(starts[i], ends[i], i);
+                }
+                for (int q = 0; q < 200; q++) {
+                    final long from = random.nextInt(100 * n + 1000) - 500;
+                    final long to = from + (q % 2 == 0 ? 0 : random.nextInt(500));
+                    final List<Integer> found = new ArrayList<Integer>();
+                    index.overlap(from, to, found);
+                    final List<Integer> expected = new ArrayList<Integer>();
+                    for (int i = 0; i < n; i++) {
+                        if (starts[i] <= to && ends[i] >= from) {
+                            expected.add(i);
+                        }
+                    }
+                    assertThat(found.size()).isEqualTo(expected.size());
+                    assertThat(new HashSet<Integer>(found)).isEqualTo(new HashSet<Integer>(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOverlapIncludesEndpoints() {
+        final IntervalIndex index = new IntervalIndex();
+        index.add(10, 20, 0);
+        final List<Integer> found = new ArrayList<Integer>();
+        index.overlap(20, 30, found);
+        index.overlap(0, 10, found);
+        index.overlap(21, 30, found);
+        index.overlap(0, 9, found);
+        assertThat(found.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testAppendAfterQuery() {
+        final IntervalIndex index = new IntervalIndex();
+        index.add(100, 200, 0);
+        assertThat(index.firstStartAfter(100)).isEqualTo(-1);
+        index.add(50, 60, 1);
+        index.add(300, 400, 2);
+        assertThat(index.firstStartAfter(0)).isEqualTo(1);
+        assertThat(index.firstStartAfter(50)).isEqualTo(0);
+        assertThat(index.firstStartAfter(100)).isEqualTo(2);
+        final List<Integer> found = new ArrayList<Integer>();
+        index.overlap(55, 150, found);
+        assertThat(found.size()).isEqualTo(2);
+        index.clear();
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index.firstStartAfter(0)).isEqualTo(-1);
+    }
+
+}
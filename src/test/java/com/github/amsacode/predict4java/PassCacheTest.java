@@ -0,0 +1,123 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class PassCacheTest extends AbstractSatelliteTestBase {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final Date START = new DateTime("2009-01-05T00:00:00Z")
+            .toDate();
+
+    @Test
+    public void testRepeatedRequestIsCached() throws SatNotFoundException {
+        final PassCache cache = new PassCache(10, HOUR);
+        final TLE tle = new TLE(LEO_TLE);
+        final List<SatPassTime> passes = cache.getPasses(tle, GROUND_STATION,
+                START, at(24));
+        assertThat(passes.size()).isGreaterThan(3);
+        assertThat(cache.getPasses(tle, GROUND_STATION, START, at(24)).toString()).isEqualTo(passes.toString());
+        assertThat(cache.getPasses(tle, GROUND_STATION, passes.get(0).getEndTime(), at(24)).toString())
+                .isEqualTo(passes.subList(1, passes.size()).toString());
+        assertThat(cache.getComputeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOverlappingWindowExtends() throws SatNotFoundException {
+        final PassCache cache = new PassCache(10, HOUR);
+        final TLE tle = new TLE(LEO_TLE);
+        cache.getPasses(tle, GROUND_STATION, at(12), at(36));
+        final List<SatPassTime> passes = cache.getPasses(tle, GROUND_STATION,
+                START, at(48));
+        assertThat(cache.getComputeCount()).isEqualTo(3);
+        final List<SatPassTime> expected = new PassCache(10, HOUR).getPasses(
+                tle, GROUND_STATION, START, at(48));
+        assertThat(passes.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            // the searches start at different times so can differ by a step
+            assertThat(Math.abs(expected.get(i).getStartTime().getTime() - passes.get(i).getStartTime().getTime()))
+                    .isLessThanOrEqualTo(10000);
+            assertThat(Math.abs(expected.get(i).getEndTime().getTime() - passes.get(i).getEndTime().getTime()))
+                    .isLessThanOrEqualTo(10000);
+        }
+        for (int i = 1; i < passes.size(); i++) {
+            assertThat(passes.get(i).getStartTime()).isAfter(passes.get(i - 1).getEndTime());
+        }
+    }
+
+    @Test
+    public void testNewerElementSetReplacesEntry() throws SatNotFoundException {
+        final PassCache cache = new PassCache(10, HOUR);
+        final TLE newer = new TLE(new String[] { LEO_TLE[0],
+                LEO_TLE[1].replace("09105.66391970", "09106.66391970"),
+                LEO_TLE[2] });
+        cache.getPasses(new TLE(LEO_TLE), GROUND_STATION, START, at(24));
+        cache.getPasses(newer, GROUND_STATION, START, at(24));
+        cache.getPasses(newer, GROUND_STATION, START, at(24));
+        assertThat(cache.getComputeCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOlderElementSetDoesNotReplaceEntry()
+            throws SatNotFoundException {
+        final PassCache cache = new PassCache(10, HOUR);
+        final TLE newer = new TLE(new String[] { LEO_TLE[0],
+                LEO_TLE[1].replace("09105.66391970", "09106.66391970"),
+                LEO_TLE[2] });
+        cache.getPasses(newer, GROUND_STATION, START, at(24));
+        final List<SatPassTime> older = cache.getPasses(new TLE(LEO_TLE),
+                GROUND_STATION, START, at(24));
+        assertThat(older).isNotEmpty();
+        cache.getPasses(newer, GROUND_STATION, START, at(24));
+        assertThat(cache.getComputeCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testExpiredEntryIsPredictedAgain() throws SatNotFoundException {
+        final PassCache cache = new PassCache(10, 0);
+        final TLE tle = new TLE(LEO_TLE);
+        cache.getPasses(tle, GROUND_STATION, START, at(24));
+        final long t = System.currentTimeMillis();
+        while (System.currentTimeMillis() == t) {
+            Thread.yield();
+        }
+        cache.getPasses(tle, GROUND_STATION, START, at(24));
+        assertThat(cache.getComputeCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws SatNotFoundException {
+        final PassCache cache = new PassCache(2, HOUR);
+        final TLE tle = new TLE(LEO_TLE);
+        final GroundStationPosition a = new GroundStationPosition(52, -2, 0);
+        final GroundStationPosition b = new GroundStationPosition(40, -75, 0);
+        final GroundStationPosition c = new GroundStationPosition(-33, 151, 0);
+        cache.getPasses(tle, a, START, at(6));
+        cache.getPasses(tle, b, START, at(6));
+        cache.getPasses(tle, a, START, at(6));
+        cache.getPasses(tle, c, START, at(6));
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getComputeCount()).isEqualTo(3);
+        cache.getPasses(tle, a, START, at(6));
+        assertThat(cache.getComputeCount()).isEqualTo(3);
+        cache.getPasses(tle, b, START, at(6));
+        assertThat(cache.getComputeCount()).isEqualTo(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveSizeThrows() {
+        new PassCache(0, HOUR);
+    }
+
+    private static Date at(final int hours) {
+        return new Date(START.getTime() + hours * HOUR);
+    }
+
+}
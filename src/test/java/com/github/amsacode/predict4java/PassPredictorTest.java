@@ -29,8 +29,10 @@ package com.github.amsacode.predict4java;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
+import java.util.Date;
 import java.util.List;
 
+import org.assertj.core.data.Offset;
 import org.joda.time.DateTime;
 import org.junit.Test;
 
@@ -249,4 +251,56 @@ public final class PassPredictorTest extends AbstractSatelliteTestBase {
 
     }
 
+    @Test
+    public void testDopplerTableMatchesSinglePointFrequencies() throws Exception {
+        final PassPredictor passPredictor = new PassPredictor(new TLE(LEO_TLE),
+                GROUND_STATION);
+        final SatPassTime passTime = passPredictor.nextSatPass(new DateTime(
+                DATE_2009_01_05T04_30_00Z).toDate(), true);
+        final DopplerTable table = passPredictor.getDopplerTable(passTime,
+                5000, 145800000L, 436800000L);
+        assertThat(table.size()).isEqualTo(50);
+        assertThat(table.getTimes()[0]).isEqualTo(passTime.getStartTime().getTime());
+        assertThat(table.getTimes()[49]).isEqualTo(passTime.getEndTime().getTime());
+        assertThat(table.getDownlinkFreqs()[0]).isEqualTo(436802379L);
+        assertThat(table.getUplinkFreqs()[49]).isEqualTo(145800719L);
+    }
+
+    @Test
+    public void testDopplerTableInterpolatedIsCloseToPropagated() throws Exception {
+        final PassPredictor passPredictor = new PassPredictor(new TLE(LEO_TLE),
+                GROUND_STATION);
+        final SatPassTime passTime = passPredictor.nextSatPass(new DateTime(
+                DATE_2009_01_05T07_00_00Z).toDate());
+        final DopplerTable exact = passPredictor.getDopplerTable(passTime,
+                100, 145800000L, 436800000L);
+        final DopplerTable interpolated = passPredictor.getDopplerTable(
+                passTime, 100, 145800000L, 436800000L, 60000);
+        assertThat(interpolated.size()).isEqualTo(exact.size());
+        for (int i = 0; i < exact.size(); i++) {
+            assertThat(interpolated.getRangeRates()[i]).isEqualTo(exact.getRangeRates()[i], Offset.offset(1e-4));
+            assertThat(Math.abs(exact.getDownlinkFreqs()[i] - interpolated.getDownlinkFreqs()[i])).isLessThanOrEqualTo(1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDopplerTableRejectsPassEndingBeforeStart() throws Exception {
+        final PassPredictor passPredictor = new PassPredictor(new TLE(LEO_TLE),
+                GROUND_STATION);
+        final Date start = new DateTime(DATE_2009_01_05T07_00_00Z).toDate();
+        passPredictor.getDopplerTable(new SatPassTime(start, new Date(start
+                .getTime() - 1000), "none", 0, 0, 10), 100, 145800000L,
+                436800000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDopplerTableRejectsNonPositivePropagationStep()
+            throws Exception {
+        final PassPredictor passPredictor = new PassPredictor(new TLE(LEO_TLE),
+                GROUND_STATION);
+        final SatPassTime passTime = passPredictor.nextSatPass(new DateTime(
+                DATE_2009_01_05T07_00_00Z).toDate());
+        passPredictor.getDopplerTable(passTime, 100, 145800000L, 436800000L, 0);
+    }
+
 }
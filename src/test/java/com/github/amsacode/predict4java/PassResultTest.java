@@ -0,0 +1,128 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class PassResultTest extends AbstractSatelliteTestBase {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final Date START = new DateTime("2009-04-16T00:00:00Z")
+            .toDate();
+
+    /** AO-51 moved to a 5 degree inclination, never seen at 52 degrees. */
+    private static final String[] LOW_INCLINATION_TLE = {
+            "AO-51 LOW",
+            "1 28375U 04025K   09105.66391970  .00000003  00000-0  13761-4 0  3643",
+            "2 28375 005.0000 118.9086 0084159 315.8041 043.6444 14.40638450251959" };
+
+    /** AO-51 with a mean motion of zero. */
+    private static final String[] ZERO_MEAN_MOTION_TLE = {
+            "AO-51 ZERO",
+            "1 28375U 04025K   09105.66391970  .00000003  00000-0  13761-4 0  3643",
+            "2 28375 098.0551 118.9086 0084159 315.8041 043.6444 00.00000000251959" };
+
+    /**
+     * AO-51 with a mean motion of 1e-8 revolutions a day, valid but cannot be
+     * searched for passes.
+     */
+    private static final String[] TINY_MEAN_MOTION_TLE = {
+            "AO-51 TINY",
+            "1 28375U 04025K   09105.66391970  .00000003  00000-0  13761-4 0  3643",
+            "2 28375 098.0551 118.9086 0084159 315.8041 043.6444 00.00000001251959" };
+
+    @Test
+    public void testStatuses() throws SatNotFoundException {
+        final List<PassResult> results = PassPredictor.predictPasses(
+                Arrays.asList(new TLE(LEO_TLE), new TLE(LOW_INCLINATION_TLE),
+                        new TLE(ZERO_MEAN_MOTION_TLE)), GROUND_STATION, START,
+                24, false, new PassSearchBudget());
+        assertThat(results.size()).isEqualTo(3);
+
+        final PassResult visible = results.get(0);
+        assertThat(visible.getStatus()).isEqualTo(PassResult.Status.VISIBLE);
+        assertThat(visible.isVisible()).isTrue();
+        assertThat(visible.getReason()).isNull();
+        assertThat(visible.getPasses().toString())
+                .isEqualTo(new PassPredictor(new TLE(LEO_TLE), GROUND_STATION).getPasses(START, 24, false).toString());
+
+        assertThat(results.get(1).getStatus()).isEqualTo(PassResult.Status.NEVER_VISIBLE);
+        assertThat(results.get(1).isVisible()).isFalse();
+        assertThat(results.get(1).getReason()).isEqualTo(PassNotFoundException.Reason.NEVER_VISIBLE);
+        assertThat(results.get(1).getPasses()).isEmpty();
+
+        assertThat(results.get(2).getStatus()).isEqualTo(PassResult.Status.INVALID_TLE);
+        assertThat(results.get(2).getPasses()).isEmpty();
+    }
+
+    @Test
+    public void testPropagationFailureDoesNotStopCatalog() {
+        final List<PassResult> results = PassPredictor.predictPasses(
+                Arrays.asList(new TLE(TINY_MEAN_MOTION_TLE), new TLE(LEO_TLE)),
+                GROUND_STATION, START, 24, false, new PassSearchBudget());
+        assertThat(results.get(0).getStatus()).isEqualTo(PassResult.Status.PROPAGATION_FAILED);
+        assertThat(results.get(0).getError()).isInstanceOf(RuntimeException.class);
+        assertThat(results.get(0).getPasses()).isEmpty();
+        assertThat(results.get(1).getStatus()).isEqualTo(PassResult.Status.VISIBLE);
+        assertThat(results.get(1).getError()).isNull();
+    }
+
+    @Test
+    public void testBudgetExceeded() {
+        final List<PassResult> results = PassPredictor.predictPasses(
+                Arrays.asList(new TLE(LEO_TLE), new TLE(WEATHER_TLE)),
+                GROUND_STATION, START, 24, false, new PassSearchBudget(DAY, 10,
+                        Long.MAX_VALUE));
+        for (final PassResult result : results) {
+            assertThat(result.getStatus()).isEqualTo(PassResult.Status.BUDGET_EXCEEDED);
+            assertThat(result.getReason()).isEqualTo(PassNotFoundException.Reason.PROPAGATIONS);
+            assertThat(result.getPasses()).isEmpty();
+        }
+    }
+
+    @Test
+    public void testCancelled() {
+        final PassSearchBudget budget = new PassSearchBudget();
+        budget.cancel();
+        final PassResult result = PassPredictor.predictPasses(
+                Arrays.asList(new TLE(LEO_TLE)), GROUND_STATION, START, 24,
+                false, budget).get(0);
+        assertThat(result.getStatus()).isEqualTo(PassResult.Status.BUDGET_EXCEEDED);
+        assertThat(result.getReason()).isEqualTo(PassNotFoundException.Reason.CANCELLED);
+    }
+
+    @Test
+    public void testToString() {
+        final PassResult result = PassPredictor.predictPasses(
+                Arrays.asList(new TLE(LOW_INCLINATION_TLE)), GROUND_STATION,
+                START, 24, false, new PassSearchBudget()).get(0);
+        assertThat(result.toString()).isEqualTo(
+                "PassResult [catnum=28375, status=NEVER_VISIBLE, reason=NEVER_VISIBLE, passes=0]");
+    }
+
+    @Test
+    public void testConstructorThrowsStacklessNeverVisible()
+            throws SatNotFoundException {
+        try {
+            new PassPredictor(new TLE(LOW_INCLINATION_TLE), GROUND_STATION);
+            failBecauseExceptionWasNotThrown(PassNotFoundException.class);
+        } catch (final PassNotFoundException e) {
+            assertThat(e.getReason()).isEqualTo(PassNotFoundException.Reason.NEVER_VISIBLE);
+            assertThat(e.getCatnum()).isEqualTo(28375);
+            assertThat(e.getStackTrace()).isEmpty();
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullElementSetNotAllowed() {
+        PassPredictor.predictPasses(Arrays.asList((TLE) null), GROUND_STATION,
+                START, 24, false, new PassSearchBudget());
+    }
+
+}
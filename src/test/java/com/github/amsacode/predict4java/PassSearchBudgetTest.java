@@ -0,0 +1,144 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.util.Date;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class PassSearchBudgetTest extends AbstractSatelliteTestBase {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final Date START = new DateTime("2009-01-05T00:00:00Z")
+            .toDate();
+
+    @Test
+    public void testGeostationaryAlwaysVisibleStopsWithDefaultBudget()
+            throws SatNotFoundException {
+        // used to loop forever waiting for the satellite to set
+        final PassPredictor predictor = geostationaryAlwaysVisible();
+        try {
+            predictor.nextSatPass(START);
+            failBecauseExceptionWasNotThrown(PassNotFoundException.class);
+        } catch (final PassNotFoundException e) {
+            assertThat(e.getReason()).isEqualTo(PassNotFoundException.Reason.SEARCH_TIME);
+            assertThat(e.getCatnum()).isEqualTo(new TLE(GEOSYNC_TLE).getCatnum());
+            // a propagation a minute for 30 days
+            assertThat(Math.abs(PassSearchBudget.DEFAULT_MAX_SEARCH_MILLIS / 60000 - predictor.getIterationCount()))
+                    .isLessThanOrEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testSearchTime() throws SatNotFoundException {
+        assertReason(PassNotFoundException.Reason.SEARCH_TIME,
+                geostationaryAlwaysVisible(), new PassSearchBudget(DAY,
+                        Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPropagations() throws SatNotFoundException {
+        final PassPredictor predictor = new PassPredictor(new TLE(LEO_TLE),
+                GROUND_STATION);
+        assertReason(PassNotFoundException.Reason.PROPAGATIONS, predictor,
+                new PassSearchBudget(DAY, 10, Long.MAX_VALUE));
+        assertThat(predictor.getIterationCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void testTimeout() throws SatNotFoundException {
+        assertReason(PassNotFoundException.Reason.TIMEOUT,
+                geostationaryAlwaysVisible(), new PassSearchBudget(Long.MAX_VALUE,
+                        Long.MAX_VALUE, 0));
+    }
+
+    @Test
+    public void testCancelled() throws SatNotFoundException {
+        final PassSearchBudget budget = new PassSearchBudget();
+        budget.cancel();
+        assertThat(budget.isCancelled()).isTrue();
+        assertReason(PassNotFoundException.Reason.CANCELLED,
+                new PassPredictor(new TLE(LEO_TLE), GROUND_STATION), budget);
+    }
+
+    @Test
+    public void testInterrupted() throws SatNotFoundException {
+        Thread.currentThread().interrupt();
+        try {
+            assertReason(PassNotFoundException.Reason.CANCELLED,
+                    new PassPredictor(new TLE(LEO_TLE), GROUND_STATION),
+                    new PassSearchBudget());
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testGetPassesWithinBudgetUnchanged()
+            throws SatNotFoundException {
+        final TLE tle = new TLE(LEO_TLE);
+        final PassSearchBudget budget = new PassSearchBudget(DAY, 100000,
+                60000);
+        assertThat(new PassPredictor(tle, GROUND_STATION).getPasses(START, 24, false, budget).toString())
+                .isEqualTo(new PassPredictor(tle, GROUND_STATION).getPasses(START, 24, false).toString());
+    }
+
+    @Test
+    public void testGetPassesPropagationsAreForTheWholeCall()
+            throws SatNotFoundException {
+        final PassPredictor predictor = new PassPredictor(new TLE(LEO_TLE),
+                GROUND_STATION);
+        final int propagations = predictor.getPasses(START, 24, false)
+                .size() > 0 ? predictor.getIterationCount() : 0;
+        try {
+            predictor.getPasses(START, 24, false, new PassSearchBudget(DAY,
+                    propagations - 1, Long.MAX_VALUE));
+            failBecauseExceptionWasNotThrown(PassNotFoundException.class);
+        } catch (final PassNotFoundException e) {
+            assertThat(e.getReason()).isEqualTo(PassNotFoundException.Reason.PROPAGATIONS);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxSearchMillisMustBePositive() {
+        new PassSearchBudget(0, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxPropagationsMustBePositive() {
+        new PassSearchBudget(1, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTimeoutMustBeNonNegative() {
+        new PassSearchBudget(1, 1, -1);
+    }
+
+    /**
+     * The satellite drifts west by about 3 degrees a day, from a station 50
+     * degrees west of it it stays above 28 degrees elevation for a month.
+     */
+    private static PassPredictor geostationaryAlwaysVisible()
+            throws SatNotFoundException {
+        final TLE tle = new TLE(GEOSYNC_TLE);
+        final SatPos pos = SatelliteFactory.createSatellite(tle).getPosition(
+                GROUND_STATION, START);
+        return new PassPredictor(tle, new GroundStationPosition(0,
+                Math.toDegrees(pos.getLongitude()) - 50, 0));
+    }
+
+    private static void assertReason(final PassNotFoundException.Reason reason,
+            final PassPredictor predictor, final PassSearchBudget budget)
+            throws SatNotFoundException {
+        try {
+            predictor.nextSatPass(START, false, budget);
+            failBecauseExceptionWasNotThrown(PassNotFoundException.class);
+        } catch (final PassNotFoundException e) {
+            assertThat(e.getReason()).isEqualTo(reason);
+        }
+    }
+
+}
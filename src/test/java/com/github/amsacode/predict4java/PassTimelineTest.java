@@ -0,0 +1,115 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class PassTimelineTest extends AbstractSatelliteTestBase {
+
+    private static final Date START = new DateTime("2009-12-26T00:00:00Z")
+            .toDate();
+    private static final GroundStationPosition OTHER_STATION = new GroundStationPosition(
+            -33.9, 151.2, 20);
+    private static final long MINUTE = 60000;
+
+    @Test
+    public void testQueriesMatchScan() throws Exception {
+        final PassTimeline timeline = new PassTimeline();
+        final List<TimelinePass> all = new ArrayList<TimelinePass>();
+        for (final String[] tle : new String[][] { LEO_TLE, WEATHER_TLE }) {
+            for (final GroundStationPosition station : new GroundStationPosition[] {
+                    GROUND_STATION, OTHER_STATION }) {
+                final TLE t = new TLE(tle);
+                final List<SatPassTime> passes = new PassPredictor(t, station)
+                        .getPasses(START, 48, false);
+                assertThat(timeline.add(t, station, passes)).isEqualTo(passes.size());
+                for (final SatPassTime pass : passes) {
+                    all.add(new TimelinePass(t.getCatnum(), station, pass));
+                }
+            }
+        }
+        assertThat(timeline.size()).isEqualTo(all.size());
+        for (long time = START.getTime(); time < START.getTime() + 48 * 60
+                * MINUTE; time += 7 * MINUTE) {
+            for (final GroundStationPosition station : new GroundStationPosition[] {
+                    GROUND_STATION, OTHER_STATION }) {
+                assertThat(timeline.getPasses(station, time).size()).isEqualTo(scan(all, station, -1, time, time));
+                assertThat(timeline.getPasses(station, time, time + 90 * MINUTE).size())
+                        .isEqualTo(scan(all, station, -1, time, time + 90 * MINUTE));
+                final TimelinePass next = timeline.nextAos(station, time);
+                if (next != null) {
+                    assertThat(next.getStation()).isEqualTo(station);
+                    assertThat(next.getPass().getStartTime().getTime()).isGreaterThan(time);
+                }
+                for (final TimelinePass pass : all) {
+                    final long start = pass.getPass().getStartTime().getTime();
+                    if (pass.getStation().equals(station) && start > time) {
+                        assertThat(start).isGreaterThanOrEqualTo(next.getPass().getStartTime().getTime());
+                    }
+                }
+            }
+            final int catnum = new TLE(LEO_TLE).getCatnum();
+            assertThat(timeline.getPasses(catnum, time, time + 60 * MINUTE).size())
+                    .isEqualTo(scan(all, null, catnum, time, time + 60 * MINUTE));
+        }
+    }
+
+    @Test
+    public void testRollingWindowsAreNotDuplicated() throws Exception {
+        final TLE tle = new TLE(LEO_TLE);
+        final PassPredictor predictor = new PassPredictor(tle, GROUND_STATION);
+        final PassTimeline timeline = new PassTimeline();
+        final int first = timeline.add(tle, GROUND_STATION,
+                predictor.getPasses(START, 24, false));
+        final Date later = new Date(START.getTime() + 12 * 60 * MINUTE);
+        timeline.add(tle, GROUND_STATION, predictor.getPasses(later, 24, false));
+        final List<SatPassTime> expected = predictor.getPasses(START, 36,
+                false);
+        assertThat(first).isGreaterThan(0);
+        assertThat(timeline.size()).isEqualTo(expected.size());
+        final List<TimelinePass> passes = timeline.getPasses(GROUND_STATION,
+                START.getTime(), later.getTime() + 48 * 60 * MINUTE);
+        assertThat(passes.size()).isEqualTo(expected.size());
+        for (int i = 0; i < passes.size(); i++) {
+            assertThat(passes.get(i).getPass().getStartTime()).isEqualTo(expected.get(i).getStartTime());
+        }
+    }
+
+    @Test
+    public void testRemoveBefore() throws Exception {
+        final TLE tle = new TLE(LEO_TLE);
+        final PassTimeline timeline = new PassTimeline();
+        final List<SatPassTime> passes = new PassPredictor(tle, GROUND_STATION)
+                .getPasses(START, 24, false);
+        timeline.add(tle, GROUND_STATION, passes);
+        final SatPassTime third = passes.get(2);
+        timeline.removeBefore(third.getStartTime().getTime());
+        assertThat(timeline.size()).isEqualTo(passes.size() - 2);
+        assertThat(timeline.nextAos(0).getPass().getStartTime()).isEqualTo(third.getStartTime());
+        timeline.removeBefore(Long.MAX_VALUE);
+        assertThat(timeline.size()).isEqualTo(0);
+        assertThat(timeline.nextAos(0)).isNull();
+        assertThat(timeline.getPasses(GROUND_STATION, 0)).isEmpty();
+    }
+
+    private static int scan(final List<TimelinePass> all,
+            final GroundStationPosition station, final int catnum,
+            final long from, final long to) {
+        int count = 0;
+        for (final TimelinePass pass : all) {
+            if ((station == null || pass.getStation().equals(station))
+                    && (catnum < 0 || pass.getCatnum() == catnum)
+                    && pass.getPass().getStartTime().getTime() <= to
+                    && pass.getPass().getEndTime().getTime() >= from) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.assertj.core.data.Offset;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class PrecisionTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+
+    @Test
+    public void testExactIsMath() {
+        final Precision p = Precision.EXACT;
+        for (double a = -10; a < 10; a += 0.37) {
+            assertThat(p.sin(a)).isEqualTo(Math.sin(a));
+            assertThat(p.cos(a)).isEqualTo(Math.cos(a));
+            assertThat(p.atan(a)).isEqualTo(Math.atan(a));
+            assertThat(p.atan2(a, 1.3)).isEqualTo(Math.atan2(a, 1.3));
+            assertThat(p.asin(a / 10)).isEqualTo(Math.asin(a / 10));
+            assertThat(p.acos(a / 10)).isEqualTo(Math.acos(a / 10));
+        }
+    }
+
+    @Test
+    public void testFastFunctionsWithinMaxError() {
+        final Precision p = Precision.FAST;
+        final double max = Precision.FAST_MAX_ERROR;
+        final Random random = new Random(1);
+        for (int i = 0; i < 1000000; i++) {
+            final double a = (random.nextDouble() - 0.5) * 2000;
+            assertThat(p.sin(a)).isEqualTo(Math.sin(a), Offset.offset(max));
+            assertThat(p.cos(a)).isEqualTo(Math.cos(a), Offset.offset(max));
+            final double y = (random.nextDouble() - 0.5) * 20;
+            final double x = (random.nextDouble() - 0.5) * 20;
+            assertThat(p.atan(y)).isEqualTo(Math.atan(y), Offset.offset(max));
+            assertThat(p.atan2(y, x)).isEqualTo(Math.atan2(y, x), Offset.offset(max));
+            final double u = random.nextDouble() * 2 - 1;
+            assertThat(p.asin(u)).isEqualTo(Math.asin(u), Offset.offset(max));
+            assertThat(p.acos(u)).isEqualTo(Math.acos(u), Offset.offset(max));
+        }
+    }
+
+    @Test
+    public void testFastSpecialValues() {
+        final Precision p = Precision.FAST;
+        assertThat(p.sin(0)).isEqualTo(0.0);
+        assertThat(p.cos(0)).isEqualTo(1.0);
+        assertThat(p.atan2(0, -1)).isEqualTo(Math.PI);
+        assertThat(p.atan2(-1, 0)).isEqualTo(-Math.PI / 2);
+        assertThat(p.atan(Double.POSITIVE_INFINITY)).isEqualTo(Math.PI / 2);
+        assertThat(p.asin(1)).isEqualTo(Math.PI / 2);
+        assertThat(p.acos(-1)).isEqualTo(Math.PI);
+        assertThat(p.sin(Double.NaN)).isNaN();
+        assertThat(p.atan2(Double.NaN, 1)).isNaN();
+        assertThat(p.asin(1.5)).isNaN();
+        assertThat(p.acos(-1.5)).isNaN();
+    }
+
+    @Test
+    public void testFastSatellitesCloseToExact() {
+        for (final String[] lines : new String[][] { LEO_TLE, DE_ORBIT_TLE,
+                DEEP_SPACE_TLE, GEOSYNC_TLE, MOLNIYA_TLE }) {
+            final TLE tle = new TLE(lines);
+            final Satellite exact = SatelliteFactory.createSatellite(tle);
+            final Satellite fast = SatelliteFactory.createSatellite(tle,
+                    Precision.FAST);
+            final double[] a = new double[6];
+            final double[] b = new double[6];
+            for (long t = START; t < START + 24 * 3600 * 1000L; t += 7 * 60 * 1000L) {
+                AbstractSatellite.stateVectors(exact)
+                        .calculateSatelliteVectors(t, a);
+                AbstractSatellite.stateVectors(fast)
+                        .calculateSatelliteVectors(t, b);
+                for (int i = 0; i < 6; i++) {
+                    assertThat(b[i]).isEqualTo(a[i], Offset.offset(1E-4));
+                }
+                final SatPos p = exact.getPosition(GROUND_STATION, new Date(t));
+                final SatPos q = fast.getPosition(GROUND_STATION, new Date(t));
+                assertThat(q.getElevation()).isEqualTo(p.getElevation(), Offset.offset(1E-7));
+                assertThat(angle(p.getAzimuth(), q.getAzimuth())).isEqualTo(0, Offset.offset(1E-7));
+                assertThat(q.getLatitude()).isEqualTo(p.getLatitude(), Offset.offset(1E-7));
+                assertThat(angle(p.getLongitude(), q.getLongitude())).isEqualTo(0, Offset.offset(1E-7));
+                assertThat(q.getAltitude()).isEqualTo(p.getAltitude(), Offset.offset(1E-4));
+                assertThat(q.getRange()).isEqualTo(p.getRange(), Offset.offset(1E-4));
+            }
+        }
+    }
+
+    @Test
+    public void testFastSecularSatelliteCloseToExact() {
+        final TLE tle = new TLE(LEO_TLE);
+        final Satellite exact = new SecularSatellite(tle);
+        final Satellite fast = new SecularSatellite(tle, Precision.FAST);
+        final double[] a = new double[6];
+        final double[] b = new double[6];
+        for (long t = START; t < START + 24 * 3600 * 1000L; t += 7 * 60 * 1000L) {
+            AbstractSatellite.stateVectors(exact)
+                    .calculateSatelliteVectors(t, a);
+            AbstractSatellite.stateVectors(fast)
+                    .calculateSatelliteVectors(t, b);
+            for (int i = 0; i < 6; i++) {
+                assertThat(b[i]).isEqualTo(a[i], Offset.offset(1E-4));
+            }
+        }
+    }
+
+    @Test
+    public void testFastRangeCircleCloseToExact() {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        for (long t = START; t < START + 6 * 3600 * 1000L; t += 17 * 60 * 1000L) {
+            final SatPos pos = satellite.getPosition(GROUND_STATION,
+                    new Date(t));
+            final List<Position> exact = pos.getRangeCircle(1.0);
+            final List<Position> fast = pos.getRangeCircle(1.0,
+                    Precision.FAST);
+            assertThat(fast.size()).isEqualTo(exact.size());
+            for (int i = 0; i < exact.size(); i++) {
+                assertThat(fast.get(i).getLat()).isEqualTo(exact.get(i).getLat(), Offset.offset(1E-6));
+                if (Math.abs(exact.get(i).getLat()) > 60) {
+                    // circles over a pole switch to the far side of the pole
+                    // at slightly different points
+                    continue;
+                }
+                // where the circle turns east-west the longitude is the acos of
+                // a value close to 1 so an error e in it is sqrt(2e)
+                assertThat(angle(Math.toRadians(exact.get(i).getLon()), Math.toRadians(fast.get(i).getLon())))
+                        .isEqualTo(0, Offset.offset(1E-4));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFactoryNullPrecision() {
+        SatelliteFactory.createSatellite(new TLE(LEO_TLE), null);
+    }
+
+    private static double angle(final double a, final double b) {
+        final double d = Math.abs(a - b) % (2 * Math.PI);
+        return Math.min(d, 2 * Math.PI - d);
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class RegionMonitorTest extends AbstractSatelliteTestBase {
+
+    private static final long TIME = new DateTime("2009-12-27T04:00:00Z")
+            .getMillis();
+    private static final long STEP = 30000;
+
+    private static final List<Region> REGIONS = Arrays.asList(
+            Region.box("uk", 50, -6, 59, 2),
+            Region.box("pacific", -30, 160, 30, -160),
+            Region.box("small", 10.2, 20.3, 10.9, 20.8),
+            Region.box("south", -80, -60, -50, 60),
+            Region.polygon("triangle", Arrays.asList(new Position(0, 0),
+                    new Position(0, 40), new Position(40, 0))),
+            Region.polygon("fiji", Arrays.asList(new Position(-40, 150),
+                    new Position(-40, -150), new Position(0, -170),
+                    new Position(-10, 175))));
+
+    @Test
+    public void testEventsMatchGroundTrack() {
+        for (final double cellDegrees : new double[] { 1, 5, 0.5 }) {
+            final List<Satellite> catalog = catalog();
+            final RegionMonitor monitor = new RegionMonitor(catalog,
+                    cellDegrees);
+            final List<Recorder> recorders = new ArrayList<Recorder>();
+            for (final Region region : REGIONS) {
+                final Recorder recorder = new Recorder();
+                monitor.subscribe(region, recorder);
+                recorders.add(recorder);
+            }
+            int events = 0;
+            for (int step = 0; step < 120; step++) {
+                final long time = TIME + step * STEP;
+                monitor.update(time);
+                for (int r = 0; r < REGIONS.size(); r++) {
+                    final Set<Satellite> expected = bruteForce(catalog,
+                            REGIONS.get(r), time);
+                    assertThat(recorders.get(r).inside.keySet()).isEqualTo(expected);
+                    assertThat(new HashSet<Satellite>(monitor.getSatellites(REGIONS.get(r)))).isEqualTo(expected);
+                    events += recorders.get(r).events;
+                }
+            }
+            assertThat(events).isGreaterThan(100);
+        }
+    }
+
+    @Test
+    public void testSubscribeAfterUpdateEntersSatellitesAlreadyInside() {
+        final List<Satellite> catalog = catalog();
+        final RegionMonitor monitor = new RegionMonitor(catalog);
+        monitor.update(TIME);
+        final Region region = Region.box("north", 0, -180, 90, 179);
+        final Recorder recorder = new Recorder();
+        monitor.subscribe(region, recorder);
+        assertThat(recorder.inside.keySet()).isEqualTo(bruteForce(catalog, region, TIME));
+        assertThat(recorder.inside).isNotEmpty();
+    }
+
+    @Test
+    public void testCancel() {
+        final List<Satellite> catalog = catalog();
+        final RegionMonitor monitor = new RegionMonitor(catalog);
+        final Recorder recorder = new Recorder();
+        final RegionSubscription subscription = monitor.subscribe(
+                REGIONS.get(4), recorder);
+        assertThat(subscription.getRegion()).isEqualTo(REGIONS.get(4));
+        monitor.update(TIME);
+        subscription.cancel();
+        subscription.cancel();
+        final int events = recorder.events;
+        for (int step = 1; step < 60; step++) {
+            monitor.update(TIME + step * STEP);
+        }
+        assertThat(recorder.events).isEqualTo(events);
+    }
+
+    @Test
+    public void testListenerCanCancelDuringUpdate() {
+        final List<Satellite> catalog = catalog();
+        final RegionMonitor monitor = new RegionMonitor(catalog);
+        final Recorder recorder = new Recorder();
+        final RegionSubscription[] subscription = new RegionSubscription[1];
+        subscription[0] = monitor.subscribe(Region.box("all", -90, -180, 90,
+                179.9), new RegionListener() {
+            @Override
+            public void onEnter(final Region region,
+                    final Satellite satellite, final long timeMillis) {
+                recorder.onEnter(region, satellite, timeMillis);
+                subscription[0].cancel();
+            }
+
+            @Override
+            public void onExit(final Region region,
+                    final Satellite satellite, final long timeMillis) {
+                recorder.onExit(region, satellite, timeMillis);
+            }
+        });
+        monitor.update(TIME);
+        monitor.update(TIME + STEP);
+        assertThat(recorder.events).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCellDegreesMustDivide180() {
+        new RegionMonitor(catalog(), 7);
+    }
+
+    private static final class Recorder implements RegionListener {
+
+        final Map<Satellite, Long> inside = new IdentityHashMap<Satellite, Long>();
+        int events;
+
+        @Override
+        public void onEnter(final Region region, final Satellite satellite,
+                final long timeMillis) {
+            assertThat(inside.put(satellite, timeMillis)).isNull();
+            events++;
+        }
+
+        @Override
+        public void onExit(final Region region, final Satellite satellite,
+                final long timeMillis) {
+            assertThat(inside.remove(satellite)).isNotNull();
+            events++;
+        }
+
+    }
+
+    private static Set<Satellite> bruteForce(final List<Satellite> catalog,
+            final Region region, final long time) {
+        final Set<Satellite> set = new HashSet<Satellite>();
+        for (final Satellite satellite : catalog) {
+            satellite.calculateSatelliteVectors(new Date(time));
+            final SatPos pos = satellite.calculateSatelliteGroundTrack();
+            if (region.contains(Math.toDegrees(pos.getLatitude()),
+                    Math.toDegrees(pos.getLongitude()))) {
+                set.add(satellite);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * The test satellites and 120 copies of the LEO satellite spread over
+     * the right ascension of the node and mean anomaly.
+     */
+    private static List<Satellite> catalog() {
+        final List<Satellite> list = new ArrayList<Satellite>();
+        for (final String[] tle : new String[][] { LEO_TLE, DEEP_SPACE_TLE,
+                GEOSYNC_TLE, MOLNIYA_TLE, WEATHER_TLE, DE_ORBIT_TLE }) {
+            list.add(SatelliteFactory.createSatellite(new TLE(tle)));
+        }
+        for (int i = 0; i < 12; i++) {
+            for (int j = 0; j < 10; j++) {
+                final String line2 = LEO_TLE[2].substring(0, 17)
+                        + String.format(Locale.ENGLISH, "%08.4f", i * 30.0)
+                        + LEO_TLE[2].substring(25, 43)
+                        + String.format(Locale.ENGLISH, "%08.4f", j * 36.0)
+                        + LEO_TLE[2].substring(51);
+                list.add(SatelliteFactory.createSatellite(new TLE(
+                        new String[] { LEO_TLE[0], LEO_TLE[1], line2 })));
+            }
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public final class RegionTest {
+
+    @Test
+    public void testBoxContains() {
+        final Region box = Region.box("uk", 50, -6, 59, 2);
+        assertThat(box.contains(52.467, -2.022)).isTrue();
+        assertThat(box.contains(52.467, 357.978)).isTrue();
+        assertThat(box.contains(52.467, 3)).isFalse();
+        assertThat(box.contains(49, 0)).isFalse();
+        assertThat(box.getName()).isEqualTo("uk");
+    }
+
+    @Test
+    public void testBoxAcrossAntimeridian() {
+        final Region box = Region.box("pacific", -10, 170, 10, -170);
+        assertThat(box.contains(0, 180)).isTrue();
+        assertThat(box.contains(0, -175)).isTrue();
+        assertThat(box.contains(0, 175)).isTrue();
+        assertThat(box.contains(0, 185)).isTrue();
+        assertThat(box.contains(0, 160)).isFalse();
+        assertThat(box.contains(0, -160)).isFalse();
+    }
+
+    @Test
+    public void testPolygonContains() {
+        final Region triangle = Region.polygon("triangle", Arrays.asList(
+                new Position(0, 0), new Position(0, 10), new Position(10, 0)));
+        assertThat(triangle.contains(2, 2)).isTrue();
+        assertThat(triangle.contains(6, 6)).isFalse();
+        assertThat(triangle.contains(-1, 2)).isFalse();
+    }
+
+    @Test
+    public void testPolygonAcrossAntimeridian() {
+        final Region polygon = Region.polygon("fiji", Arrays.asList(
+                new Position(-20, 175), new Position(-20, -178),
+                new Position(-15, -178), new Position(-15, 175)));
+        assertThat(polygon.contains(-17, 179)).isTrue();
+        assertThat(polygon.contains(-17, -179)).isTrue();
+        assertThat(polygon.contains(-17, 170)).isFalse();
+    }
+
+    @Test
+    public void testClassify() {
+        final Region box = Region.box("box", 10, 10, 20, 20);
+        assertThat(box.classify(12, 12, 13, 13)).isEqualTo(Region.INSIDE);
+        assertThat(box.classify(9, 12, 11, 13)).isEqualTo(Region.PARTIAL);
+        assertThat(box.classify(0, 0, 30, 30)).isEqualTo(Region.PARTIAL);
+        assertThat(box.classify(30, 12, 31, 13)).isEqualTo(Region.OUTSIDE);
+        final Region triangle = Region.polygon("triangle", Arrays.asList(
+                new Position(0, 0), new Position(0, 10), new Position(10, 0)));
+        // inside the bounding box but beyond the hypotenuse
+        assertThat(triangle.classify(8, 8, 9, 9)).isEqualTo(Region.OUTSIDE);
+        assertThat(triangle.classify(1, 1, 2, 2)).isEqualTo(Region.INSIDE);
+        assertThat(triangle.classify(4, 4, 6, 6)).isEqualTo(Region.PARTIAL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMustSpanLessThan360Degrees() {
+        Region.box("band", -10, -180, 10, 180);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPolygonNeedsThreeVertices() {
+        Region.polygon("line", Arrays.asList(new Position(0, 0), new Position(
+                1, 1)));
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class SGP4BatchTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+
+    @Test
+    public void testMatchesSatellites() {
+        // the de-orbiting satellite has its simple flag set
+        final List<TLE> tles = Arrays.asList(new TLE(LEO_TLE), new TLE(
+                WEATHER_TLE), new TLE(DE_ORBIT_TLE));
+        final SGP4Batch batch = new SGP4Batch(tles);
+        assertThat(batch.size()).isEqualTo(3);
+        final List<Satellite> satellites = new ArrayList<Satellite>();
+        for (final TLE tle : tles) {
+            satellites.add(SatelliteFactory.createSatellite(tle));
+        }
+        final double[] states = new double[6 * tles.size()];
+        final double[] state = new double[6];
+        for (long t = START; t < START + 3 * 24 * 3600 * 1000L; t += 997 * 60 * 1000L) {
+            batch.propagate(t, states);
+            for (int i = 0; i < satellites.size(); i++) {
+                AbstractSatellite.stateVectors(satellites.get(i))
+                        .calculateSatelliteVectors(t, state);
+                for (int j = 0; j < 6; j++) {
+                    assertThat(states[6 * i + j]).isEqualTo(state[j]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeepSpaceThrows() {
+        new SGP4Batch(Arrays.asList(new TLE(LEO_TLE), new TLE(DEEP_SPACE_TLE)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortArrayThrows() {
+        new SGP4Batch(Arrays.asList(new TLE(LEO_TLE))).propagate(START,
+                new double[5]);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class SGP4StoreTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+
+    @Test
+    public void testViewMatchesSatellites() {
+        // the de-orbiting satellite has its simple flag set
+        final List<TLE> tles = Arrays.asList(new TLE(LEO_TLE), new TLE(
+                WEATHER_TLE), new TLE(DE_ORBIT_TLE));
+        final SGP4Store store = new SGP4Store(tles);
+        assertThat(store.size()).isEqualTo(3);
+        final SGP4Store.View view = store.view();
+        final double[] expected = new double[6];
+        final double[] state = new double[6];
+        for (int i = 0; i < tles.size(); i++) {
+            final Satellite satellite = SatelliteFactory.createSatellite(tles
+                    .get(i));
+            assertThat(view.at(i).index()).isEqualTo(i);
+            assertThat(store.getCatnum(i)).isEqualTo(tles.get(i).getCatnum());
+            for (long t = START; t < START + 3 * 24 * 3600 * 1000L; t += 997 * 60 * 1000L) {
+                AbstractSatellite.stateVectors(satellite)
+                        .calculateSatelliteVectors(t, expected);
+                view.calculateSatelliteVectors(t, state);
+                for (int j = 0; j < 6; j++) {
+                    assertThat(state[j]).isEqualTo(expected[j]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeepSpaceThrows() {
+        new SGP4Store(Arrays.asList(new TLE(LEO_TLE), new TLE(DEEP_SPACE_TLE)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndexOutOfRangeThrows() {
+        new SGP4Store(Arrays.asList(new TLE(LEO_TLE))).view().at(1);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class SecularSatelliteTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+
+    @Test
+    public void testNearEarthWithinEnvelope() {
+        assertWithin(LEO_TLE, 20);
+        assertWithin(WEATHER_TLE, 20);
+        // the de-orbiting satellite has its simple flag set
+        assertWithin(DE_ORBIT_TLE, 20);
+    }
+
+    @Test
+    public void testDeepSpaceWithinEnvelope() {
+        assertWithin(GEOSYNC_TLE, 25);
+        assertWithin(MOLNIYA_TLE, 65);
+        assertWithin(DEEP_SPACE_TLE, 750);
+    }
+
+    @Test
+    public void testFactory() {
+        final Satellite satellite = SatelliteFactory
+                .createSecularSatellite(new TLE(LEO_TLE));
+        assertThat(satellite).isInstanceOf(SecularSatellite.class);
+        assertThat(satellite.getTLE().getCatnum()).isEqualTo(28375);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFactoryNullTle() {
+        SatelliteFactory.createSecularSatellite(null);
+    }
+
+    private static void assertWithin(final String[] lines, final double km) {
+        final TLE tle = new TLE(lines);
+        final Satellite full = SatelliteFactory.createSatellite(tle);
+        final Satellite secular = new SecularSatellite(tle);
+        final double[] a = new double[6];
+        final double[] b = new double[6];
+        for (long t = START; t < START + 7 * 24 * 3600 * 1000L; t += 7 * 60 * 1000L) {
+            AbstractSatellite.stateVectors(full)
+                    .calculateSatelliteVectors(t, a);
+            AbstractSatellite.stateVectors(secular)
+                    .calculateSatelliteVectors(t, b);
+            final double distance = Math.sqrt(sqr(a[0] - b[0])
+                    + sqr(a[1] - b[1]) + sqr(a[2] - b[2]));
+            assertThat(distance).as(tle.getName() + " " + distance + "km").isLessThan(km);
+        }
+    }
+
+    private static double sqr(final double x) {
+        return x * x;
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.assertj.core.data.Offset;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class SkyQueryTest extends AbstractSatelliteTestBase {
+
+    private static final long TIME = new DateTime("2009-12-27T04:00:00Z")
+            .getMillis();
+
+    private static final GroundStationPosition[] STATIONS = {
+            GROUND_STATION, new GroundStationPosition(0, 0, 0),
+            new GroundStationPosition(89.9, 10, 0),
+            new GroundStationPosition(-60, 179.9, 0),
+            new GroundStationPosition(20, -179.9, 3000),
+            new GroundStationPosition(-33.9, 151.2, 50) };
+
+    @Test
+    public void testSameAsGetPositionOfEverySatellite() {
+        final List<Satellite> catalog = catalog();
+        for (final double minElevation : new double[] { 0, 10 }) {
+            final SkyQuery query = new SkyQuery(catalog, minElevation);
+            for (int step = 0; step < 6; step++) {
+                final long time = TIME + step * 17 * 60 * 1000L;
+                query.update(time);
+                assertThat(query.getTimeMillis()).isEqualTo(time);
+                for (final GroundStationPosition station : STATIONS) {
+                    final List<SkyPosition> expected = bruteForce(catalog,
+                            station, time, minElevation);
+                    final List<SkyPosition> actual = query.query(station);
+                    assertThat(actual.size()).isEqualTo(expected.size());
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertThat(actual.get(i).getTLE()).isSameAs(expected.get(i).getTLE());
+                        assertThat(actual.get(i).getAzimuth())
+                                .isEqualTo(expected.get(i).getAzimuth(), Offset.offset(1e-9));
+                        assertThat(actual.get(i).getElevation())
+                                .isEqualTo(expected.get(i).getElevation(), Offset.offset(1e-9));
+                        assertThat(actual.get(i).getRange()).isEqualTo(expected.get(i).getRange(), Offset.offset(1e-6));
+                        assertThat(actual.get(i).getRangeRate())
+                                .isEqualTo(expected.get(i).getRangeRate(), Offset.offset(1e-9));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHighestFirst() {
+        final SkyQuery query = new SkyQuery(catalog(), 0);
+        query.update(TIME);
+        final List<SkyPosition> list = query.query(GROUND_STATION);
+        assertThat(list.isEmpty()).isFalse();
+        for (int i = 1; i < list.size(); i++) {
+            assertThat(list.get(i - 1).getElevation()).isGreaterThanOrEqualTo(list.get(i).getElevation());
+        }
+    }
+
+    @Test
+    public void testEmptyCatalog() {
+        final SkyQuery query = new SkyQuery(new ArrayList<Satellite>(), 0);
+        query.update(TIME);
+        assertThat(query.query(GROUND_STATION)).isEmpty();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQueryBeforeUpdate() {
+        new SkyQuery(catalog(), 0).query(GROUND_STATION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinElevationMustBeBelow90() {
+        new SkyQuery(catalog(), 90);
+    }
+
+    /**
+     * The test satellites and 120 copies of the LEO satellite spread over
+     * the right ascension of the node and mean anomaly.
+     */
+    private static List<Satellite> catalog() {
+        final List<Satellite> list = new ArrayList<Satellite>();
+        for (final String[] tle : new String[][] { LEO_TLE, DEEP_SPACE_TLE,
+                GEOSYNC_TLE, MOLNIYA_TLE, WEATHER_TLE, DE_ORBIT_TLE }) {
+            list.add(SatelliteFactory.createSatellite(new TLE(tle)));
+        }
+        for (int i = 0; i < 12; i++) {
+            for (int j = 0; j < 10; j++) {
+                final String line2 = LEO_TLE[2].substring(0, 17)
+                        + String.format(Locale.ENGLISH, "%08.4f", i * 30.0)
+                        + LEO_TLE[2].substring(25, 43)
+                        + String.format(Locale.ENGLISH, "%08.4f", j * 36.0)
+                        + LEO_TLE[2].substring(51);
+                list.add(SatelliteFactory.createSatellite(new TLE(
+                        new String[] { LEO_TLE[0], LEO_TLE[1], line2 })));
+            }
+        }
+        return list;
+    }
+
+    private static List<SkyPosition> bruteForce(
+            final List<Satellite> catalog,
+            final GroundStationPosition station, final long time,
+            final double minElevation) {
+        final List<SkyPosition> list = new ArrayList<SkyPosition>();
+        for (final Satellite satellite : catalog) {
+            final SatPos pos = satellite.getPosition(station, new Date(time));
+            if (pos.getElevation() >= Math.toRadians(minElevation)) {
+                list.add(new SkyPosition(satellite.getTLE(), pos.getAzimuth(),
+                        pos.getElevation(), pos.getRange(), pos
+                                .getRangeRate()));
+            }
+        }
+        Collections.sort(list, new Comparator<SkyPosition>() {
+            @Override
+            public int compare(final SkyPosition a, final SkyPosition b) {
+                return Double.compare(b.getElevation(), a.getElevation());
+            }
+        });
+        return list;
+    }
+
+}
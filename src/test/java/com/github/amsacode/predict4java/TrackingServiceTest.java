@@ -0,0 +1,302 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.data.Offset;
+import org.junit.Test;
+
+public final class TrackingServiceTest extends AbstractSatelliteTestBase {
+
+    @Test
+    public void testSamplesMatchPositionAtTickTime() throws InterruptedException {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final TrackingService service = new TrackingService();
+        final RecordingSubscriber subscriber = new RecordingSubscriber(3);
+        service.subscribe(satellite, GROUND_STATION, 50, subscriber).request(3);
+        assertThat(subscriber.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        service.shutdown();
+
+        assertThat(subscriber.samples.size()).isEqualTo(3);
+        final TrackingSample sample = subscriber.samples.get(0);
+        assertThat(sample.getTime() % 50).isEqualTo(0);
+        assertThat(sample.getCatnum()).isEqualTo(28375);
+        final SatPos pos = satellite.getPosition(GROUND_STATION,
+                new Date(sample.getTime()));
+        assertThat(sample.getAzimuth()).isEqualTo(pos.getAzimuth(), Offset.offset(1e-9));
+        assertThat(sample.getElevation()).isEqualTo(pos.getElevation(), Offset.offset(1e-9));
+        assertThat(sample.getRange()).isEqualTo(pos.getRange(), Offset.offset(1e-6));
+        assertThat(sample.getRangeRate()).isEqualTo(pos.getRangeRate(), Offset.offset(1e-9));
+        assertThat(subscriber.samples.get(1).getTime()).isGreaterThan(sample.getTime());
+        assertThat(subscriber.errors).isEmpty();
+    }
+
+    @Test
+    public void testIdenticalSubscriptionsShareOnePropagationPerTick()
+            throws InterruptedException {
+        final CountingSatellite satellite = new CountingSatellite(
+                SatelliteFactory.createSatellite(new TLE(LEO_TLE)));
+        final TrackingService service = new TrackingService();
+        final RecordingSubscriber a = new RecordingSubscriber(5);
+        final RecordingSubscriber b = new RecordingSubscriber(5);
+        service.subscribe(satellite, GROUND_STATION, 20, a).request(
+                Long.MAX_VALUE);
+        service.subscribe(satellite,
+                new GroundStationPosition(52.4670, -2.022, 200), 20, b)
+                .request(Long.MAX_VALUE);
+        assertThat(service.getGroupCount()).isEqualTo(1);
+        assertThat(a.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(b.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        service.shutdown();
+
+        final int ticks = Math.max(a.samples.size(), b.samples.size());
+        assertThat(satellite.count.get()).isLessThanOrEqualTo(ticks + 1);
+        assertThat(service.getGroupCount()).isEqualTo(0);
+        assertThat(a.completion.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(a.errors).isEmpty();
+        assertThat(b.errors).isEmpty();
+    }
+
+    @Test
+    public void testSecularAndFullModelsDoNotShareAGroup() {
+        final TLE tle = new TLE(LEO_TLE);
+        final TrackingService service = new TrackingService();
+        final RecordingSubscriber a = new RecordingSubscriber(1);
+        final RecordingSubscriber b = new RecordingSubscriber(1);
+        service.subscribe(SatelliteFactory.createSatellite(tle),
+                GROUND_STATION, 1000, a);
+        service.subscribe(SatelliteFactory.createSecularSatellite(tle),
+                GROUND_STATION, 1000, b);
+        assertThat(service.getGroupCount()).isEqualTo(2);
+        service.shutdown();
+    }
+
+    @Test
+    public void testPrecisionsDoNotShareAGroup() {
+        final TLE tle = new TLE(LEO_TLE);
+        final TrackingService service = new TrackingService();
+        final RecordingSubscriber a = new RecordingSubscriber(1);
+        final RecordingSubscriber b = new RecordingSubscriber(1);
+        final RecordingSubscriber c = new RecordingSubscriber(1);
+        service.subscribe(
+                SatelliteFactory.createSatellite(tle, Precision.EXACT),
+                GROUND_STATION, 1000, a);
+        service.subscribe(
+                SatelliteFactory.createSatellite(tle, Precision.FAST),
+                GROUND_STATION, 1000, b);
+        assertThat(service.getGroupCount()).isEqualTo(2);
+        service.subscribe(
+                SatelliteFactory.createSatellite(tle, Precision.FAST),
+                GROUND_STATION, 1000, c);
+        assertThat(service.getGroupCount()).isEqualTo(2);
+        service.shutdown();
+    }
+
+    @Test
+    public void testNoSamplesWithoutDemandAndCancelRemovesGroup()
+            throws InterruptedException {
+        final CountingSatellite satellite = new CountingSatellite(
+                SatelliteFactory.createSatellite(new TLE(LEO_TLE)));
+        final TrackingService service = new TrackingService();
+        final RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        final TrackingSubscription subscription = service.subscribe(
+                satellite, GROUND_STATION, 10, subscriber);
+        assertThat(subscriber.subscribed).isTrue();
+        // the ticks before the third propagation have been published
+        assertThat(satellite.propagations.tryAcquire(3, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.samples.size()).isEqualTo(0);
+        subscription.request(1);
+        assertThat(subscriber.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        satellite.propagations.drainPermits();
+        assertThat(satellite.propagations.tryAcquire(3, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.samples.size()).isEqualTo(1);
+        subscription.cancel();
+        assertThat(service.getGroupCount()).isEqualTo(0);
+        service.shutdown();
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.errors).isEmpty();
+    }
+
+    @Test
+    public void testShutdownDuringOnNextCompletesAfterIt()
+            throws InterruptedException {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final TrackingService service = new TrackingService();
+        final RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        subscriber.release = new CountDownLatch(1);
+        service.subscribe(satellite, GROUND_STATION, 10, subscriber).request(
+                Long.MAX_VALUE);
+        assertThat(subscriber.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        service.shutdown();
+        // onComplete waits for the onNext in progress on the scheduler thread
+        assertThat(subscriber.completed).isFalse();
+        subscriber.release.countDown();
+        assertThat(subscriber.completion.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.samples.size()).isEqualTo(1);
+        assertThat(subscriber.errors).isEmpty();
+    }
+
+    @Test
+    public void testThrowingSubscriberDoesNotStopTheOthers()
+            throws InterruptedException {
+        final Satellite satellite = SatelliteFactory.createSatellite(new TLE(
+                LEO_TLE));
+        final TrackingService service = new TrackingService();
+        final RecordingSubscriber thrower = new RecordingSubscriber(1);
+        final RuntimeException failure = new IllegalStateException("boom");
+        thrower.failure = failure;
+        final RecordingSubscriber healthy = new RecordingSubscriber(5);
+        service.subscribe(satellite, GROUND_STATION, 10, thrower).request(
+                Long.MAX_VALUE);
+        service.subscribe(satellite, GROUND_STATION, 10, healthy).request(
+                Long.MAX_VALUE);
+        assertThat(healthy.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getGroupCount()).isEqualTo(1);
+        service.shutdown();
+
+        assertThat(thrower.samples.size()).isEqualTo(1);
+        assertThat(thrower.errors).containsExactly(failure);
+        assertThat(thrower.completed).isFalse();
+        assertThat(healthy.completion.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(healthy.errors).isEmpty();
+    }
+
+    private static final class RecordingSubscriber implements
+            TrackingSubscriber {
+
+        final List<TrackingSample> samples = new CopyOnWriteArrayList<TrackingSample>();
+        /** Errors received and breaches of the subscriber contract. */
+        final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+        final CountDownLatch latch;
+        final CountDownLatch completion = new CountDownLatch(1);
+        final CountDownLatch entered = new CountDownLatch(1);
+        /** If set onNext blocks until it is counted down. */
+        volatile CountDownLatch release;
+        /** If set onNext throws it after recording the sample. */
+        volatile RuntimeException failure;
+        volatile boolean subscribed;
+        volatile boolean completed;
+        private final AtomicBoolean inCall = new AtomicBoolean();
+
+        RecordingSubscriber(final int expected) {
+            this.latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onSubscribe(final TrackingSubscription subscription) {
+            subscribed = true;
+        }
+
+        @Override
+        public void onNext(final TrackingSample sample) {
+            enter();
+            samples.add(sample);
+            latch.countDown();
+            entered.countDown();
+            final CountDownLatch r = release;
+            if (r != null) {
+                try {
+                    r.await();
+                } catch (final InterruptedException e) {
+                    errors.add(e);
+                }
+            }
+            exit();
+            final RuntimeException f = failure;
+            if (f != null) {
+                throw f;
+            }
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            enter();
+            errors.add(error);
+            exit();
+        }
+
+        @Override
+        public void onComplete() {
+            enter();
+            completed = true;
+            exit();
+            completion.countDown();
+        }
+
+        private void enter() {
+            if (!inCall.compareAndSet(false, true)) {
+                errors.add(new AssertionError("concurrent call"));
+            }
+            if (completed) {
+                errors.add(new AssertionError("call after onComplete"));
+            }
+        }
+
+        private void exit() {
+            inCall.set(false);
+        }
+    }
+
+    private static final class CountingSatellite implements Satellite,
+            StateVectorSource {
+
+        private final Satellite satellite;
+        final AtomicInteger count = new AtomicInteger();
+        final Semaphore propagations = new Semaphore(0);
+
+        CountingSatellite(final Satellite satellite) {
+            this.satellite = satellite;
+        }
+
+        @Override
+        public boolean willBeSeen(final GroundStationPosition qth) {
+            return satellite.willBeSeen(qth);
+        }
+
+        @Override
+        public void calculateSatelliteVectors(final Date time) {
+            satellite.calculateSatelliteVectors(time);
+        }
+
+        @Override
+        public void calculateSatelliteVectors(final long timeMillis,
+                final double[] eciState) {
+            count.incrementAndGet();
+            AbstractSatellite.stateVectors(satellite)
+                    .calculateSatelliteVectors(timeMillis, eciState);
+            propagations.release();
+        }
+
+        @Override
+        public SatPos calculateSatelliteGroundTrack() {
+            return satellite.calculateSatelliteGroundTrack();
+        }
+
+        @Override
+        public SatPos calculateSatPosForGroundStation(
+                final GroundStationPosition gsPos) {
+            return satellite.calculateSatPosForGroundStation(gsPos);
+        }
+
+        @Override
+        public TLE getTLE() {
+            return satellite.getTLE();
+        }
+
+        @Override
+        public SatPos getPosition(final GroundStationPosition qth,
+                final Date time) {
+            return satellite.getPosition(qth, time);
+        }
+    }
+}
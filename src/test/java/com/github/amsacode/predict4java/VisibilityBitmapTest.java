@@ -0,0 +1,141 @@
+package com.github.amsacode.predict4java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public final class VisibilityBitmapTest extends AbstractSatelliteTestBase {
+
+    private static final long START = new DateTime("2009-12-26T00:00:00Z")
+            .getMillis();
+    private static final long STEP = 30000;
+
+    @Test
+    public void testFromPassesMatchesSampling() throws Exception {
+        final TLE tle = new TLE(LEO_TLE);
+        final int size = 2 * 24 * 120 + 17;
+        final List<SatPassTime> passes = new PassPredictor(tle, GROUND_STATION)
+                .getPasses(new Date(START), 48, false);
+        final VisibilityBitmap fromPasses = VisibilityBitmap.fromPasses(passes,
+                START, STEP, size);
+        final VisibilityBitmap sampled = VisibilityBitmap.sample(
+                SatelliteFactory.createSatellite(tle), GROUND_STATION, START,
+                STEP, size);
+        for (int i = 0; i < size; i++) {
+            final long time = START + i * STEP;
+            boolean inPass = false;
+            for (final SatPassTime pass : passes) {
+                inPass |= pass.getStartTime().getTime() <= time
+                        && time <= pass.getEndTime().getTime();
+            }
+            assertThat(fromPasses.get(i)).isEqualTo(inPass);
+        }
+        assertThat(fromPasses.cardinality()).isGreaterThan(0);
+        // the pass search finds the edges to within a few seconds
+        assertThat(fromPasses.andNot(sampled).or(sampled.andNot(fromPasses)).cardinality())
+                .isLessThanOrEqualTo(2 * passes.size());
+        int inWindow = 0;
+        for (final SatPassTime pass : passes) {
+            inWindow += pass.getStartTime().getTime() <= START + (size - 1)
+                    * STEP ? 1 : 0;
+        }
+        assertThat(fromPasses.toIntervals().size()).isEqualTo(inWindow);
+    }
+
+    @Test
+    public void testOperationsMatchBruteForce() {
+        final Random random = new Random(3);
+        for (final int size : new int[] { 1, 63, 64, 65, 1000 }) {
+            final List<VisibilityBitmap> bitmaps = new ArrayList<VisibilityBitmap>();
+            final List<boolean[]> bits = new ArrayList<boolean[]>();
+            for (int b = 0; b < 9; b++) {
+                final List<SatPassTime> passes = new ArrayList<SatPassTime>();
+                long time = START - 5 * STEP;
+                while (time < START + size * STEP) {
+                    time += random.nextInt(40) * STEP / 3;
+                    final long end = time + random.nextInt(30) * STEP / 2;
+                    passes.add(new SatPassTime(new Date(time), new Date(end),
+                            "none", 0, 0, 10));
+                    time = end + 1;
+                }
+                final VisibilityBitmap bitmap = VisibilityBitmap.fromPasses(
+                        passes, START, STEP, size);
+                bitmaps.add(bitmap);
+                final boolean[] b2 = new boolean[size];
+                for (int i = 0; i < size; i++) {
+                    b2[i] = bitmap.get(i);
+                }
+                bits.add(b2);
+            }
+            final VisibilityBitmap a = bitmaps.get(0);
+            final VisibilityBitmap b = bitmaps.get(1);
+            for (int i = 0; i < size; i++) {
+                final boolean x = bits.get(0)[i];
+                final boolean y = bits.get(1)[i];
+                assertThat(a.and(b).get(i)).isEqualTo(x && y);
+                assertThat(a.or(b).get(i)).isEqualTo(x || y);
+                assertThat(a.andNot(b).get(i)).isEqualTo(x && !y);
+                assertThat(a.not().get(i)).isEqualTo(!x);
+            }
+            assertThat(a.or(a.not()).cardinality()).isEqualTo(size);
+            for (int k = 1; k <= 10; k++) {
+                final VisibilityBitmap atLeast = VisibilityBitmap.atLeast(k,
+                        bitmaps);
+                int set = 0;
+                for (int i = 0; i < size; i++) {
+                    int count = 0;
+                    for (final boolean[] b2 : bits) {
+                        count += b2[i] ? 1 : 0;
+                    }
+                    assertThat(atLeast.get(i)).isEqualTo(count >= k);
+                    set += count >= k ? 1 : 0;
+                    assertThat(VisibilityBitmap.and(bitmaps).get(i)).isEqualTo(count == bits.size());
+                    assertThat(VisibilityBitmap.or(bitmaps).get(i)).isEqualTo(count > 0);
+                }
+                assertThat(atLeast.cardinality()).isEqualTo(set);
+            }
+        }
+    }
+
+    @Test
+    public void testToIntervals() {
+        final long[][] runs = { { 0, 0 }, { 2, 70 }, { 128, 191 }, { 199, 199 } };
+        final List<SatPassTime> passes = new ArrayList<SatPassTime>();
+        for (final long[] run : runs) {
+            passes.add(new SatPassTime(new Date(START + run[0] * STEP),
+                    new Date(START + run[1] * STEP), "none", 0, 0, 10));
+        }
+        final VisibilityBitmap bitmap = VisibilityBitmap.fromPasses(passes,
+                START, STEP, 200);
+        final List<VisibilityInterval> intervals = bitmap.toIntervals();
+        assertThat(intervals.size()).isEqualTo(runs.length);
+        for (int i = 0; i < runs.length; i++) {
+            assertThat(intervals.get(i).getStart()).isEqualTo(START + runs[i][0] * STEP);
+            assertThat(intervals.get(i).getEnd()).isEqualTo(START + runs[i][1] * STEP);
+        }
+        final List<VisibilityInterval> gaps = bitmap.not().toIntervals();
+        assertThat(gaps.size()).isEqualTo(3);
+        assertThat(gaps.get(1).getStart()).isEqualTo(START + 71 * STEP);
+        assertThat(gaps.get(1).getEnd()).isEqualTo(START + 127 * STEP);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentStepsCannotBeCombined() {
+        final List<SatPassTime> none = new ArrayList<SatPassTime>();
+        VisibilityBitmap.fromPasses(none, START, STEP, 10).and(
+                VisibilityBitmap.fromPasses(none, START, STEP * 2, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyListIsRejected() {
+        VisibilityBitmap.atLeast(1, Arrays.<VisibilityBitmap> asList());
+    }
+
+}